@@ -0,0 +1,344 @@
+package dev.somdip.containerplatform.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.request.RequestContextHolder;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryUtils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Paces AWS calls per service so the platform's own jobs do not throttle each other.
+ *
+ * Each governed service has a token bucket ({@code app.aws.governor.<service>.rate} calls per
+ * second, {@code .burst} deep), where {@code <service>} is the SDK service id in lower case
+ * without spaces ({@code ecs}, {@code cloudwatch}, {@code cloudwatchlogs}, ...). Services without
+ * a configured rate are not governed. The rate adapts AIMD-style: a throttling response halves
+ * it (at most once per second, never below a tenth of the configured rate) and every second
+ * without throttling gives back a slice of the configured rate.
+ *
+ * Calls run in one of two lanes. Interactive calls (made on an HTTP request thread, or inside
+ * {@link #withLane}) may use the whole bucket and wait at most a short time before going ahead
+ * anyway. Background calls cannot dip into the share of the bucket reserved for interactive
+ * calls, and fail with an {@link SdkClientException} if no budget frees up in time. Work handed
+ * to another thread on behalf of a user has to carry its lane over with {@link #withLane}.
+ *
+ * Long-running jobs that would otherwise drain a service's bucket can be given a bucket of their
+ * own with {@link #withBudget}: their calls are then charged to
+ * {@code app.aws.governor.<service>.<budget>.rate}/{@code .burst} instead, and wait for it as long
+ * as it takes rather than going ahead or failing. Without such a rate the shared bucket is used.
+ */
+public class AwsCallGovernor implements ExecutionInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(AwsCallGovernor.class);
+
+    public enum Lane { INTERACTIVE, BACKGROUND }
+
+    /**
+     * A call that may throw a checked exception, for {@link #withBudget}
+     */
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private static final ThreadLocal<Lane> LANE = new ThreadLocal<>();
+    private static final ThreadLocal<String> BUDGET = new ThreadLocal<>();
+    private static final ExecutionAttribute<Budget> CHARGED_BUDGET = new ExecutionAttribute<>("AwsCallGovernor.Budget");
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Optional<Budget>> budgets = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final double interactiveReserve;
+    private final long interactiveMaxWaitNanos;
+    private final long backgroundMaxWaitNanos;
+    private final double decreaseFactor;
+    private final double increasePerSecond;
+
+    public AwsCallGovernor(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.enabled = environment.getProperty("app.aws.governor.enabled", Boolean.class, true);
+        this.interactiveReserve = environment.getProperty("app.aws.governor.interactive-reserve", Double.class, 0.25);
+        this.interactiveMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(
+            environment.getProperty("app.aws.governor.interactive-max-wait-ms", Long.class, 2000L));
+        this.backgroundMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(
+            environment.getProperty("app.aws.governor.background-max-wait-ms", Long.class, 30000L));
+        this.decreaseFactor = environment.getProperty("app.aws.governor.decrease-factor", Double.class, 0.5);
+        this.increasePerSecond = environment.getProperty("app.aws.governor.increase-per-second", Double.class, 0.05);
+    }
+
+    /**
+     * Lane of calls made on this thread: the one set by {@link #withLane}, otherwise interactive
+     * on HTTP request threads and background everywhere else
+     */
+    public static Lane currentLane() {
+        Lane lane = LANE.get();
+        if (lane != null) {
+            return lane;
+        }
+        return RequestContextHolder.getRequestAttributes() != null ? Lane.INTERACTIVE : Lane.BACKGROUND;
+    }
+
+    /**
+     * Run with AWS calls on this thread in the given lane, e.g. to carry a user request's
+     * priority over to a worker thread
+     */
+    public static <T> T withLane(Lane lane, Supplier<T> call) {
+        Lane previous = LANE.get();
+        LANE.set(lane);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                LANE.remove();
+            } else {
+                LANE.set(previous);
+            }
+        }
+    }
+
+    public static void withLane(Lane lane, Runnable call) {
+        withLane(lane, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run with AWS calls on this thread in the given lane and charged to the named budget of
+     * their service, where one is configured
+     */
+    public static <T, E extends Exception> T withBudget(String budget, Lane lane, Call<T, E> call) throws E {
+        String previousBudget = BUDGET.get();
+        Lane previousLane = LANE.get();
+        BUDGET.set(budget);
+        LANE.set(lane);
+        try {
+            return call.call();
+        } finally {
+            if (previousBudget == null) {
+                BUDGET.remove();
+            } else {
+                BUDGET.set(previousBudget);
+            }
+            if (previousLane == null) {
+                LANE.remove();
+            } else {
+                LANE.set(previousLane);
+            }
+        }
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        Budget budget = budgetFor(executionAttributes);
+        if (budget != null) {
+            // Remembered for the callbacks below, which async clients run on other threads
+            executionAttributes.putAttribute(CHARGED_BUDGET, budget);
+            budget.acquire(currentLane());
+        }
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        // Individual throttled attempts the SDK is about to retry
+        int status = context.httpResponse().statusCode();
+        boolean throttled = status == 429 || context.httpResponse().firstMatchingHeader("x-amzn-ErrorType")
+            .map(type -> type.startsWith("Throttling"))
+            .orElse(false);
+        if (throttled) {
+            Budget budget = executionAttributes.getAttribute(CHARGED_BUDGET);
+            if (budget != null) {
+                budget.onThrottle();
+            }
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        Budget budget = executionAttributes.getAttribute(CHARGED_BUDGET);
+        if (budget != null) {
+            budget.onSuccess();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Throwable error = context.exception();
+        if (error instanceof SdkException && RetryUtils.isThrottlingException((SdkException) error)) {
+            Budget budget = executionAttributes.getAttribute(CHARGED_BUDGET);
+            if (budget != null) {
+                budget.onThrottle();
+            }
+        }
+    }
+
+    private Budget budgetFor(ExecutionAttributes executionAttributes) {
+        if (!enabled) {
+            return null;
+        }
+        String serviceId = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        if (serviceId == null) {
+            return null;
+        }
+        String service = serviceId.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        String named = BUDGET.get();
+        if (named != null) {
+            Budget budget = budgets.computeIfAbsent(service + "." + named, key -> createBudget(key, true)).orElse(null);
+            if (budget != null) {
+                return budget;
+            }
+        }
+        return budgets.computeIfAbsent(service, key -> createBudget(key, false)).orElse(null);
+    }
+
+    private Optional<Budget> createBudget(String name, boolean dedicated) {
+        Double rate = environment.getProperty("app.aws.governor." + name + ".rate", Double.class);
+        if (rate == null || rate <= 0) {
+            return Optional.empty();
+        }
+        double burst = environment.getProperty("app.aws.governor." + name + ".burst", Double.class, rate);
+        log.info("Governing AWS {} calls at {}/s (burst {})", name, rate, burst);
+        return Optional.of(new Budget(name, rate, Math.max(1, burst), dedicated));
+    }
+
+    private final class Budget {
+        private final String service;
+        private final double configuredRate;
+        private final double minRate;
+        private final double burst;
+        private final boolean dedicated;
+        private final Timer interactiveWait;
+        private final Timer backgroundWait;
+        private final Counter rejected;
+        private final Counter throttles;
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos;
+        private long lastDecreaseNanos;
+        private long lastIncreaseNanos;
+
+        private Budget(String service, double rate, double burst, boolean dedicated) {
+            this.service = service;
+            this.configuredRate = rate;
+            this.minRate = rate / 10;
+            this.burst = burst;
+            this.dedicated = dedicated;
+            this.rate = rate;
+            this.tokens = burst;
+            long now = System.nanoTime();
+            this.lastRefillNanos = now;
+            this.lastDecreaseNanos = now - TimeUnit.SECONDS.toNanos(1);
+            this.lastIncreaseNanos = now;
+
+            this.interactiveWait = waitTimer(Lane.INTERACTIVE);
+            this.backgroundWait = waitTimer(Lane.BACKGROUND);
+            this.rejected = Counter.builder("aws.governor.rejected")
+                .description("Background AWS calls that gave up waiting for budget")
+                .tag("service", service)
+                .register(meterRegistry);
+            this.throttles = Counter.builder("aws.governor.throttles")
+                .tag("service", service)
+                .register(meterRegistry);
+            Gauge.builder("aws.governor.rate", this, b -> b.rate)
+                .tag("service", service)
+                .register(meterRegistry);
+        }
+
+        private Timer waitTimer(Lane lane) {
+            return Timer.builder("aws.governor.wait")
+                .tag("service", service)
+                .tag("lane", lane.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+
+        private void acquire(Lane lane) {
+            long start = System.nanoTime();
+            long maxWait = dedicated ? Long.MAX_VALUE
+                : lane == Lane.INTERACTIVE ? interactiveMaxWaitNanos : backgroundMaxWaitNanos;
+            while (true) {
+                long waitNanos = tryAcquire(lane);
+                long waited = System.nanoTime() - start;
+                if (waitNanos == 0) {
+                    (lane == Lane.INTERACTIVE ? interactiveWait : backgroundWait).record(waited, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                if (waited > maxWait - waitNanos) {
+                    if (lane == Lane.INTERACTIVE) {
+                        // User requests go ahead rather than fail; the SDK still retries throttles
+                        interactiveWait.record(waited, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                    rejected.increment();
+                    throw SdkClientException.create("AWS " + service + " call budget exhausted for background work");
+                }
+                LockSupport.parkNanos(waitNanos);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw SdkClientException.create("Interrupted while waiting for AWS " + service + " call budget");
+                }
+            }
+        }
+
+        /**
+         * Take a token if the lane may; otherwise the nanoseconds until it could
+         */
+        private synchronized long tryAcquire(Lane lane) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * rate);
+            lastRefillNanos = now;
+
+            // A dedicated bucket has no other users to reserve anything for
+            double floor = dedicated || lane == Lane.INTERACTIVE ? 0 : burst * interactiveReserve;
+            if (tokens - 1 >= floor) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((floor + 1 - tokens) / rate * 1e9));
+        }
+
+        private synchronized void onThrottle() {
+            throttles.increment();
+            long now = System.nanoTime();
+            // One burst of throttled calls counts as a single congestion signal
+            if (now - lastDecreaseNanos < TimeUnit.SECONDS.toNanos(1)) {
+                return;
+            }
+            lastDecreaseNanos = now;
+            lastIncreaseNanos = now;
+            rate = Math.max(minRate, rate * decreaseFactor);
+            tokens = Math.min(tokens, 0);
+            log.debug("AWS {} throttled, pacing at {}/s", service, rate);
+        }
+
+        private synchronized void onSuccess() {
+            long now = System.nanoTime();
+            double seconds = (now - lastIncreaseNanos) / 1e9;
+            if (rate >= configuredRate || seconds < 1) {
+                return;
+            }
+            lastIncreaseNanos = now;
+            rate = Math.min(configuredRate, rate + configuredRate * increasePerSecond * seconds);
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package dev.somdip.containerplatform.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
 import software.amazon.awssdk.services.codebuild.CodeBuildClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
@@ -19,9 +28,12 @@ import software.amazon.awssdk.services.elasticloadbalancingv2.ElasticLoadBalanci
 import software.amazon.awssdk.services.route53.Route53Client;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+
 
 @Configuration
 
@@ -32,6 +44,35 @@ public class AwsConfig {
     @Value("${aws.region}")
     private String awsRegion;
 
+    private final AwsCallGovernor callGovernor;
+    private final AwsSdkMetricsInterceptor metricsInterceptor;
+    private final SdkHttpClient httpClient;
+
+    public AwsConfig(MeterRegistry meterRegistry,
+                     Environment environment,
+                     @Value("${app.aws.http.max-connections:200}") int maxConnections,
+                     @Value("${app.aws.http.connection-timeout-ms:2000}") long connectionTimeoutMillis,
+                     @Value("${app.aws.http.socket-timeout-ms:30000}") long socketTimeoutMillis,
+                     @Value("${app.aws.http.acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
+        this.callGovernor = new AwsCallGovernor(environment, meterRegistry);
+        this.metricsInterceptor = new AwsSdkMetricsInterceptor(meterRegistry);
+        // One connection pool for every client instead of a default-sized pool per client
+        this.httpClient = ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMillis))
+                .socketTimeout(Duration.ofMillis(socketTimeoutMillis))
+                .connectionAcquisitionTimeout(Duration.ofMillis(acquireTimeoutMillis))
+                .connectionMaxIdleTime(Duration.ofSeconds(60))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(true)
+                .build();
+    }
+
+    @PreDestroy
+    public void closeHttpClient() {
+        httpClient.close();
+    }
+
     @Bean
     @Primary
     public AwsCredentialsProvider awsCredentialsProvider() {
@@ -50,6 +91,8 @@ public class AwsConfig {
         return EcsClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -59,6 +102,8 @@ public class AwsConfig {
         return DynamoDbClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -68,6 +113,8 @@ public class AwsConfig {
         return S3Client.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -77,6 +124,8 @@ public class AwsConfig {
         return SecretsManagerClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -86,6 +135,8 @@ public class AwsConfig {
         return CloudWatchClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -95,6 +146,23 @@ public class AwsConfig {
         return CloudWatchLogsClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
+                .build();
+    }
+
+    /**
+     * Only for StartLiveTail, an event stream that needs the async (HTTP/2) client; it keeps
+     * the SDK's own Netty client rather than the shared Apache pool
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.logs.source", havingValue = "live-tail", matchIfMissing = true)
+    public CloudWatchLogsAsyncClient cloudWatchLogsAsyncClient(AwsCredentialsProvider credentialsProvider, Region region) {
+        log.info("Creating CloudWatch Logs async client for region: {}", region);
+        return CloudWatchLogsAsyncClient.builder()
+                .region(region)
+                .credentialsProvider(credentialsProvider)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -104,6 +172,8 @@ public class AwsConfig {
         return ElasticLoadBalancingV2Client.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -112,6 +182,8 @@ public class AwsConfig {
         log.info("Creating Route53 client");
         return Route53Client.builder()
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .region(Region.AWS_GLOBAL) // Route53 is a global service
                 .build();
     }
@@ -122,6 +194,8 @@ public class AwsConfig {
         return EcrClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -131,6 +205,8 @@ public class AwsConfig {
         return Ec2Client.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
                 .build();
     }
 
@@ -140,6 +216,31 @@ public class AwsConfig {
         return CodeBuildClient.builder()
                 .region(region)
                 .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
+                .build();
+    }
+
+    @Bean
+    public SqsClient sqsClient(AwsCredentialsProvider credentialsProvider, Region region) {
+        log.info("Creating SQS client for region: {}", region);
+        return SqsClient.builder()
+                .region(region)
+                .credentialsProvider(credentialsProvider)
+                .httpClient(httpClient)
+                .overrideConfiguration(clientOverrides())
+                .build();
+    }
+
+    /**
+     * Settings shared by every client: the call governor (first, so its waits are not timed as
+     * call latency), SDK call metrics, and adaptive retries that also slow down on throttling
+     */
+    private ClientOverrideConfiguration clientOverrides() {
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(callGovernor)
+                .addExecutionInterceptor(metricsInterceptor)
+                .retryStrategy(RetryMode.ADAPTIVE_V2)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package dev.somdip.containerplatform.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every AWS SDK call made through the clients in {@link AwsConfig}:
+ * <ul>
+ *   <li>{@code aws.sdk.call.duration} (timer) and {@code aws.sdk.calls} (counter), tagged with
+ *       service, operation, outcome ({@code success} or {@code error}) and whether the call
+ *       ultimately failed with a throttling error</li>
+ *   <li>{@code aws.sdk.call.retries}, the number of retried attempts per service and operation</li>
+ * </ul>
+ * Durations cover the whole call including SDK retries and backoff.
+ */
+public class AwsSdkMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("MetricsStartNanos");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("MetricsAttempts");
+
+    private final MeterRegistry meterRegistry;
+
+    public AwsSdkMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        Integer attempts = executionAttributes.getAttribute(ATTEMPTS);
+        int attempt = attempts == null ? 1 : attempts + 1;
+        executionAttributes.putAttribute(ATTEMPTS, attempt);
+        if (attempt > 1) {
+            Counter.builder("aws.sdk.call.retries")
+                .tag("service", service(executionAttributes))
+                .tag("operation", operation(executionAttributes))
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, "success", false);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        Throwable error = context.exception();
+        boolean throttled = error instanceof SdkException && RetryUtils.isThrottlingException((SdkException) error);
+        record(executionAttributes, "error", throttled);
+    }
+
+    private void record(ExecutionAttributes executionAttributes, String outcome, boolean throttled) {
+        String service = service(executionAttributes);
+        String operation = operation(executionAttributes);
+        String throttledTag = String.valueOf(throttled);
+
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (start != null) {
+            Timer.builder("aws.sdk.call.duration")
+                .tag("service", service)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("throttled", throttledTag)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        Counter.builder("aws.sdk.calls")
+            .tag("service", service)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .tag("throttled", throttledTag)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static String service(ExecutionAttributes executionAttributes) {
+        String service = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        return service != null ? service : "unknown";
+    }
+
+    private static String operation(ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "unknown";
+    }
+}
@@ -17,17 +17,27 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    // Prometheus scrapes from inside the VPC; anything that came through the ALB carries X-Forwarded-For
+    private static final List<IpAddressMatcher> PRIVATE_NETWORKS = List.of(
+        new IpAddressMatcher("10.0.0.0/8"),
+        new IpAddressMatcher("172.16.0.0/12"),
+        new IpAddressMatcher("192.168.0.0/16"),
+        new IpAddressMatcher("127.0.0.1/32"));
+
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final CustomUserDetailsService userDetailsService;
 
@@ -96,6 +106,7 @@ public class SecurityConfig {
                 .requestMatchers("/webhooks/github").permitAll()  // GitHub webhooks
                 .requestMatchers("/health", "/health/**").permitAll()
                 .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers(r -> "/actuator/prometheus".equals(r.getRequestURI()) && isInternalRequest(r)).permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/favicon.ico").permitAll()
                 .requestMatchers("/about", "/contact", "/terms", "/privacy", "/refund").permitAll()
@@ -134,6 +145,11 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private static boolean isInternalRequest(HttpServletRequest request) {
+        return request.getHeader("X-Forwarded-For") == null &&
+            PRIVATE_NETWORKS.stream().anyMatch(network -> network.matches(request.getRemoteAddr()));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -24,6 +24,10 @@ public class WebSocketConfig implements WebSocketConfigurer {
                 .addHandler(metricsHandler, "/ws/metrics")
                 .setAllowedOrigins("*")
                 .withSockJS(); // Fallback for browsers that don't support WebSocket
+
+        // Plain websocket endpoint for clients that negotiate binary metrics frames
+        registry.addHandler(metricsHandler, "/ws/metrics-native")
+                .setAllowedOrigins("*");
     }
 
     @Bean
@@ -1,5 +1,6 @@
 package dev.somdip.containerplatform.controller;
 
+import dev.somdip.containerplatform.config.AwsCallGovernor;
 import dev.somdip.containerplatform.dto.container.CreateContainerRequest;
 import dev.somdip.containerplatform.dto.container.UpdateContainerRequest;
 import dev.somdip.containerplatform.dto.container.ContainerResponse;
@@ -15,17 +16,31 @@ import dev.somdip.containerplatform.service.LogStreamingService;
 import dev.somdip.containerplatform.service.MetricsService;
 import dev.somdip.containerplatform.service.UsageTrackingService;
 import dev.somdip.containerplatform.service.UserService;
+import dev.somdip.containerplatform.service.logs.LogExportWriter;
+import dev.somdip.containerplatform.service.logs.LogFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @RestController
@@ -33,6 +48,8 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ContainerController {
     private static final Logger log = LoggerFactory.getLogger(ContainerController.class);
+    private static final Pattern PERIOD_PATTERN = Pattern.compile("(\\d{1,6})([mhd])");
+    private static final String LOG_EXPORT_BUDGET = "export";
 
     private final ContainerService containerService;
     private final DeploymentRepository deploymentRepository;
@@ -40,19 +57,22 @@ public class ContainerController {
     private final MetricsService metricsService;
     private final UsageTrackingService usageTrackingService;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     public ContainerController(ContainerService containerService,
                              DeploymentRepository deploymentRepository,
                              LogStreamingService logStreamingService,
                              MetricsService metricsService,
                              UsageTrackingService usageTrackingService,
-                             UserService userService) {
+                             UserService userService,
+                             ObjectMapper objectMapper) {
         this.containerService = containerService;
         this.deploymentRepository = deploymentRepository;
         this.logStreamingService = logStreamingService;
         this.metricsService = metricsService;
         this.usageTrackingService = usageTrackingService;
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -63,6 +83,22 @@ public class ContainerController {
         return userDetails.getUserId();
     }
 
+    /**
+     * Parse a metrics period like 30m, 6h or 30d; anything else means one hour
+     */
+    private Duration parsePeriod(String period) {
+        Matcher matcher = PERIOD_PATTERN.matcher(period != null ? period.trim() : "");
+        if (!matcher.matches()) {
+            return Duration.ofHours(1);
+        }
+        long amount = Math.max(1, Long.parseLong(matcher.group(1)));
+        return switch (matcher.group(2)) {
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            default -> Duration.ofDays(Math.min(amount, 366));
+        };
+    }
+
     @PostMapping
     public ResponseEntity<ContainerResponse> createContainer(
             @Valid @RequestBody CreateContainerRequest request,
@@ -290,6 +326,7 @@ public class ContainerController {
     public ResponseEntity<Map<String, Object>> getContainerLogs(
             @PathVariable String containerId,
             @RequestParam(defaultValue = "100") int lines,
+            @RequestParam(required = false) String search,
             Authentication authentication) {
         try {
             Container container = containerService.getContainer(containerId);
@@ -297,9 +334,13 @@ public class ContainerController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
-            // Fetch logs from CloudWatch
+            // Fetch logs from the recent lines cache, or CloudWatch
             log.info("Fetching {} lines of logs for container: {}", lines, containerId);
-            String logs = logStreamingService.getLatestLogs(containerId, lines);
+            // A search covers the recent window; served from the cache while the container is tailed
+            LogFilter searchFilter = LogFilter.compile(search);
+            String logs = searchFilter != null
+                ? String.join("\n", logStreamingService.searchRecentLogs(containerId, searchFilter, lines))
+                : logStreamingService.getLatestLogs(containerId, lines);
 
             Map<String, Object> response = Map.of(
                 "containerId", containerId,
@@ -325,6 +366,72 @@ public class ContainerController {
         }
     }
 
+    /**
+     * Download a container's logs between two instants (default: the last hour) as NDJSON or
+     * plain text, optionally gzipped. Pages are written as CloudWatch returns them, so the
+     * range can be arbitrarily large; the export stops if the client disconnects.
+     */
+    @GetMapping("/{containerId}/logs/export")
+    public ResponseEntity<StreamingResponseBody> exportContainerLogs(
+            @PathVariable String containerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant end,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) String level,
+            Authentication authentication) {
+        Container container;
+        try {
+            container = containerService.getContainer(containerId);
+        } catch (IllegalArgumentException e) {
+            log.warn("Container not found: {}", containerId);
+            return ResponseEntity.notFound().build();
+        }
+        if (!container.getUserId().equals(getUserId(authentication))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Instant rangeEnd = end != null ? end : Instant.now();
+        Instant rangeStart = start != null ? start : rangeEnd.minus(Duration.ofHours(1));
+        LogExportWriter.Format exportFormat;
+        LogFilter logFilter;
+        try {
+            exportFormat = LogExportWriter.Format.parse(format);
+            Map<String, Object> filterSpec = new HashMap<>();
+            filterSpec.put("text", filter);
+            filterSpec.put("level", level);
+            logFilter = LogFilter.compile(filterSpec);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!rangeStart.isBefore(rangeEnd)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // The body is written on an async thread: carry this request's lane over, and charge the
+        // export to its own CloudWatch Logs budget so a long export cannot starve the log viewers
+        AwsCallGovernor.Lane lane = AwsCallGovernor.currentLane();
+        StreamingResponseBody body = out -> {
+            long startedAt = System.currentTimeMillis();
+            try (LogExportWriter writer = new LogExportWriter(out, exportFormat, gzip, logFilter, objectMapper)) {
+                long read = AwsCallGovernor.withBudget(LOG_EXPORT_BUDGET, lane, () -> logStreamingService.forEachLogPage(
+                    containerId, rangeStart, rangeEnd, logFilter != null ? logFilter.toFilterPattern() : null, writer::writePage));
+                log.info("Exported {} of {} log events for container {} in {} ms",
+                    writer.getWritten(), read, containerId, System.currentTimeMillis() - startedAt);
+            } catch (IOException e) {
+                // Client disconnected or the request was cancelled; nothing left to write to
+                log.info("Log export for container {} stopped: {}", containerId, e.getMessage());
+            }
+        };
+
+        String filename = container.getName() + "-logs." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
     @GetMapping("/{containerId}/metrics")
     public ResponseEntity<Map<String, Object>> getContainerMetrics(
             @PathVariable String containerId,
@@ -342,12 +449,13 @@ public class ContainerController {
                 Collections.singletonList(containerId)
             );
 
-            // Add container metadata to response
+            // Add container metadata and usage history for the period to response
             Map<String, Object> response = Map.of(
                 "containerId", containerId,
                 "containerName", container.getName(),
                 "status", container.getStatus(),
                 "metrics", metrics.get(containerId),
+                "history", metricsService.getContainerHistory(containerId, parsePeriod(period)),
                 "period", period,
                 "timestamp", System.currentTimeMillis()
             );
@@ -7,6 +7,7 @@ import dev.somdip.containerplatform.model.User;
 import dev.somdip.containerplatform.security.CustomUserDetails;
 import dev.somdip.containerplatform.service.ContainerService;
 import dev.somdip.containerplatform.service.LogStreamingService;
+import dev.somdip.containerplatform.service.logs.LogFilter;
 import dev.somdip.containerplatform.service.UsageTrackingService;
 import dev.somdip.containerplatform.service.UserService;
 import jakarta.validation.Valid;
@@ -127,6 +128,7 @@ public class WebApiController {
     public ResponseEntity<Map<String, Object>> getContainerLogs(
             @PathVariable String containerId,
             @RequestParam(defaultValue = "100") int lines,
+            @RequestParam(required = false) String search,
             Authentication authentication) {
         try {
             // Verify ownership
@@ -135,7 +137,11 @@ public class WebApiController {
                 return ResponseEntity.status(403).build();
             }
 
-            String logs = logStreamingService.getLatestLogs(containerId, lines);
+            // A search covers the recent window; served from the cache while the container is tailed
+            LogFilter searchFilter = LogFilter.compile(search);
+            String logs = searchFilter != null
+                ? String.join("\n", logStreamingService.searchRecentLogs(containerId, searchFilter, lines))
+                : logStreamingService.getLatestLogs(containerId, lines);
 
             return ResponseEntity.ok(Map.of(
                 "containerId", containerId,
@@ -122,7 +122,7 @@ public class WebController {
 
             // Get dashboard statistics using current containers
             DashboardStats stats = dashboardService.getDashboardStats(userId);
-            Map<String, List<Double>> usageHistory = dashboardService.getResourceUsageHistory(containers, 7);
+            Map<String, List<Double>> usageHistory = dashboardService.getResourceUsageHistory(userId, containers, 7);
             List<RecentActivity> recentActivity = dashboardService.getRecentActivity(userId, 3);
 
             // Get usage limit info for FREE tier
@@ -21,6 +21,13 @@ public class ContainerMetrics {
     private Instant timestamp;
     private String status;
     
+    // Load balancer metrics, null while the container shares a target group
+    private Double requestsPerMinute;
+    private Double responseTimeP50Ms;
+    private Double responseTimeP90Ms;
+    private Double responseTimeP99Ms;
+    private Double http5xxPerMinute;
+    
     // Calculated fields
     public double getCpuUsageVCores() {
         return (cpuUsage / 100.0) * (cpuLimit / 1024.0);
@@ -1,10 +1,13 @@
 package dev.somdip.containerplatform.dto.deployment;
 
+import dev.somdip.containerplatform.model.Container;
 import dev.somdip.containerplatform.service.ContainerHealthCheckService;
 import java.time.Instant;
 
 public class HealthStatusResponse {
     private String containerId;
+    private Container.HealthState state;
+    private Instant stateChangedAt;
     private boolean healthy;
     private int consecutiveFailures;
     private int consecutiveSuccesses;
@@ -15,6 +18,8 @@ public class HealthStatusResponse {
     public static HealthStatusResponse from(ContainerHealthCheckService.HealthStatus status) {
         HealthStatusResponse response = new HealthStatusResponse();
         response.containerId = status.getContainerId();
+        response.state = status.getState();
+        response.stateChangedAt = status.getStateChangedAt();
         response.healthy = status.isHealthy();
         response.consecutiveFailures = status.getConsecutiveFailures();
         response.consecutiveSuccesses = status.getConsecutiveSuccesses();
@@ -31,6 +36,10 @@ public class HealthStatusResponse {
     // Getters and setters
     public String getContainerId() { return containerId; }
     public void setContainerId(String containerId) { this.containerId = containerId; }
+    public Container.HealthState getState() { return state; }
+    public void setState(Container.HealthState state) { this.state = state; }
+    public Instant getStateChangedAt() { return stateChangedAt; }
+    public void setStateChangedAt(Instant stateChangedAt) { this.stateChangedAt = stateChangedAt; }
     public boolean isHealthy() { return healthy; }
     public void setHealthy(boolean healthy) { this.healthy = healthy; }
     public int getConsecutiveFailures() { return consecutiveFailures; }
@@ -37,6 +37,9 @@ public class Container {
     private ResourceUsage resourceUsage;
     private Boolean sslEnabled;
     private String sslCertificateArn;
+    private HealthState healthState;
+    private Instant healthStateChangedAt;
+    private Instant usageTrackedAt;
     
     
     
@@ -218,6 +221,30 @@ public class Container {
 		this.sslCertificateArn = sslCertificateArn;
 	}
 
+	public HealthState getHealthState() {
+		return healthState;
+	}
+
+	public void setHealthState(HealthState healthState) {
+		this.healthState = healthState;
+	}
+
+	public Instant getHealthStateChangedAt() {
+		return healthStateChangedAt;
+	}
+
+	public void setHealthStateChangedAt(Instant healthStateChangedAt) {
+		this.healthStateChangedAt = healthStateChangedAt;
+	}
+
+	public Instant getUsageTrackedAt() {
+		return usageTrackedAt;
+	}
+
+	public void setUsageTrackedAt(Instant usageTrackedAt) {
+		this.usageTrackedAt = usageTrackedAt;
+	}
+
 	public void setContainerId(String containerId) {
 		this.containerId = containerId;
 	}
@@ -278,6 +305,10 @@ public class Container {
         CREATING, STARTING, RUNNING, STOPPING, STOPPED, RESTARTING, FAILED, UPDATING, DELETING, DELETED
     }
 
+    public enum HealthState {
+        UNKNOWN, STARTING, HEALTHY, DEGRADED, UNHEALTHY
+    }
+
 
     @DynamoDbBean
     public static class HealthCheckConfig {
@@ -0,0 +1,45 @@
+package dev.somdip.containerplatform.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-user dashboard totals, kept up to date as containers and deployments change so the
+ * dashboard can be served from a single read. See {@code DashboardAggregateService}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardAggregate {
+    private String userId;
+    private long totalContainers;
+    private long runningContainers;
+    private long stoppedContainers;
+    private long totalCpuUnits;       // Allocated CPU units (1024 = 1 vCPU)
+    private long totalMemoryMb;       // Allocated memory
+    private double usedCpuVCores;     // Allocated vCPUs weighted by average CPU utilisation
+    private double usedMemoryMb;      // Allocated memory weighted by average memory utilisation
+    @Builder.Default
+    private List<RecentDeployment> recentDeployments = new ArrayList<>();
+    private long version;             // Bumped on every deployment list write and rebuild
+    private Instant updatedAt;
+    private Instant rebuiltAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecentDeployment {
+        private String deploymentId;
+        private String containerName;
+        private String status;
+        private Instant timestamp;
+    }
+}
@@ -0,0 +1,67 @@
+package dev.somdip.containerplatform.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.time.Instant;
+
+/**
+ * Snapshot of one user's platform usage for one UTC day. A user's rollups form a single
+ * item collection sorted by day, so trends over a few weeks are one small query.
+ */
+@DynamoDbBean
+public class DashboardRollup {
+
+    private String userId;                   // PK
+    private String day;                      // SK - ISO date (yyyy-MM-dd, UTC)
+    private Long containerCount;             // Containers at the end of the day
+    private Long runningContainers;          // Running containers at the end of the day
+    private Double runningHours;             // Container hours used during the day
+    private Double hoursUsedTotal;           // Lifetime container hours at the end of the day
+    private Long deployCount;                // Deployments started during the day
+    private Double avgCpuPercent;            // Daily mean, averaged over containers with samples
+    private Double avgMemoryPercent;         // Daily mean, averaged over containers with samples
+    private Double networkInBytesPerSecond;  // Daily mean, summed over containers
+    private Double networkOutBytesPerSecond; // Daily mean, summed over containers
+    private Instant createdAt;
+    private Long ttl;                        // Epoch seconds after which DynamoDB may drop the item
+
+    @DynamoDbPartitionKey
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    @DynamoDbSortKey
+    public String getDay() { return day; }
+    public void setDay(String day) { this.day = day; }
+
+    public Long getContainerCount() { return containerCount; }
+    public void setContainerCount(Long containerCount) { this.containerCount = containerCount; }
+
+    public Long getRunningContainers() { return runningContainers; }
+    public void setRunningContainers(Long runningContainers) { this.runningContainers = runningContainers; }
+
+    public Double getRunningHours() { return runningHours; }
+    public void setRunningHours(Double runningHours) { this.runningHours = runningHours; }
+
+    public Double getHoursUsedTotal() { return hoursUsedTotal; }
+    public void setHoursUsedTotal(Double hoursUsedTotal) { this.hoursUsedTotal = hoursUsedTotal; }
+
+    public Long getDeployCount() { return deployCount; }
+    public void setDeployCount(Long deployCount) { this.deployCount = deployCount; }
+
+    public Double getAvgCpuPercent() { return avgCpuPercent; }
+    public void setAvgCpuPercent(Double avgCpuPercent) { this.avgCpuPercent = avgCpuPercent; }
+
+    public Double getAvgMemoryPercent() { return avgMemoryPercent; }
+    public void setAvgMemoryPercent(Double avgMemoryPercent) { this.avgMemoryPercent = avgMemoryPercent; }
+
+    public Double getNetworkInBytesPerSecond() { return networkInBytesPerSecond; }
+    public void setNetworkInBytesPerSecond(Double networkInBytesPerSecond) { this.networkInBytesPerSecond = networkInBytesPerSecond; }
+
+    public Double getNetworkOutBytesPerSecond() { return networkOutBytesPerSecond; }
+    public void setNetworkOutBytesPerSecond(Double networkOutBytesPerSecond) { this.networkOutBytesPerSecond = networkOutBytesPerSecond; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Long getTtl() { return ttl; }
+    public void setTtl(Long ttl) { this.ttl = ttl; }
+}
@@ -0,0 +1,27 @@
+package dev.somdip.containerplatform.repository;
+
+import dev.somdip.containerplatform.model.Container;
+
+/**
+ * Published by {@link ContainerRepository} after a container item is written or deleted.
+ * {@code previous} is the item as stored before the write (null for a new container) and
+ * {@code current} the item as stored after it (null after a delete).
+ */
+public class ContainerChangedEvent {
+
+    private final Container previous;
+    private final Container current;
+
+    public ContainerChangedEvent(Container previous, Container current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Container getPrevious() {
+        return previous;
+    }
+
+    public Container getCurrent() {
+        return current;
+    }
+}
@@ -4,6 +4,7 @@ import dev.somdip.containerplatform.model.Container;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
@@ -11,10 +12,14 @@ import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -32,11 +37,14 @@ public class ContainerRepository {
 
     private final DynamoDbEnhancedClient enhancedClient;
     private final String tableName;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ContainerRepository(DynamoDbEnhancedClient enhancedClient,
-                              @Qualifier("containersTableName") String tableName) {
+                              @Qualifier("containersTableName") String tableName,
+                              ApplicationEventPublisher eventPublisher) {
         this.enhancedClient = enhancedClient;
         this.tableName = tableName;
+        this.eventPublisher = eventPublisher;
     }
 
     private DynamoDbTable<Container> getTable() {
@@ -53,7 +61,13 @@ public class ContainerRepository {
         }
         
         log.debug("Saving container: {}", container.getContainerId());
-        getTable().putItem(container);
+        // The replaced item lets listeners apply exact deltas, even with concurrent writers
+        Container previous = getTable().putItemWithResponse(PutItemEnhancedRequest.builder(Container.class)
+                .item(container)
+                .returnValues(ReturnValue.ALL_OLD)
+                .build())
+                .attributes();
+        eventPublisher.publishEvent(new ContainerChangedEvent(previous, container));
         return container;
     }
 
@@ -144,7 +158,10 @@ public class ContainerRepository {
                 .partitionValue(containerId)
                 .build();
         
-        getTable().deleteItem(key);
+        Container previous = getTable().deleteItem(key);
+        if (previous != null) {
+            eventPublisher.publishEvent(new ContainerChangedEvent(previous, null));
+        }
     }
 
     public Container updateStatus(String containerId, Container.ContainerStatus status) {
@@ -157,6 +174,102 @@ public class ContainerRepository {
         throw new IllegalArgumentException("Container not found: " + containerId);
     }
 
+    /**
+     * Write a health state transition without touching the rest of the item.
+     * The write only succeeds if the stored state still equals {@code expectedState}
+     * (null meaning no state has been stored yet), so concurrent evaluators cannot
+     * overwrite each other's transitions.
+     *
+     * @return true if the transition was stored, false if the stored state had changed
+     */
+    public boolean updateHealthState(String containerId, Container.HealthState expectedState,
+                                     Container.HealthState newState, Instant changedAt) {
+        Container update = new Container();
+        update.setContainerId(containerId);
+        update.setHealthState(newState);
+        update.setHealthStateChangedAt(changedAt);
+
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#id", "containerId");
+        expressionNames.put("#state", "healthState");
+
+        Expression condition;
+        if (expectedState == null) {
+            condition = Expression.builder()
+                    .expression("attribute_exists(#id) AND attribute_not_exists(#state)")
+                    .expressionNames(expressionNames)
+                    .build();
+        } else {
+            Map<String, AttributeValue> expressionValues = new HashMap<>();
+            expressionValues.put(":expected", AttributeValue.builder().s(expectedState.name()).build());
+            condition = Expression.builder()
+                    .expression("attribute_exists(#id) AND #state = :expected")
+                    .expressionNames(expressionNames)
+                    .expressionValues(expressionValues)
+                    .build();
+        }
+
+        try {
+            getTable().updateItem(UpdateItemEnhancedRequest.builder(Container.class)
+                    .item(update)
+                    .ignoreNulls(true)
+                    .conditionExpression(condition)
+                    .build());
+            log.debug("Container {} health state {} -> {}", containerId, expectedState, newState);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Health state of container {} is no longer {}, transition to {} not stored",
+                    containerId, expectedState, newState);
+            return false;
+        }
+    }
+
+    /**
+     * Move the instant up to which a container's running time has been billed, without
+     * touching the rest of the item. Like {@link #updateHealthState}, the write only succeeds
+     * if the stored value still equals {@code expected} (null meaning never tracked), so two
+     * nodes that both believe they lead cannot bill the same period.
+     *
+     * @return true if the new instant was stored, false if another writer moved it first
+     */
+    public boolean advanceUsageTrackedAt(String containerId, Instant expected, Instant trackedAt) {
+        Container update = new Container();
+        update.setContainerId(containerId);
+        update.setUsageTrackedAt(trackedAt);
+
+        Map<String, String> expressionNames = new HashMap<>();
+        expressionNames.put("#id", "containerId");
+        expressionNames.put("#tracked", "usageTrackedAt");
+
+        Expression condition;
+        if (expected == null) {
+            condition = Expression.builder()
+                    .expression("attribute_exists(#id) AND attribute_not_exists(#tracked)")
+                    .expressionNames(expressionNames)
+                    .build();
+        } else {
+            Map<String, AttributeValue> expressionValues = new HashMap<>();
+            expressionValues.put(":expected", AttributeValue.builder().s(expected.toString()).build());
+            condition = Expression.builder()
+                    .expression("attribute_exists(#id) AND #tracked = :expected")
+                    .expressionNames(expressionNames)
+                    .expressionValues(expressionValues)
+                    .build();
+        }
+
+        try {
+            getTable().updateItem(UpdateItemEnhancedRequest.builder(Container.class)
+                    .item(update)
+                    .ignoreNulls(true)
+                    .conditionExpression(condition)
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Usage of container {} was already tracked past {}", containerId, expected);
+            return false;
+        }
+    }
+
     public Container updateTaskArns(String containerId, String taskDefinitionArn, 
                                    String serviceArn, String taskArn) {
         Optional<Container> containerOpt = findById(containerId);
@@ -0,0 +1,278 @@
+package dev.somdip.containerplatform.repository;
+
+import dev.somdip.containerplatform.model.DashboardAggregate;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores one {@link DashboardAggregate} item per user.
+ *
+ * Totals are changed with atomic {@code ADD} updates, so concurrent writers never lose each
+ * other's changes. Updates only apply to an existing item: a missing aggregate is built from
+ * the source tables on first read rather than started from a partial delta. The recent
+ * deployment list is replaced as a whole under an optimistic check on {@code version}.
+ */
+@Repository
+public class DashboardAggregateRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardAggregateRepository.class);
+
+    private final DynamoDbClient dynamoDbClient;
+
+    @Value("${aws.dynamodb.tables.dashboard-aggregates:container-platform-dashboard-aggregates}")
+    private String tableName;
+
+    @Value("${aws.dynamodb.initialize:true}")
+    private boolean initializeTable;
+
+    public DashboardAggregateRepository(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (initializeTable) {
+            createTableIfNotExists();
+        }
+    }
+
+    public Optional<DashboardAggregate> findByUserId(String userId) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+            .tableName(tableName)
+            .key(key(userId))
+            .build());
+        return response.hasItem() && !response.item().isEmpty()
+            ? Optional.of(fromItem(response.item()))
+            : Optional.empty();
+    }
+
+    /**
+     * Add the delta's totals to the user's aggregate
+     *
+     * @return false if the user has no aggregate yet, in which case nothing was written
+     */
+    public boolean addTotals(String userId, DashboardAggregate delta) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":total", number(delta.getTotalContainers()));
+        values.put(":running", number(delta.getRunningContainers()));
+        values.put(":stopped", number(delta.getStoppedContainers()));
+        values.put(":cpu", number(delta.getTotalCpuUnits()));
+        values.put(":memory", number(delta.getTotalMemoryMb()));
+        values.put(":usedCpu", number(delta.getUsedCpuVCores()));
+        values.put(":usedMemory", number(delta.getUsedMemoryMb()));
+        values.put(":now", string(Instant.now().toString()));
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(key(userId))
+                .updateExpression("ADD totalContainers :total, runningContainers :running, stoppedContainers :stopped, "
+                    + "totalCpuUnits :cpu, totalMemoryMb :memory, usedCpuVCores :usedCpu, usedMemoryMb :usedMemory "
+                    + "SET updatedAt = :now")
+                .conditionExpression("attribute_exists(userId)")
+                .expressionAttributeValues(values)
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replace the recent deployment list if the aggregate is still at {@code expectedVersion}
+     *
+     * @return false if the aggregate is missing or was changed since it was read
+     */
+    public boolean replaceRecentDeployments(String userId, List<DashboardAggregate.RecentDeployment> deployments,
+                                            long expectedVersion) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":deployments", deploymentList(deployments));
+        values.put(":expected", number(expectedVersion));
+        values.put(":one", number(1));
+        values.put(":now", string(Instant.now().toString()));
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(key(userId))
+                .updateExpression("SET recentDeployments = :deployments, updatedAt = :now ADD #version :one")
+                .conditionExpression("attribute_exists(userId) AND #version = :expected")
+                .expressionAttributeNames(Map.of("#version", "version"))
+                .expressionAttributeValues(values)
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Overwrite the user's aggregate with values computed from the source tables. Bumps the
+     * version so an in-flight deployment list update retries against the rebuilt list.
+     */
+    public void rebuild(DashboardAggregate aggregate) {
+        String now = Instant.now().toString();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":total", number(aggregate.getTotalContainers()));
+        values.put(":running", number(aggregate.getRunningContainers()));
+        values.put(":stopped", number(aggregate.getStoppedContainers()));
+        values.put(":cpu", number(aggregate.getTotalCpuUnits()));
+        values.put(":memory", number(aggregate.getTotalMemoryMb()));
+        values.put(":usedCpu", number(aggregate.getUsedCpuVCores()));
+        values.put(":usedMemory", number(aggregate.getUsedMemoryMb()));
+        values.put(":deployments", deploymentList(aggregate.getRecentDeployments()));
+        values.put(":one", number(1));
+        values.put(":now", string(now));
+
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+            .tableName(tableName)
+            .key(key(aggregate.getUserId()))
+            .updateExpression("SET totalContainers = :total, runningContainers = :running, stoppedContainers = :stopped, "
+                + "totalCpuUnits = :cpu, totalMemoryMb = :memory, usedCpuVCores = :usedCpu, usedMemoryMb = :usedMemory, "
+                + "recentDeployments = :deployments, updatedAt = :now, rebuiltAt = :now ADD #version :one")
+            .expressionAttributeNames(Map.of("#version", "version"))
+            .expressionAttributeValues(values)
+            .build());
+    }
+
+    public List<String> findAllUserIds() {
+        List<String> userIds = new ArrayList<>();
+        ScanRequest request = ScanRequest.builder()
+            .tableName(tableName)
+            .projectionExpression("userId")
+            .build();
+        for (ScanResponse page : dynamoDbClient.scanPaginator(request)) {
+            for (Map<String, AttributeValue> item : page.items()) {
+                userIds.add(item.get("userId").s());
+            }
+        }
+        return userIds;
+    }
+
+    private static DashboardAggregate fromItem(Map<String, AttributeValue> item) {
+        List<DashboardAggregate.RecentDeployment> deployments = new ArrayList<>();
+        AttributeValue list = item.get("recentDeployments");
+        if (list != null && list.hasL()) {
+            for (AttributeValue entry : list.l()) {
+                Map<String, AttributeValue> fields = entry.m();
+                deployments.add(DashboardAggregate.RecentDeployment.builder()
+                    .deploymentId(stringOf(fields.get("deploymentId")))
+                    .containerName(stringOf(fields.get("containerName")))
+                    .status(stringOf(fields.get("status")))
+                    .timestamp(instantOf(fields.get("timestamp")))
+                    .build());
+            }
+        }
+
+        return DashboardAggregate.builder()
+            .userId(item.get("userId").s())
+            .totalContainers(longOf(item.get("totalContainers")))
+            .runningContainers(longOf(item.get("runningContainers")))
+            .stoppedContainers(longOf(item.get("stoppedContainers")))
+            .totalCpuUnits(longOf(item.get("totalCpuUnits")))
+            .totalMemoryMb(longOf(item.get("totalMemoryMb")))
+            .usedCpuVCores(doubleOf(item.get("usedCpuVCores")))
+            .usedMemoryMb(doubleOf(item.get("usedMemoryMb")))
+            .recentDeployments(deployments)
+            .version(longOf(item.get("version")))
+            .updatedAt(instantOf(item.get("updatedAt")))
+            .rebuiltAt(instantOf(item.get("rebuiltAt")))
+            .build();
+    }
+
+    private static AttributeValue deploymentList(List<DashboardAggregate.RecentDeployment> deployments) {
+        List<AttributeValue> entries = new ArrayList<>();
+        for (DashboardAggregate.RecentDeployment deployment : deployments) {
+            Map<String, AttributeValue> fields = new HashMap<>();
+            putIfPresent(fields, "deploymentId", deployment.getDeploymentId());
+            putIfPresent(fields, "containerName", deployment.getContainerName());
+            putIfPresent(fields, "status", deployment.getStatus());
+            if (deployment.getTimestamp() != null) {
+                fields.put("timestamp", string(deployment.getTimestamp().toString()));
+            }
+            entries.add(AttributeValue.builder().m(fields).build());
+        }
+        return AttributeValue.builder().l(entries).build();
+    }
+
+    private static void putIfPresent(Map<String, AttributeValue> fields, String name, String value) {
+        if (value != null) {
+            fields.put(name, string(value));
+        }
+    }
+
+    private static Map<String, AttributeValue> key(String userId) {
+        return Map.of("userId", string(userId));
+    }
+
+    private static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    private static AttributeValue number(double value) {
+        return AttributeValue.builder().n(Double.toString(value)).build();
+    }
+
+    private static String stringOf(AttributeValue value) {
+        return value != null ? value.s() : null;
+    }
+
+    private static long longOf(AttributeValue value) {
+        // Sums of doubles are stored with a fractional part; counts never are
+        return value != null && value.n() != null ? (long) Double.parseDouble(value.n()) : 0L;
+    }
+
+    private static double doubleOf(AttributeValue value) {
+        return value != null && value.n() != null ? Double.parseDouble(value.n()) : 0.0;
+    }
+
+    private static Instant instantOf(AttributeValue value) {
+        return value != null && value.s() != null ? Instant.parse(value.s()) : null;
+    }
+
+    private void createTableIfNotExists() {
+        try {
+            dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                .tableName(tableName)
+                .build());
+            log.info("Dashboard aggregate table {} exists", tableName);
+        } catch (ResourceNotFoundException e) {
+            log.info("Creating dashboard aggregate table: {}", tableName);
+
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                .tableName(tableName)
+                .attributeDefinitions(AttributeDefinition.builder()
+                    .attributeName("userId")
+                    .attributeType(ScalarAttributeType.S)
+                    .build())
+                .keySchema(KeySchemaElement.builder()
+                    .attributeName("userId")
+                    .keyType(KeyType.HASH)
+                    .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build());
+
+            dynamoDbClient.waiter().waitUntilTableExists(DescribeTableRequest.builder()
+                .tableName(tableName)
+                .build());
+
+            log.info("Dashboard aggregate table {} created", tableName);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dev.somdip.containerplatform.repository;
+
+import dev.somdip.containerplatform.model.DashboardRollup;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Daily {@link DashboardRollup} items, keyed by user and ISO day so range reads are a
+ * single query on the user's item collection.
+ */
+@Repository
+public class DashboardRollupRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardRollupRepository.class);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private DynamoDbTable<DashboardRollup> rollupTable;
+
+    @Value("${aws.dynamodb.tables.dashboard-rollups:container-platform-dashboard-rollups}")
+    private String tableName;
+
+    @Value("${aws.dynamodb.initialize:true}")
+    private boolean initializeTable;
+
+    public DashboardRollupRepository(DynamoDbClient dynamoDbClient, DynamoDbEnhancedClient enhancedClient) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.enhancedClient = enhancedClient;
+    }
+
+    @PostConstruct
+    public void init() {
+        rollupTable = enhancedClient.table(tableName, TableSchema.fromBean(DashboardRollup.class));
+        if (initializeTable) {
+            createTableIfNotExists();
+        }
+    }
+
+    public DashboardRollup save(DashboardRollup rollup) {
+        log.debug("Saving dashboard rollup for user {} on {}", rollup.getUserId(), rollup.getDay());
+        rollupTable.putItem(rollup);
+        return rollup;
+    }
+
+    public Optional<DashboardRollup> find(String userId, LocalDate day) {
+        return Optional.ofNullable(rollupTable.getItem(Key.builder()
+            .partitionValue(userId)
+            .sortValue(day.toString())
+            .build()));
+    }
+
+    /**
+     * The user's rollups from {@code from} to {@code to} inclusive, oldest first
+     */
+    public List<DashboardRollup> findRange(String userId, LocalDate from, LocalDate to) {
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.sortBetween(
+                Key.builder().partitionValue(userId).sortValue(from.toString()).build(),
+                Key.builder().partitionValue(userId).sortValue(to.toString()).build()))
+            .build();
+        return StreamSupport.stream(rollupTable.query(request).spliterator(), false)
+            .flatMap(page -> page.items().stream())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The user's newest rollup on or before {@code day}
+     */
+    public Optional<DashboardRollup> findLatestOnOrBefore(String userId, LocalDate day) {
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+            .queryConditional(QueryConditional.sortLessThanOrEqualTo(
+                Key.builder().partitionValue(userId).sortValue(day.toString()).build()))
+            .scanIndexForward(false)
+            .limit(1)
+            .build();
+        return StreamSupport.stream(rollupTable.query(request).spliterator(), false)
+            .flatMap(page -> page.items().stream())
+            .findFirst();
+    }
+
+    private void createTableIfNotExists() {
+        try {
+            dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                .tableName(tableName)
+                .build());
+            log.info("Dashboard rollup table {} exists", tableName);
+        } catch (ResourceNotFoundException e) {
+            log.info("Creating dashboard rollup table: {}", tableName);
+
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                .tableName(tableName)
+                .attributeDefinitions(
+                    AttributeDefinition.builder()
+                        .attributeName("userId")
+                        .attributeType(ScalarAttributeType.S)
+                        .build(),
+                    AttributeDefinition.builder()
+                        .attributeName("day")
+                        .attributeType(ScalarAttributeType.S)
+                        .build())
+                .keySchema(
+                    KeySchemaElement.builder()
+                        .attributeName("userId")
+                        .keyType(KeyType.HASH)
+                        .build(),
+                    KeySchemaElement.builder()
+                        .attributeName("day")
+                        .keyType(KeyType.RANGE)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build());
+
+            dynamoDbClient.waiter().waitUntilTableExists(DescribeTableRequest.builder()
+                .tableName(tableName)
+                .build());
+
+            try {
+                dynamoDbClient.updateTimeToLive(UpdateTimeToLiveRequest.builder()
+                    .tableName(tableName)
+                    .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                        .attributeName("ttl")
+                        .enabled(true)
+                        .build())
+                    .build());
+            } catch (Exception ttlError) {
+                log.warn("Could not enable TTL on dashboard rollup table {}: {}", tableName, ttlError.getMessage());
+            }
+
+            log.info("Dashboard rollup table {} created", tableName);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dev.somdip.containerplatform.repository;
+
+import dev.somdip.containerplatform.model.Deployment;
+
+/**
+ * Published by {@link DeploymentRepository} after a deployment item is written or deleted.
+ * {@code previous} is the item as stored before the write (null for a new deployment) and
+ * {@code current} the item as stored after it (null after a delete).
+ */
+public class DeploymentChangedEvent {
+
+    private final Deployment previous;
+    private final Deployment current;
+
+    public DeploymentChangedEvent(Deployment previous, Deployment current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Deployment getPrevious() {
+        return previous;
+    }
+
+    public Deployment getCurrent() {
+        return current;
+    }
+}
@@ -4,14 +4,17 @@ import dev.somdip.containerplatform.model.Deployment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
 
 import java.time.Instant;
 import java.util.List;
@@ -27,11 +30,14 @@ public class DeploymentRepository {
     
     private final DynamoDbEnhancedClient enhancedClient;
     private final String tableName;
+    private final ApplicationEventPublisher eventPublisher;
 
     public DeploymentRepository(DynamoDbEnhancedClient enhancedClient,
-                               @Qualifier("deploymentsTableName") String tableName) {
+                               @Qualifier("deploymentsTableName") String tableName,
+                               ApplicationEventPublisher eventPublisher) {
         this.enhancedClient = enhancedClient;
         this.tableName = tableName;
+        this.eventPublisher = eventPublisher;
     }
 
     private DynamoDbTable<Deployment> getTable() {
@@ -44,7 +50,12 @@ public class DeploymentRepository {
         }
         
         log.debug("Saving deployment: {}", deployment.getDeploymentId());
-        getTable().putItem(deployment);
+        Deployment previous = getTable().putItemWithResponse(PutItemEnhancedRequest.builder(Deployment.class)
+                .item(deployment)
+                .returnValues(ReturnValue.ALL_OLD)
+                .build())
+                .attributes();
+        eventPublisher.publishEvent(new DeploymentChangedEvent(previous, deployment));
         return deployment;
     }
 
@@ -155,13 +166,23 @@ public class DeploymentRepository {
                 .partitionValue(deploymentId)
                 .build();
         
-        getTable().deleteItem(key);
+        Deployment previous = getTable().deleteItem(key);
+        if (previous != null) {
+            eventPublisher.publishEvent(new DeploymentChangedEvent(previous, null));
+        }
     }
 
     public long countByContainerId(String containerId) {
         return findByContainerId(containerId).size();
     }
 
+    public List<Deployment> findAll() {
+        log.debug("Finding all deployments");
+        return StreamSupport.stream(getTable().scan().spliterator(), false)
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList());
+    }
+
     public List<Deployment> findByUserIdInTimeRange(String userId, Instant startTime, Instant endTime) {
         log.debug("Finding deployments for user {} between {} and {}", userId, startTime, endTime);
 
@@ -3,22 +3,27 @@ package dev.somdip.containerplatform.service;
 import dev.somdip.containerplatform.model.Container;
 import dev.somdip.containerplatform.repository.ContainerRepository;
 import dev.somdip.containerplatform.repository.UserRepository;
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import dev.somdip.containerplatform.service.ecs.EcsDescribeBatcher;
+import dev.somdip.containerplatform.service.ecs.EcsServiceState;
+import dev.somdip.containerplatform.service.ecs.EcsStateModel;
+import dev.somdip.containerplatform.service.ecs.EcsTaskState;
+import dev.somdip.containerplatform.service.health.AdaptiveProbeInterval;
+import dev.somdip.containerplatform.service.health.HealthProbeScheduler;
+import dev.somdip.containerplatform.service.health.HealthStateMachine;
+import dev.somdip.containerplatform.service.health.HealthTransition;
+import dev.somdip.containerplatform.service.health.HealthTransitionPublisher;
+import dev.somdip.containerplatform.service.health.HttpHealthProber;
+import dev.somdip.containerplatform.service.metrics.CloudWatchMetricBatcher;
+import dev.somdip.containerplatform.service.metrics.CloudWatchMetricPublisher;
+import dev.somdip.containerplatform.service.metrics.MetricQuery;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.ResourceAccessException;
-import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
-import software.amazon.awssdk.services.cloudwatch.model.*;
-import software.amazon.awssdk.services.ecs.EcsClient;
-import software.amazon.awssdk.services.ecs.model.DescribeTasksRequest;
-import software.amazon.awssdk.services.ecs.model.DescribeTasksResponse;
-import software.amazon.awssdk.services.ecs.model.Task;
-
-import java.net.URI;
+
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
@@ -29,30 +34,74 @@ public class ContainerHealthCheckService {
 
     private final ContainerRepository containerRepository;
     private final UserRepository userRepository;
-    private final EcsClient ecsClient;
-    private final CloudWatchClient cloudWatchClient;
-    private final RestTemplate restTemplate;
-    private final ScheduledExecutorService executorService;
+    private final HealthProbeScheduler probeScheduler;
+    private final EcsDescribeBatcher ecsDescribeBatcher;
+    private final EcsStateModel ecsStateModel;
+    private final HttpHealthProber httpHealthProber;
+    private final CloudWatchMetricBatcher metricBatcher;
+    private final CloudWatchMetricPublisher metricPublisher;
+    private final HealthTransitionPublisher transitionPublisher;
+    private final ClusterCoordinator clusterCoordinator;
+    private final ExecutorService evaluationExecutor;
     
     @Value("${aws.ecs.cluster}")
     private String clusterName;
     
-    @Value("${aws.cloudwatch.namespace}")
-    private String cloudWatchNamespace;
+    @Value("${app.healthcheck.default.interval:30}")
+    private int defaultInterval;
+
+    @Value("${app.healthcheck.adaptive.enabled:true}")
+    private boolean adaptiveIntervals;
+
+    @Value("${app.healthcheck.adaptive.min-interval-seconds:10}")
+    private int minIntervalSeconds;
+
+    @Value("${app.healthcheck.adaptive.max-interval-seconds:300}")
+    private int maxIntervalSeconds;
+
+    @Value("${app.healthcheck.adaptive.backoff-factor:1.5}")
+    private double backoffFactor;
+
+    @Value("${app.healthcheck.adaptive.deploy-window-seconds:600}")
+    private int deployWindowSeconds;
+
+    @Value("${app.healthcheck.adaptive.flap-threshold:3}")
+    private int flapThreshold;
     
     // Cache for health status
     private final Map<String, HealthStatus> healthStatusCache = new ConcurrentHashMap<>();
+
+    // Latest known copy of each monitored container, refreshed by the reconciliation loop
+    private final Map<String, Container> monitoredContainers = new ConcurrentHashMap<>();
+
+    // Per-container probe interval that backs off while the container is stable
+    private final Map<String, AdaptiveProbeInterval> probeIntervals = new ConcurrentHashMap<>();
     
     public ContainerHealthCheckService(ContainerRepository containerRepository,
                                      UserRepository userRepository,
-                                     EcsClient ecsClient,
-                                     CloudWatchClient cloudWatchClient) {
+                                     HealthProbeScheduler probeScheduler,
+                                     EcsDescribeBatcher ecsDescribeBatcher,
+                                     EcsStateModel ecsStateModel,
+                                     HttpHealthProber httpHealthProber,
+                                     CloudWatchMetricBatcher metricBatcher,
+                                     CloudWatchMetricPublisher metricPublisher,
+                                     HealthTransitionPublisher transitionPublisher,
+                                     ClusterCoordinator clusterCoordinator) {
         this.containerRepository = containerRepository;
         this.userRepository = userRepository;
-        this.ecsClient = ecsClient;
-        this.cloudWatchClient = cloudWatchClient;
-        this.restTemplate = new RestTemplate();
-        this.executorService = Executors.newScheduledThreadPool(5);
+        this.probeScheduler = probeScheduler;
+        this.ecsDescribeBatcher = ecsDescribeBatcher;
+        this.ecsStateModel = ecsStateModel;
+        this.httpHealthProber = httpHealthProber;
+        this.metricBatcher = metricBatcher;
+        this.metricPublisher = metricPublisher;
+        this.transitionPublisher = transitionPublisher;
+        this.clusterCoordinator = clusterCoordinator;
+        this.evaluationExecutor = Executors.newFixedThreadPool(4);
+        this.probeScheduler.setProbeHandler(this::probeContainers);
+        this.probeScheduler.setIntervalPolicy(this::nextProbeIntervalMillis);
+        // Take over or hand off containers as soon as nodes join or leave
+        this.clusterCoordinator.onMembershipChange(this::performScheduledHealthChecks);
     }
     
     /**
@@ -64,24 +113,18 @@ public class ContainerHealthCheckService {
         Container container = containerRepository.findById(containerId)
             .orElseThrow(() -> new IllegalArgumentException("Container not found: " + containerId));
         
-        // Initialize health status
-        HealthStatus status = new HealthStatus(containerId);
-        healthStatusCache.put(containerId, status);
-        
-        // Schedule health checks based on container configuration
-        Container.HealthCheckConfig healthConfig = container.getHealthCheck();
-        if (healthConfig == null) {
-            healthConfig = createDefaultHealthCheckConfig();
+        // Initialize health status; a (re)started container begins in STARTING
+        HealthStatus status = new HealthStatus(containerId, container.getHealthState());
+        if (!clusterCoordinator.owns(containerId)) {
+            // Another node probes this container; it picks it up on its next reconcile
+            transition(container, status, Container.HealthState.STARTING, "Health monitoring started");
+            return;
         }
-        
-        int interval = healthConfig.getInterval() != null ? healthConfig.getInterval() : 30;
-        
-        executorService.scheduleWithFixedDelay(
-            () -> performHealthCheck(container),
-            30, // Initial delay
-            interval,
-            TimeUnit.SECONDS
-        );
+        healthStatusCache.put(containerId, status);
+        transition(container, status, Container.HealthState.STARTING, "Health monitoring started");
+
+        // A fresh deployment is probed at the fast interval for a while
+        scheduleProbe(container).reset(System.currentTimeMillis() + deployWindowSeconds * 1000L);
     }
     
     /**
@@ -89,265 +132,308 @@ public class ContainerHealthCheckService {
      */
     public void stopHealthMonitoring(String containerId) {
         log.info("Stopping health monitoring for container: {}", containerId);
+        probeScheduler.cancel(containerId);
+        monitoredContainers.remove(containerId);
+        probeIntervals.remove(containerId);
         healthStatusCache.remove(containerId);
     }
     
+    @PreDestroy
+    public void shutdown() {
+        evaluationExecutor.shutdown();
+    }
+    
     /**
-     * Get current health status for a container
+     * Get current health status for a container. Only the node that owns the container
+     * probes it; every other node answers from the last transition persisted on the item.
      */
     public HealthStatus getHealthStatus(String containerId) {
-        return healthStatusCache.getOrDefault(containerId, new HealthStatus(containerId));
+        HealthStatus status = healthStatusCache.get(containerId);
+        if (status != null) {
+            return status;
+        }
+        return containerRepository.findById(containerId)
+            .map(HealthStatus::persisted)
+            .orElseGet(() -> new HealthStatus(containerId));
     }
     
     /**
-     * Perform scheduled health checks for all running containers
+     * Reconcile probe schedules with the set of running containers this node owns.
+     * Probing itself is driven by the probe scheduler; this loop only picks up containers
+     * that were started elsewhere (or before a restart, or moved here by a cluster
+     * rebalance) and drops ones that are gone or now belong to another node.
      */
-    @Scheduled(fixedDelay = 30000) // Every 30 seconds
-    public void performScheduledHealthChecks() {
+    @Scheduled(fixedDelayString = "${app.healthcheck.reconcile-interval-ms:60000}")
+    public synchronized void performScheduledHealthChecks() {
         List<Container> runningContainers = containerRepository.findAll().stream()
             .filter(c -> c.getStatus() == Container.ContainerStatus.RUNNING)
+            .filter(c -> clusterCoordinator.owns(c.getContainerId()))
             .toList();
 
-        log.debug("Performing health checks for {} running containers", runningContainers.size());
+        log.debug("Reconciling health probes for {} running containers", runningContainers.size());
 
+        Set<String> runningIds = new HashSet<>();
         for (Container container : runningContainers) {
+            runningIds.add(container.getContainerId());
             try {
-                // Verify ECS service exists and is active before performing health check
-                if (!isEcsServiceActive(container)) {
-                    log.warn("Container {} has RUNNING status but ECS service is not active. Deleting from database.",
-                        container.getContainerId());
+                Integer scheduledInterval = probeScheduler.getIntervalSeconds(container.getContainerId());
+                if (scheduledInterval == null || scheduledInterval != resolveInterval(container)) {
+                    scheduleProbe(container);
+                } else {
+                    monitoredContainers.put(container.getContainerId(), container);
+                }
+            } catch (Exception e) {
+                log.error("Error scheduling health probe for container: {}", container.getContainerId(), e);
+            }
+        }
 
-                    // Delete from repository
-                    containerRepository.delete(container.getContainerId());
-                    healthStatusCache.remove(container.getContainerId());
+        for (String containerId : probeScheduler.getScheduledContainerIds()) {
+            if (!runningIds.contains(containerId)) {
+                log.debug("Container {} is no longer running on this node, cancelling health probe", containerId);
+                stopHealthMonitoring(containerId);
+            }
+        }
+    }
 
-                    // Decrement user's container count
-                    try {
-                        userRepository.incrementContainerCount(container.getUserId(), -1);
-                        log.info("Decremented container count for user: {}", container.getUserId());
-                    } catch (Exception e) {
-                        log.error("Failed to decrement container count for user: {}", container.getUserId(), e);
-                    }
+    private AdaptiveProbeInterval scheduleProbe(Container container) {
+        int interval = resolveInterval(container);
+        AdaptiveProbeInterval adaptive = new AdaptiveProbeInterval(interval * 1000L,
+            minIntervalSeconds * 1000L, maxIntervalSeconds * 1000L, backoffFactor, flapThreshold);
+        if (container.getLastDeployedAt() != null) {
+            adaptive.reset(container.getLastDeployedAt().toEpochMilli() + deployWindowSeconds * 1000L);
+        }
 
-                    continue;
-                }
+        monitoredContainers.put(container.getContainerId(), container);
+        probeIntervals.put(container.getContainerId(), adaptive);
+        probeScheduler.schedule(container.getContainerId(), interval);
+        return adaptive;
+    }
 
-                performHealthCheck(container);
-            } catch (Exception e) {
-                log.error("Error performing health check for container: {}", container.getContainerId(), e);
+    /**
+     * Delay before the container's next probe; 0 keeps the configured interval
+     */
+    private long nextProbeIntervalMillis(String containerId) {
+        if (!adaptiveIntervals) {
+            return 0;
+        }
+        AdaptiveProbeInterval adaptive = probeIntervals.get(containerId);
+        return adaptive != null ? adaptive.getCurrentMillis() : 0;
+    }
+
+    private int resolveInterval(Container container) {
+        Container.HealthCheckConfig healthConfig = container.getHealthCheck();
+        if (healthConfig == null) {
+            healthConfig = createDefaultHealthCheckConfig();
+        }
+        return healthConfig.getInterval() != null ? healthConfig.getInterval() : defaultInterval;
+    }
+
+    /**
+     * Probe a batch of due containers: look up their ECS services and tasks in the event-fed
+     * state model, describe only the ones whose state is stale with chunked calls, then
+     * evaluate each container against the shared results
+     */
+    private CompletableFuture<Void> probeContainers(List<String> containerIds) {
+        List<Container> containers = new ArrayList<>(containerIds.size());
+        for (String containerId : containerIds) {
+            Container container = monitoredContainers.get(containerId);
+            if (container == null) {
+                probeScheduler.cancel(containerId);
+            } else {
+                containers.add(container);
             }
         }
+        if (containers.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        EcsDescribeBatcher.ServiceBatch services = ecsDescribeBatcher.describeServices(containers.stream()
+            .map(Container::getServiceArn)
+            .filter(Objects::nonNull)
+            .filter(arn -> {
+                EcsServiceState state = ecsStateModel.getService(arn);
+                return state == null || !ecsStateModel.isTrusted(state.getRefreshedAt());
+            })
+            .toList());
+
+        List<Container> activeContainers = new ArrayList<>(containers.size());
+        for (Container container : containers) {
+            Boolean active = isEcsServiceActive(container, services);
+            if (active == null) {
+                log.debug("ECS service state unknown for container {}, skipping this probe", container.getContainerId());
+            } else if (!active) {
+                removeOrphanedContainer(container);
+            } else {
+                activeContainers.add(container);
+            }
+        }
+
+        // Describe results are recorded in the state model
+        ecsDescribeBatcher.describeTasks(activeContainers.stream()
+            .map(Container::getTaskArn)
+            .filter(Objects::nonNull)
+            .filter(arn -> {
+                EcsTaskState task = ecsStateModel.getTask(arn);
+                return task == null || !ecsStateModel.isTrusted(task.getUpdatedAt());
+            })
+            .toList());
+
+        List<CompletableFuture<Void>> checks = new ArrayList<>(activeContainers.size());
+        for (Container container : activeContainers) {
+            checks.add(performHealthCheck(container, ecsStateModel.getTask(container.getTaskArn())));
+        }
+        return CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void removeOrphanedContainer(Container container) {
+        String containerId = container.getContainerId();
+        log.warn("Container {} has RUNNING status but ECS service is not active. Deleting from database.",
+            containerId);
+
+        stopHealthMonitoring(containerId);
+
+        // Delete from repository
+        containerRepository.delete(containerId);
+
+        // Decrement user's container count
+        try {
+            userRepository.incrementContainerCount(container.getUserId(), -1);
+            log.info("Decremented container count for user: {}", container.getUserId());
+        } catch (Exception e) {
+            log.error("Failed to decrement container count for user: {}", container.getUserId(), e);
+        }
     }
     
     /**
-     * Check if the ECS service for this container is active
+     * Check if the ECS service for this container is active.
+     * Returns null when the describe call failed and the state is unknown.
      */
-    private boolean isEcsServiceActive(Container container) {
+    private Boolean isEcsServiceActive(Container container, EcsDescribeBatcher.ServiceBatch services) {
         if (container.getServiceArn() == null) {
             log.debug("Container {} has no service ARN", container.getContainerId());
             return false;
         }
 
-        try {
-            software.amazon.awssdk.services.ecs.model.DescribeServicesRequest request =
-                software.amazon.awssdk.services.ecs.model.DescribeServicesRequest.builder()
-                    .cluster(clusterName)
-                    .services(container.getServiceArn())
-                    .build();
-
-            software.amazon.awssdk.services.ecs.model.DescribeServicesResponse response =
-                ecsClient.describeServices(request);
-
-            if (response.services().isEmpty()) {
-                log.debug("No ECS service found for container {}", container.getContainerId());
-                return false;
-            }
-
-            software.amazon.awssdk.services.ecs.model.Service service = response.services().get(0);
-            String status = service.status();
+        if (services.isUnknown(container.getServiceArn())) {
+            return null;
+        }
 
-            // Only consider ACTIVE services as valid
-            boolean isActive = "ACTIVE".equals(status);
-            if (!isActive) {
-                log.debug("ECS service for container {} has status: {}", container.getContainerId(), status);
-            }
+        EcsServiceState service = ecsStateModel.getService(container.getServiceArn());
+        if (service == null || services.isMissing(container.getServiceArn())) {
+            log.debug("No ECS service found for container {}", container.getContainerId());
+            return false;
+        }
 
-            return isActive;
+        String status = service.getStatus();
 
-        } catch (Exception e) {
-            log.error("Failed to check ECS service status for container: {}", container.getContainerId(), e);
-            return false;
+        // Only consider ACTIVE services as valid
+        boolean isActive = "ACTIVE".equals(status);
+        if (!isActive) {
+            log.debug("ECS service for container {} has status: {}", container.getContainerId(), status);
         }
+
+        return isActive;
     }
 
-    private void performHealthCheck(Container container) {
+    private CompletableFuture<Void> performHealthCheck(Container container, EcsTaskState task) {
         HealthStatus status = healthStatusCache.computeIfAbsent(
             container.getContainerId(),
-            k -> new HealthStatus(container.getContainerId())
+            k -> new HealthStatus(container.getContainerId(), container.getHealthState())
         );
 
         try {
             // 1. Check ECS task health
-            boolean taskHealthy = checkTaskHealth(container);
-
-            // 2. Check HTTP endpoint health (if configured)
-            boolean httpHealthy = true;
-            if (container.getHealthCheck() != null && container.getHealthCheck().getPath() != null) {
-                httpHealthy = checkHttpHealth(container);
-            }
-
-            // 3. Check resource utilization
-            ResourceMetrics metrics = checkResourceMetrics(container);
-            status.setResourceMetrics(metrics);
+            boolean taskHealthy = checkTaskHealth(task);
 
-            // Update overall health status
-            boolean isHealthy = taskHealthy && httpHealthy;
-            status.updateHealth(isHealthy);
+            // 2. Check resource utilization (queued into the shared GetMetricData batch)
+            CompletableFuture<ResourceMetrics> metricsCheck = checkResourceMetrics(container);
 
-            // Send metrics to CloudWatch
-            sendHealthMetrics(container, status);
+            // 3. Check HTTP endpoint health (if configured) without holding a thread
+            CompletableFuture<HttpHealthProber.HttpProbeResult> httpCheck =
+                container.getHealthCheck() != null && container.getHealthCheck().getPath() != null ?
+                    httpHealthProber.probe(container) :
+                    CompletableFuture.completedFuture(null);
 
-            // Update container status if health has changed
-            updateContainerHealthStatus(container, status);
+            return httpCheck.thenAcceptBothAsync(metricsCheck, (httpResult, metrics) -> {
+                if (httpResult != null && !httpResult.isProbed()) {
+                    log.debug("HTTP probe capacity exhausted, skipping health update for container {}",
+                        container.getContainerId());
+                    return;
+                }
+                boolean httpHealthy = httpResult == null || httpResult.isHealthy();
+                completeHealthCheck(container, status, taskHealthy && httpHealthy, metrics,
+                    httpResult != null ? httpResult.getError() : null);
+            }, evaluationExecutor).exceptionally(e -> {
+                log.error("Health check failed for container: {}", container.getContainerId(), e);
+                return null;
+            });
 
         } catch (Exception e) {
             log.error("Health check failed for container: {}", container.getContainerId(), e);
             status.updateHealth(false);
             status.setLastError(e.getMessage());
+            return CompletableFuture.completedFuture(null);
         }
     }
-    
-    private boolean checkTaskHealth(Container container) {
-        if (container.getTaskArn() == null) {
-            return false;
+
+    private void completeHealthCheck(Container container, HealthStatus status, boolean isHealthy,
+                                     ResourceMetrics metrics, String httpError) {
+        status.setResourceMetrics(metrics);
+
+        // Update overall health status
+        status.updateHealth(isHealthy);
+        AdaptiveProbeInterval adaptive = probeIntervals.get(container.getContainerId());
+        if (adaptive != null) {
+            adaptive.record(isHealthy, System.currentTimeMillis());
         }
-        
-        try {
-            DescribeTasksRequest request = DescribeTasksRequest.builder()
-                .cluster(clusterName)
-                .tasks(container.getTaskArn())
-                .build();
-            
-            DescribeTasksResponse response = ecsClient.describeTasks(request);
-            
-            if (!response.tasks().isEmpty()) {
-                Task task = response.tasks().get(0);
-                String healthStatus = task.healthStatus() != null ? 
-                    task.healthStatus().toString() : "UNKNOWN";
-                
-                return "HEALTHY".equals(healthStatus);
-            }
-        } catch (Exception e) {
-            log.error("Failed to check task health", e);
+        if (!isHealthy && httpError != null) {
+            status.setLastError(httpError);
         }
-        
-        return false;
+
+        // Send metrics to CloudWatch
+        sendHealthMetrics(container, status);
+
+        // Update container status if health has changed
+        updateContainerHealthStatus(container, status);
     }
     
-    private boolean checkHttpHealth(Container container) {
-        Container.HealthCheckConfig config = container.getHealthCheck();
-        String healthPath = config.getPath() != null ? config.getPath() : "/health";
-        
-        try {
-            // Get container URL
-            String url = String.format("https://%s.containers.somdip.dev%s", 
-                container.getSubdomain(), healthPath);
-            
-            // Set timeout
-            int timeout = config.getTimeout() != null ? config.getTimeout() : 5;
-            
-            // Perform HTTP health check
-            restTemplate.getForObject(URI.create(url), String.class);
-            
-            log.debug("HTTP health check passed for container: {}", container.getContainerId());
-            return true;
-            
-        } catch (HttpClientErrorException e) {
-            if (e.getStatusCode().value() >= 500) {
-                log.warn("HTTP health check failed with status: {}", e.getStatusCode());
-                return false;
-            }
-            // 4xx errors might be expected for health checks
-            return true;
-        } catch (ResourceAccessException e) {
-            log.warn("HTTP health check timeout for container: {}", container.getContainerId());
-            return false;
-        } catch (Exception e) {
-            log.error("HTTP health check error", e);
+    private boolean checkTaskHealth(EcsTaskState task) {
+        if (task == null) {
             return false;
         }
-    }
-    
-    private ResourceMetrics checkResourceMetrics(Container container) {
-        ResourceMetrics metrics = new ResourceMetrics();
-        
-        try {
-            // Get CloudWatch metrics for the container
-            Instant endTime = Instant.now();
-            Instant startTime = endTime.minusSeconds(300); // Last 5 minutes
-            
-            // Extract service name from service ARN
-            String serviceName = extractServiceName(container.getServiceArn());
-            if (serviceName == null) {
-                log.warn("Cannot get metrics for container {} - no service name", container.getContainerId());
-                return metrics;
-            }
 
-            // CPU Utilization (AWS/ECS namespace, not Container Insights)
-            Double cpuUtilization = getMetricValueWithCluster(
-                "AWS/ECS",
-                "CPUUtilization",
-                serviceName,
-                startTime, endTime
-            );
-            metrics.setCpuUtilization(cpuUtilization);
-
-            // Memory Utilization
-            Double memoryUtilization = getMetricValueWithCluster(
-                "AWS/ECS",
-                "MemoryUtilization",
-                serviceName,
-                startTime, endTime
-            );
-            metrics.setMemoryUtilization(memoryUtilization);
-            
-        } catch (Exception e) {
-            log.error("Failed to get resource metrics", e);
-        }
-        
-        return metrics;
+        String healthStatus = task.getHealthStatus() != null ? task.getHealthStatus() : "UNKNOWN";
+
+        return "HEALTHY".equals(healthStatus);
     }
     
-    private Double getMetricValueWithCluster(String namespace, String metricName,
-                                            String serviceName,
-                                            Instant startTime, Instant endTime) {
-        try {
-            GetMetricStatisticsRequest request = GetMetricStatisticsRequest.builder()
-                .namespace(namespace)
-                .metricName(metricName)
-                .dimensions(
-                    Dimension.builder().name("ServiceName").value(serviceName).build(),
-                    Dimension.builder().name("ClusterName").value(clusterName).build()
-                )
-                .startTime(startTime)
-                .endTime(endTime)
-                .period(60) // 1 minute
-                .statistics(Statistic.AVERAGE)
-                .build();
-
-            GetMetricStatisticsResponse response = cloudWatchClient.getMetricStatistics(request);
-
-            if (!response.datapoints().isEmpty()) {
-                return response.datapoints().stream()
-                    .mapToDouble(Datapoint::average)
-                    .average()
-                    .orElse(0.0);
-            }
-        } catch (Exception e) {
-            log.error("Failed to get metric: {} - {}", namespace, metricName, e);
+    private CompletableFuture<ResourceMetrics> checkResourceMetrics(Container container) {
+        // Extract service name from service ARN
+        String serviceName = extractServiceName(container.getServiceArn());
+        if (serviceName == null) {
+            log.warn("Cannot get metrics for container {} - no service name", container.getContainerId());
+            return CompletableFuture.completedFuture(new ResourceMetrics());
         }
 
-        return 0.0;
+        // CPU and memory utilization (AWS/ECS namespace, not Container Insights), last 5 minutes
+        CompletableFuture<Double> cpuUtilization = getMetricValueWithCluster("CPUUtilization", serviceName);
+        CompletableFuture<Double> memoryUtilization = getMetricValueWithCluster("MemoryUtilization", serviceName);
+
+        return cpuUtilization.thenCombine(memoryUtilization, (cpu, memory) -> {
+            ResourceMetrics metrics = new ResourceMetrics();
+            metrics.setCpuUtilization(cpu);
+            metrics.setMemoryUtilization(memory);
+            return metrics;
+        });
+    }
+
+    private CompletableFuture<Double> getMetricValueWithCluster(String metricName, String serviceName) {
+        return metricBatcher.query(MetricQuery.ecsService(metricName, clusterName, serviceName))
+            .thenApply(series -> series.average(0.0))
+            .exceptionally(e -> {
+                log.error("Failed to get metric: AWS/ECS - {}", metricName, e);
+                return 0.0;
+            });
     }
 
     private String extractServiceName(String serviceArn) {
@@ -360,93 +446,95 @@ public class ContainerHealthCheckService {
     
     private void sendHealthMetrics(Container container, HealthStatus status) {
         try {
-            List<MetricDatum> metrics = new ArrayList<>();
-            
             // Health status metric (1 = healthy, 0 = unhealthy)
-            metrics.add(MetricDatum.builder()
-                .metricName("ContainerHealth")
-                .value(status.isHealthy() ? 1.0 : 0.0)
-                .timestamp(Instant.now())
-                .dimensions(
-                    Dimension.builder()
-                        .name("ContainerId")
-                        .value(container.getContainerId())
-                        .build(),
-                    Dimension.builder()
-                        .name("ContainerName")
-                        .value(container.getContainerName())
-                        .build()
-                )
-                .build());
-            
+            Map<String, String> healthDimensions = new LinkedHashMap<>();
+            healthDimensions.put("ContainerId", container.getContainerId());
+            healthDimensions.put("ContainerName", container.getContainerName());
+            metricPublisher.record("ContainerHealth", healthDimensions, status.isHealthy() ? 1.0 : 0.0);
+
             // Consecutive failure count
-            metrics.add(MetricDatum.builder()
-                .metricName("ConsecutiveHealthCheckFailures")
-                .value((double) status.getConsecutiveFailures())
-                .timestamp(Instant.now())
-                .dimensions(
-                    Dimension.builder()
-                        .name("ContainerId")
-                        .value(container.getContainerId())
-                        .build()
-                )
-                .build());
-            
-            // Send metrics to CloudWatch
-            PutMetricDataRequest request = PutMetricDataRequest.builder()
-                .namespace(cloudWatchNamespace)
-                .metricData(metrics)
-                .build();
-            
-            cloudWatchClient.putMetricData(request);
-            
+            metricPublisher.record("ConsecutiveHealthCheckFailures",
+                Map.of("ContainerId", container.getContainerId()),
+                (double) status.getConsecutiveFailures());
+
         } catch (Exception e) {
-            log.error("Failed to send health metrics to CloudWatch", e);
+            log.error("Failed to buffer health metrics for container {}", container.getContainerId(), e);
         }
     }
     
     private void updateContainerHealthStatus(Container container, HealthStatus status) {
-        // Verify container still exists before updating (prevent race condition with cleanup)
-        if (!isEcsServiceActive(container)) {
-            log.debug("Skipping health status update for container {} - ECS service no longer active",
+        // Skip if monitoring was stopped while the probe was running (prevents race with cleanup)
+        if (!monitoredContainers.containsKey(container.getContainerId())) {
+            log.debug("Skipping health status update for container {} - no longer monitored",
                 container.getContainerId());
             return;
         }
 
-        // Initialize resource usage if not present
-        if (container.getResourceUsage() == null) {
-            container.setResourceUsage(new Container.ResourceUsage());
-            container.getResourceUsage().setMeasurementPeriodStart(Instant.now());
-        }
+        Container.HealthCheckConfig config = container.getHealthCheck();
+        int healthyThreshold = config != null && config.getHealthyThreshold() != null ?
+            config.getHealthyThreshold() : 2;
+        int unhealthyThreshold = config != null && config.getUnhealthyThreshold() != null ?
+            config.getUnhealthyThreshold() : 3;
 
-        Container.ResourceUsage usage = container.getResourceUsage();
-        usage.setMeasurementPeriodEnd(Instant.now());
+        Container.HealthState next = HealthStateMachine.next(status.getState(),
+            status.getConsecutiveSuccesses(), status.getConsecutiveFailures(),
+            healthyThreshold, unhealthyThreshold);
 
-        // Update with latest metrics (for both healthy and unhealthy containers)
-        if (status.getResourceMetrics() != null) {
-            usage.setAvgCpuPercent(status.getResourceMetrics().getCpuUtilization());
-            usage.setAvgMemoryPercent(status.getResourceMetrics().getMemoryUtilization());
-        }
+        // Only transitions are written; a steady state costs no DynamoDB writes
+        transition(container, status, next, status.getLastError());
+    }
 
-        // Save updated resource usage
-        containerRepository.save(container);
+    private void transition(Container container, HealthStatus status, Container.HealthState next, String reason) {
+        Container.HealthState previous = status.getState();
+        if (previous == next) {
+            return;
+        }
 
-        // Log warning for unhealthy containers
-        Container.HealthCheckConfig config = container.getHealthCheck();
-        int unhealthyThreshold = config != null && config.getUnhealthyThreshold() != null ?
-            config.getUnhealthyThreshold() : 3;
+        Instant now = Instant.now();
+        status.setState(next, now);
+        persistHealthState(container.getContainerId(), status, next, now);
 
-        if (!status.isHealthy() && status.getConsecutiveFailures() >= unhealthyThreshold) {
+        if (next == Container.HealthState.UNHEALTHY) {
             log.warn("Container {} is unhealthy after {} consecutive failures",
                 container.getContainerId(), status.getConsecutiveFailures());
-            // You might want to trigger alerts or auto-recovery here
+        } else {
+            log.info("Container {} health state {} -> {}", container.getContainerId(), previous, next);
+        }
+
+        transitionPublisher.publish(new HealthTransition(container.getContainerId(), container.getUserId(),
+            previous, next, now, reason));
+    }
+
+    /**
+     * Conditionally store the new state. If another writer changed the stored state since
+     * we last saw it, adopt the stored value as the expected state and retry once.
+     */
+    private void persistHealthState(String containerId, HealthStatus status, Container.HealthState next, Instant changedAt) {
+        try {
+            if (containerRepository.updateHealthState(containerId, status.getPersistedState(), next, changedAt)) {
+                status.setPersistedState(next);
+                return;
+            }
+
+            Optional<Container> stored = containerRepository.findById(containerId);
+            if (stored.isEmpty()) {
+                return;
+            }
+            Container.HealthState storedState = stored.get().getHealthState();
+            status.setPersistedState(storedState);
+            if (storedState != next &&
+                containerRepository.updateHealthState(containerId, storedState, next, changedAt)) {
+                status.setPersistedState(next);
+            }
+        } catch (Exception e) {
+            log.error("Failed to persist health state {} for container {}", next, containerId, e);
         }
     }
     
     private Container.HealthCheckConfig createDefaultHealthCheckConfig() {
         Container.HealthCheckConfig config = new Container.HealthCheckConfig();
         config.setPath("/health");
-        config.setInterval(30);
+        config.setInterval(defaultInterval);
         config.setTimeout(5);
         config.setHealthyThreshold(2);
         config.setUnhealthyThreshold(3);
@@ -459,6 +547,9 @@ public class ContainerHealthCheckService {
      */
     public static class HealthStatus {
         private final String containerId;
+        private Container.HealthState state;
+        private Container.HealthState persistedState;
+        private Instant stateChangedAt;
         private boolean healthy = true;
         private int consecutiveFailures = 0;
         private int consecutiveSuccesses = 0;
@@ -467,10 +558,30 @@ public class ContainerHealthCheckService {
         private ResourceMetrics resourceMetrics;
         
         public HealthStatus(String containerId) {
+            this(containerId, null);
+        }
+
+        /**
+         * @param persistedState the state currently stored for the container, if any
+         */
+        public HealthStatus(String containerId, Container.HealthState persistedState) {
             this.containerId = containerId;
+            this.persistedState = persistedState;
+            this.state = persistedState != null ? persistedState : Container.HealthState.UNKNOWN;
             this.lastCheckTime = Instant.now();
         }
         
+        /**
+         * Status as last persisted for a container probed by another node; no probe details
+         */
+        static HealthStatus persisted(Container container) {
+            HealthStatus status = new HealthStatus(container.getContainerId(), container.getHealthState());
+            status.stateChangedAt = container.getHealthStateChangedAt();
+            status.healthy = status.state != Container.HealthState.UNHEALTHY;
+            status.lastCheckTime = null;
+            return status;
+        }
+
         public void updateHealth(boolean isHealthy) {
             this.healthy = isHealthy;
             this.lastCheckTime = Instant.now();
@@ -487,6 +598,14 @@ public class ContainerHealthCheckService {
         
         // Getters and setters
         public String getContainerId() { return containerId; }
+        public Container.HealthState getState() { return state; }
+        public Instant getStateChangedAt() { return stateChangedAt; }
+        void setState(Container.HealthState state, Instant changedAt) {
+            this.state = state;
+            this.stateChangedAt = changedAt;
+        }
+        Container.HealthState getPersistedState() { return persistedState; }
+        void setPersistedState(Container.HealthState persistedState) { this.persistedState = persistedState; }
         public boolean isHealthy() { return healthy; }
         public int getConsecutiveFailures() { return consecutiveFailures; }
         public int getConsecutiveSuccesses() { return consecutiveSuccesses; }
@@ -0,0 +1,277 @@
+package dev.somdip.containerplatform.service;
+
+import dev.somdip.containerplatform.model.Container;
+import dev.somdip.containerplatform.model.DashboardAggregate;
+import dev.somdip.containerplatform.model.Deployment;
+import dev.somdip.containerplatform.repository.ContainerChangedEvent;
+import dev.somdip.containerplatform.repository.ContainerRepository;
+import dev.somdip.containerplatform.repository.DashboardAggregateRepository;
+import dev.somdip.containerplatform.repository.DeploymentChangedEvent;
+import dev.somdip.containerplatform.repository.DeploymentRepository;
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-user {@link DashboardAggregate} in step with the container and deployment tables.
+ *
+ * Every container write applies the difference between the replaced and the new item to the
+ * owner's totals, and deployment writes refresh the short list of recent deployments. A missing
+ * aggregate is built from the source tables on first read. A leader-only job periodically
+ * rebuilds all aggregates to repair any drift, e.g. from an update lost to a crash between the
+ * source write and the aggregate write.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardAggregateService {
+
+    static final int RECENT_DEPLOYMENTS = 5;
+
+    private static final int MAX_DEPLOYMENT_LIST_ATTEMPTS = 3;
+
+    private final DashboardAggregateRepository aggregateRepository;
+    private final ContainerRepository containerRepository;
+    private final DeploymentRepository deploymentRepository;
+    private final ClusterCoordinator clusterCoordinator;
+
+    /**
+     * The user's aggregate, built from the source tables if there is none yet
+     */
+    public DashboardAggregate getAggregate(String userId) {
+        return aggregateRepository.findByUserId(userId)
+            .orElseGet(() -> rebuild(userId));
+    }
+
+    /**
+     * Recompute the user's aggregate from the container and deployment tables and store it
+     */
+    public DashboardAggregate rebuild(String userId) {
+        DashboardAggregate aggregate = compute(userId, containerRepository.findByUserId(userId),
+            deploymentRepository.findRecentByUserId(userId, RECENT_DEPLOYMENTS));
+        aggregateRepository.rebuild(aggregate);
+        return aggregate;
+    }
+
+    @EventListener
+    public void onContainerChanged(ContainerChangedEvent event) {
+        Container previous = event.getPrevious();
+        Container current = event.getCurrent();
+
+        Map<String, DashboardAggregate> deltas = new HashMap<>();
+        if (previous != null && previous.getUserId() != null) {
+            add(deltas.computeIfAbsent(previous.getUserId(), this::empty), previous, -1);
+        }
+        if (current != null && current.getUserId() != null) {
+            add(deltas.computeIfAbsent(current.getUserId(), this::empty), current, 1);
+        }
+
+        deltas.forEach((userId, delta) -> {
+            if (isZero(delta)) {
+                return;
+            }
+            try {
+                if (!aggregateRepository.addTotals(userId, delta)) {
+                    log.debug("No dashboard aggregate for user {} yet, it will be built on first read", userId);
+                }
+            } catch (Exception e) {
+                // The source write already happened; the next rebuild repairs the totals
+                log.warn("Failed to update dashboard aggregate for user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    @EventListener
+    public void onDeploymentChanged(DeploymentChangedEvent event) {
+        Deployment previous = event.getPrevious();
+        Deployment current = event.getCurrent();
+        Deployment deployment = current != null ? current : previous;
+        if (deployment == null || deployment.getUserId() == null) {
+            return;
+        }
+        // Steps are saved far more often than the status changes; only the status is listed
+        if (previous != null && current != null && previous.getStatus() == current.getStatus()
+                && Objects.equals(previous.getContainerName(), current.getContainerName())) {
+            return;
+        }
+
+        try {
+            for (int attempt = 0; attempt < MAX_DEPLOYMENT_LIST_ATTEMPTS; attempt++) {
+                DashboardAggregate aggregate = aggregateRepository.findByUserId(deployment.getUserId()).orElse(null);
+                if (aggregate == null) {
+                    return;
+                }
+                List<DashboardAggregate.RecentDeployment> updated = withDeployment(aggregate.getRecentDeployments(),
+                    deployment.getDeploymentId(), current != null ? toRecentDeployment(current) : null);
+                if (updated.equals(aggregate.getRecentDeployments())) {
+                    return;
+                }
+                if (aggregateRepository.replaceRecentDeployments(deployment.getUserId(), updated, aggregate.getVersion())) {
+                    return;
+                }
+            }
+            log.debug("Recent deployments of user {} kept changing, leaving them to the next rebuild", deployment.getUserId());
+        } catch (Exception e) {
+            log.warn("Failed to update recent deployments for user {}: {}", deployment.getUserId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild every aggregate from the source tables
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.aggregate.rebuild-interval-ms:21600000}",
+               initialDelayString = "${app.dashboard.aggregate.rebuild-initial-delay-ms:600000}")
+    public void rebuildAll() {
+        if (!clusterCoordinator.isLeader()) {
+            log.debug("Skipping dashboard aggregate rebuild - not the cluster leader");
+            return;
+        }
+
+        try {
+            Map<String, List<Container>> containersByUser = containerRepository.findAll().stream()
+                .filter(c -> c.getUserId() != null)
+                .collect(Collectors.groupingBy(Container::getUserId));
+            Map<String, List<Deployment>> deploymentsByUser = deploymentRepository.findAll().stream()
+                .filter(d -> d.getUserId() != null)
+                .collect(Collectors.groupingBy(Deployment::getUserId));
+
+            Set<String> userIds = new HashSet<>(aggregateRepository.findAllUserIds());
+            userIds.addAll(containersByUser.keySet());
+            userIds.addAll(deploymentsByUser.keySet());
+
+            int repaired = 0;
+            for (String userId : userIds) {
+                try {
+                    List<Deployment> recent = deploymentsByUser.getOrDefault(userId, List.of()).stream()
+                        .sorted(Comparator.comparing(DashboardAggregateService::deploymentTime,
+                            Comparator.nullsLast(Comparator.reverseOrder())))
+                        .limit(RECENT_DEPLOYMENTS)
+                        .collect(Collectors.toList());
+                    DashboardAggregate rebuilt = compute(userId, containersByUser.getOrDefault(userId, List.of()), recent);
+                    DashboardAggregate stored = aggregateRepository.findByUserId(userId).orElse(null);
+                    if (stored != null && !sameTotals(stored, rebuilt)) {
+                        log.info("Repairing dashboard aggregate for user {}: {} containers stored, {} actual",
+                            userId, stored.getTotalContainers(), rebuilt.getTotalContainers());
+                        repaired++;
+                    }
+                    aggregateRepository.rebuild(rebuilt);
+                } catch (Exception e) {
+                    log.error("Error rebuilding dashboard aggregate for user: {}", userId, e);
+                }
+            }
+
+            log.info("Rebuilt dashboard aggregates for {} users ({} repaired)", userIds.size(), repaired);
+
+        } catch (Exception e) {
+            log.error("Error in dashboard aggregate rebuild job", e);
+        }
+    }
+
+    private DashboardAggregate compute(String userId, List<Container> containers, List<Deployment> recentDeployments) {
+        DashboardAggregate aggregate = empty(userId);
+        for (Container container : containers) {
+            add(aggregate, container, 1);
+        }
+        aggregate.setRecentDeployments(recentDeployments.stream()
+            .map(DashboardAggregateService::toRecentDeployment)
+            .collect(Collectors.toList()));
+        aggregate.setRebuiltAt(Instant.now());
+        return aggregate;
+    }
+
+    private DashboardAggregate empty(String userId) {
+        return DashboardAggregate.builder().userId(userId).build();
+    }
+
+    /**
+     * Add (sign 1) or remove (sign -1) one container's share of the totals
+     */
+    private static void add(DashboardAggregate aggregate, Container container, int sign) {
+        long cpuUnits = container.getCpu() != null ? container.getCpu() : 0;
+        long memoryMb = container.getMemory() != null ? container.getMemory() : 0;
+
+        aggregate.setTotalContainers(aggregate.getTotalContainers() + sign);
+        if (container.getStatus() == Container.ContainerStatus.RUNNING) {
+            aggregate.setRunningContainers(aggregate.getRunningContainers() + sign);
+        } else if (container.getStatus() == Container.ContainerStatus.STOPPED) {
+            aggregate.setStoppedContainers(aggregate.getStoppedContainers() + sign);
+        }
+        aggregate.setTotalCpuUnits(aggregate.getTotalCpuUnits() + sign * cpuUnits);
+        aggregate.setTotalMemoryMb(aggregate.getTotalMemoryMb() + sign * memoryMb);
+
+        Container.ResourceUsage usage = container.getResourceUsage();
+        if (usage != null) {
+            if (usage.getAvgCpuPercent() != null) {
+                aggregate.setUsedCpuVCores(aggregate.getUsedCpuVCores()
+                    + sign * (cpuUnits / 1024.0) * (usage.getAvgCpuPercent() / 100.0));
+            }
+            if (usage.getAvgMemoryPercent() != null) {
+                aggregate.setUsedMemoryMb(aggregate.getUsedMemoryMb()
+                    + sign * memoryMb * (usage.getAvgMemoryPercent() / 100.0));
+            }
+        }
+    }
+
+    private static boolean isZero(DashboardAggregate delta) {
+        return delta.getTotalContainers() == 0 && delta.getRunningContainers() == 0
+            && delta.getStoppedContainers() == 0 && delta.getTotalCpuUnits() == 0
+            && delta.getTotalMemoryMb() == 0 && delta.getUsedCpuVCores() == 0
+            && delta.getUsedMemoryMb() == 0;
+    }
+
+    private static boolean sameTotals(DashboardAggregate a, DashboardAggregate b) {
+        return a.getTotalContainers() == b.getTotalContainers()
+            && a.getRunningContainers() == b.getRunningContainers()
+            && a.getStoppedContainers() == b.getStoppedContainers()
+            && a.getTotalCpuUnits() == b.getTotalCpuUnits()
+            && a.getTotalMemoryMb() == b.getTotalMemoryMb();
+    }
+
+    /**
+     * The recent deployment list with the given deployment replaced (or removed if
+     * {@code entry} is null), newest first and capped at {@link #RECENT_DEPLOYMENTS}
+     */
+    private static List<DashboardAggregate.RecentDeployment> withDeployment(
+            List<DashboardAggregate.RecentDeployment> current, String deploymentId,
+            DashboardAggregate.RecentDeployment entry) {
+        List<DashboardAggregate.RecentDeployment> updated = new ArrayList<>();
+        for (DashboardAggregate.RecentDeployment existing : current) {
+            if (!Objects.equals(existing.getDeploymentId(), deploymentId)) {
+                updated.add(existing);
+            }
+        }
+        if (entry != null) {
+            updated.add(entry);
+        }
+        updated.sort(Comparator.comparing(DashboardAggregate.RecentDeployment::getTimestamp,
+            Comparator.nullsLast(Comparator.reverseOrder())));
+        return updated.size() > RECENT_DEPLOYMENTS ? new ArrayList<>(updated.subList(0, RECENT_DEPLOYMENTS)) : updated;
+    }
+
+    private static DashboardAggregate.RecentDeployment toRecentDeployment(Deployment deployment) {
+        return DashboardAggregate.RecentDeployment.builder()
+            .deploymentId(deployment.getDeploymentId())
+            .containerName(deployment.getContainerName())
+            .status(deployment.getStatus() != null ? deployment.getStatus().name() : null)
+            .timestamp(deploymentTime(deployment))
+            .build();
+    }
+
+    private static Instant deploymentTime(Deployment deployment) {
+        return deployment.getCreatedAt() != null ? deployment.getCreatedAt() : deployment.getStartedAt();
+    }
+}
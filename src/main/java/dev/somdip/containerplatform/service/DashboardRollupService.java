@@ -0,0 +1,128 @@
+package dev.somdip.containerplatform.service;
+
+import dev.somdip.containerplatform.model.Container;
+import dev.somdip.containerplatform.model.DashboardRollup;
+import dev.somdip.containerplatform.model.Deployment;
+import dev.somdip.containerplatform.model.User;
+import dev.somdip.containerplatform.repository.ContainerRepository;
+import dev.somdip.containerplatform.repository.DashboardRollupRepository;
+import dev.somdip.containerplatform.repository.DeploymentRepository;
+import dev.somdip.containerplatform.repository.UserRepository;
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Writes one {@link DashboardRollup} per user and UTC day, shortly after midnight, so the
+ * dashboard's growth and trend widgets read a handful of small items instead of raw data.
+ * Rollups are plain overwrites, so re-running a day is harmless.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardRollupService {
+
+    private final UserRepository userRepository;
+    private final ContainerRepository containerRepository;
+    private final DeploymentRepository deploymentRepository;
+    private final DashboardRollupRepository rollupRepository;
+    private final DashboardService dashboardService;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Value("${app.dashboard.rollup.retention-days:400}")
+    private int retentionDays;
+
+    /**
+     * Roll up the previous UTC day
+     */
+    @Scheduled(cron = "${app.dashboard.rollup.cron:0 15 0 * * *}", zone = "UTC")
+    public void rollUpYesterday() {
+        if (!clusterCoordinator.isLeader()) {
+            log.debug("Skipping dashboard rollup - not the cluster leader");
+            return;
+        }
+        rollUp(LocalDate.now(ZoneOffset.UTC).minusDays(1));
+    }
+
+    public void rollUp(LocalDate day) {
+        log.info("Writing dashboard rollups for {}", day);
+
+        try {
+            Instant dayStart = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant dayEnd = dayStart.plus(1, ChronoUnit.DAYS);
+
+            Map<String, List<Container>> containersByUser = containerRepository.findAll().stream()
+                .filter(c -> c.getUserId() != null)
+                .collect(Collectors.groupingBy(Container::getUserId));
+            Map<String, Long> deploysByUser = deploymentRepository.findAll().stream()
+                .filter(d -> d.getUserId() != null)
+                .filter(d -> {
+                    Instant started = d.getStartedAt() != null ? d.getStartedAt() : d.getCreatedAt();
+                    return started != null && !started.isBefore(dayStart) && started.isBefore(dayEnd);
+                })
+                .collect(Collectors.groupingBy(Deployment::getUserId, Collectors.counting()));
+
+            int written = 0;
+            List<User> users = userRepository.findAll();
+            for (User user : users) {
+                try {
+                    List<Container> containers = containersByUser.getOrDefault(user.getUserId(), List.of());
+                    long deploys = deploysByUser.getOrDefault(user.getUserId(), 0L);
+                    Optional<DashboardRollup> previous = rollupRepository.find(user.getUserId(), day.minusDays(1));
+                    // Users who never had anything running get no rollups until they do
+                    if (containers.isEmpty() && deploys == 0 && previous.isEmpty()) {
+                        continue;
+                    }
+                    rollupRepository.save(buildRollup(user, day, containers, deploys, previous.orElse(null)));
+                    written++;
+                } catch (Exception e) {
+                    log.error("Error writing dashboard rollup for user: {}", user.getUserId(), e);
+                }
+            }
+
+            log.info("Wrote {} dashboard rollups for {} ({} users)", written, day, users.size());
+
+        } catch (Exception e) {
+            log.error("Error in dashboard rollup job for {}", day, e);
+        }
+    }
+
+    private DashboardRollup buildRollup(User user, LocalDate day, List<Container> containers,
+                                        long deploys, DashboardRollup previous) {
+        Map<String, Double> usage = dashboardService.getDailyUsage(containers, day);
+        double hoursUsed = user.getHoursUsed() != null ? user.getHoursUsed() : 0.0;
+
+        DashboardRollup rollup = new DashboardRollup();
+        rollup.setUserId(user.getUserId());
+        rollup.setDay(day.toString());
+        rollup.setContainerCount((long) containers.size());
+        rollup.setRunningContainers(containers.stream()
+            .filter(c -> c.getStatus() == Container.ContainerStatus.RUNNING)
+            .count());
+        rollup.setHoursUsedTotal(hoursUsed);
+        // Hours are tracked as a lifetime total; the day's share is the change since the last rollup
+        if (previous != null && previous.getHoursUsedTotal() != null) {
+            rollup.setRunningHours(Math.max(0, hoursUsed - previous.getHoursUsedTotal()));
+        }
+        rollup.setDeployCount(deploys);
+        rollup.setAvgCpuPercent(usage.get("cpu"));
+        rollup.setAvgMemoryPercent(usage.get("memory"));
+        rollup.setNetworkInBytesPerSecond(usage.get("networkIn"));
+        rollup.setNetworkOutBytesPerSecond(usage.get("networkOut"));
+        rollup.setCreatedAt(Instant.now());
+        rollup.setTtl(day.plusDays(retentionDays).atStartOfDay(ZoneOffset.UTC).toEpochSecond());
+        return rollup;
+    }
+}
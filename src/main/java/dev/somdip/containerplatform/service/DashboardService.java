@@ -7,23 +7,27 @@ import dev.somdip.containerplatform.dto.Notification;
 import dev.somdip.containerplatform.dto.RecentActivity;
 import dev.somdip.containerplatform.dto.UsageLimitDTO;
 import dev.somdip.containerplatform.model.Container;
+import dev.somdip.containerplatform.model.DashboardAggregate;
+import dev.somdip.containerplatform.model.DashboardRollup;
 import dev.somdip.containerplatform.model.User;
 import dev.somdip.containerplatform.model.Deployment;
 import dev.somdip.containerplatform.repository.ContainerRepository;
+import dev.somdip.containerplatform.repository.DashboardRollupRepository;
 import dev.somdip.containerplatform.repository.DeploymentRepository;
+import dev.somdip.containerplatform.service.metrics.DurableMetricsHistory;
+import dev.somdip.containerplatform.service.metrics.HistoryMetric;
+import dev.somdip.containerplatform.service.metrics.HistoryTier;
+import dev.somdip.containerplatform.service.metrics.MetricsHistoryStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
-import software.amazon.awssdk.services.cloudwatch.model.*;
-import software.amazon.awssdk.services.ecs.EcsClient;
-import software.amazon.awssdk.services.ecs.model.DescribeServicesRequest;
-import software.amazon.awssdk.services.ecs.model.DescribeServicesResponse;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -36,44 +40,41 @@ public class DashboardService {
 
     private final ContainerRepository containerRepository;
     private final DeploymentRepository deploymentRepository;
-    private final EcsClient ecsClient;
-    private final CloudWatchClient cloudWatchClient;
+    private final DashboardAggregateService dashboardAggregateService;
+    private final DashboardRollupRepository dashboardRollupRepository;
     private final UsageTrackingService usageTrackingService;
+    private final MetricsHistoryStore metricsHistoryStore;
+    private final DurableMetricsHistory durableMetricsHistory;
 
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
 
 
+
+    /**
+     * Dashboard totals for the user, served from the user's {@link DashboardAggregate}
+     */
     public DashboardStats getDashboardStats(String userId) {
         try {
-            // Get container counts
-            List<Container> userContainers = containerRepository.findByUserId(userId);
-            long totalContainers = userContainers.size();
-            long runningContainers = userContainers.stream()
-                .filter(c -> c.getStatus() == Container.ContainerStatus.RUNNING)
-                .count();
-            long stoppedContainers = userContainers.stream()
-                .filter(c -> c.getStatus() == Container.ContainerStatus.STOPPED)
-                .count();
-            
+            DashboardAggregate aggregate = dashboardAggregateService.getAggregate(userId);
+            long totalContainers = aggregate.getTotalContainers();
+
             // Get resource usage
-            ResourceUsage resourceUsage = calculateResourceUsage(userContainers);
-            
-            // Get recent deployments
-            List<Deployment> recentDeployments = deploymentRepository.findRecentByUserId(userId, 5);
-            
+            ResourceUsage resourceUsage = calculateResourceUsage(aggregate);
+
             // Get last month's container count for comparison
-            long lastMonthCount = getLastMonthContainerCount(userId);
+            long lastMonthCount = getLastMonthContainerCount(userId, totalContainers);
             long containerGrowth = totalContainers - lastMonthCount;
-            
+
             return DashboardStats.builder()
                 .totalContainers(totalContainers)
-                .runningContainers(runningContainers)
-                .stoppedContainers(stoppedContainers)
+                .runningContainers(aggregate.getRunningContainers())
+                .stoppedContainers(aggregate.getStoppedContainers())
                 .containerGrowth(containerGrowth)
                 .cpuUsagePercent(resourceUsage.getCpuPercent())
                 .memoryUsageGB(resourceUsage.getMemoryGB())
                 .totalCpuVCores(resourceUsage.getTotalCpu())
                 .totalMemoryGB(resourceUsage.getTotalMemory())
-                .recentDeployments(mapDeployments(recentDeployments))
+                .recentDeployments(mapDeployments(aggregate.getRecentDeployments()))
                 .build();
                 
         } catch (Exception e) {
@@ -96,91 +97,126 @@ public class DashboardService {
 
     public Map<String, List<Double>> getResourceUsageHistory(String userId, int days) {
         try {
-            // Get all user containers to calculate average usage
-            List<Container> containers = containerRepository.findByUserId(userId);
+            return getResourceUsageHistory(containerRepository.findByUserId(userId), days);
+        } catch (Exception e) {
+            log.error("Error getting resource usage history for user: {}", userId, e);
+            return createEmptyHistory(days);
+        }
+    }
 
-            if (containers.isEmpty()) {
-                return Map.of("cpu", Arrays.asList(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0),
-                             "memory", Arrays.asList(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0));
+    
+    /**
+     * Resource usage history for the dashboard trend widget, in the same shape as
+     * {@link #getResourceUsageHistory(List, int)}. Completed days come from the user's daily
+     * rollups (one query); today, and any day without a rollup, are computed from the metrics
+     * history of the pre-loaded containers.
+     */
+    public Map<String, List<Double>> getResourceUsageHistory(String userId, List<Container> containers, int days) {
+        try {
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            LocalDate first = today.minusDays(days - 1);
+            Map<String, DashboardRollup> rollups = new HashMap<>();
+            for (DashboardRollup rollup : dashboardRollupRepository.findRange(userId, first, today.minusDays(1))) {
+                rollups.put(rollup.getDay(), rollup);
             }
 
-            // Calculate average current usage across all containers
-            double avgCpu = containers.stream()
-                .filter(c -> c.getResourceUsage() != null && c.getResourceUsage().getAvgCpuPercent() != null)
-                .mapToDouble(c -> c.getResourceUsage().getAvgCpuPercent())
-                .average()
-                .orElse(0.0);
-
-            double avgMemory = containers.stream()
-                .filter(c -> c.getResourceUsage() != null && c.getResourceUsage().getAvgMemoryPercent() != null)
-                .mapToDouble(c -> c.getResourceUsage().getAvgMemoryPercent())
-                .average()
-                .orElse(0.0);
-
-            // Generate simulated 7-day history showing current values with slight variations
-            List<Double> cpuHistory = generateHistoryData(avgCpu, 7);
-            List<Double> memoryHistory = generateHistoryData(avgMemory, 7);
+            if (rollups.size() < days - 1) {
+                // Some completed days have no rollup yet (new user, or before the first rollup run)
+                Map<String, List<Double>> computed = getResourceUsageHistory(containers, days);
+                Map<String, List<Double>> usage = new HashMap<>();
+                computed.forEach((key, values) -> usage.put(key, new ArrayList<>(values)));
+                for (int i = 0; i < days - 1; i++) {
+                    DashboardRollup rollup = rollups.get(first.plusDays(i).toString());
+                    if (rollup != null) {
+                        setDay(usage, i, rollupUsage(rollup));
+                    }
+                }
+                return usage;
+            }
 
             Map<String, List<Double>> usage = new HashMap<>();
-            usage.put("cpu", cpuHistory);
-            usage.put("memory", memoryHistory);
-
+            for (String key : List.of("cpu", "memory", "networkIn", "networkOut")) {
+                usage.put(key, new ArrayList<>(Collections.nCopies(days, 0.0)));
+            }
+            for (int i = 0; i < days - 1; i++) {
+                setDay(usage, i, rollupUsage(rollups.get(first.plusDays(i).toString())));
+            }
+            setDay(usage, days - 1, getDailyUsage(containers, today));
             return usage;
 
         } catch (Exception e) {
             log.error("Error getting resource usage history for user: {}", userId, e);
-            return Map.of("cpu", Arrays.asList(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0),
-                         "memory", Arrays.asList(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0));
+            return getResourceUsageHistory(containers, days);
         }
     }
 
-    
     /**
-     * Get resource usage history using pre-loaded containers (avoids eventual consistency issues)
+     * One UTC day's usage for the containers: mean CPU and memory percent averaged over the
+     * containers, mean network throughput in bytes per second summed over them
+     */
+    public Map<String, Double> getDailyUsage(List<Container> containers, LocalDate day) {
+        long dayMillis = ChronoUnit.DAYS.getDuration().toMillis();
+        long from = day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+        Map<String, Double> usage = new HashMap<>();
+        usage.put("cpu", aggregateHistory(containers, HistoryMetric.CPU_PERCENT, from, dayMillis, 1, false, 1.0).get(0));
+        usage.put("memory", aggregateHistory(containers, HistoryMetric.MEMORY_PERCENT, from, dayMillis, 1, false, 1.0).get(0));
+        usage.put("networkIn", aggregateHistory(containers, HistoryMetric.NETWORK_RX_BYTES_PER_SECOND, from, dayMillis, 1, true, 1.0).get(0));
+        usage.put("networkOut", aggregateHistory(containers, HistoryMetric.NETWORK_TX_BYTES_PER_SECOND, from, dayMillis, 1, true, 1.0).get(0));
+        return usage;
+    }
+
+    private static Map<String, Double> rollupUsage(DashboardRollup rollup) {
+        Map<String, Double> usage = new HashMap<>();
+        usage.put("cpu", rollup.getAvgCpuPercent() != null ? rollup.getAvgCpuPercent() : 0.0);
+        usage.put("memory", rollup.getAvgMemoryPercent() != null ? rollup.getAvgMemoryPercent() : 0.0);
+        usage.put("networkIn", rollup.getNetworkInBytesPerSecond() != null ? rollup.getNetworkInBytesPerSecond() : 0.0);
+        usage.put("networkOut", rollup.getNetworkOutBytesPerSecond() != null ? rollup.getNetworkOutBytesPerSecond() : 0.0);
+        return usage;
+    }
+
+    private static void setDay(Map<String, List<Double>> usage, int index, Map<String, Double> values) {
+        usage.get("cpu").set(index, round(values.get("cpu")));
+        usage.get("memory").set(index, round(values.get("memory")));
+        usage.get("networkIn").set(index, round(values.get("networkIn") / BYTES_PER_MB));
+        usage.get("networkOut").set(index, round(values.get("networkOut") / BYTES_PER_MB));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0; // Round to 2 decimal places
+    }
+
+    /**
+     * Get resource usage history using pre-loaded containers (avoids eventual consistency issues).
+     * One value per UTC day, oldest first and ending today: CPU and memory are averaged over the
+     * containers, network throughput (MB/s) is summed. Days without samples are 0. Ranges
+     * longer than the in-memory history are read from the durable block store.
      */
     public Map<String, List<Double>> getResourceUsageHistory(List<Container> containers, int days) {
         try {
             if (containers.isEmpty()) {
-                return createEmptyHistory();
+                return createEmptyHistory(days);
             }
 
-            // Calculate average current usage across all containers
-            double avgCpu = containers.stream()
-                .filter(c -> c.getResourceUsage() != null && c.getResourceUsage().getAvgCpuPercent() != null)
-                .mapToDouble(c -> c.getResourceUsage().getAvgCpuPercent())
-                .average()
-                .orElse(0.0);
-
-            double avgMemory = containers.stream()
-                .filter(c -> c.getResourceUsage() != null && c.getResourceUsage().getAvgMemoryPercent() != null)
-                .mapToDouble(c -> c.getResourceUsage().getAvgMemoryPercent())
-                .average()
-                .orElse(0.0);
-
-            // Generate simulated 7-day history showing current values with slight variations
-            List<Double> cpuHistory = generateHistoryData(avgCpu, days);
-            List<Double> memoryHistory = generateHistoryData(avgMemory, days);
-            
-            // Generate network I/O history (simulated for now)
-            List<Double> networkInHistory = generateHistoryData(0.5, days);  // 0.5 MB/s average
-            List<Double> networkOutHistory = generateHistoryData(0.3, days); // 0.3 MB/s average
+            long dayMillis = ChronoUnit.DAYS.getDuration().toMillis();
+            long from = Instant.now().truncatedTo(ChronoUnit.DAYS).toEpochMilli() - (days - 1) * dayMillis;
 
             Map<String, List<Double>> usage = new HashMap<>();
-            usage.put("cpu", cpuHistory);
-            usage.put("memory", memoryHistory);
-            usage.put("networkIn", networkInHistory);
-            usage.put("networkOut", networkOutHistory);
+            usage.put("cpu", aggregateHistory(containers, HistoryMetric.CPU_PERCENT, from, dayMillis, days, false, 1.0));
+            usage.put("memory", aggregateHistory(containers, HistoryMetric.MEMORY_PERCENT, from, dayMillis, days, false, 1.0));
+            usage.put("networkIn", aggregateHistory(containers, HistoryMetric.NETWORK_RX_BYTES_PER_SECOND, from, dayMillis, days, true, BYTES_PER_MB));
+            usage.put("networkOut", aggregateHistory(containers, HistoryMetric.NETWORK_TX_BYTES_PER_SECOND, from, dayMillis, days, true, BYTES_PER_MB));
 
             return usage;
 
         } catch (Exception e) {
             log.error("Error getting resource usage history from containers", e);
-            return createEmptyHistory();
+            return createEmptyHistory(days);
         }
     }
     
-    private Map<String, List<Double>> createEmptyHistory() {
-        List<Double> zeros = Arrays.asList(0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    private Map<String, List<Double>> createEmptyHistory(int days) {
+        List<Double> zeros = Collections.nCopies(days, 0.0);
         return Map.of(
             "cpu", zeros,
             "memory", zeros,
@@ -188,18 +224,29 @@ public class DashboardService {
             "networkOut", zeros
         );
     }
-    private List<Double> generateHistoryData(double currentValue, int days) {
-        // Generate realistic-looking history data with slight variations around current value
-        List<Double> history = new ArrayList<>();
-        Random random = new Random();
-
-        for (int i = 0; i < days; i++) {
-            // Add ±20% variation
-            double variation = (random.nextDouble() - 0.5) * 0.4;
-            double value = Math.max(0, currentValue * (1 + variation));
-            history.add(Math.round(value * 100.0) / 100.0); // Round to 2 decimal places
+
+    private List<Double> aggregateHistory(List<Container> containers, HistoryMetric metric,
+                                          long from, long step, int count, boolean sum, double divisor) {
+        double[] totals = new double[count];
+        int[] samples = new int[count];
+        boolean durable = from < System.currentTimeMillis() - HistoryTier.HOUR.getRetentionMillis();
+        for (Container container : containers) {
+            double[] values = durable ?
+                durableMetricsHistory.resample(container.getContainerId(), metric, from, step, count) :
+                metricsHistoryStore.resample(container.getContainerId(), metric, from, step, count);
+            for (int i = 0; i < count; i++) {
+                if (!Double.isNaN(values[i])) {
+                    totals[i] += values[i];
+                    samples[i]++;
+                }
+            }
         }
 
+        List<Double> history = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double value = samples[i] == 0 ? 0.0 : (sum ? totals[i] : totals[i] / samples[i]) / divisor;
+            history.add(Math.round(value * 100.0) / 100.0); // Round to 2 decimal places
+        }
         return history;
     }
 
@@ -240,32 +287,14 @@ public class DashboardService {
         return activities;
     }
     
-    private ResourceUsage calculateResourceUsage(List<Container> containers) {
-        double totalCpu = 0;
-        double usedCpu = 0;
-        double totalMemory = 0;
-        double usedMemoryMB = 0;
-
-        for (Container container : containers) {
-            totalCpu += container.getCpu() / 1024.0; // Convert CPU units to vCPUs
-            totalMemory += container.getMemory() / 1024.0; // Convert MB to GB
-
-            // Use actual resource usage from container if available
-            if (container.getResourceUsage() != null) {
-                if (container.getResourceUsage().getAvgCpuPercent() != null) {
-                    // Calculate actual CPU usage based on allocated CPU and usage percentage
-                    double containerCpu = container.getCpu() / 1024.0;
-                    usedCpu += containerCpu * (container.getResourceUsage().getAvgCpuPercent() / 100.0);
-                }
-                if (container.getResourceUsage().getAvgMemoryPercent() != null) {
-                    // Calculate actual memory usage based on allocated memory and usage percentage
-                    usedMemoryMB += container.getMemory() * (container.getResourceUsage().getAvgMemoryPercent() / 100.0);
-                }
-            }
-        }
+    private ResourceUsage calculateResourceUsage(DashboardAggregate aggregate) {
+        double totalCpu = aggregate.getTotalCpuUnits() / 1024.0; // Convert CPU units to vCPUs
+        double totalMemory = aggregate.getTotalMemoryMb() / 1024.0; // Convert MB to GB
 
+        // Used CPU and memory are the allocations weighted by each container's average utilisation
+        double usedCpu = Math.max(0, aggregate.getUsedCpuVCores());
         double cpuPercent = totalCpu > 0 ? (usedCpu / totalCpu) * 100 : 0;
-        double usedMemoryGB = usedMemoryMB / 1024.0;
+        double usedMemoryGB = Math.max(0, aggregate.getUsedMemoryMb()) / 1024.0;
 
         return ResourceUsage.builder()
             .cpuPercent(cpuPercent)
@@ -275,20 +304,28 @@ public class DashboardService {
             .build();
     }
     
-    private long getLastMonthContainerCount(String userId) {
-        // In a real implementation, query historical data
-        // For now, return a simulated value
-        return 10L;
+    /**
+     * Container count at the end of the day a month ago, from the daily rollups. Users with a
+     * shorter history are compared with their oldest rollup, and users without any with
+     * {@code currentCount} (no growth).
+     */
+    private long getLastMonthContainerCount(String userId, long currentCount) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate monthAgo = today.minusDays(30);
+        return dashboardRollupRepository.findLatestOnOrBefore(userId, monthAgo)
+            .or(() -> dashboardRollupRepository.findRange(userId, monthAgo, today).stream().findFirst())
+            .map(DashboardRollup::getContainerCount)
+            .orElse(currentCount);
     }
     
-    private List<RecentActivity> mapDeployments(List<Deployment> deployments) {
+    private List<RecentActivity> mapDeployments(List<DashboardAggregate.RecentDeployment> deployments) {
         return deployments.stream()
             .map(d -> RecentActivity.builder()
                 .type("deployment")
                 .containerName(d.getContainerName())
                 .action("Deployed")
-                .timestamp(d.getCreatedAt())
-                .status(d.getStatus().name())
+                .timestamp(d.getTimestamp())
+                .status(d.getStatus())
                 .build())
             .collect(Collectors.toList());
     }
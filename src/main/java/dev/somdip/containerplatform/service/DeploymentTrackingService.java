@@ -2,8 +2,14 @@ package dev.somdip.containerplatform.service;
 
 import dev.somdip.containerplatform.model.Deployment;
 import dev.somdip.containerplatform.repository.DeploymentRepository;
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import dev.somdip.containerplatform.service.ecs.EcsServiceState;
+import dev.somdip.containerplatform.service.ecs.EcsStateEvent;
+import dev.somdip.containerplatform.service.ecs.EcsStateListener;
+import dev.somdip.containerplatform.service.ecs.EcsStateModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.ecs.EcsClient;
@@ -15,17 +21,60 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-public class DeploymentTrackingService {
+public class DeploymentTrackingService implements EcsStateListener {
     private static final Logger log = LoggerFactory.getLogger(DeploymentTrackingService.class);
+    private static final String SERVICE_PREFIX = "service-";
     
     private final DeploymentRepository deploymentRepository;
     private final EcsClient ecsClient;
+    private final ClusterCoordinator clusterCoordinator;
+    private final EcsStateModel ecsStateModel;
     private final Map<String, DeploymentStatus> deploymentStatusCache = new ConcurrentHashMap<>();
+    private volatile long lastEcsPollMillis;
+    
+    @Value("${aws.ecs.cluster}")
+    private String clusterName;
+    
+    @Value("${app.deployment.tracking.reconcile-interval-ms:60000}")
+    private long reconcileIntervalMillis;
     
     public DeploymentTrackingService(DeploymentRepository deploymentRepository,
-                                   EcsClient ecsClient) {
+                                   EcsClient ecsClient,
+                                   ClusterCoordinator clusterCoordinator,
+                                   EcsStateModel ecsStateModel) {
         this.deploymentRepository = deploymentRepository;
         this.ecsClient = ecsClient;
+        this.clusterCoordinator = clusterCoordinator;
+        this.ecsStateModel = ecsStateModel;
+        ecsStateModel.subscribe(this);
+    }
+    
+    /**
+     * Complete or fail deployments as soon as ECS reports the rollout outcome
+     */
+    @Override
+    public void onServiceEvent(EcsServiceState service, EcsStateEvent event) {
+        String eventName = event.getEventName();
+        boolean completed = "SERVICE_DEPLOYMENT_COMPLETED".equals(eventName);
+        boolean failed = "SERVICE_DEPLOYMENT_FAILED".equals(eventName);
+        if (event.getType() != EcsStateEvent.Type.DEPLOYMENT || !(completed || failed) ||
+            !service.getServiceName().startsWith(SERVICE_PREFIX) || !clusterCoordinator.isLeader()) {
+            return;
+        }
+        
+        String containerId = service.getServiceName().substring(SERVICE_PREFIX.length());
+        for (Deployment deployment : deploymentRepository.findByContainerId(containerId)) {
+            if (deployment.getStatus() != Deployment.DeploymentStatus.PENDING &&
+                deployment.getStatus() != Deployment.DeploymentStatus.IN_PROGRESS) {
+                continue;
+            }
+            if (completed) {
+                markDeploymentCompleted(deployment);
+            } else {
+                markDeploymentFailed(deployment, service.getDeploymentReason() != null ?
+                    service.getDeploymentReason() : "ECS deployment failed");
+            }
+        }
     }
     
     /**
@@ -55,18 +104,32 @@ public class DeploymentTrackingService {
     }
     
     /**
-     * Scheduled task to update deployment statuses
+     * Scheduled task to update deployment statuses.
+     * Only the cluster leader polls ECS; other nodes refresh their cached entries from the
+     * deployments table the leader writes to. Rollout outcomes normally arrive as ECS events
+     * (see {@link #onServiceEvent}), so while the event stream is healthy the leader only polls
+     * ECS once per reconcile interval to catch anything missed.
      */
     @Scheduled(fixedDelay = 5000) // Every 5 seconds
     public void updateDeploymentStatuses() {
-        List<Deployment> activeDeployments = deploymentRepository.findActiveDeployments();
-        
-        for (Deployment deployment : activeDeployments) {
-            try {
-                updateDeploymentStatus(deployment);
-            } catch (Exception e) {
-                log.error("Error updating deployment status: {}", deployment.getDeploymentId(), e);
+        if (clusterCoordinator.isLeader()) {
+            long now = System.currentTimeMillis();
+            if (ecsStateModel.isEventStreamHealthy() && now - lastEcsPollMillis < reconcileIntervalMillis) {
+                return;
+            }
+            lastEcsPollMillis = now;
+
+            List<Deployment> activeDeployments = deploymentRepository.findActiveDeployments();
+
+            for (Deployment deployment : activeDeployments) {
+                try {
+                    updateDeploymentStatus(deployment);
+                } catch (Exception e) {
+                    log.error("Error updating deployment status: {}", deployment.getDeploymentId(), e);
+                }
             }
+        } else {
+            refreshCachedStatuses();
         }
         
         // Clean up completed deployments from cache after 5 minutes
@@ -78,16 +141,30 @@ public class DeploymentTrackingService {
         });
     }
     
+    private void refreshCachedStatuses() {
+        for (Map.Entry<String, DeploymentStatus> entry : deploymentStatusCache.entrySet()) {
+            if (entry.getValue().isCompleted()) {
+                continue;
+            }
+            try {
+                deploymentRepository.findById(entry.getKey())
+                    .ifPresent(deployment -> entry.setValue(new DeploymentStatus(deployment)));
+            } catch (Exception e) {
+                log.error("Error refreshing deployment status: {}", entry.getKey(), e);
+            }
+        }
+    }
+    
     private void updateDeploymentStatus(Deployment deployment) {
         log.debug("Updating status for deployment: {}", deployment.getDeploymentId());
         
         // Check ECS service status
         if (deployment.getContainerId() != null) {
-            String serviceName = "service-" + deployment.getContainerId();
+            String serviceName = SERVICE_PREFIX + deployment.getContainerId();
             
             try {
                 DescribeServicesRequest request = DescribeServicesRequest.builder()
-                    .cluster("somdip-dev-cluster")
+                    .cluster(clusterName)
                     .services(serviceName)
                     .build();
                 
@@ -95,6 +172,7 @@ public class DeploymentTrackingService {
                 
                 if (!response.services().isEmpty()) {
                     software.amazon.awssdk.services.ecs.model.Service service = response.services().get(0);
+                    ecsStateModel.applyService(service);
                     
                     // Update deployment based on service status
                     updateDeploymentFromServiceStatus(deployment, service);
@@ -173,7 +251,7 @@ public class DeploymentTrackingService {
                                software.amazon.awssdk.services.ecs.model.Service service) {
         try {
             ListTasksRequest listRequest = ListTasksRequest.builder()
-                .cluster("somdip-dev-cluster")
+                .cluster(clusterName)
                 .serviceName(service.serviceName())
                 .desiredStatus(DesiredStatus.RUNNING)
                 .build();
@@ -182,11 +260,12 @@ public class DeploymentTrackingService {
             
             if (!listResponse.taskArns().isEmpty()) {
                 DescribeTasksRequest describeRequest = DescribeTasksRequest.builder()
-                    .cluster("somdip-dev-cluster")
+                    .cluster(clusterName)
                     .tasks(listResponse.taskArns())
                     .build();
                 
                 DescribeTasksResponse describeResponse = ecsClient.describeTasks(describeRequest);
+                ecsStateModel.applyTaskListing(service.serviceName(), describeResponse.tasks());
                 
                 boolean allHealthy = describeResponse.tasks().stream()
                     .allMatch(task -> "HEALTHY".equals(task.healthStatus().toString()));
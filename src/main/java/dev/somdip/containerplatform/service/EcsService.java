@@ -4,6 +4,7 @@ import dev.somdip.containerplatform.model.Container;
 import dev.somdip.containerplatform.model.Deployment;
 import dev.somdip.containerplatform.repository.ContainerRepository;
 import dev.somdip.containerplatform.repository.DeploymentRepository;
+import dev.somdip.containerplatform.service.ecs.EcsStateModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +13,7 @@ import software.amazon.awssdk.services.ecs.EcsClient;
 import software.amazon.awssdk.services.ecs.model.*;
 import software.amazon.awssdk.services.elasticloadbalancingv2.ElasticLoadBalancingV2Client;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -26,6 +28,7 @@ public class EcsService {
     private final TargetGroupService targetGroupService;
     private final DeploymentRepository deploymentRepository;
     private final ContainerRepository containerRepository;
+    private final EcsStateModel ecsStateModel;
     
     @Value("${aws.ecs.cluster}")
     private String clusterName;
@@ -51,6 +54,9 @@ public class EcsService {
     @Value("${aws.alb.targetGroup.users.arn}")
     private String userContainersTargetGroupArn;
     
+    @Value("${aws.alb.containers.domain:containers.somdip.dev}")
+    private String containersDomain;
+    
     @Value("${aws.ecr.healthProxyImage}")
     private String healthProxyImage;
 
@@ -67,12 +73,14 @@ public class EcsService {
                      ElasticLoadBalancingV2Client elbClient,
                      TargetGroupService targetGroupService,
                      DeploymentRepository deploymentRepository,
-                     ContainerRepository containerRepository) {
+                     ContainerRepository containerRepository,
+                     EcsStateModel ecsStateModel) {
         this.ecsClient = ecsClient;
         this.elbClient = elbClient;
         this.targetGroupService = targetGroupService;
         this.deploymentRepository = deploymentRepository;
         this.containerRepository = containerRepository;
+        this.ecsStateModel = ecsStateModel;
     }
     
     public Deployment deployContainer(Container container, String userId) {
@@ -80,6 +88,9 @@ public class EcsService {
         
         // Create deployment record
         Deployment deployment = createDeploymentRecord(container, userId);
+        String previousTargetGroupArn = container.getTargetGroupArn();
+        String newTargetGroupArn = null;
+        boolean serviceUsesNewTargetGroup = false;
         
         try {
             // Step 1: Create task definition
@@ -88,10 +99,17 @@ public class EcsService {
             container.setTaskDefinitionArn(taskDefinitionArn);
             updateDeploymentStep(deployment, "CREATE_TASK_DEFINITION", Deployment.DeploymentStep.StepStatus.COMPLETED);
             
+            // Step 1b: Own target group, so ALB metrics can be split per container. It is attached
+            // to the listener right away, but only gets traffic once it has a healthy target (step 5).
+            updateDeploymentStep(deployment, "CREATE_TARGET_GROUP", Deployment.DeploymentStep.StepStatus.IN_PROGRESS);
+            newTargetGroupArn = ensureContainerTargetGroup(container);
+            updateDeploymentStep(deployment, "CREATE_TARGET_GROUP", Deployment.DeploymentStep.StepStatus.COMPLETED);
+            
             // Step 2: Create or update service
             updateDeploymentStep(deployment, "CREATE_SERVICE", Deployment.DeploymentStep.StepStatus.IN_PROGRESS);
             String serviceArn = createOrUpdateService(container);
             container.setServiceArn(serviceArn);
+            serviceUsesNewTargetGroup = newTargetGroupArn != null;
             updateDeploymentStep(deployment, "CREATE_SERVICE", Deployment.DeploymentStep.StepStatus.COMPLETED);
             
             // Step 3: Wait for service to stabilize
@@ -108,8 +126,10 @@ public class EcsService {
             // Step 5: Register with target group (without port parameter)
          // Step 5: Register with target group with port
             updateDeploymentStep(deployment, "REGISTER_TARGET_GROUP", Deployment.DeploymentStep.StepStatus.IN_PROGRESS);
-            targetGroupService.registerTaskWithTargetGroup(userContainersTargetGroupArn, taskArn, container.getPort());
-            container.setTargetGroupArn(userContainersTargetGroupArn);
+            targetGroupService.registerTaskWithTargetGroup(container.getTargetGroupArn(), taskArn, container.getPort());
+            if (targetGroupService.isContainerTargetGroup(container.getTargetGroupArn())) {
+                routeToContainerTargetGroup(container);
+            }
             updateDeploymentStep(deployment, "REGISTER_TARGET_GROUP", Deployment.DeploymentStep.StepStatus.COMPLETED);
             
             // Step 6: Configure health check
@@ -131,6 +151,17 @@ public class EcsService {
         } catch (Exception e) {
             log.error("Failed to deploy container: {}", container.getContainerId(), e);
             
+            // Drop a target group created by this deployment, with its rule, unless the service
+            // already uses it. Then it stays on the container, its rule keeps sending traffic to
+            // the shared group, and the next deployment retries the switch (step 5).
+            if (newTargetGroupArn != null && !serviceUsesNewTargetGroup) {
+                container.setTargetGroupArn(previousTargetGroupArn);
+                targetGroupService.deleteContainerTargetGroup(newTargetGroupArn);
+            } else if (newTargetGroupArn != null) {
+                log.warn("Keeping target group {} of container {}, which its service already uses",
+                    newTargetGroupArn, container.getContainerId());
+            }
+            
             // Mark deployment as failed
             deployment.setStatus(Deployment.DeploymentStatus.FAILED);
             deployment.setErrorMessage(e.getMessage());
@@ -158,6 +189,7 @@ public class EcsService {
         // Initialize deployment steps
         List<Deployment.DeploymentStep> steps = new ArrayList<>();
         steps.add(createStep("CREATE_TASK_DEFINITION", "Creating ECS task definition"));
+        steps.add(createStep("CREATE_TARGET_GROUP", "Creating load balancer target group"));
         steps.add(createStep("CREATE_SERVICE", "Creating ECS service"));
         steps.add(createStep("WAIT_FOR_STABLE", "Waiting for service to stabilize"));
         steps.add(createStep("GET_TASK_INFO", "Getting task information"));
@@ -203,12 +235,15 @@ public class EcsService {
     private void waitForServiceStable(String serviceArn) throws InterruptedException {
         log.info("Waiting for service to stabilize: {} (timeout: {}s)", serviceArn, deploymentTimeoutSeconds);
 
+        // Between checks wait for the next ECS event for the service. With events flowing the
+        // describe is only a periodic safety net; without them it falls back to fixed polling.
         int checkIntervalSeconds = 10;
-        int maxAttempts = deploymentTimeoutSeconds / checkIntervalSeconds;
+        int eventWaitSeconds = 30;
         int attempt = 0;
         long startTime = System.currentTimeMillis();
+        long deadline = startTime + deploymentTimeoutSeconds * 1000L;
 
-        while (attempt < maxAttempts) {
+        while (System.currentTimeMillis() < deadline) {
             DescribeServicesRequest request = DescribeServicesRequest.builder()
                 .cluster(clusterName)
                 .services(serviceArn)
@@ -218,6 +253,7 @@ public class EcsService {
 
             if (!response.services().isEmpty()) {
                 software.amazon.awssdk.services.ecs.model.Service service = response.services().get(0);
+                ecsStateModel.applyService(service);
 
                 // More lenient stability check:
                 // 1. Running count meets desired count
@@ -241,13 +277,18 @@ public class EcsService {
             }
 
             attempt++;
-            Thread.sleep(checkIntervalSeconds * 1000);
+            long waitMillis = Math.min(
+                (ecsStateModel.isEventStreamHealthy() ? eventWaitSeconds : checkIntervalSeconds) * 1000L,
+                Math.max(0, deadline - System.currentTimeMillis()));
+            if (waitMillis > 0) {
+                ecsStateModel.awaitServiceEvent(serviceArn, Duration.ofMillis(waitMillis));
+            }
         }
 
         long totalSeconds = (System.currentTimeMillis() - startTime) / 1000;
         throw new RuntimeException(String.format(
             "Service did not stabilize within timeout (%ds / %d attempts). Elapsed: %ds",
-            deploymentTimeoutSeconds, maxAttempts, totalSeconds));
+            deploymentTimeoutSeconds, attempt, totalSeconds));
     }
     
     private String getRunningTaskArn(String serviceArn) {
@@ -266,6 +307,63 @@ public class EcsService {
         return response.taskArns().get(0);
     }
     
+    /**
+     * Move the container off the shared user target group onto its own one, attached to the
+     * listener by a host-header rule that still sends its traffic to the shared group. ECS only
+     * accepts an attached target group for the service. See {@link #routeToContainerTargetGroup}.
+     *
+     * @return the new target group, or null if the container already had its own
+     */
+    private String ensureContainerTargetGroup(Container container) {
+        if (targetGroupService.isContainerTargetGroup(container.getTargetGroupArn())) {
+            // Recreates the rule if an earlier deployment lost it; no-op otherwise
+            targetGroupService.createHostRule(container.getTargetGroupArn(), userContainersTargetGroupArn,
+                containerHosts(container));
+            return null;
+        }
+        
+        String containerTargetGroupArn = targetGroupService.createTargetGroup(container.getContainerId(), container.getPort());
+        container.setTargetGroupArn(containerTargetGroupArn);
+        targetGroupService.createHostRule(containerTargetGroupArn, userContainersTargetGroupArn, containerHosts(container));
+        return containerTargetGroupArn;
+    }
+    
+    /**
+     * Send the container's traffic to its own target group. Until then requests keep going
+     * through the shared user target group, so the switch must not happen before the new
+     * group can serve them.
+     */
+    private void routeToContainerTargetGroup(Container container) {
+        String containerTargetGroupArn = container.getTargetGroupArn();
+        if (!targetGroupService.hasHealthyTarget(containerTargetGroupArn)) {
+            throw new RuntimeException("Target group has no healthy target: " + containerTargetGroupArn);
+        }
+        targetGroupService.activateHostRule(containerTargetGroupArn);
+    }
+    
+    /**
+     * Hosts routed to the container: its subdomain and custom domain. A container with neither
+     * gets a placeholder host no request carries, which still attaches its target group.
+     */
+    private List<String> containerHosts(Container container) {
+        List<String> hosts = new ArrayList<>();
+        if (container.getSubdomain() != null) {
+            hosts.add(container.getSubdomain() + "." + containersDomain);
+        }
+        if (container.getCustomDomain() != null && !container.getCustomDomain().isEmpty()) {
+            hosts.add(container.getCustomDomain());
+        }
+        if (hosts.isEmpty()) {
+            hosts.add(container.getContainerId() + ".unrouted.invalid");
+        }
+        return hosts;
+    }
+    
+    private String containerTargetGroupArn(Container container) {
+        return targetGroupService.isContainerTargetGroup(container.getTargetGroupArn()) ?
+            container.getTargetGroupArn() : userContainersTargetGroupArn;
+    }
+    
     private void configureHealthCheck(Container container) {
         if (container.getHealthCheck() != null) {
             // Health check configuration is done at the target group level
@@ -485,6 +583,11 @@ public class EcsService {
                     .service(serviceName)
                     .taskDefinition(container.getTaskDefinitionArn())
                     .desiredCount(1)
+                    .loadBalancers(LoadBalancer.builder()
+                        .targetGroupArn(containerTargetGroupArn(container))
+                        .containerName(container.getContainerName())
+                        .containerPort(container.getPort())
+                        .build())
                     .deploymentConfiguration(DeploymentConfiguration.builder()
                         .maximumPercent(200)
                         .minimumHealthyPercent(100)
@@ -517,7 +620,7 @@ public class EcsService {
                     .build())
                 .build())
             .loadBalancers(LoadBalancer.builder()
-                    .targetGroupArn(userContainersTargetGroupArn)
+                    .targetGroupArn(containerTargetGroupArn(container))
                     .containerName(container.getContainerName())
                     .containerPort(container.getPort())
                     .build())
@@ -570,7 +673,7 @@ public class EcsService {
             // First deregister from target group with port
             try {
                 String taskArn = getRunningTaskArn(serviceArn);
-                targetGroupService.deregisterTaskFromTargetGroup(userContainersTargetGroupArn, taskArn, container.getPort());
+                targetGroupService.deregisterTaskFromTargetGroup(containerTargetGroupArn(container), taskArn, container.getPort());
                 log.info("Deregistered task {} from target group on port {}", taskArn, container.getPort());
             } catch (Exception e) {
                 log.warn("Failed to deregister from target group: {}", e.getMessage());
@@ -595,6 +698,11 @@ public class EcsService {
     public void deleteService(String serviceArn, String containerId) {
         log.info("Deleting ECS service: {}", serviceArn);
         
+        String containerTargetGroup = containerRepository.findById(containerId)
+            .map(Container::getTargetGroupArn)
+            .filter(targetGroupService::isContainerTargetGroup)
+            .orElse(null);
+        
         try {
             // Check if service exists and its status
             DescribeServicesRequest describeRequest = DescribeServicesRequest.builder()
@@ -643,6 +751,11 @@ public class EcsService {
             if (!e.getMessage().contains("ServiceNotFoundException")) {
                 throw new RuntimeException("Failed to delete service", e);
             }
+        } finally {
+            // Runs in the background; the target group is released only once the service is gone
+            if (containerTargetGroup != null) {
+                targetGroupService.deleteContainerTargetGroup(containerTargetGroup);
+            }
         }
     }
     
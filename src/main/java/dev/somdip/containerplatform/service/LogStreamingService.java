@@ -1,5 +1,8 @@
 package dev.somdip.containerplatform.service;
 
+import dev.somdip.containerplatform.service.logs.LogFilter;
+import dev.somdip.containerplatform.service.logs.LogTailCursor;
+import dev.somdip.containerplatform.service.logs.RecentLogCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,9 +10,15 @@ import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
 import software.amazon.awssdk.services.cloudwatchlogs.model.*;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,43 +27,37 @@ import java.util.stream.Collectors;
 public class LogStreamingService {
 
     private final CloudWatchLogsClient cloudWatchLogsClient;
+    private final RecentLogCache recentLogCache;
     
     @Value("${aws.cloudwatch.logGroup.users}")
     private String userLogGroup;
+
+    // New tasks (deploys, restarts) write to new streams; how often a tail looks for one
+    @Value("${app.logs.tail.stream-check-interval-ms:30000}")
+    private long streamCheckIntervalMillis;
+
+    @Value("${app.logs.tail.max-lines-per-poll:1000}")
+    private int maxLinesPerPoll;
     
     public String getLatestLogs(String containerId, int limit) {
+        // Containers being tailed have their recent lines cached
+        Optional<List<String>> cached = recentLogCache.latest(containerId, limit);
+        if (cached.isPresent()) {
+            return cached.get().isEmpty()
+                ? "No logs available for this container yet."
+                : String.join("\n", cached.get());
+        }
+
         try {
-            // Use prefix to match log streams: {containerId}/app/*
             // Note: containerId is already verified to belong to the authenticated user in WebApiController
-            String logStreamPrefix = containerId + "/app/";
-
-            // First, find all log streams with this prefix
-            // Note: Cannot use orderBy with logStreamNamePrefix, will be ordered by LogStreamName
-            DescribeLogStreamsRequest describeRequest = DescribeLogStreamsRequest.builder()
-                .logGroupName(userLogGroup)
-                .logStreamNamePrefix(logStreamPrefix)
-                .descending(true)
-                .limit(10)
-                .build();
-
-            DescribeLogStreamsResponse describeResponse = cloudWatchLogsClient.describeLogStreams(describeRequest);
-
-            if (describeResponse.logStreams().isEmpty()) {
+            Optional<LogStream> mostRecentStream = findMostRecentStream(containerId);
+            if (mostRecentStream.isEmpty()) {
                 return "No logs available for this container yet.";
             }
 
-            // Find the most recent log stream by lastEventTimestamp
-            LogStream mostRecentStream = describeResponse.logStreams().stream()
-                .filter(stream -> stream.lastEventTimestamp() != null)
-                .max((s1, s2) -> Long.compare(
-                    s1.lastEventTimestamp() != null ? s1.lastEventTimestamp() : 0,
-                    s2.lastEventTimestamp() != null ? s2.lastEventTimestamp() : 0
-                ))
-                .orElse(describeResponse.logStreams().get(0));
-
             GetLogEventsRequest getLogsRequest = GetLogEventsRequest.builder()
                 .logGroupName(userLogGroup)
-                .logStreamName(mostRecentStream.logStreamName())
+                .logStreamName(mostRecentStream.get().logStreamName())
                 .limit(limit)
                 .startFromHead(false)
                 .build();
@@ -81,29 +84,178 @@ public class LogStreamingService {
         }
     }
     
-    public List<String> getLogsBetween(String containerId, Instant startTime, Instant endTime) {
+    /**
+     * Lines written since the cursor's last read, advancing the cursor. The first read returns
+     * the last {@code initialLines} lines of the newest stream; later reads only fetch events
+     * after the stored forward token, and look for a newer stream at most every
+     * {@code app.logs.tail.stream-check-interval-ms}. When the container moves to a new stream
+     * the rest of the old one is lost and the new one is read from its start.
+     */
+    public List<String> tail(String containerId, LogTailCursor cursor, int initialLines) {
         try {
-            String logStreamPrefix = containerId + "/app/";
+            long now = System.currentTimeMillis();
+            String streamName = cursor.getLogStreamName();
+            boolean switched = false;
+            if (!cursor.isStarted() || now - cursor.getStreamCheckedAtMillis() >= streamCheckIntervalMillis) {
+                Optional<LogStream> mostRecentStream = findMostRecentStream(containerId);
+                cursor.streamChecked(now);
+                if (mostRecentStream.isEmpty()) {
+                    return List.of();
+                }
+                switched = cursor.isStarted() && !mostRecentStream.get().logStreamName().equals(streamName);
+                streamName = mostRecentStream.get().logStreamName();
+            }
 
-            FilterLogEventsRequest request = FilterLogEventsRequest.builder()
+            GetLogEventsRequest.Builder request = GetLogEventsRequest.builder()
                 .logGroupName(userLogGroup)
-                .logStreamNamePrefix(logStreamPrefix)
-                .startTime(startTime.toEpochMilli())
-                .endTime(endTime.toEpochMilli())
-                .build();
+                .logStreamName(streamName);
+            if (!cursor.isStarted()) {
+                request.limit(initialLines).startFromHead(false);
+            } else if (switched) {
+                log.debug("Container {} logs moved to stream {}", containerId, streamName);
+                request.limit(maxLinesPerPoll).startFromHead(true);
+            } else {
+                request.limit(maxLinesPerPoll).startFromHead(true).nextToken(cursor.getNextForwardToken());
+            }
 
-            FilterLogEventsResponse response = cloudWatchLogsClient.filterLogEvents(request);
+            GetLogEventsResponse response = cloudWatchLogsClient.getLogEvents(request.build());
+            cursor.advance(streamName, response.nextForwardToken());
 
             return response.events().stream()
                 .map(event -> formatLogEvent(event))
                 .collect(Collectors.toList());
 
+        } catch (ResourceNotFoundException e) {
+            log.debug("Log stream not found for container: {}", containerId);
+            return List.of();
+        } catch (Exception e) {
+            log.error("Error tailing logs for container: {}", containerId, e);
+            throw new RuntimeException("Failed to fetch logs", e);
+        }
+    }
+
+    /**
+     * The container's stream with the most recent event. Streams are named
+     * {containerId}/app/{taskId}, and ordering by event time cannot be combined with a prefix.
+     */
+    private Optional<LogStream> findMostRecentStream(String containerId) {
+        DescribeLogStreamsRequest describeRequest = DescribeLogStreamsRequest.builder()
+            .logGroupName(userLogGroup)
+            .logStreamNamePrefix(containerId + "/app/")
+            .descending(true)
+            .limit(10)
+            .build();
+
+        DescribeLogStreamsResponse describeResponse = cloudWatchLogsClient.describeLogStreams(describeRequest);
+
+        if (describeResponse.logStreams().isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(describeResponse.logStreams().stream()
+            .filter(stream -> stream.lastEventTimestamp() != null)
+            .max((s1, s2) -> Long.compare(s1.lastEventTimestamp(), s2.lastEventTimestamp()))
+            .orElse(describeResponse.logStreams().get(0)));
+    }
+    
+    /**
+     * The most recent {@code limit} lines matching the filter, oldest first. The filter's
+     * time window (by default the last {@code defaultWindow}) and its pushable parts are
+     * evaluated by CloudWatch; every returned line has also passed {@link LogFilter#matches}.
+     */
+    public List<String> filterRecent(String containerId, LogFilter filter, int limit, Duration defaultWindow) throws IOException {
+        Instant until = filter.getUntil() != null ? filter.getUntil() : Instant.now();
+        Instant since = filter.getSince() != null ? filter.getSince() : until.minus(defaultWindow);
+
+        // Events come oldest first; keep only the newest matches
+        Deque<String> lines = new ArrayDeque<>();
+        forEachLogPage(containerId, since, until, filter.toFilterPattern(), events -> {
+            for (FilteredLogEvent event : events) {
+                String line = formatLogEvent(event);
+                if (filter.matches(line)) {
+                    if (lines.size() >= limit) {
+                        lines.removeFirst();
+                    }
+                    lines.addLast(line);
+                }
+            }
+        });
+
+        return new ArrayList<>(lines);
+    }
+    
+    /**
+     * Receives the events of a range one {@code FilterLogEvents} page at a time
+     */
+    public interface LogPageHandler {
+        void onPage(List<FilteredLogEvent> events) throws IOException;
+    }
+
+    /**
+     * Walk every event of a container between two instants, following {@code nextToken} until
+     * the range is exhausted. Only one page is held at a time. Stops with an
+     * {@link InterruptedIOException} if the calling thread is interrupted, and with the
+     * handler's exception if it fails (e.g. because the client went away).
+     *
+     * @param filterPattern CloudWatch filter pattern, or null for all events
+     * @return the number of events read
+     */
+    public long forEachLogPage(String containerId, Instant startTime, Instant endTime,
+                               String filterPattern, LogPageHandler handler) throws IOException {
+        FilterLogEventsRequest.Builder request = FilterLogEventsRequest.builder()
+            .logGroupName(userLogGroup)
+            .logStreamNamePrefix(containerId + "/app/")
+            .startTime(startTime.toEpochMilli())
+            .endTime(endTime.toEpochMilli());
+        if (filterPattern != null) {
+            request.filterPattern(filterPattern);
+        }
+
+        long events = 0;
+        String nextToken = null;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Log read cancelled for container " + containerId);
+            }
+            FilterLogEventsResponse response = cloudWatchLogsClient.filterLogEvents(request.nextToken(nextToken).build());
+            if (!response.events().isEmpty()) {
+                handler.onPage(response.events());
+                events += response.events().size();
+            }
+            nextToken = response.nextToken();
+        } while (nextToken != null);
+        return events;
+    }
+
+    /**
+     * All lines between two instants. Meant for short ranges; long ones should be streamed
+     * with {@link #forEachLogPage} instead of being collected.
+     */
+    public List<String> getLogsBetween(String containerId, Instant startTime, Instant endTime) {
+        List<String> lines = new ArrayList<>();
+        try {
+            forEachLogPage(containerId, startTime, endTime, null,
+                events -> events.forEach(event -> lines.add(formatLogEvent(event))));
+            return lines;
+
         } catch (Exception e) {
             log.error("Error fetching logs between times for container: {}", containerId, e);
             return new ArrayList<>();
         }
     }
     
+    /**
+     * The most recent {@code limit} lines matching the filter: from the recent lines cache
+     * while the container is being tailed, otherwise from CloudWatch over the last hour
+     */
+    public List<String> searchRecentLogs(String containerId, LogFilter filter, int limit) throws IOException {
+        Optional<List<String>> cached = recentLogCache.search(containerId, filter, limit);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return filterRecent(containerId, filter, limit, Duration.ofHours(1));
+    }
+
     public List<String> searchLogs(String containerId, String searchTerm, int limit) {
         try {
             String logStreamPrefix = containerId + "/app/";
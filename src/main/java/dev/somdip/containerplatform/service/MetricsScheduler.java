@@ -1,7 +1,8 @@
 package dev.somdip.containerplatform.service;
 
-import dev.somdip.containerplatform.model.User;
-import dev.somdip.containerplatform.repository.UserRepository;
+import dev.somdip.containerplatform.model.Container;
+import dev.somdip.containerplatform.repository.ContainerRepository;
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,28 +16,26 @@ import java.util.List;
 public class MetricsScheduler {
     
     private final MetricsService metricsService;
-    private final UserRepository userRepository;
+    private final ContainerRepository containerRepository;
+    private final ClusterCoordinator clusterCoordinator;
     
     /**
-     * Update metrics for all users' running containers every 5 minutes
+     * Update metrics for the running containers this node owns every 5 minutes.
+     * Containers are split across platform nodes by the cluster's consistent-hash ring.
      */
     @Scheduled(fixedRate = 300000) // 5 minutes in milliseconds
     public void updateAllMetrics() {
-        log.info("Starting scheduled metrics update for all users");
+        log.info("Starting scheduled metrics update");
         
         try {
-            List<User> users = userRepository.findAll();
-            
-            for (User user : users) {
-                try {
-                    log.debug("Updating metrics for user: {}", user.getUserId());
-                    metricsService.updateAllUserContainerMetricsAsync(user.getUserId());
-                } catch (Exception e) {
-                    log.error("Error updating metrics for user {}: {}", user.getUserId(), e.getMessage());
-                }
-            }
+            List<Container> containers = containerRepository.findAll().stream()
+                .filter(c -> c.getStatus() == Container.ContainerStatus.RUNNING)
+                .filter(c -> clusterCoordinator.owns(c.getContainerId()))
+                .toList();
+
+            metricsService.updateContainerMetrics(containers);
             
-            log.info("Scheduled metrics update initiated for {} users", users.size());
+            log.info("Scheduled metrics update completed for {} containers", containers.size());
             
         } catch (Exception e) {
             log.error("Error in scheduled metrics update: {}", e.getMessage(), e);
@@ -3,16 +3,24 @@ package dev.somdip.containerplatform.service;
 import dev.somdip.containerplatform.dto.ContainerMetrics;
 import dev.somdip.containerplatform.model.Container;
 import dev.somdip.containerplatform.repository.ContainerRepository;
+import dev.somdip.containerplatform.service.metrics.CloudWatchMetricBatcher;
+import dev.somdip.containerplatform.service.metrics.DurableMetricsHistory;
+import dev.somdip.containerplatform.service.metrics.HistoryMetric;
+import dev.somdip.containerplatform.service.metrics.HistoryTier;
+import dev.somdip.containerplatform.service.metrics.MetricQuery;
+import dev.somdip.containerplatform.service.metrics.MetricSeries;
+import dev.somdip.containerplatform.service.metrics.MetricsHistoryStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
-import software.amazon.awssdk.services.cloudwatch.model.*;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,21 +28,50 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MetricsService {
 
-    private final CloudWatchClient cloudWatchClient;
+    private final CloudWatchMetricBatcher metricBatcher;
     private final ContainerRepository containerRepository;
+    private final MetricsHistoryStore historyStore;
+    private final DurableMetricsHistory durableHistory;
+    private final TargetGroupService targetGroupService;
+
+    @Value("${aws.ecs.cluster}")
+    private String clusterName;
+
+    @Value("${aws.containerInsights.enabled:true}")
+    private boolean containerInsightsEnabled;
+
+    @Value("${aws.alb.arn}")
+    private String loadBalancerArn;
+
+    private static final List<HistoryMetric> REQUEST_METRICS = List.of(
+        HistoryMetric.REQUESTS_PER_MINUTE,
+        HistoryMetric.RESPONSE_TIME_P50_MILLIS,
+        HistoryMetric.RESPONSE_TIME_P90_MILLIS,
+        HistoryMetric.RESPONSE_TIME_P99_MILLIS,
+        HistoryMetric.HTTP_5XX_PER_MINUTE);
     
     public Map<String, Object> getContainerMetrics(List<String> containerIds) {
         Map<String, Object> allMetrics = new HashMap<>();
-        
+
+        // Queue every read first so they share GetMetricData calls, then collect
+        Map<String, CompletableFuture<ContainerMetrics>> pending = new LinkedHashMap<>();
         for (String containerId : containerIds) {
             try {
-                ContainerMetrics metrics = fetchContainerMetrics(containerId);
-                allMetrics.put(containerId, metrics);
+                pending.put(containerId, fetchContainerMetricsAsync(containerId));
             } catch (Exception e) {
                 log.error("Error fetching metrics for container: {}", containerId, e);
                 allMetrics.put(containerId, createEmptyMetrics());
             }
         }
+
+        pending.forEach((containerId, future) -> {
+            try {
+                allMetrics.put(containerId, future.join());
+            } catch (Exception e) {
+                log.error("Error fetching metrics for container: {}", containerId, e);
+                allMetrics.put(containerId, createEmptyMetrics());
+            }
+        });
         
         return allMetrics;
     }
@@ -48,14 +85,18 @@ public class MetricsService {
             double totalMemoryUsage = 0;
             int runningContainers = 0;
             
+            List<CompletableFuture<ContainerMetrics>> pending = new ArrayList<>();
             for (Container container : userContainers) {
                 if (container.getStatus() == Container.ContainerStatus.RUNNING) {
                     runningContainers++;
-                    ContainerMetrics metrics = fetchContainerMetrics(container.getContainerId());
-                    totalCpuUsage += metrics.getCpuUsage();
-                    totalMemoryUsage += metrics.getMemoryUsage();
+                    pending.add(fetchContainerMetricsAsync(container));
                 }
             }
+            for (CompletableFuture<ContainerMetrics> future : pending) {
+                ContainerMetrics metrics = future.join();
+                totalCpuUsage += metrics.getCpuUsage();
+                totalMemoryUsage += metrics.getMemoryUsage();
+            }
             
             return Map.of(
                 "totalContainers", userContainers.size(),
@@ -92,15 +133,18 @@ public class MetricsService {
         }
     }
     
-    private ContainerMetrics fetchContainerMetrics(String containerId) {
+    private CompletableFuture<ContainerMetrics> fetchContainerMetricsAsync(String containerId) {
         // Get container info for limits and service name
         Container container = containerRepository.findById(containerId)
             .orElseThrow(() -> new RuntimeException("Container not found"));
+        return fetchContainerMetricsAsync(container);
+    }
 
+    private CompletableFuture<ContainerMetrics> fetchContainerMetricsAsync(Container container) {
         // Use actual resource usage data if available
         if (container.getResourceUsage() != null) {
-            return ContainerMetrics.builder()
-                .containerId(containerId)
+            ContainerMetrics metrics = ContainerMetrics.builder()
+                .containerId(container.getContainerId())
                 .containerName(container.getName())
                 .cpuUsage(container.getResourceUsage().getAvgCpuPercent())
                 .memoryUsage(container.getResourceUsage().getAvgMemoryPercent())
@@ -109,70 +153,15 @@ public class MetricsService {
                 .timestamp(Instant.now())
                 .status(container.getStatus() != null ? container.getStatus().name() : "UNKNOWN")
                 .build();
+            if (targetGroupService.isContainerTargetGroup(container.getTargetGroupArn()) &&
+                historyStore.contains(container.getContainerId())) {
+                applyRequestMetrics(metrics, latestRequestMetrics(container.getContainerId()));
+            }
+            return CompletableFuture.completedFuture(metrics);
         }
 
         // Otherwise fetch from CloudWatch
-        Instant endTime = Instant.now();
-        Instant startTime = endTime.minus(5, ChronoUnit.MINUTES);
-
-        String serviceName = extractServiceName(container.getServiceArn());
-        if (serviceName == null) {
-            return createEmptyMetrics();
-        }
-
-        // Fetch CPU metrics
-        GetMetricStatisticsRequest cpuRequest = GetMetricStatisticsRequest.builder()
-            .namespace("AWS/ECS")
-            .metricName("CPUUtilization")
-            .dimensions(
-                Dimension.builder().name("ServiceName").value(serviceName).build(),
-                Dimension.builder().name("ClusterName").value("somdip-dev-cluster").build()
-            )
-            .startTime(startTime)
-            .endTime(endTime)
-            .period(60) // 1 minute
-            .statistics(Statistic.AVERAGE)
-            .build();
-
-        GetMetricStatisticsResponse cpuResponse = cloudWatchClient.getMetricStatistics(cpuRequest);
-
-        // Fetch Memory metrics
-        GetMetricStatisticsRequest memoryRequest = GetMetricStatisticsRequest.builder()
-            .namespace("AWS/ECS")
-            .metricName("MemoryUtilization")
-            .dimensions(
-                Dimension.builder().name("ServiceName").value(serviceName).build(),
-                Dimension.builder().name("ClusterName").value("somdip-dev-cluster").build()
-            )
-            .startTime(startTime)
-            .endTime(endTime)
-            .period(60) // 1 minute
-            .statistics(Statistic.AVERAGE)
-            .build();
-
-        GetMetricStatisticsResponse memoryResponse = cloudWatchClient.getMetricStatistics(memoryRequest);
-
-        // Get the latest values
-        double cpuUsage = cpuResponse.datapoints().stream()
-            .max(Comparator.comparing(Datapoint::timestamp))
-            .map(Datapoint::average)
-            .orElse(0.0);
-
-        double memoryUsage = memoryResponse.datapoints().stream()
-            .max(Comparator.comparing(Datapoint::timestamp))
-            .map(Datapoint::average)
-            .orElse(0.0);
-
-        return ContainerMetrics.builder()
-            .containerId(containerId)
-            .containerName(container.getName())
-            .cpuUsage(cpuUsage)
-            .memoryUsage(memoryUsage)
-            .cpuLimit(container.getCpu())
-            .memoryLimit(container.getMemory())
-            .timestamp(Instant.now())
-            .status(container.getStatus() != null ? container.getStatus().name() : "UNKNOWN")
-            .build();
+        return fetchContainerMetricsFromCloudWatch(container);
     }
 
     private String extractServiceName(String serviceArn) {
@@ -205,24 +194,7 @@ public class MetricsService {
             }
 
             // Fetch metrics from CloudWatch
-            ContainerMetrics metrics = fetchContainerMetricsFromCloudWatch(container);
-
-            // Update container resourceUsage
-            Container.ResourceUsage resourceUsage = container.getResourceUsage();
-            if (resourceUsage == null) {
-                resourceUsage = new Container.ResourceUsage();
-            }
-
-            resourceUsage.setAvgCpuPercent(metrics.getCpuUsage());
-            resourceUsage.setAvgMemoryPercent(metrics.getMemoryUsage());
-            resourceUsage.setMeasurementPeriodStart(Instant.now().minus(5, ChronoUnit.MINUTES));
-            resourceUsage.setMeasurementPeriodEnd(Instant.now());
-
-            container.setResourceUsage(resourceUsage);
-            containerRepository.save(container);
-
-            log.info("Updated metrics for container {}: CPU={}%, Memory={}%",
-                containerId, metrics.getCpuUsage(), metrics.getMemoryUsage());
+            applyMetrics(container, fetchContainerMetricsFromCloudWatch(container).join());
 
         } catch (Exception e) {
             log.error("Error updating metrics for container: {}", containerId, e);
@@ -231,20 +203,102 @@ public class MetricsService {
 
     public List<Container> updateAllUserContainerMetrics(String userId) {
         try {
-            List<Container> userContainers = containerRepository.findByUserId(userId);
-            for (Container container : userContainers) {
-                if (container.getStatus() == Container.ContainerStatus.RUNNING) {
-                    updateContainerMetrics(container.getContainerId());
-                }
-            }
+            updateContainerMetrics(containerRepository.findByUserId(userId));
             // Reload containers to get updated metrics
             return containerRepository.findByUserId(userId);
         } catch (Exception e) {
             log.error("Error updating metrics for user containers: {}", userId, e);
             return List.of();
+        }
+    }
+
+    /**
+     * Refresh resource usage for every running container in the list, fetching all of
+     * their metrics through the shared GetMetricData batch
+     */
+    public void updateContainerMetrics(List<Container> containers) {
+        List<Container> running = new ArrayList<>();
+        List<CompletableFuture<ContainerMetrics>> pending = new ArrayList<>();
+        for (Container container : containers) {
+            if (container.getStatus() == Container.ContainerStatus.RUNNING) {
+                running.add(container);
+                pending.add(fetchContainerMetricsFromCloudWatch(container));
+            }
+        }
+
+        for (int i = 0; i < running.size(); i++) {
+            Container container = running.get(i);
+            try {
+                applyMetrics(container, pending.get(i).join());
+            } catch (Exception e) {
+                log.error("Error updating metrics for container: {}", container.getContainerId(), e);
+            }
+        }
     }
+
+    private void applyMetrics(Container container, ContainerMetrics metrics) {
+        // Update container resourceUsage
+        Container.ResourceUsage resourceUsage = container.getResourceUsage();
+        if (resourceUsage == null) {
+            resourceUsage = new Container.ResourceUsage();
         }
+
+        resourceUsage.setAvgCpuPercent(metrics.getCpuUsage());
+        resourceUsage.setAvgMemoryPercent(metrics.getMemoryUsage());
+        resourceUsage.setMeasurementPeriodStart(Instant.now().minus(5, ChronoUnit.MINUTES));
+        resourceUsage.setMeasurementPeriodEnd(Instant.now());
+
+        container.setResourceUsage(resourceUsage);
+        containerRepository.save(container);
+
+        log.info("Updated metrics for container {}: CPU={}%, Memory={}%",
+            container.getContainerId(), metrics.getCpuUsage(), metrics.getMemoryUsage());
+    }
     
+    /**
+     * Resource usage history for the trailing period, as [timestamp, value] pairs per metric
+     * (~120 points). Served from the in-memory tiers when they cover the period, otherwise
+     * from the durable block store.
+     */
+    public Map<String, List<double[]>> getContainerHistory(String containerId, Duration period) {
+        long to = System.currentTimeMillis();
+        long from = to - period.toMillis();
+        long step = Math.max(60_000L, period.toMillis() / 120 / 60_000L * 60_000L);
+        int count = (int) ((to - from + step - 1) / step);
+        boolean inMemory = historyStore.contains(containerId) &&
+            period.toMillis() <= HistoryTier.HOUR.getRetentionMillis();
+
+        Map<String, HistoryMetric> metrics = new LinkedHashMap<>();
+        metrics.put("cpu", HistoryMetric.CPU_PERCENT);
+        metrics.put("memory", HistoryMetric.MEMORY_PERCENT);
+        metrics.put("networkIn", HistoryMetric.NETWORK_RX_BYTES_PER_SECOND);
+        metrics.put("networkOut", HistoryMetric.NETWORK_TX_BYTES_PER_SECOND);
+        metrics.put("requests", HistoryMetric.REQUESTS_PER_MINUTE);
+        metrics.put("responseTimeP50", HistoryMetric.RESPONSE_TIME_P50_MILLIS);
+        metrics.put("responseTimeP90", HistoryMetric.RESPONSE_TIME_P90_MILLIS);
+        metrics.put("responseTimeP99", HistoryMetric.RESPONSE_TIME_P99_MILLIS);
+        metrics.put("errors5xx", HistoryMetric.HTTP_5XX_PER_MINUTE);
+
+        // The durable store reads each block once for all metrics
+        Map<HistoryMetric, double[]> durable = inMemory ? Map.of() :
+            durableHistory.resample(containerId, metrics.values(), from, step, count);
+
+        Map<String, List<double[]>> history = new LinkedHashMap<>();
+        metrics.forEach((name, metric) -> history.put(name, toPoints(inMemory ?
+            historyStore.resample(containerId, metric, from, step, count) : durable.get(metric), from, step)));
+        return history;
+    }
+
+    private static List<double[]> toPoints(double[] values, long from, long step) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                points.add(new double[] {from + i * step, values[i]});
+            }
+        }
+        return points;
+    }
+
     public List<Container> getUserContainers(String userId) {
         return containerRepository.findByUserId(userId);
     }
@@ -252,84 +306,152 @@ public class MetricsService {
     @Async
     public void updateAllUserContainerMetricsAsync(String userId) {
         try {
-            List<Container> userContainers = containerRepository.findByUserId(userId);
-            for (Container container : userContainers) {
-                if (container.getStatus() == Container.ContainerStatus.RUNNING) {
-                    updateContainerMetrics(container.getContainerId());
-                }
-            }
+            updateContainerMetrics(containerRepository.findByUserId(userId));
         } catch (Exception e) {
             log.error("Error updating metrics asynchronously for user containers: {}", userId, e);
         }
     }
 
-    private ContainerMetrics fetchContainerMetricsFromCloudWatch(Container container) {
-        Instant endTime = Instant.now();
-        Instant startTime = endTime.minus(5, ChronoUnit.MINUTES);
-
+    private CompletableFuture<ContainerMetrics> fetchContainerMetricsFromCloudWatch(Container container) {
         String serviceName = extractServiceName(container.getServiceArn());
         if (serviceName == null) {
-            return createEmptyMetrics();
+            return CompletableFuture.completedFuture(createEmptyMetrics());
         }
 
-        try {
-            // Fetch CPU metrics
-            GetMetricStatisticsRequest cpuRequest = GetMetricStatisticsRequest.builder()
-                .namespace("AWS/ECS")
-                .metricName("CPUUtilization")
-                .dimensions(
-                    Dimension.builder().name("ServiceName").value(serviceName).build(),
-                    Dimension.builder().name("ClusterName").value("somdip-dev-cluster").build()
-                )
-                .startTime(startTime)
-                .endTime(endTime)
-                .period(60)
-                .statistics(Statistic.AVERAGE)
-                .build();
-
-            GetMetricStatisticsResponse cpuResponse = cloudWatchClient.getMetricStatistics(cpuRequest);
-
-            // Fetch Memory metrics
-            GetMetricStatisticsRequest memoryRequest = GetMetricStatisticsRequest.builder()
-                .namespace("AWS/ECS")
-                .metricName("MemoryUtilization")
-                .dimensions(
-                    Dimension.builder().name("ServiceName").value(serviceName).build(),
-                    Dimension.builder().name("ClusterName").value("somdip-dev-cluster").build()
-                )
-                .startTime(startTime)
-                .endTime(endTime)
-                .period(60)
-                .statistics(Statistic.AVERAGE)
-                .build();
-
-            GetMetricStatisticsResponse memoryResponse = cloudWatchClient.getMetricStatistics(memoryRequest);
-
-            // Get the latest values
-            double cpuUsage = cpuResponse.datapoints().stream()
-                .max(Comparator.comparing(Datapoint::timestamp))
-                .map(Datapoint::average)
-                .orElse(0.0);
-
-            double memoryUsage = memoryResponse.datapoints().stream()
-                .max(Comparator.comparing(Datapoint::timestamp))
-                .map(Datapoint::average)
-                .orElse(0.0);
-
-            return ContainerMetrics.builder()
+        // Latest 1-minute averages over the last 5 minutes; every datapoint also goes into the history
+        String containerId = container.getContainerId();
+        CompletableFuture<Double> cpuUsage = metricBatcher
+            .query(MetricQuery.ecsService("CPUUtilization", clusterName, serviceName))
+            .thenApply(series -> recordHistory(containerId, HistoryMetric.CPU_PERCENT, series).latest(0.0));
+        CompletableFuture<Double> memoryUsage = metricBatcher
+            .query(MetricQuery.ecsService("MemoryUtilization", clusterName, serviceName))
+            .thenApply(series -> recordHistory(containerId, HistoryMetric.MEMORY_PERCENT, series).latest(0.0));
+        CompletableFuture<Void> network = fetchNetworkHistory(containerId, serviceName);
+        CompletableFuture<Map<HistoryMetric, Double>> requests = fetchRequestMetrics(container);
+
+        return cpuUsage.thenCombine(memoryUsage, (cpu, memory) -> ContainerMetrics.builder()
                 .containerId(container.getContainerId())
                 .containerName(container.getName())
-                .cpuUsage(cpuUsage)
-                .memoryUsage(memoryUsage)
+                .cpuUsage(cpu)
+                .memoryUsage(memory)
                 .cpuLimit(container.getCpu())
                 .memoryLimit(container.getMemory())
                 .timestamp(Instant.now())
                 .status(container.getStatus() != null ? container.getStatus().name() : "UNKNOWN")
-                .build();
-        } catch (Exception e) {
-            log.error("Error fetching CloudWatch metrics for container: {}", container.getContainerId(), e);
-            return createEmptyMetrics();
+                .build())
+            .thenCombine(network, (metrics, ignored) -> metrics)
+            .thenCombine(requests, (metrics, latest) -> {
+                if (latest != null) {
+                    applyRequestMetrics(metrics, latest);
+                }
+                return metrics;
+            })
+            .exceptionally(e -> {
+                log.error("Error fetching CloudWatch metrics for container: {}", container.getContainerId(), e);
+                return createEmptyMetrics();
+            });
+    }
+
+    /**
+     * Network throughput is only kept as history; failures here never fail the refresh
+     */
+    private CompletableFuture<Void> fetchNetworkHistory(String containerId, String serviceName) {
+        if (!containerInsightsEnabled) {
+            return CompletableFuture.completedFuture(null);
         }
+        CompletableFuture<MetricSeries> rx = metricBatcher
+            .query(MetricQuery.containerInsightsService("NetworkRxBytes", clusterName, serviceName))
+            .thenApply(series -> recordHistory(containerId, HistoryMetric.NETWORK_RX_BYTES_PER_SECOND, series));
+        CompletableFuture<MetricSeries> tx = metricBatcher
+            .query(MetricQuery.containerInsightsService("NetworkTxBytes", clusterName, serviceName))
+            .thenApply(series -> recordHistory(containerId, HistoryMetric.NETWORK_TX_BYTES_PER_SECOND, series));
+        return CompletableFuture.allOf(rx, tx)
+            .exceptionally(e -> {
+                log.debug("Network metrics unavailable for container {}: {}", containerId, e.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * Latest load balancer metrics for a container with its own target group, recorded into the
+     * history; null for containers on the shared target group or if the read failed, which
+     * never fails the refresh.
+     */
+    private CompletableFuture<Map<HistoryMetric, Double>> fetchRequestMetrics(Container container) {
+        String targetGroupArn = container.getTargetGroupArn();
+        if (!targetGroupService.isContainerTargetGroup(targetGroupArn)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String containerId = container.getContainerId();
+        Map<HistoryMetric, CompletableFuture<MetricSeries>> queries = new EnumMap<>(HistoryMetric.class);
+        queries.put(HistoryMetric.REQUESTS_PER_MINUTE, metricBatcher
+            .query(MetricQuery.applicationElbTargetGroup("RequestCount", "Sum", loadBalancerArn, targetGroupArn)));
+        queries.put(HistoryMetric.HTTP_5XX_PER_MINUTE, metricBatcher
+            .query(MetricQuery.applicationElbTargetGroup("HTTPCode_Target_5XX_Count", "Sum", loadBalancerArn, targetGroupArn)));
+        // TargetResponseTime is reported in seconds
+        queries.put(HistoryMetric.RESPONSE_TIME_P50_MILLIS, metricBatcher
+            .query(MetricQuery.applicationElbTargetGroup("TargetResponseTime", "p50", loadBalancerArn, targetGroupArn))
+            .thenApply(series -> series.scaled(1000)));
+        queries.put(HistoryMetric.RESPONSE_TIME_P90_MILLIS, metricBatcher
+            .query(MetricQuery.applicationElbTargetGroup("TargetResponseTime", "p90", loadBalancerArn, targetGroupArn))
+            .thenApply(series -> series.scaled(1000)));
+        queries.put(HistoryMetric.RESPONSE_TIME_P99_MILLIS, metricBatcher
+            .query(MetricQuery.applicationElbTargetGroup("TargetResponseTime", "p99", loadBalancerArn, targetGroupArn))
+            .thenApply(series -> series.scaled(1000)));
+
+        return CompletableFuture.allOf(queries.values().toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                Map<HistoryMetric, Double> latest = new EnumMap<>(HistoryMetric.class);
+                queries.forEach((metric, future) -> {
+                    MetricSeries series = recordHistory(containerId, metric, future.join());
+                    if (!series.isEmpty()) {
+                        latest.put(metric, series.latest(0.0));
+                    }
+                });
+                return latest;
+            })
+            .exceptionally(e -> {
+                log.debug("Load balancer metrics unavailable for container {}: {}", containerId, e.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * Latest load balancer metrics from the in-memory history (last five minutes)
+     */
+    private Map<HistoryMetric, Double> latestRequestMetrics(String containerId) {
+        long step = HistoryTier.MINUTE.getResolutionMillis();
+        long from = (System.currentTimeMillis() / step - 4) * step;
+        Map<HistoryMetric, Double> latest = new EnumMap<>(HistoryMetric.class);
+        for (HistoryMetric metric : REQUEST_METRICS) {
+            double[] values = historyStore.resample(containerId, metric, from, step, 5);
+            for (int i = values.length - 1; i >= 0; i--) {
+                if (!Double.isNaN(values[i])) {
+                    latest.put(metric, values[i]);
+                    break;
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * ALB publishes nothing for minutes without traffic, so a container with its own target
+     * group and no datapoints simply had no requests
+     */
+    private static void applyRequestMetrics(ContainerMetrics metrics, Map<HistoryMetric, Double> latest) {
+        metrics.setRequestsPerMinute(latest.getOrDefault(HistoryMetric.REQUESTS_PER_MINUTE, 0.0));
+        metrics.setHttp5xxPerMinute(latest.getOrDefault(HistoryMetric.HTTP_5XX_PER_MINUTE, 0.0));
+        metrics.setResponseTimeP50Ms(latest.get(HistoryMetric.RESPONSE_TIME_P50_MILLIS));
+        metrics.setResponseTimeP90Ms(latest.get(HistoryMetric.RESPONSE_TIME_P90_MILLIS));
+        metrics.setResponseTimeP99Ms(latest.get(HistoryMetric.RESPONSE_TIME_P99_MILLIS));
+    }
+
+    private MetricSeries recordHistory(String containerId, HistoryMetric metric, MetricSeries series) {
+        historyStore.record(containerId, metric, series);
+        durableHistory.record(containerId, metric, series);
+        return series;
     }
 
 }
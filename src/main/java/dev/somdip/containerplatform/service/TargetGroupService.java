@@ -3,6 +3,7 @@ package dev.somdip.containerplatform.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.elasticloadbalancingv2.ElasticLoadBalancingV2Client;
 import software.amazon.awssdk.services.elasticloadbalancingv2.model.*;
@@ -15,7 +16,9 @@ import software.amazon.awssdk.services.ecs.model.DescribeTasksResponse;
 import software.amazon.awssdk.services.ecs.model.Task;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -32,6 +35,27 @@ public class TargetGroupService {
     @Value("${aws.alb.targetGroup.arn}")
     private String defaultTargetGroupArn;
     
+    @Value("${aws.alb.targetGroup.users.arn}")
+    private String sharedUsersTargetGroupArn;
+    
+    @Value("${aws.alb.arn}")
+    private String loadBalancerArn;
+    
+    // Listener that gets one host-header rule per container; resolved from the ALB if empty
+    @Value("${aws.alb.listenerArn:}")
+    private String listenerArn;
+    
+    // Container rules take the lowest free priorities from here on; any catch-all rule must sit above them
+    @Value("${aws.alb.containerRules.priorityStart:1}")
+    private int rulePriorityStart;
+    
+    @Value("${aws.vpc.id:vpc-0e30d5748ef8afccf}")
+    private String vpcId;
+    
+    // Health checks go to the health-proxy sidecar, which probes the user's app
+    private static final String HEALTH_PROXY_PORT = "9090";
+    private static final int MAX_PRIORITY_ATTEMPTS = 5;
+    
     public TargetGroupService(ElasticLoadBalancingV2Client elbClient, 
                             EcsClient ecsClient,
                             Ec2Client ec2Client) {
@@ -53,9 +77,10 @@ public class TargetGroupService {
                 .name(targetGroupName)
                 .protocol(ProtocolEnum.HTTP)
                 .port(containerPort)
-                .vpcId("vpc-0e30d5748ef8afccf") // Your VPC ID
+                .vpcId(vpcId)
                 .healthCheckEnabled(true)
                 .healthCheckPath("/health")
+                .healthCheckPort(HEALTH_PROXY_PORT)
                 .healthCheckProtocol(ProtocolEnum.HTTP)
                 .healthCheckIntervalSeconds(30)
                 .healthCheckTimeoutSeconds(5)
@@ -168,6 +193,210 @@ public class TargetGroupService {
         }
     }
     
+    /**
+     * True if the target group belongs to a single container rather than being one of the shared ones
+     */
+    public boolean isContainerTargetGroup(String targetGroupArn) {
+        return targetGroupArn != null && !targetGroupArn.isEmpty() &&
+            !targetGroupArn.equals(sharedUsersTargetGroupArn) &&
+            !targetGroupArn.equals(defaultTargetGroupArn);
+    }
+    
+    /**
+     * True if at least one target registered with the target group passes its health check
+     */
+    public boolean hasHealthyTarget(String targetGroupArn) {
+        DescribeTargetHealthResponse response = elbClient.describeTargetHealth(DescribeTargetHealthRequest.builder()
+            .targetGroupArn(targetGroupArn)
+            .build());
+        return response.targetHealthDescriptions().stream()
+            .anyMatch(description -> description.targetHealth().state() == TargetHealthStateEnum.HEALTHY);
+    }
+
+    /**
+     * Attaches a container's target group to the ALB listener with a host-header rule that
+     * still forwards every request for the hosts to {@code currentTargetGroupArn} (the new
+     * group gets weight 0). ECS only accepts a target group that is attached to a load
+     * balancer, and only health-checks its targets once it is; {@link #activateHostRule}
+     * moves the traffic. Does nothing if a rule already forwards to the target group.
+     */
+    public void createHostRule(String targetGroupArn, String currentTargetGroupArn, List<String> hosts) {
+        log.info("Creating listener rule for hosts {} to target group {}", hosts, targetGroupArn);
+        
+        String listener = resolveListenerArn();
+        for (int attempt = 1; ; attempt++) {
+            List<Rule> rules = describeRules(listener);
+            if (!findRulesForTargetGroup(rules, targetGroupArn).isEmpty()) {
+                log.info("Listener rule for target group {} already exists", targetGroupArn);
+                return;
+            }
+            
+            int priority = lowestFreePriority(rules);
+            try {
+                CreateRuleResponse response = elbClient.createRule(CreateRuleRequest.builder()
+                    .listenerArn(listener)
+                    .priority(priority)
+                    .conditions(RuleCondition.builder()
+                        .field("host-header")
+                        .hostHeaderConfig(HostHeaderConditionConfig.builder().values(hosts).build())
+                        .build())
+                    .actions(Action.builder()
+                        .type(ActionTypeEnum.FORWARD)
+                        .forwardConfig(ForwardActionConfig.builder()
+                            .targetGroups(
+                                TargetGroupTuple.builder().targetGroupArn(currentTargetGroupArn).weight(1).build(),
+                                TargetGroupTuple.builder().targetGroupArn(targetGroupArn).weight(0).build())
+                            .build())
+                        .build())
+                    .build());
+                log.info("Created listener rule {} with priority {}", response.rules().get(0).ruleArn(), priority);
+                return;
+            } catch (PriorityInUseException e) {
+                // Another node took the priority between our describe and create
+                if (attempt >= MAX_PRIORITY_ATTEMPTS) {
+                    throw new RuntimeException("Failed to create listener rule for " + hosts, e);
+                }
+                log.debug("Listener rule priority {} taken, retrying", priority);
+            }
+        }
+    }
+    
+    /**
+     * Sends all the traffic of the target group's listener rules to the target group. Rules
+     * that already forward only to it are left alone.
+     */
+    public void activateHostRule(String targetGroupArn) {
+        List<Rule> rules = findRulesForTargetGroup(describeRules(resolveListenerArn()), targetGroupArn);
+        if (rules.isEmpty()) {
+            throw new RuntimeException("No listener rule for target group: " + targetGroupArn);
+        }
+        for (Rule rule : rules) {
+            boolean active = rule.actions().stream().anyMatch(action -> targetGroupArn.equals(action.targetGroupArn()));
+            if (active) {
+                continue;
+            }
+            elbClient.modifyRule(ModifyRuleRequest.builder()
+                .ruleArn(rule.ruleArn())
+                .actions(Action.builder()
+                    .type(ActionTypeEnum.FORWARD)
+                    .targetGroupArn(targetGroupArn)
+                    .build())
+                .build());
+            log.info("Listener rule {} now forwards to target group {}", rule.ruleArn(), targetGroupArn);
+        }
+    }
+    
+    /**
+     * Removes the listener rules forwarding to the target group
+     */
+    public void deleteHostRules(String targetGroupArn) {
+        try {
+            String listener = resolveListenerArn();
+            for (Rule rule : findRulesForTargetGroup(describeRules(listener), targetGroupArn)) {
+                elbClient.deleteRule(DeleteRuleRequest.builder().ruleArn(rule.ruleArn()).build());
+                log.info("Deleted listener rule {} for target group {}", rule.ruleArn(), targetGroupArn);
+            }
+        } catch (Exception e) {
+            log.error("Failed to delete listener rules for target group: {}", targetGroupArn, e);
+        }
+    }
+    
+    /**
+     * Deletes a container's listener rule and target group. The target group stays in use
+     * for a while after its ECS service is deleted, so this retries until ECS lets go of it.
+     */
+    @Async
+    public void deleteContainerTargetGroup(String targetGroupArn) {
+        if (!isContainerTargetGroup(targetGroupArn)) {
+            return;
+        }
+        deleteHostRules(targetGroupArn);
+        
+        int maxAttempts = 12;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                elbClient.deleteTargetGroup(DeleteTargetGroupRequest.builder()
+                    .targetGroupArn(targetGroupArn)
+                    .build());
+                log.info("Deleted target group: {}", targetGroupArn);
+                return;
+            } catch (ResourceInUseException e) {
+                log.debug("Target group {} still in use, attempt {}/{}", targetGroupArn, attempt, maxAttempts);
+                try {
+                    TimeUnit.SECONDS.sleep(10);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (Exception e) {
+                log.error("Failed to delete target group: {}", targetGroupArn, e);
+                return;
+            }
+        }
+        log.warn("Target group {} was still in use, leaving it in place", targetGroupArn);
+    }
+    
+    private String resolveListenerArn() {
+        if (listenerArn != null && !listenerArn.isEmpty()) {
+            return listenerArn;
+        }
+        
+        DescribeListenersResponse response = elbClient.describeListeners(DescribeListenersRequest.builder()
+            .loadBalancerArn(loadBalancerArn)
+            .build());
+        Listener listener = response.listeners().stream()
+            .filter(l -> l.port() != null && l.port() == 443)
+            .findFirst()
+            .orElse(response.listeners().isEmpty() ? null : response.listeners().get(0));
+        if (listener == null) {
+            throw new RuntimeException("No listener found on load balancer " + loadBalancerArn);
+        }
+        listenerArn = listener.listenerArn();
+        return listenerArn;
+    }
+    
+    private int lowestFreePriority(List<Rule> rules) {
+        Set<Integer> used = new HashSet<>();
+        for (Rule rule : rules) {
+            if (!Boolean.TRUE.equals(rule.isDefault())) {
+                used.add(Integer.parseInt(rule.priority()));
+            }
+        }
+        int priority = rulePriorityStart;
+        while (used.contains(priority)) {
+            priority++;
+        }
+        return priority;
+    }
+    
+    private List<Rule> describeRules(String listener) {
+        List<Rule> rules = new ArrayList<>();
+        String marker = null;
+        do {
+            DescribeRulesResponse response = elbClient.describeRules(DescribeRulesRequest.builder()
+                .listenerArn(listener)
+                .marker(marker)
+                .build());
+            rules.addAll(response.rules());
+            marker = response.nextMarker();
+        } while (marker != null);
+        return rules;
+    }
+    
+    private List<Rule> findRulesForTargetGroup(List<Rule> rules, String targetGroupArn) {
+        List<Rule> matching = new ArrayList<>();
+        for (Rule rule : rules) {
+            boolean forwards = rule.actions().stream().anyMatch(action ->
+                targetGroupArn.equals(action.targetGroupArn()) ||
+                (action.forwardConfig() != null && action.forwardConfig().targetGroups().stream()
+                    .anyMatch(tg -> targetGroupArn.equals(tg.targetGroupArn()))));
+            if (forwards && !Boolean.TRUE.equals(rule.isDefault())) {
+                matching.add(rule);
+            }
+        }
+        return matching;
+    }
+    
     private void waitForTaskRunning(String taskArn) throws InterruptedException {
         int maxAttempts = 30;
         int attempt = 0;
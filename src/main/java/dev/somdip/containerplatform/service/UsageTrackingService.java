@@ -4,6 +4,10 @@ import dev.somdip.containerplatform.model.Container;
 import dev.somdip.containerplatform.model.User;
 import dev.somdip.containerplatform.repository.ContainerRepository;
 import dev.somdip.containerplatform.repository.UserRepository;
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import dev.somdip.containerplatform.service.ecs.EcsServiceState;
+import dev.somdip.containerplatform.service.ecs.EcsStateModel;
+import dev.somdip.containerplatform.service.ecs.EcsTaskState;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,9 +19,9 @@ import software.amazon.awssdk.services.ecs.model.*;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -28,6 +32,8 @@ public class UsageTrackingService {
     private final ContainerRepository containerRepository;
     private final ContainerService containerService;
     private final EcsClient ecsClient;
+    private final ClusterCoordinator clusterCoordinator;
+    private final EcsStateModel ecsStateModel;
 
     @Value("${aws.ecs.cluster}")
     private String clusterName;
@@ -35,8 +41,8 @@ public class UsageTrackingService {
     // FREE plan limit: 200 hours lifetime (PRODUCTION)
     public static final double FREE_PLAN_HOURS_LIMIT = 200.0; // 200 hours for production
 
-    // Cache to store last tracking time for each container
-    private final Map<String, Instant> lastTrackingTime = new HashMap<>();
+    // Interval of the usage tracking job; bounds how much time is billed for a container we have no history for
+    private static final Duration TRACKING_INTERVAL = Duration.ofMinutes(15);
 
     /**
      * Track container hours usage every 15 minutes
@@ -44,6 +50,10 @@ public class UsageTrackingService {
      */
     @Scheduled(cron = "0 */15 * * * *") // Every 15 minutes
     public void trackContainerHours() {
+        if (!clusterCoordinator.isLeader()) {
+            log.debug("Skipping container usage tracking - not the cluster leader");
+            return;
+        }
         log.info("Starting container usage tracking (every 15 minutes)");
 
         try {
@@ -69,6 +79,10 @@ public class UsageTrackingService {
      */
     @Scheduled(cron = "0 */10 * * * *") // Every 10 minutes
     public void checkFreePlanLimits() {
+        if (!clusterCoordinator.isLeader()) {
+            log.debug("Skipping FREE plan limit check - not the cluster leader");
+            return;
+        }
         log.info("Checking FREE plan usage limits");
 
         try {
@@ -177,77 +191,115 @@ public class UsageTrackingService {
         String containerId = container.getContainerId();
 
         try {
-            // Describe the ECS tasks for this service
-            DescribeServicesRequest request = DescribeServicesRequest.builder()
-                .cluster(clusterName)
-                .services(container.getServiceArn())
-                .build();
+            Instant taskStartTime = findRunningTaskStart(container);
+            if (taskStartTime == null) {
+                return 0.0;
+            }
+
+            // Calculate hours since the instant billed up to, which is stored on the container so
+            // it survives restarts and leader changes. A container never tracked before is only
+            // billed back one tracking interval.
+            Instant trackedAt = container.getUsageTrackedAt();
+            Instant lastCheck = trackedAt != null ? trackedAt : now.minus(TRACKING_INTERVAL);
+
+            // Ensure we don't count time before the task actually started
+            if (lastCheck.isBefore(taskStartTime)) {
+                lastCheck = taskStartTime;
+            }
 
-            DescribeServicesResponse response = ecsClient.describeServices(request);
+            // Bill whole minutes; the remainder is carried into the next interval
+            long minutes = Duration.between(lastCheck, now).toMinutes();
+            if (minutes <= 0) {
+                return 0.0;
+            }
+            double hours = minutes / 60.0;
 
-            if (response.services().isEmpty()) {
-                log.warn("No ECS service found for container {}", containerId);
+            // Claim the period before billing it; if another node already did, it billed it
+            if (!containerRepository.advanceUsageTrackedAt(containerId, trackedAt,
+                    lastCheck.plus(minutes, ChronoUnit.MINUTES))) {
                 return 0.0;
             }
 
-            software.amazon.awssdk.services.ecs.model.Service ecsService = response.services().get(0);
+            return hours;
 
-            // Get the task ARNs for this service
-            ListTasksRequest listTasksRequest = ListTasksRequest.builder()
-                .cluster(clusterName)
-                .serviceName(ecsService.serviceName())
-                .desiredStatus(DesiredStatus.RUNNING)
-                .build();
+        } catch (Exception e) {
+            log.error("Error querying ECS for container {}: {}", containerId, e.getMessage());
+            return 0.0;
+        }
+    }
 
-            ListTasksResponse listTasksResponse = ecsClient.listTasks(listTasksRequest);
+    /**
+     * Start time of the service's running task, or null if it has none. Uses the event-fed
+     * ECS state model when its task listing is current, otherwise lists and describes the
+     * tasks and records the result in the model.
+     */
+    private Instant findRunningTaskStart(Container container) {
+        String containerId = container.getContainerId();
 
-            if (listTasksResponse.taskArns().isEmpty()) {
+        EcsServiceState state = ecsStateModel.getService(container.getServiceArn());
+        if (state != null && ecsStateModel.isTrusted(state.getTasksRefreshedAt())) {
+            // Get the first running task (there should typically be one per service)
+            Instant startedAt = state.getRunningTasks().stream()
+                .map(EcsTaskState::getStartedAt)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+            if (startedAt == null) {
                 log.debug("No running tasks for container {}", containerId);
-                return 0.0;
             }
+            return startedAt;
+        }
 
-            // Describe the tasks to get start time
-            DescribeTasksRequest describeTasksRequest = DescribeTasksRequest.builder()
-                .cluster(clusterName)
-                .tasks(listTasksResponse.taskArns())
-                .build();
+        // Describe the ECS tasks for this service
+        DescribeServicesRequest request = DescribeServicesRequest.builder()
+            .cluster(clusterName)
+            .services(container.getServiceArn())
+            .build();
 
-            DescribeTasksResponse describeTasksResponse = ecsClient.describeTasks(describeTasksRequest);
+        DescribeServicesResponse response = ecsClient.describeServices(request);
 
-            if (describeTasksResponse.tasks().isEmpty()) {
-                return 0.0;
-            }
+        if (response.services().isEmpty()) {
+            log.warn("No ECS service found for container {}", containerId);
+            return null;
+        }
 
-            // Get the first running task (there should typically be one per service)
-            Task task = describeTasksResponse.tasks().get(0);
-            Instant taskStartTime = task.startedAt();
+        software.amazon.awssdk.services.ecs.model.Service ecsService = response.services().get(0);
+        ecsStateModel.applyService(ecsService);
 
-            if (taskStartTime == null) {
-                log.warn("Task for container {} has no start time", containerId);
-                return 0.0;
-            }
+        // Get the task ARNs for this service
+        ListTasksRequest listTasksRequest = ListTasksRequest.builder()
+            .cluster(clusterName)
+            .serviceName(ecsService.serviceName())
+            .desiredStatus(DesiredStatus.RUNNING)
+            .build();
 
-            // Calculate hours since last check (or since task start)
-            Instant lastCheck = lastTrackingTime.getOrDefault(containerId, taskStartTime);
+        ListTasksResponse listTasksResponse = ecsClient.listTasks(listTasksRequest);
 
-            // Ensure we don't count time before the task actually started
-            if (lastCheck.isBefore(taskStartTime)) {
-                lastCheck = taskStartTime;
-            }
+        if (listTasksResponse.taskArns().isEmpty()) {
+            ecsStateModel.applyTaskListing(ecsService.serviceName(), List.of());
+            log.debug("No running tasks for container {}", containerId);
+            return null;
+        }
 
-            // Calculate duration in hours
-            Duration duration = Duration.between(lastCheck, now);
-            double hours = duration.toMinutes() / 60.0;
+        // Describe the tasks to get start time
+        DescribeTasksRequest describeTasksRequest = DescribeTasksRequest.builder()
+            .cluster(clusterName)
+            .tasks(listTasksResponse.taskArns())
+            .build();
 
-            // Update last tracking time for this container
-            lastTrackingTime.put(containerId, now);
+        DescribeTasksResponse describeTasksResponse = ecsClient.describeTasks(describeTasksRequest);
+        ecsStateModel.applyTaskListing(ecsService.serviceName(), describeTasksResponse.tasks());
 
-            return Math.max(0, hours); // Ensure non-negative
+        if (describeTasksResponse.tasks().isEmpty()) {
+            return null;
+        }
 
-        } catch (Exception e) {
-            log.error("Error querying ECS for container {}: {}", containerId, e.getMessage());
-            return 0.0;
+        // Get the first running task (there should typically be one per service)
+        Task task = describeTasksResponse.tasks().get(0);
+        if (task.startedAt() == null) {
+            log.warn("Task for container {} has no start time", containerId);
         }
+        return task.startedAt();
     }
 
     private boolean hasExceededFreeLimit(User user) {
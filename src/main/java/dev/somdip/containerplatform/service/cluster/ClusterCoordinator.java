@@ -0,0 +1,182 @@
+package dev.somdip.containerplatform.service.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates scheduled work across platform nodes.
+ *
+ * Every node heartbeats into the {@link LeaseStore}. Singleton jobs run only on the node
+ * holding the leader lease ({@link #isLeader()}); per-container work is split across the
+ * live nodes with a consistent-hash ring ({@link #owns(String)}). Membership is re-read on
+ * every heartbeat, and listeners are told when the ring changes so they can pick up or
+ * drop work straight away.
+ *
+ * Heartbeats run on a dedicated thread rather than the shared {@code @Scheduled} pool, so
+ * long-running jobs can never delay a renewal past the lease TTL.
+ */
+@Slf4j
+@Component
+public class ClusterCoordinator {
+
+    static final String LEADER_LEASE = "leader";
+
+    private final LeaseStore leaseStore;
+    private final String nodeId;
+    private final Duration leaseTtl;
+    private final int virtualNodes;
+    private final long heartbeatIntervalMillis;
+    private final List<Runnable> membershipListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService heartbeatExecutor;
+    private final ExecutorService listenerExecutor;
+
+    private volatile ConsistentHashRing ring;
+    private volatile long leaderUntilMillis;
+
+    public ClusterCoordinator(LeaseStore leaseStore,
+                              @Value("${app.cluster.lease-ttl-ms:30000}") long leaseTtlMillis,
+                              @Value("${app.cluster.heartbeat-interval-ms:10000}") long heartbeatIntervalMillis,
+                              @Value("${app.cluster.virtual-nodes:64}") int virtualNodes) {
+        this.leaseStore = leaseStore;
+        this.nodeId = resolveNodeId();
+        this.leaseTtl = Duration.ofMillis(leaseTtlMillis);
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.virtualNodes = virtualNodes;
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cluster-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        this.listenerExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "cluster-membership");
+            t.setDaemon(true);
+            return t;
+        });
+        // Until the first heartbeat this node only knows about itself
+        this.ring = new ConsistentHashRing(Set.of(nodeId), virtualNodes);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Whether this node currently holds the leader lease. Leadership lapses a little
+     * before the lease expires so two nodes never both believe they lead.
+     */
+    public boolean isLeader() {
+        return System.currentTimeMillis() < leaderUntilMillis;
+    }
+
+    /**
+     * Whether this node is responsible for the given key (normally a container ID)
+     */
+    public boolean owns(String key) {
+        return nodeId.equals(ring.nodeFor(key));
+    }
+
+    public Set<String> getLiveNodes() {
+        return ring.getNodes();
+    }
+
+    /**
+     * Register a callback invoked after the set of live nodes changes. Callbacks run one at a
+     * time on their own thread, so a slow one never holds up lease renewal.
+     */
+    public void onMembershipChange(Runnable listener) {
+        membershipListeners.add(listener);
+    }
+
+    @PostConstruct
+    public void start() {
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void heartbeat() {
+        try {
+            leaseStore.heartbeat(nodeId, leaseTtl);
+            refreshLeadership();
+            refreshMembership(leaseStore.liveNodes());
+        } catch (Exception e) {
+            log.error("Cluster heartbeat failed for node {}", nodeId, e);
+        }
+    }
+
+    private void refreshLeadership() {
+        long now = System.currentTimeMillis();
+        boolean wasLeader = isLeader();
+        if (leaseStore.tryAcquire(LEADER_LEASE, nodeId, leaseTtl)) {
+            // Give up a third of the TTL as a safety margin against clock skew and slow renewals
+            leaderUntilMillis = now + leaseTtl.toMillis() * 2 / 3;
+            if (!wasLeader) {
+                log.info("Node {} acquired the leader lease", nodeId);
+            }
+        } else {
+            leaderUntilMillis = 0;
+            if (wasLeader) {
+                log.warn("Node {} lost the leader lease", nodeId);
+            }
+        }
+    }
+
+    private void refreshMembership(Set<String> liveNodes) {
+        if (!liveNodes.contains(nodeId)) {
+            // Our own heartbeat may not be visible yet; never drop ourselves from the ring
+            liveNodes = new HashSet<>(liveNodes);
+            liveNodes.add(nodeId);
+        }
+        if (liveNodes.equals(ring.getNodes())) {
+            return;
+        }
+
+        log.info("Cluster membership changed: {} -> {}", ring.getNodes(), liveNodes);
+        ring = new ConsistentHashRing(liveNodes, virtualNodes);
+        for (Runnable listener : membershipListeners) {
+            listenerExecutor.execute(() -> {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    log.error("Cluster membership listener failed", e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        listenerExecutor.shutdownNow();
+        try {
+            leaderUntilMillis = 0;
+            leaseStore.release(LEADER_LEASE, nodeId);
+            leaseStore.leave(nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to leave cluster cleanly: {}", e.getMessage());
+        }
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,178 @@
+package dev.somdip.containerplatform.service.cluster;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lease store backed by a small DynamoDB table.
+ *
+ * Each item is keyed by {@code leaseName} and carries the owner and an expiry in epoch
+ * milliseconds. Acquiring is a conditional PutItem that only succeeds if the lease is
+ * free, expired or already ours. Node heartbeats are stored as {@code node#<id>} items.
+ * A {@code ttl} attribute lets DynamoDB remove entries left behind by crashed nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.lease-store", havingValue = "dynamodb", matchIfMissing = true)
+public class DynamoDbLeaseStore implements LeaseStore {
+    private static final Logger log = LoggerFactory.getLogger(DynamoDbLeaseStore.class);
+
+    private static final String NODE_PREFIX = "node#";
+
+    private final DynamoDbClient dynamoDbClient;
+
+    @Value("${aws.dynamodb.tables.leases:container-platform-leases}")
+    private String tableName;
+
+    @Value("${aws.dynamodb.initialize:true}")
+    private boolean initializeTable;
+
+    public DynamoDbLeaseStore(DynamoDbClient dynamoDbClient) {
+        this.dynamoDbClient = dynamoDbClient;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (initializeTable) {
+            createTableIfNotExists();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String leaseName, String ownerId, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":now", number(now));
+        values.put(":owner", AttributeValue.builder().s(ownerId).build());
+
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(leaseItem(leaseName, ownerId, now + ttl.toMillis()))
+                .conditionExpression("attribute_not_exists(leaseName) OR expiresAt < :now OR ownerId = :owner")
+                .expressionAttributeValues(values)
+                .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String leaseName, String ownerId) {
+        try {
+            dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("leaseName", AttributeValue.builder().s(leaseName).build()))
+                .conditionExpression("ownerId = :owner")
+                .expressionAttributeValues(Map.of(":owner", AttributeValue.builder().s(ownerId).build()))
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Lease {} is not held by {}, nothing to release", leaseName, ownerId);
+        }
+    }
+
+    @Override
+    public void heartbeat(String nodeId, Duration ttl) {
+        dynamoDbClient.putItem(PutItemRequest.builder()
+            .tableName(tableName)
+            .item(leaseItem(NODE_PREFIX + nodeId, nodeId, System.currentTimeMillis() + ttl.toMillis()))
+            .build());
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+            .tableName(tableName)
+            .key(Map.of("leaseName", AttributeValue.builder().s(NODE_PREFIX + nodeId).build()))
+            .build());
+    }
+
+    @Override
+    public Set<String> liveNodes() {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":prefix", AttributeValue.builder().s(NODE_PREFIX).build());
+        values.put(":now", number(System.currentTimeMillis()));
+
+        Set<String> nodes = new HashSet<>();
+        ScanRequest request = ScanRequest.builder()
+            .tableName(tableName)
+            .filterExpression("begins_with(leaseName, :prefix) AND expiresAt > :now")
+            .expressionAttributeValues(values)
+            .consistentRead(true)
+            .build();
+        for (ScanResponse page : dynamoDbClient.scanPaginator(request)) {
+            for (Map<String, AttributeValue> item : page.items()) {
+                nodes.add(item.get("ownerId").s());
+            }
+        }
+        return nodes;
+    }
+
+    private Map<String, AttributeValue> leaseItem(String leaseName, String ownerId, long expiresAt) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("leaseName", AttributeValue.builder().s(leaseName).build());
+        item.put("ownerId", AttributeValue.builder().s(ownerId).build());
+        item.put("expiresAt", number(expiresAt));
+        // DynamoDB TTL works in epoch seconds; keep expired items around for a while for debugging
+        item.put("ttl", number(expiresAt / 1000 + 3600));
+        return item;
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    private void createTableIfNotExists() {
+        try {
+            dynamoDbClient.describeTable(DescribeTableRequest.builder()
+                .tableName(tableName)
+                .build());
+            log.info("Lease table {} exists", tableName);
+        } catch (ResourceNotFoundException e) {
+            log.info("Creating lease table: {}", tableName);
+
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                .tableName(tableName)
+                .attributeDefinitions(AttributeDefinition.builder()
+                    .attributeName("leaseName")
+                    .attributeType(ScalarAttributeType.S)
+                    .build())
+                .keySchema(KeySchemaElement.builder()
+                    .attributeName("leaseName")
+                    .keyType(KeyType.HASH)
+                    .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .build());
+
+            dynamoDbClient.waiter().waitUntilTableExists(DescribeTableRequest.builder()
+                .tableName(tableName)
+                .build());
+
+            try {
+                dynamoDbClient.updateTimeToLive(UpdateTimeToLiveRequest.builder()
+                    .tableName(tableName)
+                    .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                        .attributeName("ttl")
+                        .enabled(true)
+                        .build())
+                    .build());
+            } catch (Exception ttlError) {
+                log.warn("Could not enable TTL on lease table {}: {}", tableName, ttlError.getMessage());
+            }
+
+            log.info("Lease table {} created", tableName);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dev.somdip.containerplatform.service.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lease store for a single JVM: tests, local development and single-node deployments
+ * ({@code app.cluster.lease-store=memory})
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.lease-store", havingValue = "memory")
+public class InMemoryLeaseStore implements LeaseStore {
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<String, Long> nodes = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public InMemoryLeaseStore() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryLeaseStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryAcquire(String leaseName, String ownerId, Duration ttl) {
+        long now = clock.millis();
+        Lease lease = leases.compute(leaseName, (name, current) -> {
+            if (current == null || current.expiresAt <= now || current.ownerId.equals(ownerId)) {
+                return new Lease(ownerId, now + ttl.toMillis());
+            }
+            return current;
+        });
+        return lease.ownerId.equals(ownerId);
+    }
+
+    @Override
+    public void release(String leaseName, String ownerId) {
+        leases.computeIfPresent(leaseName, (name, current) -> current.ownerId.equals(ownerId) ? null : current);
+    }
+
+    @Override
+    public void heartbeat(String nodeId, Duration ttl) {
+        nodes.put(nodeId, clock.millis() + ttl.toMillis());
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    @Override
+    public Set<String> liveNodes() {
+        long now = clock.millis();
+        nodes.values().removeIf(expiresAt -> expiresAt <= now);
+        return nodes.keySet().stream().collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static final class Lease {
+        private final String ownerId;
+        private final long expiresAt;
+
+        private Lease(String ownerId, long expiresAt) {
+            this.ownerId = ownerId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
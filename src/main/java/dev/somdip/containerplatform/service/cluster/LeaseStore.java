@@ -0,0 +1,40 @@
+package dev.somdip.containerplatform.service.cluster;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Storage for time-bounded leases shared by all platform nodes.
+ *
+ * A lease is held by one owner until it expires or is released. Node membership uses the
+ * same mechanism: every node keeps a lease named after itself alive with heartbeats.
+ */
+public interface LeaseStore {
+
+    /**
+     * Acquire the lease, or extend it if {@code ownerId} already holds it.
+     *
+     * @return true if {@code ownerId} holds the lease for at least {@code ttl} from now
+     */
+    boolean tryAcquire(String leaseName, String ownerId, Duration ttl);
+
+    /**
+     * Release the lease if {@code ownerId} holds it
+     */
+    void release(String leaseName, String ownerId);
+
+    /**
+     * Record that a node is alive for the next {@code ttl}
+     */
+    void heartbeat(String nodeId, Duration ttl);
+
+    /**
+     * Remove a node's membership entry, e.g. on graceful shutdown
+     */
+    void leave(String nodeId);
+
+    /**
+     * Nodes whose heartbeat has not expired
+     */
+    Set<String> liveNodes();
+}
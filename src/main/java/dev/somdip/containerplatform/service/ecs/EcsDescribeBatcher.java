@@ -0,0 +1,195 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import dev.somdip.containerplatform.config.AwsCallGovernor;
+import dev.somdip.containerplatform.utils.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.ecs.EcsClient;
+import software.amazon.awssdk.services.ecs.model.DescribeServicesRequest;
+import software.amazon.awssdk.services.ecs.model.DescribeServicesResponse;
+import software.amazon.awssdk.services.ecs.model.DescribeTasksRequest;
+import software.amazon.awssdk.services.ecs.model.DescribeTasksResponse;
+import software.amazon.awssdk.services.ecs.model.Failure;
+import software.amazon.awssdk.services.ecs.model.Service;
+import software.amazon.awssdk.services.ecs.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Describes many ECS services and tasks with as few API calls as possible.
+ * DescribeServices accepts up to 10 services and DescribeTasks up to 100 tasks per call.
+ * Results are also recorded in the {@link EcsStateModel}.
+ *
+ * Concurrent describes of the same service or task share one call, and a result is reused for
+ * {@code app.aws.single-flight.ecs-freshness-ms} afterwards, so overlapping health check batches
+ * and deployment polls do not describe the same resource twice. A shared describe runs in the
+ * {@link AwsCallGovernor} lane of the caller that started it, carried over explicitly so it
+ * does not depend on which thread the flight ends up loading on.
+ */
+@Slf4j
+@Component
+public class EcsDescribeBatcher {
+
+    public static final int MAX_SERVICES_PER_CALL = 10;
+    public static final int MAX_TASKS_PER_CALL = 100;
+
+    private final EcsClient ecsClient;
+    private final EcsStateModel stateModel;
+    private final Counter describeServicesCalls;
+    private final Counter describeTasksCalls;
+    private final SingleFlight<String, Optional<Service>> serviceFlights;
+    private final SingleFlight<String, Task> taskFlights;
+
+    @Value("${aws.ecs.cluster}")
+    private String clusterName;
+
+    public EcsDescribeBatcher(EcsClient ecsClient,
+                              EcsStateModel stateModel,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.aws.single-flight.ecs-freshness-ms:2000}") long freshnessMillis) {
+        this.ecsClient = ecsClient;
+        this.stateModel = stateModel;
+        this.describeServicesCalls = Counter.builder("ecs.describe.calls")
+            .tag("operation", "DescribeServices")
+            .register(meterRegistry);
+        this.describeTasksCalls = Counter.builder("ecs.describe.calls")
+            .tag("operation", "DescribeTasks")
+            .register(meterRegistry);
+        this.serviceFlights = new SingleFlight<>("ecs.service", freshnessMillis, meterRegistry);
+        this.taskFlights = new SingleFlight<>("ecs.task", freshnessMillis, meterRegistry);
+    }
+
+    /**
+     * Describe the given services (ARNs or names) in chunks of {@value #MAX_SERVICES_PER_CALL}
+     */
+    public ServiceBatch describeServices(Collection<String> serviceArns) {
+        AwsCallGovernor.Lane lane = AwsCallGovernor.currentLane();
+        Map<String, Optional<Service>> described = serviceFlights.getAll(serviceArns,
+            arns -> AwsCallGovernor.withLane(lane, () -> loadServices(arns)));
+        ServiceBatch batch = new ServiceBatch();
+        for (String requested : serviceArns) {
+            Optional<Service> service = described.get(requested);
+            if (service == null) {
+                batch.unknown.add(requested);
+            } else if (service.isPresent()) {
+                batch.services.put(service.get().serviceArn(), service.get());
+                batch.services.put(service.get().serviceName(), service.get());
+            } else {
+                batch.missing.add(requested);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Describe the given tasks in chunks of {@value #MAX_TASKS_PER_CALL}; tasks that could
+     * not be described are absent from the result
+     */
+    public Map<String, Task> describeTasks(Collection<String> taskArns) {
+        AwsCallGovernor.Lane lane = AwsCallGovernor.currentLane();
+        return taskFlights.getAll(taskArns, arns -> AwsCallGovernor.withLane(lane, () -> loadTasks(arns)));
+    }
+
+    /**
+     * Found services and services ECS reported as missing (empty), keyed as requested;
+     * services whose describe failed are left out
+     */
+    private Map<String, Optional<Service>> loadServices(Collection<String> serviceArns) {
+        Map<String, Optional<Service>> results = new HashMap<>();
+        for (List<String> chunk : chunk(serviceArns, MAX_SERVICES_PER_CALL)) {
+            try {
+                describeServicesCalls.increment();
+                DescribeServicesResponse response = ecsClient.describeServices(DescribeServicesRequest.builder()
+                    .cluster(clusterName)
+                    .services(chunk)
+                    .build());
+
+                for (Service service : response.services()) {
+                    results.put(requestedKey(chunk, service.serviceArn(), service.serviceName()), Optional.of(service));
+                    stateModel.applyService(service);
+                }
+                for (Failure failure : response.failures()) {
+                    if ("MISSING".equals(failure.reason())) {
+                        results.put(requestedKey(chunk, failure.arn(), null), Optional.empty());
+                        stateModel.removeService(failure.arn());
+                    } else {
+                        log.warn("DescribeServices failure for {}: {}", failure.arn(), failure.reason());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to describe ECS services {}", chunk, e);
+            }
+        }
+        return results;
+    }
+
+    private Map<String, Task> loadTasks(Collection<String> taskArns) {
+        Map<String, Task> tasks = new HashMap<>();
+        for (List<String> chunk : chunk(taskArns, MAX_TASKS_PER_CALL)) {
+            try {
+                describeTasksCalls.increment();
+                DescribeTasksResponse response = ecsClient.describeTasks(DescribeTasksRequest.builder()
+                    .cluster(clusterName)
+                    .tasks(chunk)
+                    .build());
+                for (Task task : response.tasks()) {
+                    tasks.put(task.taskArn(), task);
+                }
+                stateModel.applyTasks(response.tasks());
+            } catch (Exception e) {
+                log.error("Failed to describe {} ECS tasks", chunk.size(), e);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * The identifier the caller used for a service: its ARN, its name, or the last path
+     * segment of the ARN ECS reported
+     */
+    private static String requestedKey(List<String> requested, String arn, String name) {
+        if (arn == null || requested.contains(arn)) {
+            return arn;
+        }
+        if (name != null && requested.contains(name)) {
+            return name;
+        }
+        String shortName = arn.substring(arn.lastIndexOf('/') + 1);
+        return requested.contains(shortName) ? shortName : arn;
+    }
+
+    private static List<List<String>> chunk(Collection<String> values, int size) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += size) {
+            chunks.add(distinct.subList(i, Math.min(i + size, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Result of a batched DescribeServices: found services keyed by ARN and name,
+     * services ECS reported as missing, and services whose state is unknown because
+     * the call failed
+     */
+    public static class ServiceBatch {
+        private final Map<String, Service> services = new HashMap<>();
+        private final Set<String> missing = new HashSet<>();
+        private final Set<String> unknown = new HashSet<>();
+
+        public Service get(String serviceArn) { return services.get(serviceArn); }
+        public boolean isMissing(String serviceArn) { return missing.contains(serviceArn); }
+        public boolean isUnknown(String serviceArn) { return unknown.contains(serviceArn); }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import java.util.function.Consumer;
+
+/**
+ * Source of ECS task and service state-change events
+ */
+public interface EcsEventSource {
+
+    /**
+     * Start delivering events to the sink. Events may be delivered on a background thread.
+     */
+    void start(Consumer<EcsStateEvent> sink);
+
+    void stop();
+
+    /**
+     * Whether events are currently flowing. While this is false, consumers should not
+     * trust event-derived state and fall back to polling.
+     */
+    boolean isHealthy();
+}
@@ -0,0 +1,134 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last known state of one ECS service.
+ *
+ * Status and counts come from DescribeServices ({@link #getRefreshedAt()}); events keep
+ * the task set, steady-state flag and deployment state current in between.
+ * Only {@link EcsStateModel} mutates it.
+ */
+public class EcsServiceState {
+
+    private final String serviceName;
+    private volatile String serviceArn;
+    private volatile String status;
+    private volatile int desiredCount;
+    private volatile int runningCount;
+    private volatile int pendingCount;
+    private volatile boolean steady;
+    private volatile String deploymentState;
+    private volatile String deploymentReason;
+    private volatile Instant refreshedAt;
+    private volatile Instant tasksRefreshedAt;
+    private volatile Instant lastEventAt;
+    private final Map<String, EcsTaskState> tasks = new ConcurrentHashMap<>();
+
+    EcsServiceState(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public boolean isActive() {
+        return "ACTIVE".equals(status);
+    }
+
+    /**
+     * Tasks ECS reports as RUNNING
+     */
+    public List<EcsTaskState> getRunningTasks() {
+        List<EcsTaskState> running = new ArrayList<>();
+        for (EcsTaskState task : tasks.values()) {
+            if (task.isRunning()) {
+                running.add(task);
+            }
+        }
+        return running;
+    }
+
+    public String getServiceName() { return serviceName; }
+    public String getServiceArn() { return serviceArn; }
+    public String getStatus() { return status; }
+    public int getDesiredCount() { return desiredCount; }
+    public int getRunningCount() { return runningCount; }
+    public int getPendingCount() { return pendingCount; }
+    public boolean isSteady() { return steady; }
+    public String getDeploymentState() { return deploymentState; }
+    public String getDeploymentReason() { return deploymentReason; }
+    public Instant getRefreshedAt() { return refreshedAt; }
+    public Instant getTasksRefreshedAt() { return tasksRefreshedAt; }
+    public Instant getLastEventAt() { return lastEventAt; }
+    public Collection<EcsTaskState> getTasks() { return tasks.values(); }
+
+    void applyDescribe(String serviceArn, String status, int desiredCount, int runningCount,
+                       int pendingCount, String deploymentState, Instant now) {
+        this.serviceArn = serviceArn;
+        this.status = status;
+        this.desiredCount = desiredCount;
+        this.runningCount = runningCount;
+        this.pendingCount = pendingCount;
+        if (deploymentState != null) {
+            this.deploymentState = deploymentState;
+        }
+        this.steady = runningCount == desiredCount && pendingCount == 0;
+        this.refreshedAt = now;
+    }
+
+    void applyTaskListing(Collection<EcsTaskState> listed, Instant now) {
+        tasks.clear();
+        for (EcsTaskState task : listed) {
+            if (!task.isStopped()) {
+                tasks.put(task.getTaskArn(), task);
+            }
+        }
+        this.tasksRefreshedAt = now;
+    }
+
+    void applyTask(EcsTaskState task) {
+        if (task.isStopped()) {
+            tasks.remove(task.getTaskArn());
+        } else {
+            tasks.put(task.getTaskArn(), task);
+        }
+        // Counts can only be derived once the full task set is known
+        if (tasksRefreshedAt != null) {
+            runningCount = (int) tasks.values().stream().filter(EcsTaskState::isRunning).count();
+            pendingCount = (int) tasks.values().stream().filter(t -> !t.isRunning()).count();
+        }
+    }
+
+    void applyEvent(EcsStateEvent event, Instant now) {
+        this.lastEventAt = now;
+        String eventName = event.getEventName();
+        if (eventName == null) {
+            return;
+        }
+        switch (eventName) {
+            case "SERVICE_STEADY_STATE":
+                steady = true;
+                break;
+            case "SERVICE_DEPLOYMENT_IN_PROGRESS":
+                steady = false;
+                deploymentState = "IN_PROGRESS";
+                deploymentReason = event.getReason();
+                break;
+            case "SERVICE_DEPLOYMENT_COMPLETED":
+                deploymentState = "COMPLETED";
+                deploymentReason = event.getReason();
+                break;
+            case "SERVICE_DEPLOYMENT_FAILED":
+                deploymentState = "FAILED";
+                deploymentReason = event.getReason();
+                break;
+            default:
+                if (eventName.endsWith("_IMPAIRED")) {
+                    steady = false;
+                }
+        }
+    }
+}
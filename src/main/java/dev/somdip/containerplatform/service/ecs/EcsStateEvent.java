@@ -0,0 +1,102 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * An ECS state-change event as delivered by EventBridge.
+ * Covers "ECS Task State Change", "ECS Service Action" and "ECS Deployment State Change".
+ */
+@Getter
+@Builder
+public class EcsStateEvent {
+
+    public enum Type {
+        TASK, SERVICE_ACTION, DEPLOYMENT
+    }
+
+    private final Type type;
+    private final String clusterArn;
+    private final String serviceName;
+    private final Instant time;
+
+    // Task events
+    private final String taskArn;
+    private final String lastStatus;
+    private final String desiredStatus;
+    private final String healthStatus;
+    private final Instant startedAt;
+    private final Instant stoppedAt;
+
+    // Service action and deployment events, e.g. SERVICE_STEADY_STATE or SERVICE_DEPLOYMENT_COMPLETED
+    private final String eventName;
+    private final String reason;
+
+    /**
+     * Parse an EventBridge event document; returns null for events that are not ECS state changes
+     */
+    public static EcsStateEvent parse(ObjectMapper objectMapper, String json) throws IOException {
+        JsonNode root = objectMapper.readTree(json);
+        // Events forwarded through SNS arrive wrapped in a notification envelope
+        if (root.has("Message") && root.has("TopicArn")) {
+            root = objectMapper.readTree(root.get("Message").asText());
+        }
+        if (!"aws.ecs".equals(root.path("source").asText())) {
+            return null;
+        }
+
+        JsonNode detail = root.path("detail");
+        Instant time = parseInstant(root.path("time").asText(null));
+        String detailType = root.path("detail-type").asText();
+
+        switch (detailType) {
+            case "ECS Task State Change": {
+                String group = detail.path("group").asText("");
+                return EcsStateEvent.builder()
+                    .type(Type.TASK)
+                    .clusterArn(detail.path("clusterArn").asText(null))
+                    .serviceName(group.startsWith("service:") ? group.substring("service:".length()) : null)
+                    .time(time)
+                    .taskArn(detail.path("taskArn").asText(null))
+                    .lastStatus(detail.path("lastStatus").asText(null))
+                    .desiredStatus(detail.path("desiredStatus").asText(null))
+                    .healthStatus(detail.path("healthStatus").asText(null))
+                    .startedAt(parseInstant(detail.path("startedAt").asText(null)))
+                    .stoppedAt(parseInstant(detail.path("stoppedAt").asText(null)))
+                    .reason(detail.path("stoppedReason").asText(null))
+                    .build();
+            }
+            case "ECS Service Action":
+            case "ECS Deployment State Change": {
+                JsonNode resources = root.path("resources");
+                String serviceArn = resources.isArray() && resources.size() > 0 ? resources.get(0).asText() : null;
+                return EcsStateEvent.builder()
+                    .type("ECS Service Action".equals(detailType) ? Type.SERVICE_ACTION : Type.DEPLOYMENT)
+                    .clusterArn(detail.path("clusterArn").asText(null))
+                    .serviceName(EcsStateModel.serviceName(serviceArn))
+                    .time(time)
+                    .eventName(detail.path("eventName").asText(null))
+                    .reason(detail.path("reason").asText(null))
+                    .build();
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
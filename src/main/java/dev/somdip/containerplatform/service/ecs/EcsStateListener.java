@@ -0,0 +1,20 @@
+package dev.somdip.containerplatform.service.ecs;
+
+/**
+ * Receives updates to the in-process ECS state model. Called on the event delivery
+ * thread, so implementations should hand off slow work.
+ */
+public interface EcsStateListener {
+
+    /**
+     * A service's state changed because of an event
+     */
+    default void onServiceEvent(EcsServiceState service, EcsStateEvent event) {
+    }
+
+    /**
+     * A task's state changed because of an event
+     */
+    default void onTaskEvent(EcsTaskState task, EcsStateEvent event) {
+    }
+}
@@ -0,0 +1,259 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.ecs.model.Service;
+import software.amazon.awssdk.services.ecs.model.Task;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * In-process view of ECS service and task state for the platform cluster.
+ *
+ * Kept current by state-change events from the {@link EcsEventSource}, and refreshed by
+ * whatever DescribeServices/DescribeTasks calls components still make. While events are
+ * flowing, state read from ECS within the reconcile interval can be trusted without
+ * calling ECS again; otherwise {@link #isTrusted(Instant)} returns false and callers poll.
+ */
+@Slf4j
+@Component
+public class EcsStateModel {
+
+    private final EcsEventSource eventSource;
+    private final Map<String, EcsServiceState> services = new ConcurrentHashMap<>();
+    private final Map<String, EcsTaskState> tasks = new ConcurrentHashMap<>();
+    private final Map<String, List<CompletableFuture<EcsServiceState>>> serviceWaiters = new ConcurrentHashMap<>();
+    private final List<EcsStateListener> listeners = new CopyOnWriteArrayList<>();
+    private final Duration reconcileInterval;
+
+    @Value("${aws.ecs.cluster}")
+    private String clusterName;
+
+    public EcsStateModel(EcsEventSource eventSource,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.ecs.events.reconcile-interval-seconds:1800}") long reconcileIntervalSeconds) {
+        this.eventSource = eventSource;
+        this.reconcileInterval = Duration.ofSeconds(reconcileIntervalSeconds);
+        Gauge.builder("ecs.state.services", services, Map::size).register(meterRegistry);
+        Gauge.builder("ecs.events.healthy", eventSource, s -> s.isHealthy() ? 1 : 0).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        eventSource.start(this::apply);
+    }
+
+    @PreDestroy
+    public void stop() {
+        eventSource.stop();
+    }
+
+    /**
+     * Service name from a service ARN (arn:aws:ecs:region:account:service/cluster/name) or a plain name
+     */
+    public static String serviceName(String serviceArnOrName) {
+        if (serviceArnOrName == null) {
+            return null;
+        }
+        int slash = serviceArnOrName.lastIndexOf('/');
+        return slash >= 0 ? serviceArnOrName.substring(slash + 1) : serviceArnOrName;
+    }
+
+    public boolean isEventStreamHealthy() {
+        return eventSource.isHealthy();
+    }
+
+    /**
+     * Whether state last read from ECS at {@code refreshedAt} can be used without asking ECS again
+     */
+    public boolean isTrusted(Instant refreshedAt) {
+        return refreshedAt != null && eventSource.isHealthy() &&
+            refreshedAt.isAfter(Instant.now().minus(reconcileInterval));
+    }
+
+    public EcsServiceState getService(String serviceArnOrName) {
+        String name = serviceName(serviceArnOrName);
+        return name != null ? services.get(name) : null;
+    }
+
+    public EcsTaskState getTask(String taskArn) {
+        return taskArn != null ? tasks.get(taskArn) : null;
+    }
+
+    public void subscribe(EcsStateListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(EcsStateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Future completed by the next event for the service. Callers should still bound the
+     * wait and poll, since events can be delayed or lost.
+     */
+    public CompletableFuture<EcsServiceState> nextServiceEvent(String serviceArnOrName) {
+        CompletableFuture<EcsServiceState> future = new CompletableFuture<>();
+        serviceWaiters.computeIfAbsent(serviceName(serviceArnOrName), k -> new CopyOnWriteArrayList<>()).add(future);
+        return future;
+    }
+
+    /**
+     * Wait up to the timeout for the next event for the service
+     */
+    public void awaitServiceEvent(String serviceArnOrName, Duration timeout) throws InterruptedException {
+        CompletableFuture<EcsServiceState> future = nextServiceEvent(serviceArnOrName);
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Fall through to the caller's poll
+        } finally {
+            List<CompletableFuture<EcsServiceState>> waiters = serviceWaiters.get(serviceName(serviceArnOrName));
+            if (waiters != null) {
+                waiters.remove(future);
+            }
+        }
+    }
+
+    /**
+     * Record the result of a DescribeServices call
+     */
+    public void applyService(Service service) {
+        String deploymentState = service.deployments().stream()
+            .filter(d -> "PRIMARY".equals(d.status()) && d.rolloutState() != null)
+            .map(d -> d.rolloutState().toString())
+            .findFirst()
+            .orElse(null);
+        state(service.serviceName()).applyDescribe(service.serviceArn(), service.status(),
+            service.desiredCount(), service.runningCount(), service.pendingCount(), deploymentState, Instant.now());
+    }
+
+    /**
+     * Forget a service ECS reported as missing
+     */
+    public void removeService(String serviceArnOrName) {
+        EcsServiceState removed = services.remove(serviceName(serviceArnOrName));
+        if (removed != null) {
+            removed.getTasks().forEach(t -> tasks.remove(t.getTaskArn()));
+        }
+    }
+
+    /**
+     * Record the result of a DescribeTasks call
+     */
+    public void applyTasks(Collection<Task> described) {
+        Instant now = Instant.now();
+        for (Task task : described) {
+            EcsTaskState state = EcsTaskState.from(task, now);
+            putTask(state);
+            if (state.getServiceName() != null) {
+                state(state.getServiceName()).applyTask(state);
+            }
+        }
+    }
+
+    /**
+     * Record the complete set of tasks of a service (ListTasks followed by DescribeTasks)
+     */
+    public void applyTaskListing(String serviceArnOrName, Collection<Task> listed) {
+        Instant now = Instant.now();
+        List<EcsTaskState> states = new ArrayList<>(listed.size());
+        for (Task task : listed) {
+            EcsTaskState state = EcsTaskState.from(task, now);
+            putTask(state);
+            states.add(state);
+        }
+        state(serviceName(serviceArnOrName)).applyTaskListing(states, now);
+    }
+
+    /**
+     * Apply one event from the event source
+     */
+    void apply(EcsStateEvent event) {
+        if (!isOurCluster(event.getClusterArn())) {
+            return;
+        }
+        Instant now = Instant.now();
+
+        if (event.getType() == EcsStateEvent.Type.TASK) {
+            if (event.getTaskArn() == null) {
+                return;
+            }
+            EcsTaskState task = EcsTaskState.from(event);
+            EcsTaskState previous = tasks.get(task.getTaskArn());
+            // Events can arrive out of order; never let an older event overwrite newer state
+            if (previous != null && previous.getUpdatedAt() != null &&
+                task.getUpdatedAt().isBefore(previous.getUpdatedAt())) {
+                return;
+            }
+            putTask(task);
+            for (EcsStateListener listener : listeners) {
+                safely(() -> listener.onTaskEvent(task, event));
+            }
+            if (task.getServiceName() != null) {
+                EcsServiceState service = state(task.getServiceName());
+                service.applyTask(task);
+                service.applyEvent(event, now);
+                serviceChanged(service, event);
+            }
+            return;
+        }
+
+        if (event.getServiceName() == null) {
+            return;
+        }
+        EcsServiceState service = state(event.getServiceName());
+        service.applyEvent(event, now);
+        serviceChanged(service, event);
+    }
+
+    private void serviceChanged(EcsServiceState service, EcsStateEvent event) {
+        for (EcsStateListener listener : listeners) {
+            safely(() -> listener.onServiceEvent(service, event));
+        }
+        List<CompletableFuture<EcsServiceState>> waiters = serviceWaiters.remove(service.getServiceName());
+        if (waiters != null) {
+            waiters.forEach(f -> f.complete(service));
+        }
+    }
+
+    private void putTask(EcsTaskState task) {
+        if (task.isStopped()) {
+            tasks.remove(task.getTaskArn());
+        } else {
+            tasks.put(task.getTaskArn(), task);
+        }
+    }
+
+    private EcsServiceState state(String serviceName) {
+        return services.computeIfAbsent(serviceName, EcsServiceState::new);
+    }
+
+    private boolean isOurCluster(String clusterArn) {
+        return clusterArn == null || clusterArn.equals(clusterName) || clusterArn.endsWith("/" + clusterName);
+    }
+
+    private void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.error("ECS state listener failed", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import software.amazon.awssdk.services.ecs.model.Task;
+
+import java.time.Instant;
+
+/**
+ * Last known state of one ECS task, from events or DescribeTasks
+ */
+public class EcsTaskState {
+
+    private final String taskArn;
+    private final String serviceName;
+    private final String lastStatus;
+    private final String desiredStatus;
+    private final String healthStatus;
+    private final Instant startedAt;
+    private final Instant stoppedAt;
+    private final Instant updatedAt;
+
+    public EcsTaskState(String taskArn, String serviceName, String lastStatus, String desiredStatus,
+                        String healthStatus, Instant startedAt, Instant stoppedAt, Instant updatedAt) {
+        this.taskArn = taskArn;
+        this.serviceName = serviceName;
+        this.lastStatus = lastStatus;
+        this.desiredStatus = desiredStatus;
+        this.healthStatus = healthStatus;
+        this.startedAt = startedAt;
+        this.stoppedAt = stoppedAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public static EcsTaskState from(Task task, Instant updatedAt) {
+        String group = task.group() != null ? task.group() : "";
+        return new EcsTaskState(
+            task.taskArn(),
+            group.startsWith("service:") ? group.substring("service:".length()) : null,
+            task.lastStatus(),
+            task.desiredStatus(),
+            task.healthStatus() != null ? task.healthStatus().toString() : null,
+            task.startedAt(),
+            task.stoppedAt(),
+            updatedAt);
+    }
+
+    public static EcsTaskState from(EcsStateEvent event) {
+        return new EcsTaskState(event.getTaskArn(), event.getServiceName(), event.getLastStatus(),
+            event.getDesiredStatus(), event.getHealthStatus(), event.getStartedAt(), event.getStoppedAt(),
+            event.getTime() != null ? event.getTime() : Instant.now());
+    }
+
+    public boolean isStopped() {
+        return "STOPPED".equals(lastStatus);
+    }
+
+    public boolean isRunning() {
+        return "RUNNING".equals(lastStatus);
+    }
+
+    public String getTaskArn() { return taskArn; }
+    public String getServiceName() { return serviceName; }
+    public String getLastStatus() { return lastStatus; }
+    public String getDesiredStatus() { return desiredStatus; }
+    public String getHealthStatus() { return healthStatus; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getStoppedAt() { return stoppedAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
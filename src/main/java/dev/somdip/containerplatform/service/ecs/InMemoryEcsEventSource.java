@@ -0,0 +1,42 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Event source fed directly in-process, for tests and local development
+ * ({@code app.ecs.events.source=memory})
+ */
+@Component
+@ConditionalOnProperty(name = "app.ecs.events.source", havingValue = "memory")
+public class InMemoryEcsEventSource implements EcsEventSource {
+
+    private volatile Consumer<EcsStateEvent> sink;
+
+    @Override
+    public void start(Consumer<EcsStateEvent> sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void stop() {
+        this.sink = null;
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return sink != null;
+    }
+
+    /**
+     * Deliver an event synchronously, as if it had arrived from ECS
+     */
+    public void publish(EcsStateEvent event) {
+        Consumer<EcsStateEvent> current = sink;
+        if (current != null) {
+            current.accept(event);
+        }
+    }
+}
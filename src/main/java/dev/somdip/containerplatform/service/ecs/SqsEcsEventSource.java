@@ -0,0 +1,149 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads ECS events from an SQS queue that an EventBridge rule (source {@code aws.ecs})
+ * delivers to, using long polling.
+ *
+ * Every platform node keeps its own view of ECS state, so each node needs its own queue,
+ * e.g. by routing the rule to an SNS topic with one subscribed queue per node. Nodes that
+ * share a queue split its messages between them, so none of them sees every event: unless
+ * {@code app.ecs.events.queue-per-node} declares the queue dedicated, the source still
+ * consumes events (they refresh state and wake waiters) but never reports itself healthy,
+ * and consumers keep polling. Messages are deleted once processed; a message that fails to
+ * parse is dropped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.ecs.events.source", havingValue = "sqs", matchIfMissing = true)
+public class SqsEcsEventSource implements EcsEventSource {
+
+    private static final int MAX_MESSAGES = 10;
+    private static final int WAIT_SECONDS = 20;
+
+    private final SqsClient sqsClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Counter receivedCounter;
+    private final Counter failedCounter;
+
+    @Value("${app.ecs.events.queue-url:}")
+    private String queueUrl;
+
+    // Whether this node's queue receives every event, rather than being shared with other nodes
+    @Value("${app.ecs.events.queue-per-node:false}")
+    private boolean queuePerNode;
+
+    private volatile boolean running;
+    private volatile long lastReceiveMillis;
+    private Thread pollerThread;
+
+    public SqsEcsEventSource(SqsClient sqsClient, MeterRegistry meterRegistry) {
+        this.sqsClient = sqsClient;
+        this.receivedCounter = Counter.builder("ecs.events.received").register(meterRegistry);
+        this.failedCounter = Counter.builder("ecs.events.failed")
+            .description("ECS event messages that could not be parsed")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start(Consumer<EcsStateEvent> sink) {
+        if (queueUrl == null || queueUrl.isBlank()) {
+            log.warn("No ECS event queue configured (app.ecs.events.queue-url); relying on ECS polling");
+            return;
+        }
+        if (running) {
+            return;
+        }
+        running = true;
+        pollerThread = new Thread(() -> poll(sink), "ecs-events-sqs");
+        pollerThread.setDaemon(true);
+        pollerThread.start();
+        if (queuePerNode) {
+            log.info("Consuming ECS events from {}", queueUrl);
+        } else {
+            log.info("Consuming ECS events from shared queue {}; event-derived state will not be trusted", queueUrl);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (pollerThread != null) {
+            pollerThread.interrupt();
+            pollerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isHealthy() {
+        // A shared queue only delivers part of the events to this node.
+        // A long poll returns at least every WAIT_SECONDS, so anything older means we are cut off
+        return running && queuePerNode && System.currentTimeMillis() - lastReceiveMillis < TimeUnit.SECONDS.toMillis(WAIT_SECONDS * 3);
+    }
+
+    private void poll(Consumer<EcsStateEvent> sink) {
+        while (running) {
+            try {
+                List<Message> messages = sqsClient.receiveMessage(ReceiveMessageRequest.builder()
+                    .queueUrl(queueUrl)
+                    .maxNumberOfMessages(MAX_MESSAGES)
+                    .waitTimeSeconds(WAIT_SECONDS)
+                    .build()).messages();
+                lastReceiveMillis = System.currentTimeMillis();
+
+                List<DeleteMessageBatchRequestEntry> processed = new ArrayList<>(messages.size());
+                for (Message message : messages) {
+                    receivedCounter.increment();
+                    try {
+                        EcsStateEvent event = EcsStateEvent.parse(objectMapper, message.body());
+                        if (event != null) {
+                            sink.accept(event);
+                        }
+                    } catch (Exception e) {
+                        failedCounter.increment();
+                        log.warn("Dropping unreadable ECS event {}: {}", message.messageId(), e.getMessage());
+                    }
+                    processed.add(DeleteMessageBatchRequestEntry.builder()
+                        .id(message.messageId())
+                        .receiptHandle(message.receiptHandle())
+                        .build());
+                }
+
+                if (!processed.isEmpty()) {
+                    sqsClient.deleteMessageBatch(DeleteMessageBatchRequest.builder()
+                        .queueUrl(queueUrl)
+                        .entries(processed)
+                        .build());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Failed to receive ECS events from {}", queueUrl, e);
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.somdip.containerplatform.service.health;
+
+/**
+ * Probe interval for one container that adapts to how stable the container is.
+ *
+ * Each passing probe stretches the interval by {@code backoffFactor}, from the configured
+ * base interval up to {@code maxMillis}. A failed probe, a flapping endpoint (several
+ * pass/fail changes among the recent probes) or a recent deployment drops the interval
+ * to {@code minMillis}, and the next passing probe starts backing off from the base again.
+ *
+ * Not thread-safe; probes for one container never run concurrently.
+ */
+public class AdaptiveProbeInterval {
+
+    private static final int HISTORY_SIZE = 10;
+    private static final int HISTORY_MASK = (1 << HISTORY_SIZE) - 1;
+
+    private final long baseMillis;
+    private final long minMillis;
+    private final long maxMillis;
+    private final double backoffFactor;
+    private final int flapThreshold;
+
+    private long currentMillis;
+    private long fastUntilMillis;
+    // Last HISTORY_SIZE outcomes, newest in bit 0 (1 = passed)
+    private int history;
+    private int recorded;
+
+    public AdaptiveProbeInterval(long baseMillis, long minMillis, long maxMillis,
+                                 double backoffFactor, int flapThreshold) {
+        this.minMillis = Math.max(1, Math.min(minMillis, baseMillis));
+        this.maxMillis = Math.max(baseMillis, maxMillis);
+        this.baseMillis = baseMillis;
+        this.backoffFactor = Math.max(1.0, backoffFactor);
+        this.flapThreshold = flapThreshold;
+        this.currentMillis = baseMillis;
+    }
+
+    /**
+     * Probe fast until the given time, e.g. right after a deployment, and forget any backoff
+     */
+    public void reset(long fastUntilMillis) {
+        this.fastUntilMillis = fastUntilMillis;
+        this.currentMillis = baseMillis;
+        this.history = 0;
+        this.recorded = 0;
+    }
+
+    /**
+     * Record a probe outcome and return the interval until the next probe
+     */
+    public long record(boolean healthy, long nowMillis) {
+        history = ((history << 1) | (healthy ? 1 : 0)) & HISTORY_MASK;
+        recorded = Math.min(HISTORY_SIZE, recorded + 1);
+
+        if (!healthy || isFlapping() || nowMillis < fastUntilMillis) {
+            // Stay fast; the backoff restarts from the base once things settle
+            currentMillis = minMillis;
+            return currentMillis;
+        }
+
+        currentMillis = currentMillis < baseMillis ?
+            baseMillis : Math.min(maxMillis, Math.round(currentMillis * backoffFactor));
+        return currentMillis;
+    }
+
+    public long getCurrentMillis() {
+        return currentMillis;
+    }
+
+    /**
+     * Whether the recent outcomes changed between pass and fail at least
+     * {@code flapThreshold} times
+     */
+    public boolean isFlapping() {
+        if (flapThreshold <= 0 || recorded < 2) {
+            return false;
+        }
+        int window = (1 << (recorded - 1)) - 1;
+        int changes = Integer.bitCount((history ^ (history >>> 1)) & window);
+        return changes >= flapThreshold;
+    }
+}
@@ -0,0 +1,192 @@
+package dev.somdip.containerplatform.service.health;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel for large numbers of coarse-grained, periodically re-armed timeouts.
+ *
+ * A single worker thread advances the wheel one bucket per tick and hands expired
+ * tasks to the supplied executor, so scheduling and cancelling are O(1) regardless of
+ * how many containers are being monitored.
+ */
+public class HashedTimingWheel {
+    private static final Logger log = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final List<List<Timeout>> buckets;
+    private final int mask;
+    private final Executor dispatcher;
+    private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTimeouts = new AtomicInteger();
+    private final Thread worker;
+
+    private volatile boolean running = true;
+    private long startNanos;
+    private long tick;
+
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize, Executor dispatcher) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.mask = wheelSize - 1;
+        this.dispatcher = dispatcher;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.startNanos = System.nanoTime();
+        this.worker.start();
+    }
+
+    /**
+     * Schedule a task to run once after the given delay
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel has been stopped");
+        }
+        long deadline = System.nanoTime() - startNanos + unit.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(task, deadline);
+        pendingTimeouts.incrementAndGet();
+        pendingAdds.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Number of timeouts that are scheduled and have neither fired nor been cancelled
+     */
+    public int pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                continue;
+            }
+            transferPendingAdds();
+            expireBucket(buckets.get((int) (tick & mask)), deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return deadline;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferPendingAdds() {
+        Timeout timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / buckets.size();
+            long ticks = Math.max(calculated, tick);
+            buckets.get((int) (ticks & mask)).add(timeout);
+        }
+    }
+
+    private void expireBucket(List<Timeout> bucket, long deadline) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.isCancelled()) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                it.remove();
+                if (timeout.deadline <= deadline) {
+                    timeout.expire();
+                } else {
+                    // Should not happen, but never drop a timeout on the floor
+                    pendingAdds.add(timeout);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    /**
+     * Handle for a scheduled task
+     */
+    public final class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout; the bucket entry is reclaimed lazily when its slot comes around
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                pendingTimeouts.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            pendingTimeouts.decrementAndGet();
+            try {
+                dispatcher.execute(task);
+            } catch (RejectedExecutionException e) {
+                log.warn("Dispatcher rejected expired timeout: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package dev.somdip.containerplatform.service.health;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Single scheduler for all container health probes.
+ *
+ * Each monitored container owns one {@link ProbeHandle}. Handles that come due are
+ * collected for a short window and passed to the probe handler in batches, so the
+ * handler can describe many containers with one AWS call. The handler may finish a batch
+ * asynchronously; a handle is re-armed only once the future it returns has completed,
+ * so probes for one container never overlap, and
+ * cancelling the handle stops the container from being probed again.
+ *
+ * The delay before the next probe comes from the interval policy, if one is set, so the
+ * owner can adapt each container's interval to its recent probe results.
+ */
+@Slf4j
+@Component
+public class HealthProbeScheduler {
+
+    private final HashedTimingWheel wheel;
+    private final ThreadPoolExecutor probeExecutor;
+    private final ScheduledExecutorService batchFlusher;
+    private final Map<String, ProbeHandle> handles = new ConcurrentHashMap<>();
+    private final Queue<ProbeHandle> dueHandles = new ConcurrentLinkedQueue<>();
+    private final Timer lagTimer;
+    private final Counter droppedProbes;
+    private final double jitterRatio;
+    private final int maxBatchSize;
+
+    private volatile Function<List<String>, CompletableFuture<?>> probeHandler =
+        ids -> CompletableFuture.completedFuture(null);
+
+    // Next interval in milliseconds for a container; non-positive means use the scheduled interval
+    private volatile ToLongFunction<String> intervalPolicy = id -> 0;
+
+    public HealthProbeScheduler(MeterRegistry meterRegistry,
+                                @Value("${app.healthcheck.scheduler.threads:8}") int threads,
+                                @Value("${app.healthcheck.scheduler.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.healthcheck.scheduler.tick-millis:250}") long tickMillis,
+                                @Value("${app.healthcheck.scheduler.jitter-ratio:0.1}") double jitterRatio,
+                                @Value("${app.healthcheck.scheduler.batch-window-millis:500}") long batchWindowMillis,
+                                @Value("${app.healthcheck.scheduler.max-batch-size:100}") int maxBatchSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.probeExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, "health-probe-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        // Expired timeouts only enqueue work, so they can run directly on the wheel thread
+        this.wheel = new HashedTimingWheel("health-probe-wheel", tickMillis, TimeUnit.MILLISECONDS, 512, Runnable::run);
+        this.jitterRatio = jitterRatio;
+        this.maxBatchSize = maxBatchSize;
+        this.batchFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "health-probe-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.batchFlusher.scheduleWithFixedDelay(this::flushDueHandles,
+            batchWindowMillis, batchWindowMillis, TimeUnit.MILLISECONDS);
+
+        this.lagTimer = Timer.builder("health.probe.lag")
+            .description("Delay between a probe's due time and the moment it starts running")
+            .register(meterRegistry);
+        this.droppedProbes = Counter.builder("health.probe.dropped")
+            .description("Probes skipped because the probe queue was full")
+            .register(meterRegistry);
+        Gauge.builder("health.probe.scheduled", handles, Map::size)
+            .description("Containers with an active probe schedule")
+            .register(meterRegistry);
+        Gauge.builder("health.probe.queue.depth", dueHandles, Queue::size)
+            .description("Due probes waiting to be batched")
+            .register(meterRegistry);
+        Gauge.builder("health.probe.batches.pending", probeExecutor, e -> e.getQueue().size())
+            .description("Probe batches waiting for a probe thread")
+            .register(meterRegistry);
+        Gauge.builder("health.probe.active", probeExecutor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Register the handler that probes a batch of due containers
+     */
+    public void setProbeHandler(Function<List<String>, CompletableFuture<?>> probeHandler) {
+        this.probeHandler = probeHandler;
+    }
+
+    /**
+     * Register the policy that picks the delay before a container's next probe
+     */
+    public void setIntervalPolicy(ToLongFunction<String> intervalPolicy) {
+        this.intervalPolicy = intervalPolicy;
+    }
+
+    /**
+     * Schedule a periodic probe, replacing any existing schedule for the container.
+     * The first run is spread uniformly over one interval so restarts don't synchronise probes.
+     */
+    public void schedule(String containerId, int intervalSeconds) {
+        long intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, intervalSeconds));
+        ProbeHandle handle = new ProbeHandle(containerId, intervalMillis);
+        ProbeHandle previous = handles.put(containerId, handle);
+        if (previous != null) {
+            previous.cancel();
+        }
+        handle.arm(ThreadLocalRandom.current().nextLong(intervalMillis));
+        log.debug("Scheduled health probe for container {} every {}s", containerId, intervalSeconds);
+    }
+
+    /**
+     * Cancel the probe schedule for a container. A probe that is already running completes
+     * but is not re-armed.
+     */
+    public void cancel(String containerId) {
+        ProbeHandle handle = handles.remove(containerId);
+        if (handle != null) {
+            handle.cancel();
+            log.debug("Cancelled health probe for container {}", containerId);
+        }
+    }
+
+    public boolean isScheduled(String containerId) {
+        return handles.containsKey(containerId);
+    }
+
+    public Integer getIntervalSeconds(String containerId) {
+        ProbeHandle handle = handles.get(containerId);
+        return handle != null ? (int) TimeUnit.MILLISECONDS.toSeconds(handle.intervalMillis) : null;
+    }
+
+    public Set<String> getScheduledContainerIds() {
+        return Set.copyOf(handles.keySet());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        handles.values().forEach(ProbeHandle::cancel);
+        handles.clear();
+        wheel.stop();
+        batchFlusher.shutdownNow();
+        probeExecutor.shutdownNow();
+    }
+
+    private void flushDueHandles() {
+        List<ProbeHandle> batch = new ArrayList<>(maxBatchSize);
+        ProbeHandle handle;
+        while ((handle = dueHandles.poll()) != null) {
+            if (handle.cancelled) {
+                continue;
+            }
+            batch.add(handle);
+            if (batch.size() >= maxBatchSize) {
+                submitBatch(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            submitBatch(batch);
+        }
+    }
+
+    private void submitBatch(List<ProbeHandle> batch) {
+        try {
+            probeExecutor.execute(() -> runBatch(batch));
+        } catch (RejectedExecutionException e) {
+            droppedProbes.increment(batch.size());
+            log.warn("Probe queue full, skipping {} health probes", batch.size());
+            batch.forEach(h -> h.arm(jittered(h.intervalMillis)));
+        }
+    }
+
+    private void runBatch(List<ProbeHandle> batch) {
+        long now = System.nanoTime();
+        List<String> containerIds = new ArrayList<>(batch.size());
+        for (ProbeHandle handle : batch) {
+            if (!handle.cancelled) {
+                lagTimer.record(Math.max(0, now - handle.dueNanos), TimeUnit.NANOSECONDS);
+                containerIds.add(handle.containerId);
+            }
+        }
+        CompletableFuture<?> completion;
+        try {
+            completion = containerIds.isEmpty() ?
+                CompletableFuture.completedFuture(null) : probeHandler.apply(containerIds);
+        } catch (Exception e) {
+            log.error("Health probe batch of {} containers failed", containerIds.size(), e);
+            completion = CompletableFuture.completedFuture(null);
+        }
+        completion.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.error("Health probe batch of {} containers failed", containerIds.size(), error);
+            }
+            batch.forEach(h -> h.arm(jittered(nextInterval(h))));
+        });
+    }
+
+    private long nextInterval(ProbeHandle handle) {
+        try {
+            long next = intervalPolicy.applyAsLong(handle.containerId);
+            return next > 0 ? next : handle.intervalMillis;
+        } catch (Exception e) {
+            log.warn("Interval policy failed for container {}: {}", handle.containerId, e.toString());
+            return handle.intervalMillis;
+        }
+    }
+
+    private long jittered(long intervalMillis) {
+        if (jitterRatio <= 0) {
+            return intervalMillis;
+        }
+        double factor = 1 + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * jitterRatio;
+        return Math.max(1, Math.round(intervalMillis * factor));
+    }
+
+    /**
+     * Per-container schedule handle
+     */
+    private final class ProbeHandle {
+        private final String containerId;
+        private final long intervalMillis;
+        private volatile boolean cancelled;
+        private volatile HashedTimingWheel.Timeout timeout;
+        private volatile long dueNanos;
+
+        private ProbeHandle(String containerId, long intervalMillis) {
+            this.containerId = containerId;
+            this.intervalMillis = intervalMillis;
+        }
+
+        private void arm(long delayMillis) {
+            if (cancelled) {
+                return;
+            }
+            dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            timeout = wheel.newTimeout(() -> dueHandles.add(this), delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            HashedTimingWheel.Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.somdip.containerplatform.service.health;
+
+import dev.somdip.containerplatform.model.Container.HealthState;
+
+/**
+ * Health state transitions with hysteresis.
+ *
+ * <pre>
+ * UNKNOWN   --any probe-->                  STARTING
+ * STARTING  --healthyThreshold passes-->    HEALTHY
+ * STARTING  --unhealthyThreshold fails-->   UNHEALTHY
+ * HEALTHY   --one failure-->                DEGRADED
+ * DEGRADED  --healthyThreshold passes-->    HEALTHY
+ * DEGRADED  --unhealthyThreshold fails-->   UNHEALTHY
+ * UNHEALTHY --healthyThreshold passes-->    HEALTHY
+ * </pre>
+ *
+ * A single passing or failing probe never flips a container between HEALTHY and
+ * UNHEALTHY, so flapping endpoints produce few transitions.
+ */
+public final class HealthStateMachine {
+
+    private HealthStateMachine() {
+    }
+
+    /**
+     * Next state given the current state and the consecutive pass/fail counts after the
+     * latest probe (one of the counts is always zero)
+     */
+    public static HealthState next(HealthState current, int consecutiveSuccesses, int consecutiveFailures,
+                                   int healthyThreshold, int unhealthyThreshold) {
+        HealthState state = current != null ? current : HealthState.UNKNOWN;
+        boolean passedEnough = consecutiveSuccesses >= Math.max(1, healthyThreshold);
+        boolean failedEnough = consecutiveFailures >= Math.max(1, unhealthyThreshold);
+
+        switch (state) {
+            case UNKNOWN:
+            case STARTING:
+                if (passedEnough) {
+                    return HealthState.HEALTHY;
+                }
+                if (failedEnough) {
+                    return HealthState.UNHEALTHY;
+                }
+                return HealthState.STARTING;
+            case HEALTHY:
+                if (consecutiveFailures == 0) {
+                    return HealthState.HEALTHY;
+                }
+                return failedEnough ? HealthState.UNHEALTHY : HealthState.DEGRADED;
+            case DEGRADED:
+                if (passedEnough) {
+                    return HealthState.HEALTHY;
+                }
+                return failedEnough ? HealthState.UNHEALTHY : HealthState.DEGRADED;
+            case UNHEALTHY:
+            default:
+                return passedEnough ? HealthState.HEALTHY : HealthState.UNHEALTHY;
+        }
+    }
+}
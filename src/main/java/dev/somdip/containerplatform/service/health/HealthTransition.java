@@ -0,0 +1,40 @@
+package dev.somdip.containerplatform.service.health;
+
+import dev.somdip.containerplatform.model.Container.HealthState;
+
+import java.time.Instant;
+
+/**
+ * A container moving from one health state to another
+ */
+public class HealthTransition {
+
+    private final String containerId;
+    private final String userId;
+    private final HealthState from;
+    private final HealthState to;
+    private final Instant at;
+    private final String reason;
+
+    public HealthTransition(String containerId, String userId, HealthState from, HealthState to,
+                            Instant at, String reason) {
+        this.containerId = containerId;
+        this.userId = userId;
+        this.from = from;
+        this.to = to;
+        this.at = at;
+        this.reason = reason;
+    }
+
+    public String getContainerId() { return containerId; }
+    public String getUserId() { return userId; }
+    public HealthState getFrom() { return from; }
+    public HealthState getTo() { return to; }
+    public Instant getAt() { return at; }
+    public String getReason() { return reason; }
+
+    @Override
+    public String toString() {
+        return containerId + " " + from + " -> " + to + (reason != null ? " (" + reason + ")" : "");
+    }
+}
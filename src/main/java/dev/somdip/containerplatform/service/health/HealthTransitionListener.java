@@ -0,0 +1,11 @@
+package dev.somdip.containerplatform.service.health;
+
+/**
+ * Receives container health state transitions. Called on the health evaluation thread,
+ * so implementations should hand off any slow work.
+ */
+@FunctionalInterface
+public interface HealthTransitionListener {
+
+    void onTransition(HealthTransition transition);
+}
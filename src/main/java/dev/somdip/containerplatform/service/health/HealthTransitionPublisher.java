@@ -0,0 +1,36 @@
+package dev.somdip.containerplatform.service.health;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process fan-out of health state transitions to subscribers such as the UI push
+ * channel and alerting
+ */
+@Slf4j
+@Component
+public class HealthTransitionPublisher {
+
+    private final List<HealthTransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void subscribe(HealthTransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(HealthTransitionListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(HealthTransition transition) {
+        for (HealthTransitionListener listener : listeners) {
+            try {
+                listener.onTransition(transition);
+            } catch (Exception e) {
+                log.error("Health transition listener failed for {}", transition, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dev.somdip.containerplatform.service.health;
+
+import dev.somdip.containerplatform.model.Container;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking HTTP health probes for user containers.
+ *
+ * One shared {@link HttpClient} keeps HTTP/2 and keep-alive connections to the ALB, so
+ * thousands of probes can be in flight on a handful of threads. A global semaphore caps
+ * the number of in-flight probes (a probe over the cap is skipped rather than waiting), and
+ * each probe gets the timeout from its container's {@link Container.HealthCheckConfig}.
+ */
+@Slf4j
+@Component
+public class HttpHealthProber {
+
+    private final HttpClient httpClient;
+    private final ExecutorService clientExecutor;
+    private final Semaphore inFlight;
+    private final MeterRegistry meterRegistry;
+    private final Counter skippedProbes;
+
+    @Value("${app.healthcheck.http.domain-suffix:containers.somdip.dev}")
+    private String domainSuffix;
+
+    @Value("${app.healthcheck.default.timeout:5}")
+    private int defaultTimeoutSeconds;
+
+    public HttpHealthProber(MeterRegistry meterRegistry,
+                            @Value("${app.healthcheck.http.threads:4}") int threads,
+                            @Value("${app.healthcheck.http.max-in-flight:2000}") int maxInFlight,
+                            @Value("${app.healthcheck.http.connect-timeout-seconds:3}") int connectTimeoutSeconds) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.clientExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "health-http-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(clientExecutor)
+            .build();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.meterRegistry = meterRegistry;
+        this.skippedProbes = Counter.builder("health.probe.http.skipped")
+            .description("HTTP probes skipped because the in-flight limit was reached")
+            .register(meterRegistry);
+        Gauge.builder("health.probe.http.inflight", inFlight, s -> maxInFlight - s.availablePermits())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Probe the container's health endpoint. The returned future never completes exceptionally.
+     */
+    public CompletableFuture<HttpProbeResult> probe(Container container) {
+        Container.HealthCheckConfig config = container.getHealthCheck();
+        String healthPath = config != null && config.getPath() != null ? config.getPath() : "/health";
+        int timeoutSeconds = config != null && config.getTimeout() != null ? config.getTimeout() : defaultTimeoutSeconds;
+
+        // Never wait for a permit: the caller is a probe batch thread, and a saturated batch
+        // would stall behind it. A skipped probe runs again on the container's next tick.
+        if (!inFlight.tryAcquire()) {
+            skippedProbes.increment();
+            return CompletableFuture.completedFuture(HttpProbeResult.skipped());
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                .uri(URI.create(String.format("https://%s.%s%s", container.getSubdomain(), domainSuffix, healthPath)))
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header("User-Agent", "container-platform-health-check")
+                .GET()
+                .build();
+        } catch (IllegalArgumentException e) {
+            inFlight.release();
+            return CompletableFuture.completedFuture(HttpProbeResult.failed(0, 0, "Invalid health check URL: " + e.getMessage()));
+        }
+
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, error) -> {
+                inFlight.release();
+                long latencyNanos = System.nanoTime() - start;
+                HttpProbeResult result = toResult(container, response, error, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+                Timer.builder("health.probe.http")
+                    .tag("outcome", result.isHealthy() ? "healthy" : "unhealthy")
+                    .register(meterRegistry)
+                    .record(latencyNanos, TimeUnit.NANOSECONDS);
+                return result;
+            });
+    }
+
+    private HttpProbeResult toResult(Container container, HttpResponse<Void> response, Throwable error, long latencyMillis) {
+        if (error == null) {
+            int status = response.statusCode();
+            // 4xx errors might be expected for health checks
+            if (status >= 500) {
+                log.warn("HTTP health check failed for container {} with status: {}", container.getContainerId(), status);
+                return HttpProbeResult.failed(status, latencyMillis, "HTTP " + status);
+            }
+            log.debug("HTTP health check passed for container: {}", container.getContainerId());
+            return HttpProbeResult.healthy(status, latencyMillis);
+        }
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            log.warn("HTTP health check timeout for container: {}", container.getContainerId());
+        } else {
+            log.warn("HTTP health check error for container {}: {}", container.getContainerId(), cause.toString());
+        }
+        return HttpProbeResult.failed(0, latencyMillis, cause.getMessage());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientExecutor.shutdownNow();
+    }
+
+    /**
+     * Outcome of a single HTTP probe
+     */
+    public static class HttpProbeResult {
+        private final boolean probed;
+        private final boolean healthy;
+        private final int statusCode;
+        private final long latencyMillis;
+        private final String error;
+
+        private HttpProbeResult(boolean probed, boolean healthy, int statusCode, long latencyMillis, String error) {
+            this.probed = probed;
+            this.healthy = healthy;
+            this.statusCode = statusCode;
+            this.latencyMillis = latencyMillis;
+            this.error = error;
+        }
+
+        public static HttpProbeResult healthy(int statusCode, long latencyMillis) {
+            return new HttpProbeResult(true, true, statusCode, latencyMillis, null);
+        }
+
+        public static HttpProbeResult failed(int statusCode, long latencyMillis, String error) {
+            return new HttpProbeResult(true, false, statusCode, latencyMillis, error);
+        }
+
+        public static HttpProbeResult skipped() {
+            return new HttpProbeResult(false, false, 0, 0, null);
+        }
+
+        public boolean isProbed() { return probed; }
+        public boolean isHealthy() { return healthy; }
+        public int getStatusCode() { return statusCode; }
+        public long getLatencyMillis() { return latencyMillis; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.somdip.containerplatform.service.logs;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Log source fed directly in-process, for tests and local development
+ * ({@code app.logs.source=memory})
+ */
+@Component
+@ConditionalOnProperty(name = "app.logs.source", havingValue = "memory")
+public class InMemoryLogSource implements LogSource {
+
+    private final Map<String, List<String>> lines = new ConcurrentHashMap<>();
+    private final Map<String, List<Sink>> sinks = new ConcurrentHashMap<>();
+
+    @Override
+    public Tail open(String containerId, int initialLines, Sink sink) {
+        List<String> history = lines.computeIfAbsent(containerId, id -> new ArrayList<>());
+        synchronized (history) {
+            int from = Math.max(0, history.size() - initialLines);
+            sink.onLines(new ArrayList<>(history.subList(from, history.size())));
+            sinks.computeIfAbsent(containerId, id -> new CopyOnWriteArrayList<>()).add(sink);
+        }
+        return () -> sinks.getOrDefault(containerId, List.of()).remove(sink);
+    }
+
+    /**
+     * Deliver lines synchronously to every open tail, as if the container had written them
+     */
+    public void append(String containerId, String... newLines) {
+        List<String> history = lines.computeIfAbsent(containerId, id -> new ArrayList<>());
+        synchronized (history) {
+            history.addAll(List.of(newLines));
+            for (Sink sink : sinks.getOrDefault(containerId, List.of())) {
+                sink.onLines(List.of(newLines));
+            }
+        }
+    }
+}
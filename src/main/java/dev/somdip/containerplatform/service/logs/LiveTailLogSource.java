@@ -0,0 +1,426 @@
+package dev.somdip.containerplatform.service.logs;
+
+import dev.somdip.containerplatform.config.AwsCallGovernor;
+import dev.somdip.containerplatform.service.LogStreamingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.DescribeLogGroupsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.LiveTailSessionLogEvent;
+import software.amazon.awssdk.services.cloudwatchlogs.model.LiveTailSessionUpdate;
+import software.amazon.awssdk.services.cloudwatchlogs.model.LogGroup;
+import software.amazon.awssdk.services.cloudwatchlogs.model.StartLiveTailRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.StartLiveTailResponseHandler;
+import software.amazon.awssdk.services.cloudwatchlogs.model.StartLiveTailResponseStream;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Log source that streams lines with a CloudWatch Logs {@code StartLiveTail} session per tail
+ * instead of polling ({@code app.logs.source=live-tail}, the default).
+ *
+ * A session follows every stream of the container ({@code <containerId>/} prefix), so new tasks
+ * are picked up without looking for their streams. The initial lines are still read with
+ * {@code GetLogEvents}; the session is started first and lines it reports that the initial read
+ * already returned are dropped. Sessions end after at most three hours and are restarted.
+ *
+ * Live tail sessions are a scarce account-wide quota, so at most
+ * {@code app.logs.live-tail.max-sessions} are open at once. A tail that cannot get a session,
+ * or whose session fails, falls back to the {@link PollingLogSource} and stays on it.
+ */
+@Slf4j
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.logs.source", havingValue = "live-tail", matchIfMissing = true)
+public class LiveTailLogSource implements LogSource {
+
+    private final CloudWatchLogsAsyncClient asyncClient;
+    private final CloudWatchLogsClient cloudWatchLogsClient;
+    private final LogStreamingService logStreamingService;
+    private final PollingLogSource fallback;
+    private final ExecutorService executor;
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final Counter fallbackCounter;
+    private final Counter restartCounter;
+    private final int maxSessions;
+    private volatile String logGroupArn;
+
+    @Value("${aws.cloudwatch.logGroup.users}")
+    private String userLogGroup;
+
+    public LiveTailLogSource(CloudWatchLogsAsyncClient asyncClient,
+                             CloudWatchLogsClient cloudWatchLogsClient,
+                             LogStreamingService logStreamingService,
+                             PollingLogSource fallback,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.logs.live-tail.max-sessions:10}") int maxSessions,
+                             @Value("${app.logs.tail.threads:4}") int threads) {
+        this.asyncClient = asyncClient;
+        this.cloudWatchLogsClient = cloudWatchLogsClient;
+        this.logStreamingService = logStreamingService;
+        this.fallback = fallback;
+        this.maxSessions = maxSessions;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "log-live-tail-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.fallbackCounter = Counter.builder("websocket.logs.live-tail.fallbacks").register(meterRegistry);
+        this.restartCounter = Counter.builder("websocket.logs.live-tail.restarts").register(meterRegistry);
+        Gauge.builder("websocket.logs.live-tail.sessions", openSessions, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public Tail open(String containerId, int initialLines, Sink sink) {
+        LiveTail tail = new LiveTail(containerId, initialLines, sink);
+        executor.execute(tail::start);
+        return tail::close;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * ARN of the user log group, without the {@code :*} suffix DescribeLogGroups reports and
+     * StartLiveTail rejects
+     */
+    private String logGroupArn() {
+        String arn = logGroupArn;
+        if (arn == null) {
+            arn = cloudWatchLogsClient.describeLogGroups(DescribeLogGroupsRequest.builder()
+                    .logGroupNamePrefix(userLogGroup)
+                    .build())
+                .logGroups().stream()
+                .filter(group -> group.logGroupName().equals(userLogGroup))
+                .map(LogGroup::arn)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Log group not found: " + userLogGroup));
+            if (arn.endsWith(":*")) {
+                arn = arn.substring(0, arn.length() - 2);
+            }
+            logGroupArn = arn;
+        }
+        return arn;
+    }
+
+    private static String format(LiveTailSessionLogEvent event) {
+        return String.format("[%s] %s", Instant.ofEpochMilli(event.timestamp()), event.message());
+    }
+
+    private final class LiveTail {
+        private final String containerId;
+        private final int initialLines;
+        private final Sink sink;
+        // Lines waiting for the sink, in order; handed over by one executor task at a time
+        private final Deque<List<String>> pending = new ArrayDeque<>();
+        // Most recent lines sent, to drop overlap with the initial read or the fallback's first poll
+        private final Set<String> recentLines = new LinkedHashSet<>();
+        private Subscription subscription;
+        private Tail fallbackTail;
+        private boolean polling;
+        private boolean hasSession;
+        private boolean initialSent;
+        private boolean draining;
+        private boolean closed;
+
+        private LiveTail(String containerId, int initialLines, Sink sink) {
+            this.containerId = containerId;
+            this.initialLines = initialLines;
+            this.sink = sink;
+        }
+
+        private void start() {
+            if (!startSession()) {
+                fallBack("no live tail session available");
+                return;
+            }
+            List<String> initial;
+            try {
+                initial = AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE,
+                    () -> logStreamingService.tail(containerId, new LogTailCursor(0, 0), initialLines));
+            } catch (Exception e) {
+                log.error("Error reading initial logs for container: {}", containerId, e);
+                sink.onError("Error streaming logs: " + e.getMessage());
+                initial = List.of();
+            }
+            synchronized (this) {
+                if (closed || polling) {
+                    // The poller reads its own initial lines
+                    return;
+                }
+                // Session lines queued meanwhile follow the initial ones, minus the overlap
+                Set<String> initialSet = new HashSet<>(initial);
+                List<List<String>> queued = new ArrayList<>(pending);
+                pending.clear();
+                pending.addLast(initial);
+                for (List<String> lines : queued) {
+                    List<String> fresh = lines.stream().filter(line -> !initialSet.contains(line)).toList();
+                    if (!fresh.isEmpty()) {
+                        pending.addLast(fresh);
+                    }
+                }
+                initialSent = true;
+            }
+            scheduleDrain();
+        }
+
+        /**
+         * Start a session if the quota allows; its lines are queued until the initial read is in
+         */
+        private boolean startSession() {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+            }
+            if (openSessions.incrementAndGet() > maxSessions) {
+                openSessions.decrementAndGet();
+                return false;
+            }
+            synchronized (this) {
+                hasSession = true;
+            }
+            try {
+                StartLiveTailRequest request = StartLiveTailRequest.builder()
+                    .logGroupIdentifiers(logGroupArn())
+                    .logStreamNamePrefixes(containerId + "/")
+                    .build();
+                StartLiveTailResponseHandler handler = StartLiveTailResponseHandler.builder()
+                    .onError(this::onSessionError)
+                    .subscriber(() -> new SessionSubscriber())
+                    .build();
+                AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE, () -> asyncClient.startLiveTail(request, handler));
+                return true;
+            } catch (Exception e) {
+                log.warn("Could not start live tail for container {}: {}", containerId, e.getMessage());
+                endSession();
+                return false;
+            }
+        }
+
+        /**
+         * Release the session's quota slot; true if this call released it
+         */
+        private boolean endSession() {
+            synchronized (this) {
+                if (!hasSession) {
+                    return false;
+                }
+                hasSession = false;
+                subscription = null;
+            }
+            openSessions.decrementAndGet();
+            return true;
+        }
+
+        private void onSessionLines(List<LiveTailSessionLogEvent> events) {
+            List<String> lines = events.stream().map(LiveTailLogSource::format).toList();
+            synchronized (this) {
+                if (closed || polling || lines.isEmpty()) {
+                    return;
+                }
+                pending.addLast(lines);
+                if (!initialSent) {
+                    return;
+                }
+            }
+            scheduleDrain();
+        }
+
+        /**
+         * A session ends on its own after at most three hours; follow on with a new one
+         */
+        private void onSessionComplete() {
+            if (!endSession()) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            restartCounter.increment();
+            log.debug("Live tail session for container {} ended, restarting", containerId);
+            executor.execute(() -> {
+                if (!startSession()) {
+                    fallBack("no live tail session available");
+                }
+            });
+        }
+
+        private void onSessionError(Throwable error) {
+            if (!endSession()) {
+                return;
+            }
+            log.warn("Live tail for container {} failed, falling back to polling: {}", containerId, error.getMessage());
+            executor.execute(() -> fallBack(error.getMessage()));
+        }
+
+        /**
+         * Follow the rest of this tail by polling. The poller starts with the last lines of the
+         * newest stream, so its first batch is stripped of lines already sent.
+         */
+        private void fallBack(String reason) {
+            synchronized (this) {
+                if (closed || polling) {
+                    return;
+                }
+                polling = true;
+                // Session lines not yet handed over may overlap the poller's first batch
+                pending.clear();
+            }
+            fallbackCounter.increment();
+            log.debug("Polling logs of container {} ({})", containerId, reason);
+            Tail opened = fallback.open(containerId, initialLines, new Sink() {
+                private boolean first = true;
+
+                @Override
+                public void onLines(List<String> lines) {
+                    List<String> fresh = lines;
+                    synchronized (LiveTail.this) {
+                        if (first) {
+                            first = false;
+                            if (initialSent) {
+                                fresh = lines.stream().filter(line -> !recentLines.contains(line)).toList();
+                            }
+                            // An empty first batch still counts as the initial lines
+                            initialSent = true;
+                        } else if (fresh.isEmpty()) {
+                            return;
+                        }
+                        pending.addLast(fresh);
+                    }
+                    scheduleDrain();
+                }
+
+                @Override
+                public void onError(String message) {
+                    sink.onError(message);
+                }
+            });
+            boolean closeNow;
+            synchronized (this) {
+                closeNow = closed;
+                fallbackTail = opened;
+            }
+            if (closeNow) {
+                opened.close();
+            }
+        }
+
+        private void scheduleDrain() {
+            synchronized (this) {
+                if (draining || pending.isEmpty() || closed) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                List<String> lines;
+                synchronized (this) {
+                    lines = closed ? null : pending.pollFirst();
+                    if (lines == null) {
+                        draining = false;
+                        return;
+                    }
+                    remember(lines);
+                }
+                sink.onLines(lines);
+            }
+        }
+
+        private void remember(List<String> lines) {
+            for (String line : lines) {
+                recentLines.remove(line);
+                recentLines.add(line);
+            }
+            var oldest = recentLines.iterator();
+            for (int excess = recentLines.size() - Math.max(initialLines, 1); excess > 0; excess--) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+
+        private void close() {
+            Subscription open;
+            Tail pollingTail;
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+                open = subscription;
+                pollingTail = fallbackTail;
+            }
+            if (endSession() && open != null) {
+                open.cancel();
+            }
+            if (pollingTail != null) {
+                pollingTail.close();
+            }
+        }
+
+        private final class SessionSubscriber implements Subscriber<StartLiveTailResponseStream> {
+            @Override
+            public void onSubscribe(Subscription s) {
+                boolean cancel;
+                synchronized (LiveTail.this) {
+                    cancel = closed || !hasSession;
+                    if (!cancel) {
+                        subscription = s;
+                    }
+                }
+                if (cancel) {
+                    s.cancel();
+                } else {
+                    s.request(Long.MAX_VALUE);
+                }
+            }
+
+            @Override
+            public void onNext(StartLiveTailResponseStream event) {
+                if (event instanceof LiveTailSessionUpdate update) {
+                    if (Boolean.TRUE.equals(update.sessionMetadata() != null ? update.sessionMetadata().sampled() : null)) {
+                        log.debug("Live tail of container {} is sampled by CloudWatch", containerId);
+                    }
+                    onSessionLines(update.sessionResults());
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                onSessionError(error);
+            }
+
+            @Override
+            public void onComplete() {
+                onSessionComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dev.somdip.containerplatform.service.logs;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilteredLogEvent;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes exported log events to a response body, one line per event, as NDJSON
+ * ({@code {"timestamp":...,"stream":...,"message":...}}) or as the {@code [<ISO timestamp>] <message>}
+ * text the log viewer shows. Each page is flushed once written, so the client receives the
+ * export as it is read and nothing accumulates here.
+ */
+public class LogExportWriter implements Closeable {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        TEXT("text/plain", "log");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but ndjson, json, text or txt
+         */
+        public static Format parse(String format) {
+            return switch (format.toLowerCase(Locale.ROOT)) {
+                case "ndjson", "json" -> NDJSON;
+                case "text", "txt" -> TEXT;
+                default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+            };
+        }
+    }
+
+    private final LogFilter filter;
+    private final Writer writer;
+    private final GZIPOutputStream gzip;
+    private final JsonGenerator json;
+    private long written;
+
+    /**
+     * @param filter lines that do not match are skipped; null to write every event
+     */
+    public LogExportWriter(OutputStream out, Format format, boolean compress, LogFilter filter,
+                           ObjectMapper objectMapper) throws IOException {
+        this.filter = filter;
+        this.gzip = compress ? new GZIPOutputStream(out, 64 * 1024, true) : null;
+        this.writer = new BufferedWriter(new OutputStreamWriter(gzip != null ? gzip : out, StandardCharsets.UTF_8), 64 * 1024);
+        this.json = format == Format.NDJSON
+            ? objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .setRootValueSeparator(null)
+            : null;
+    }
+
+    public void writePage(List<FilteredLogEvent> events) throws IOException {
+        for (FilteredLogEvent event : events) {
+            String line = String.format("[%s] %s", Instant.ofEpochMilli(event.timestamp()), event.message());
+            if (filter != null && !filter.matches(line)) {
+                continue;
+            }
+            if (json != null) {
+                json.writeStartObject();
+                json.writeStringField("timestamp", Instant.ofEpochMilli(event.timestamp()).toString());
+                json.writeStringField("stream", event.logStreamName());
+                json.writeStringField("message", event.message());
+                json.writeEndObject();
+                json.flush();
+            } else {
+                writer.write(line);
+            }
+            writer.write('\n');
+            written++;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Lines written so far, after filtering
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Finish the export (writes the gzip trailer); does not close the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        }
+        writer.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+}
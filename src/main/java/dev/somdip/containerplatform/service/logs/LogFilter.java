@@ -0,0 +1,260 @@
+package dev.somdip.containerplatform.service.logs;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled log line filter: substring, regular expression, minimum log level and time
+ * window, all of which must match. Lines are in the {@code [<ISO timestamp>] <message>} form
+ * produced by {@link dev.somdip.containerplatform.service.LogStreamingService}.
+ *
+ * The parts CloudWatch Logs can evaluate exactly are also offered as a {@code filterPattern}
+ * and a time range, so a backfill only transfers candidate events. The pattern is a
+ * pre-filter: lines it lets through are still checked with {@link #matches}.
+ *
+ * Regular expressions come from users and run on shared threads, so their length is capped at
+ * {@value #MAX_REGEX_LENGTH} characters and each line gets a budget of character reads: a
+ * line that would take the expression longer (catastrophic backtracking) counts as not
+ * matching.
+ */
+public class LogFilter {
+
+    /**
+     * Levels in increasing severity; a line's level is the most severe one it mentions
+     */
+    private static final List<String> LEVELS = List.of("DEBUG", "INFO", "WARN", "ERROR");
+
+    static final int MAX_REGEX_LENGTH = 256;
+    private static final int REGEX_READS_PER_CHAR = 100;
+    private static final int MIN_REGEX_READS = 10_000;
+
+    private final String text;
+    private final boolean caseSensitive;
+    private final Pattern regex;
+    private final String minLevel;
+    private final Instant since;
+    private final Instant until;
+
+    private LogFilter(String text, boolean caseSensitive, Pattern regex, String minLevel, Instant since, Instant until) {
+        this.text = text;
+        this.caseSensitive = caseSensitive;
+        this.regex = regex;
+        this.minLevel = minLevel;
+        this.since = since;
+        this.until = until;
+    }
+
+    /**
+     * Compile a filter sent by a client: either a plain string (case-insensitive substring) or
+     * an object with any of {@code text}, {@code caseSensitive}, {@code regex}, {@code level},
+     * {@code since} and {@code until} (ISO-8601 instants or epoch milliseconds).
+     *
+     * @return the filter, or null if the spec is empty (no filtering)
+     * @throws IllegalArgumentException if a part of the spec is invalid
+     */
+    public static LogFilter compile(Object spec) {
+        if (spec == null) {
+            return null;
+        }
+        if (spec instanceof String string) {
+            return string.isBlank() ? null : new LogFilter(string, false, null, null, null, null);
+        }
+        if (!(spec instanceof Map<?, ?> map)) {
+            throw new IllegalArgumentException("Filter must be a string or an object");
+        }
+
+        String text = blankToNull(map.get("text"));
+        boolean caseSensitive = Boolean.parseBoolean(String.valueOf(map.get("caseSensitive")));
+        String regexSource = blankToNull(map.get("regex"));
+        if (regexSource != null && regexSource.length() > MAX_REGEX_LENGTH) {
+            throw new IllegalArgumentException("Regular expression longer than " + MAX_REGEX_LENGTH + " characters");
+        }
+        Pattern regex = regexSource != null ? Pattern.compile(regexSource) : null;
+        String level = blankToNull(map.get("level"));
+        if (level != null) {
+            level = normalizeLevel(level.toUpperCase(Locale.ROOT));
+            if (!LEVELS.contains(level)) {
+                throw new IllegalArgumentException("Unknown log level: " + map.get("level"));
+            }
+        }
+        Instant since = parseInstant(map.get("since"));
+        Instant until = parseInstant(map.get("until"));
+
+        if (text == null && regex == null && level == null && since == null && until == null) {
+            return null;
+        }
+        return new LogFilter(text, caseSensitive, regex, level, since, until);
+    }
+
+    public boolean matches(String line) {
+        if (text != null) {
+            boolean found = caseSensitive ? line.contains(text)
+                : line.toLowerCase(Locale.ROOT).contains(text.toLowerCase(Locale.ROOT));
+            if (!found) {
+                return false;
+            }
+        }
+        if (regex != null && !find(line)) {
+            return false;
+        }
+        if (minLevel != null) {
+            String level = levelOf(line);
+            if (level == null || LEVELS.indexOf(level) < LEVELS.indexOf(minLevel)) {
+                return false;
+            }
+        }
+        if (since != null || until != null) {
+            Instant timestamp = timestampOf(line);
+            if (timestamp == null
+                || (since != null && timestamp.isBefore(since))
+                || (until != null && !timestamp.isBefore(until))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * CloudWatch Logs {@code filterPattern} selecting the candidate events, or null if no part
+     * of the filter can be pushed down. Patterns cannot mix AND and OR terms, so the level
+     * filter (OR of the accepted levels) wins over a case-sensitive phrase; case-insensitive
+     * text and regular expressions are only evaluated here. CloudWatch matches whole terms, so
+     * a level that only appears inside a longer word is not pushed through.
+     */
+    public String toFilterPattern() {
+        if (minLevel != null) {
+            StringBuilder pattern = new StringBuilder();
+            for (String level : LEVELS.subList(LEVELS.indexOf(minLevel), LEVELS.size())) {
+                pattern.append(pattern.length() == 0 ? "" : " ").append('?').append(level);
+            }
+            // FATAL lines count as errors
+            return pattern.append(" ?FATAL").toString();
+        }
+        if (text != null && caseSensitive && text.indexOf('"') < 0) {
+            return "\"" + text + "\"";
+        }
+        return null;
+    }
+
+    public Instant getSince() {
+        return since;
+    }
+
+    public Instant getUntil() {
+        return until;
+    }
+
+    private boolean find(String line) {
+        try {
+            return regex.matcher(new BoundedCharSequence(line,
+                Math.max(MIN_REGEX_READS, (long) line.length() * REGEX_READS_PER_CHAR))).find();
+        } catch (BoundedCharSequence.BudgetExceededException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Severity of a line, judged the same way the log viewer colours lines
+     */
+    static String levelOf(String line) {
+        if (line.contains("ERROR") || line.contains("FATAL")) return "ERROR";
+        if (line.contains("WARN")) return "WARN";
+        if (line.contains("INFO")) return "INFO";
+        if (line.contains("DEBUG")) return "DEBUG";
+        return null;
+    }
+
+    private static Instant timestampOf(String line) {
+        int end = line.indexOf(']');
+        if (!line.startsWith("[") || end < 0) {
+            return null;
+        }
+        try {
+            return Instant.parse(line.substring(1, end));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String normalizeLevel(String level) {
+        return switch (level) {
+            case "WARNING" -> "WARN";
+            case "FATAL" -> "ERROR";
+            default -> level;
+        };
+    }
+
+    private static String blankToNull(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String string = value.toString();
+        return string.isBlank() ? null : string;
+    }
+
+    /**
+     * A line that stops a regular expression once it has read too many characters, the only
+     * way to bound {@link java.util.regex.Matcher} from outside
+     */
+    private static final class BoundedCharSequence implements CharSequence {
+        private final String line;
+        private long remainingReads;
+
+        private BoundedCharSequence(String line, long maxReads) {
+            this.line = line;
+            this.remainingReads = maxReads;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remainingReads < 0) {
+                throw new BudgetExceededException();
+            }
+            return line.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return line.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return line.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return line;
+        }
+
+        private static final class BudgetExceededException extends RuntimeException {
+            private static final long serialVersionUID = 1L;
+
+            private BudgetExceededException() {
+                super(null, null, false, false);
+            }
+        }
+    }
+
+    private static Instant parseInstant(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return Instant.ofEpochMilli(number.longValue());
+        }
+        String string = value.toString().trim();
+        try {
+            return string.chars().allMatch(Character::isDigit)
+                ? Instant.ofEpochMilli(Long.parseLong(string))
+                : Instant.parse(string);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time: " + string);
+        }
+    }
+}
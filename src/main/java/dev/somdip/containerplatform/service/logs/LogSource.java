@@ -0,0 +1,32 @@
+package dev.somdip.containerplatform.service.logs;
+
+import java.util.List;
+
+/**
+ * Source of a container's live log lines, pushed to a sink as they become available
+ */
+public interface LogSource {
+
+    /**
+     * Receives one tail's lines. Calls for the same tail never overlap, and the first
+     * {@link #onLines} call carries the initial lines (possibly none).
+     */
+    interface Sink {
+        void onLines(List<String> lines);
+
+        void onError(String message);
+    }
+
+    /**
+     * An open tail; closing it stops delivery and releases whatever the source holds for it
+     */
+    interface Tail extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Start following a container's logs, beginning with its last {@code initialLines} lines
+     */
+    Tail open(String containerId, int initialLines, Sink sink);
+}
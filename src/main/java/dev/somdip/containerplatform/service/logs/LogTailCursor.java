@@ -0,0 +1,67 @@
+package dev.somdip.containerplatform.service.logs;
+
+/**
+ * Position of one tail in a container's logs, advanced by
+ * {@link dev.somdip.containerplatform.service.LogStreamingService#tail}.
+ *
+ * Besides the CloudWatch forward token of the stream being followed, the cursor decides how
+ * long to wait before the next poll: every poll that returns nothing doubles the delay up to
+ * {@code maxDelayMillis}, and any new line drops it straight back to {@code minDelayMillis}.
+ * Not thread-safe; a cursor belongs to a single polling task.
+ */
+public class LogTailCursor {
+
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+
+    private String logStreamName;
+    private String nextForwardToken;
+    private long streamCheckedAtMillis;
+    private long delayMillis;
+
+    public LogTailCursor(long minDelayMillis, long maxDelayMillis) {
+        this.minDelayMillis = minDelayMillis;
+        this.maxDelayMillis = Math.max(minDelayMillis, maxDelayMillis);
+        this.delayMillis = minDelayMillis;
+    }
+
+    public String getLogStreamName() {
+        return logStreamName;
+    }
+
+    public String getNextForwardToken() {
+        return nextForwardToken;
+    }
+
+    public long getStreamCheckedAtMillis() {
+        return streamCheckedAtMillis;
+    }
+
+    /**
+     * Whether the cursor has read from a stream yet; the first read is the initial tail
+     */
+    public boolean isStarted() {
+        return logStreamName != null;
+    }
+
+    public void streamChecked(long nowMillis) {
+        this.streamCheckedAtMillis = nowMillis;
+    }
+
+    public void advance(String logStreamName, String nextForwardToken) {
+        this.logStreamName = logStreamName;
+        this.nextForwardToken = nextForwardToken;
+    }
+
+    /**
+     * Record the outcome of a poll and return the delay before the next one
+     */
+    public long onPoll(int newLines) {
+        delayMillis = newLines > 0 ? minDelayMillis : Math.min(maxDelayMillis, delayMillis * 2);
+        return delayMillis;
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+}
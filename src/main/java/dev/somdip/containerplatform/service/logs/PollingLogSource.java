@@ -0,0 +1,110 @@
+package dev.somdip.containerplatform.service.logs;
+
+import dev.somdip.containerplatform.config.AwsCallGovernor;
+import dev.somdip.containerplatform.service.LogStreamingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Log source that polls CloudWatch Logs {@code GetLogEvents} with a forward-token
+ * {@link LogTailCursor} per tail, backing off while the logs are quiet
+ * ({@code app.logs.source=polling}). It is also the fallback of the default
+ * {@link LiveTailLogSource}. A tail is only open while someone watches it, so polls run in the
+ * interactive {@link AwsCallGovernor} lane.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${app.logs.source:live-tail}' != 'memory'")
+public class PollingLogSource implements LogSource {
+
+    private final LogStreamingService logStreamingService;
+    private final ScheduledExecutorService scheduler;
+    private final Counter pollCounter;
+    private final long minPollIntervalMillis;
+    private final long maxPollIntervalMillis;
+
+    public PollingLogSource(LogStreamingService logStreamingService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.logs.tail.threads:4}") int threads,
+                            @Value("${app.logs.tail.min-interval-ms:1000}") long minPollIntervalMillis,
+                            @Value("${app.logs.tail.max-interval-ms:15000}") long maxPollIntervalMillis) {
+        this.logStreamingService = logStreamingService;
+        this.minPollIntervalMillis = minPollIntervalMillis;
+        this.maxPollIntervalMillis = maxPollIntervalMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "log-tail-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.pollCounter = Counter.builder("websocket.logs.polls").register(meterRegistry);
+    }
+
+    @Override
+    public Tail open(String containerId, int initialLines, Sink sink) {
+        PollingTail tail = new PollingTail(containerId, initialLines, sink);
+        tail.schedule(0);
+        return tail::close;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private final class PollingTail {
+        private final String containerId;
+        private final int initialLines;
+        private final Sink sink;
+        private final LogTailCursor cursor = new LogTailCursor(minPollIntervalMillis, maxPollIntervalMillis);
+        private ScheduledFuture<?> next;
+        private boolean closed;
+
+        private PollingTail(String containerId, int initialLines, Sink sink) {
+            this.containerId = containerId;
+            this.initialLines = initialLines;
+            this.sink = sink;
+        }
+
+        private synchronized void schedule(long delayMillis) {
+            if (!closed) {
+                next = scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+
+        private void poll() {
+            List<String> lines;
+            try {
+                pollCounter.increment();
+                lines = AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE,
+                    () -> logStreamingService.tail(containerId, cursor, initialLines));
+            } catch (Exception e) {
+                log.error("Error tailing logs for container: {}", containerId, e);
+                sink.onError("Error streaming logs: " + e.getMessage());
+                schedule(cursor.onPoll(0));
+                return;
+            }
+            sink.onLines(lines);
+            schedule(cursor.onPoll(lines.size()));
+        }
+    }
+}
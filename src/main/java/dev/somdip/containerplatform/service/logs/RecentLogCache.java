@@ -0,0 +1,307 @@
+package dev.somdip.containerplatform.service.logs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Recent log lines of the containers being tailed, kept off-heap so the logs page and its
+ * search can be served without a CloudWatch round trip.
+ *
+ * Each tailed container gets a ring of {@code app.logs.cache.container-bytes} in a direct
+ * {@link ByteBuffer}, holding {@code [int length][long epoch millis][UTF-8 line]} records; the
+ * oldest records are overwritten as new ones arrive. At most {@code app.logs.cache.max-bytes}
+ * are allocated in total: opening a ring past the cap takes over the buffer of the least
+ * recently read one. Buffers are reused rather than freed, so the off-heap footprint never
+ * exceeds the cap.
+ *
+ * A ring only exists while its container's tail is open, so whatever it holds is current.
+ * Lines for a container without a ring (never opened, or evicted) are dropped, and reads fall
+ * back to CloudWatch.
+ */
+@Slf4j
+@Component
+public class RecentLogCache {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final int containerBytes;
+    private final int maxRings;
+    private final Map<String, Ring> rings = new HashMap<>();
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private int allocatedBuffers;
+
+    public RecentLogCache(MeterRegistry meterRegistry,
+                          @Value("${app.logs.cache.max-bytes:67108864}") long maxBytes,
+                          @Value("${app.logs.cache.container-bytes:1048576}") int containerBytes) {
+        this.containerBytes = containerBytes;
+        this.maxRings = containerBytes > HEADER_BYTES ? (int) Math.min(Integer.MAX_VALUE, maxBytes / containerBytes) : 0;
+        this.hitCounter = Counter.builder("logs.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("logs.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("logs.cache.bytes", this, cache -> (double) cache.allocatedBytes()).register(meterRegistry);
+        Gauge.builder("logs.cache.containers", this, cache -> (double) cache.ringCount()).register(meterRegistry);
+    }
+
+    /**
+     * Start caching a container's lines, when its tail opens.
+     *
+     * @param initialLines lines the tail reads first; a first batch smaller than this means
+     *                     the ring starts at the beginning of the container's logs
+     */
+    public synchronized void open(String containerId, int initialLines) {
+        if (maxRings == 0) {
+            return;
+        }
+        Ring previous = rings.remove(containerId);
+        if (previous != null) {
+            previous.detach();
+        }
+        ByteBuffer buffer = previous != null ? previous.buffer : acquireBuffer();
+        if (buffer == null) {
+            return;
+        }
+        rings.put(containerId, new Ring(buffer, initialLines));
+    }
+
+    /**
+     * Stop caching a container's lines, when its tail closes; the ring's buffer is kept for reuse
+     */
+    public synchronized void close(String containerId) {
+        Ring ring = rings.remove(containerId);
+        if (ring != null) {
+            ring.detach();
+            freeBuffers.push(ring.buffer);
+        }
+    }
+
+    public void append(String containerId, List<String> lines) {
+        Ring ring;
+        synchronized (this) {
+            ring = rings.get(containerId);
+        }
+        if (ring != null) {
+            ring.append(lines);
+        }
+    }
+
+    /**
+     * The last {@code limit} lines, oldest first, if the cache holds at least that many or
+     * everything the container has logged since its stream began; empty otherwise.
+     */
+    public Optional<List<String>> latest(String containerId, int limit) {
+        Ring ring = touch(containerId);
+        Optional<List<String>> lines = ring != null ? ring.latest(limit) : Optional.empty();
+        (lines.isPresent() ? hitCounter : missCounter).increment();
+        return lines;
+    }
+
+    /**
+     * The last {@code limit} lines matching the filter within the cached window, oldest
+     * first; empty if the container's lines are not cached. Records outside the filter's time
+     * window are skipped by their stored timestamp without being decoded.
+     */
+    public Optional<List<String>> search(String containerId, LogFilter filter, int limit) {
+        Ring ring = touch(containerId);
+        if (ring == null) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+        hitCounter.increment();
+        return Optional.of(ring.search(filter, limit));
+    }
+
+    private synchronized Ring touch(String containerId) {
+        Ring ring = rings.get(containerId);
+        if (ring != null) {
+            ring.lastReadAt = System.nanoTime();
+        }
+        return ring;
+    }
+
+    /**
+     * A free buffer, a newly allocated one while under the cap, or the buffer of the least
+     * recently read ring
+     */
+    private ByteBuffer acquireBuffer() {
+        if (!freeBuffers.isEmpty()) {
+            return freeBuffers.pop();
+        }
+        if (allocatedBuffers < maxRings) {
+            allocatedBuffers++;
+            return ByteBuffer.allocateDirect(containerBytes);
+        }
+        String eldest = null;
+        long eldestReadAt = Long.MAX_VALUE;
+        for (Map.Entry<String, Ring> entry : rings.entrySet()) {
+            if (entry.getValue().lastReadAt < eldestReadAt) {
+                eldest = entry.getKey();
+                eldestReadAt = entry.getValue().lastReadAt;
+            }
+        }
+        if (eldest == null) {
+            return null;
+        }
+        log.debug("Evicting cached logs of container {}", eldest);
+        Ring evicted = rings.remove(eldest);
+        evicted.detach();
+        return evicted.buffer;
+    }
+
+    private synchronized long allocatedBytes() {
+        return (long) allocatedBuffers * containerBytes;
+    }
+
+    private synchronized int ringCount() {
+        return rings.size();
+    }
+
+    /**
+     * Byte ring over one buffer. Positions are absolute byte offsets that only grow; a
+     * record starts at {@code position % capacity} and may wrap around the end.
+     */
+    private static final class Ring {
+        private final ByteBuffer buffer;
+        private final int capacity;
+        private final int initialLines;
+        private final byte[] header = new byte[HEADER_BYTES];
+        private long head;
+        private long tail;
+        private int records;
+        private boolean filled;
+        private boolean complete;
+        private boolean detached;
+        private volatile long lastReadAt = System.nanoTime();
+
+        private Ring(ByteBuffer buffer, int initialLines) {
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+            this.initialLines = initialLines;
+        }
+
+        private synchronized void append(List<String> lines) {
+            if (detached) {
+                return;
+            }
+            if (!filled) {
+                filled = true;
+                complete = lines.size() < initialLines;
+            }
+            for (String line : lines) {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(bytes.length, capacity - HEADER_BYTES);
+                while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                    // Do not cut a multi-byte character in half
+                    length--;
+                }
+                while (tail + HEADER_BYTES + length - head > capacity) {
+                    head += HEADER_BYTES + readHeader(head).getInt();
+                    records--;
+                    complete = false;
+                }
+                ByteBuffer.wrap(header).putInt(length).putLong(timestampOf(line));
+                write(tail, header, HEADER_BYTES);
+                write(tail + HEADER_BYTES, bytes, length);
+                tail += HEADER_BYTES + length;
+                records++;
+            }
+        }
+
+        private synchronized Optional<List<String>> latest(int limit) {
+            if (detached || !filled || (records < limit && !complete)) {
+                return Optional.empty();
+            }
+            return Optional.of(collect(null, limit));
+        }
+
+        private synchronized List<String> search(LogFilter filter, int limit) {
+            return detached ? List.of() : collect(filter, limit);
+        }
+
+        /**
+         * The buffer is about to be reused; an in-flight append must not write to it
+         */
+        private synchronized void detach() {
+            detached = true;
+        }
+
+        private List<String> collect(LogFilter filter, int limit) {
+            Deque<String> lines = new ArrayDeque<>();
+            long position = head;
+            Instant since = filter != null ? filter.getSince() : null;
+            Instant until = filter != null ? filter.getUntil() : null;
+            while (position < tail) {
+                ByteBuffer recordHeader = readHeader(position);
+                int length = recordHeader.getInt();
+                long timestamp = recordHeader.getLong();
+                if ((since != null && timestamp < since.toEpochMilli())
+                    || (until != null && timestamp >= until.toEpochMilli())) {
+                    position += HEADER_BYTES + length;
+                    continue;
+                }
+                byte[] bytes = new byte[length];
+                read(position + HEADER_BYTES, bytes);
+                String line = new String(bytes, StandardCharsets.UTF_8);
+                if (filter == null || filter.matches(line)) {
+                    if (lines.size() >= limit) {
+                        lines.removeFirst();
+                    }
+                    lines.addLast(line);
+                }
+                position += HEADER_BYTES + length;
+            }
+            return new ArrayList<>(lines);
+        }
+
+        private ByteBuffer readHeader(long position) {
+            read(position, header);
+            return ByteBuffer.wrap(header);
+        }
+
+        private void write(long position, byte[] source, int length) {
+            int index = (int) (position % capacity);
+            int first = Math.min(length, capacity - index);
+            buffer.put(index, source, 0, first);
+            if (first < length) {
+                buffer.put(0, source, first, length - first);
+            }
+        }
+
+        private void read(long position, byte[] target) {
+            int index = (int) (position % capacity);
+            int first = Math.min(target.length, capacity - index);
+            buffer.get(index, target, 0, first);
+            if (first < target.length) {
+                buffer.get(0, target, first, target.length - first);
+            }
+        }
+
+        private static long timestampOf(String line) {
+            int end = line.indexOf(']');
+            if (line.startsWith("[") && end > 0) {
+                try {
+                    return Instant.parse(line.substring(1, end)).toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    // Not a formatted line; fall through
+                }
+            }
+            return System.currentTimeMillis();
+        }
+    }
+}
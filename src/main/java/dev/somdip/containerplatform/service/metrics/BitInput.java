@@ -0,0 +1,44 @@
+package dev.somdip.containerplatform.service.metrics;
+
+/**
+ * Reads bits written by {@link BitOutput}
+ */
+class BitInput {
+
+    private final long[] words;
+    private final long length;
+    private long position;
+
+    BitInput(byte[] bytes, int offset, int length) {
+        this.words = new long[(length + 7) / 8 + 1];
+        for (int i = 0; i < length; i++) {
+            words[i >>> 3] |= (bytes[offset + i] & 0xFFL) << (56 - ((i & 7) << 3));
+        }
+        this.length = (long) length * 8;
+    }
+
+    boolean readBit() {
+        return readBits(1) == 1;
+    }
+
+    /**
+     * Read {@code bits} bits (0 to 64) as an unsigned value
+     */
+    long readBits(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        if (position + bits > length) {
+            throw new IllegalStateException("Read past the end of the block");
+        }
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        int free = 64 - offset;
+        long result = (words[word] << offset) >>> (64 - bits);
+        if (bits > free) {
+            result |= words[word + 1] >>> (64 - (bits - free));
+        }
+        position += bits;
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Append-only bit buffer, most significant bit first
+ */
+class BitOutput {
+
+    private long[] words = new long[16];
+    private long position;
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Write the low {@code bits} bits of the value (0 to 64)
+     */
+    void writeBits(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int word = (int) (position >>> 6);
+        if (word + 1 >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        int free = 64 - (int) (position & 63);
+        if (bits <= free) {
+            words[word] |= value << (free - bits);
+        } else {
+            int rest = bits - free;
+            words[word] |= value >>> rest;
+            words[word + 1] |= value << (64 - rest);
+        }
+        position += bits;
+    }
+
+    long bitLength() {
+        return position;
+    }
+
+    byte[] toByteArray() {
+        byte[] bytes = new byte[(int) ((position + 7) >>> 3)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (words[i >>> 3] >>> (56 - ((i & 7) << 3)));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,238 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import dev.somdip.containerplatform.config.AwsCallGovernor;
+import dev.somdip.containerplatform.utils.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.GetMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.Metric;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataQuery;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDataResult;
+import software.amazon.awssdk.services.cloudwatch.model.MetricStat;
+import software.amazon.awssdk.services.cloudwatch.model.ScanBy;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects CloudWatch metric reads from all callers for a short window and serves them
+ * with batched GetMetricData calls (up to 500 queries each) instead of one
+ * GetMetricStatistics call per metric.
+ *
+ * Identical queries share a single query slot: a query that is already queued or in flight
+ * is joined, and a completed result is reused for {@code app.aws.single-flight.cloudwatch-freshness-ms}
+ * (CloudWatch publishes at one-minute resolution, so a few seconds old is as good as new).
+ *
+ * A request runs in the interactive {@link AwsCallGovernor} lane if any query in it was
+ * submitted from an interactive caller.
+ */
+@Slf4j
+@Component
+public class CloudWatchMetricBatcher {
+
+    public static final int MAX_QUERIES_PER_REQUEST = 500;
+
+    private final CloudWatchClient cloudWatchClient;
+    private final Queue<PendingQuery> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService requestExecutor;
+    private final Counter requestCounter;
+    private final Counter queryCounter;
+    private final SingleFlight<MetricQuery, MetricSeries> singleFlight;
+    private final long windowMillis;
+
+    public CloudWatchMetricBatcher(CloudWatchClient cloudWatchClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.metrics.batcher.window-millis:200}") long windowMillis,
+                                   @Value("${app.metrics.batcher.threads:4}") int threads,
+                                   @Value("${app.aws.single-flight.cloudwatch-freshness-ms:15000}") long freshnessMillis) {
+        this.cloudWatchClient = cloudWatchClient;
+        this.windowMillis = windowMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cloudwatch-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.requestExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "cloudwatch-batcher-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.requestCounter = Counter.builder("cloudwatch.getmetricdata.requests").register(meterRegistry);
+        this.queryCounter = Counter.builder("cloudwatch.getmetricdata.queries").register(meterRegistry);
+        this.singleFlight = new SingleFlight<>("cloudwatch.metric", freshnessMillis, meterRegistry);
+    }
+
+    /**
+     * Queue a metric read. The future completes with the datapoints (possibly empty) once
+     * the batch containing it has been fetched, or exceptionally if the call failed.
+     */
+    public CompletableFuture<MetricSeries> query(MetricQuery query) {
+        return singleFlight.get(query, this::enqueue);
+    }
+
+    private CompletableFuture<MetricSeries> enqueue(MetricQuery query) {
+        PendingQuery pendingQuery = new PendingQuery(query);
+        pending.add(pendingQuery);
+        if (pendingCount.incrementAndGet() >= MAX_QUERIES_PER_REQUEST) {
+            flusher.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return pendingQuery.future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        flusher.shutdown();
+        requestExecutor.shutdown();
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<PendingQuery> drained = new ArrayList<>();
+        PendingQuery next;
+        while ((next = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            drained.add(next);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        // GetMetricData has one time range per request, so group by lookback window
+        Map<Integer, Map<MetricQuery, List<CompletableFuture<MetricSeries>>>> byLookback = new HashMap<>();
+        Set<MetricQuery> interactive = new HashSet<>();
+        for (PendingQuery pendingQuery : drained) {
+            if (pendingQuery.lane == AwsCallGovernor.Lane.INTERACTIVE) {
+                interactive.add(pendingQuery.query);
+            }
+            byLookback.computeIfAbsent(pendingQuery.query.getLookbackSeconds(), k -> new LinkedHashMap<>())
+                .computeIfAbsent(pendingQuery.query, k -> new ArrayList<>())
+                .add(pendingQuery.future);
+        }
+
+        for (Map.Entry<Integer, Map<MetricQuery, List<CompletableFuture<MetricSeries>>>> group : byLookback.entrySet()) {
+            List<Map.Entry<MetricQuery, List<CompletableFuture<MetricSeries>>>> queries = new ArrayList<>(group.getValue().entrySet());
+            for (int i = 0; i < queries.size(); i += MAX_QUERIES_PER_REQUEST) {
+                List<Map.Entry<MetricQuery, List<CompletableFuture<MetricSeries>>>> chunk =
+                    queries.subList(i, Math.min(i + MAX_QUERIES_PER_REQUEST, queries.size()));
+                int lookbackSeconds = group.getKey();
+                AwsCallGovernor.Lane lane = chunk.stream().anyMatch(entry -> interactive.contains(entry.getKey())) ?
+                    AwsCallGovernor.Lane.INTERACTIVE : AwsCallGovernor.Lane.BACKGROUND;
+                requestExecutor.execute(() -> AwsCallGovernor.withLane(lane, () -> execute(lookbackSeconds, chunk)));
+            }
+        }
+    }
+
+    private void execute(int lookbackSeconds, List<Map.Entry<MetricQuery, List<CompletableFuture<MetricSeries>>>> chunk) {
+        List<MetricDataQuery> dataQueries = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            dataQueries.add(toDataQuery("q" + i, chunk.get(i).getKey()));
+        }
+
+        Instant endTime = Instant.now();
+        Instant startTime = endTime.minusSeconds(lookbackSeconds);
+        Map<String, List<Instant>> timestamps = new HashMap<>();
+        Map<String, List<Double>> values = new HashMap<>();
+
+        try {
+            String nextToken = null;
+            do {
+                requestCounter.increment();
+                GetMetricDataResponse response = cloudWatchClient.getMetricData(GetMetricDataRequest.builder()
+                    .metricDataQueries(dataQueries)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .scanBy(ScanBy.TIMESTAMP_ASCENDING)
+                    .nextToken(nextToken)
+                    .build());
+                for (MetricDataResult result : response.metricDataResults()) {
+                    timestamps.computeIfAbsent(result.id(), k -> new ArrayList<>()).addAll(result.timestamps());
+                    values.computeIfAbsent(result.id(), k -> new ArrayList<>()).addAll(result.values());
+                }
+                nextToken = response.nextToken();
+            } while (nextToken != null);
+            queryCounter.increment(dataQueries.size());
+        } catch (Exception e) {
+            log.error("GetMetricData failed for {} queries", dataQueries.size(), e);
+            chunk.forEach(entry -> entry.getValue().forEach(f -> f.completeExceptionally(e)));
+            return;
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            MetricSeries series = toSeries(timestamps.get("q" + i), values.get("q" + i));
+            chunk.get(i).getValue().forEach(f -> f.complete(series));
+        }
+    }
+
+    private MetricDataQuery toDataQuery(String id, MetricQuery query) {
+        List<Dimension> dimensions = new ArrayList<>();
+        query.getDimensions().forEach((name, value) ->
+            dimensions.add(Dimension.builder().name(name).value(value).build()));
+
+        return MetricDataQuery.builder()
+            .id(id)
+            .returnData(true)
+            .metricStat(MetricStat.builder()
+                .metric(Metric.builder()
+                    .namespace(query.getNamespace())
+                    .metricName(query.getMetricName())
+                    .dimensions(dimensions)
+                    .build())
+                .stat(query.getStat())
+                .period(query.getPeriodSeconds())
+                .build())
+            .build();
+    }
+
+    private MetricSeries toSeries(List<Instant> timestamps, List<Double> values) {
+        if (timestamps == null || values == null || values.isEmpty()) {
+            return MetricSeries.empty();
+        }
+        int size = Math.min(timestamps.size(), values.size());
+        long[] ts = new long[size];
+        double[] vs = new double[size];
+        for (int i = 0; i < size; i++) {
+            ts[i] = timestamps.get(i).toEpochMilli();
+            vs[i] = values.get(i);
+        }
+        return new MetricSeries(ts, vs);
+    }
+
+    private static class PendingQuery {
+        private final MetricQuery query;
+        private final CompletableFuture<MetricSeries> future = new CompletableFuture<>();
+        private final AwsCallGovernor.Lane lane = AwsCallGovernor.currentLane();
+
+        private PendingQuery(MetricQuery query) {
+            this.query = query;
+        }
+    }
+}
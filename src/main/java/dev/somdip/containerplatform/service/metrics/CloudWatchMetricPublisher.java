@@ -0,0 +1,244 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous CloudWatch metric publisher.
+ *
+ * Callers record values without touching the network. Values for the same metric and
+ * dimensions are folded into one {@link StatisticSet} until the next flush, which sends
+ * the buffered series with PutMetricData calls of up to {@value #MAX_DATUMS_PER_REQUEST}
+ * datums. The number of buffered series is bounded; values for new series are dropped
+ * (and counted) while the buffer is full.
+ */
+@Slf4j
+@Component
+public class CloudWatchMetricPublisher {
+
+    public static final int MAX_DATUMS_PER_REQUEST = 1000;
+
+    private final CloudWatchClient cloudWatchClient;
+    private final Map<SeriesKey, Aggregate> buffer = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Counter droppedCounter;
+    private final Counter requestCounter;
+    private final Counter failedCounter;
+    private final int maxBufferedSeries;
+
+    @Value("${aws.cloudwatch.namespace}")
+    private String defaultNamespace;
+
+    public CloudWatchMetricPublisher(CloudWatchClient cloudWatchClient,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.metrics.publisher.flush-interval-millis:60000}") long flushIntervalMillis,
+                                     @Value("${app.metrics.publisher.max-buffered-series:10000}") int maxBufferedSeries) {
+        this.cloudWatchClient = cloudWatchClient;
+        this.maxBufferedSeries = maxBufferedSeries;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cloudwatch-publisher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly,
+            flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        this.droppedCounter = Counter.builder("cloudwatch.publisher.dropped")
+            .description("Metric values dropped because the publish buffer was full")
+            .register(meterRegistry);
+        this.requestCounter = Counter.builder("cloudwatch.putmetricdata.requests")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("cloudwatch.publisher.failed")
+            .description("Metric datums lost because PutMetricData failed")
+            .register(meterRegistry);
+        Gauge.builder("cloudwatch.publisher.buffered", buffer, Map::size)
+            .description("Metric series waiting to be published")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record a value in the default platform namespace
+     */
+    public void record(String metricName, Map<String, String> dimensions, double value) {
+        record(defaultNamespace, metricName, dimensions, value);
+    }
+
+    /**
+     * Record a value; it is aggregated with other values of the same series and published
+     * on the next flush
+     */
+    public void record(String namespace, String metricName, Map<String, String> dimensions, double value) {
+        SeriesKey key = new SeriesKey(namespace, metricName, dimensions);
+        boolean[] dropped = new boolean[1];
+        buffer.compute(key, (k, aggregate) -> {
+            if (aggregate == null) {
+                if (buffer.size() >= maxBufferedSeries) {
+                    dropped[0] = true;
+                    return null;
+                }
+                aggregate = new Aggregate();
+            }
+            aggregate.add(value);
+            return aggregate;
+        });
+
+        if (dropped[0]) {
+            droppedCounter.increment();
+            requestFlush();
+        } else if (buffer.size() >= MAX_DATUMS_PER_REQUEST) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Publish everything buffered so far
+     */
+    public void flush() {
+        flushRequested.set(false);
+        if (buffer.isEmpty()) {
+            return;
+        }
+
+        Instant timestamp = Instant.now();
+        Map<String, List<MetricDatum>> byNamespace = new HashMap<>();
+        for (SeriesKey key : new ArrayList<>(buffer.keySet())) {
+            Aggregate aggregate = buffer.remove(key);
+            if (aggregate != null) {
+                byNamespace.computeIfAbsent(key.namespace, k -> new ArrayList<>())
+                    .add(aggregate.toDatum(key, timestamp));
+            }
+        }
+
+        byNamespace.forEach((namespace, datums) -> {
+            for (int i = 0; i < datums.size(); i += MAX_DATUMS_PER_REQUEST) {
+                List<MetricDatum> chunk = datums.subList(i, Math.min(i + MAX_DATUMS_PER_REQUEST, datums.size()));
+                try {
+                    requestCounter.increment();
+                    cloudWatchClient.putMetricData(PutMetricDataRequest.builder()
+                        .namespace(namespace)
+                        .metricData(chunk)
+                        .build());
+                } catch (Exception e) {
+                    failedCounter.increment(chunk.size());
+                    log.error("Failed to publish {} metric datums to CloudWatch namespace {}", chunk.size(), namespace, e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true) && !flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Metric flush failed", e);
+        }
+    }
+
+    private static final class SeriesKey {
+        private final String namespace;
+        private final String metricName;
+        private final Map<String, String> dimensions;
+
+        private SeriesKey(String namespace, String metricName, Map<String, String> dimensions) {
+            this.namespace = namespace;
+            this.metricName = metricName;
+            this.dimensions = Collections.unmodifiableMap(new LinkedHashMap<>(dimensions));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SeriesKey)) return false;
+            SeriesKey that = (SeriesKey) o;
+            return namespace.equals(that.namespace) &&
+                metricName.equals(that.metricName) &&
+                dimensions.equals(that.dimensions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespace, metricName, dimensions);
+        }
+    }
+
+    /**
+     * Running statistics for one series; only mutated inside the buffer's compute()
+     */
+    private static final class Aggregate {
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int count;
+
+        private void add(double value) {
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            count++;
+        }
+
+        private MetricDatum toDatum(SeriesKey key, Instant timestamp) {
+            List<Dimension> dimensions = new ArrayList<>(key.dimensions.size());
+            key.dimensions.forEach((name, value) ->
+                dimensions.add(Dimension.builder().name(name).value(value).build()));
+
+            MetricDatum.Builder datum = MetricDatum.builder()
+                .metricName(key.metricName)
+                .dimensions(dimensions)
+                .timestamp(timestamp);
+            if (count == 1) {
+                datum.value(sum);
+            } else {
+                datum.statisticValues(StatisticSet.builder()
+                    .sampleCount((double) count)
+                    .sum(sum)
+                    .minimum(min)
+                    .maximum(max)
+                    .build());
+            }
+            return datum.build();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffers for one container: every {@link HistoryTier} holds every {@link HistoryMetric}
+ * in a single preallocated float array, so the footprint never changes after creation.
+ *
+ * Slot timestamps are implicit. Each tier remembers the newest bucket it has seen
+ * (bucket = epoch millis / resolution) and a bucket lives in slot {@code bucket % capacity};
+ * advancing the head clears the slots it passes over. Empty slots hold NaN.
+ */
+class ContainerMetricsHistory {
+
+    private static final HistoryTier[] TIERS = HistoryTier.values();
+    private static final int METRICS = HistoryMetric.values().length;
+    private static final int[] TIER_OFFSETS = new int[TIERS.length];
+
+    static {
+        int offset = 0;
+        for (HistoryTier tier : TIERS) {
+            TIER_OFFSETS[tier.ordinal()] = offset;
+            offset += tier.getCapacity() * METRICS;
+        }
+    }
+
+    /** Bytes of sample data held per container */
+    static final long SAMPLE_BYTES = (long) HistoryTier.totalSlots() * METRICS * Float.BYTES;
+
+    private final float[] samples = new float[HistoryTier.totalSlots() * METRICS];
+    private final long[] heads = new long[TIERS.length];
+    private volatile long lastWriteMillis;
+
+    ContainerMetricsHistory() {
+        Arrays.fill(samples, Float.NaN);
+        Arrays.fill(heads, -1L);
+    }
+
+    long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    /**
+     * Record a raw sample in the finest tier
+     */
+    synchronized void record(HistoryMetric metric, long timestampMillis, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        HistoryTier tier = TIERS[0];
+        long bucket = timestampMillis / tier.getResolutionMillis();
+        if (advance(tier, bucket)) {
+            samples[index(tier, metric, bucket)] = (float) value;
+            lastWriteMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Recompute the coarser tiers from the finer ones. Every bucket of the coarser tier that
+     * lies entirely inside the finer tier's retention (up to {@code maxBuckets} back from
+     * now, including the current partial bucket) is rebuilt, so late samples are picked up.
+     */
+    synchronized void downsample(long nowMillis, int maxBuckets) {
+        for (int t = 1; t < TIERS.length; t++) {
+            HistoryTier source = TIERS[t - 1];
+            HistoryTier target = TIERS[t];
+            if (heads[source.ordinal()] < 0) {
+                return;
+            }
+
+            long ratio = target.getResolutionMillis() / source.getResolutionMillis();
+            long sourceOldest = heads[source.ordinal()] - source.getCapacity() + 1;
+            long last = nowMillis / target.getResolutionMillis();
+            long first = Math.max(last - maxBuckets + 1, Math.floorDiv(sourceOldest + ratio - 1, ratio));
+
+            for (long bucket = first; bucket <= last; bucket++) {
+                if (!advance(target, bucket)) {
+                    continue;
+                }
+                for (HistoryMetric metric : HistoryMetric.values()) {
+                    double sum = 0;
+                    int count = 0;
+                    for (long b = bucket * ratio; b < (bucket + 1) * ratio; b++) {
+                        float value = get(source, metric, b);
+                        if (!Float.isNaN(value)) {
+                            sum += value;
+                            count++;
+                        }
+                    }
+                    samples[index(target, metric, bucket)] = count > 0 ? (float) (sum / count) : Float.NaN;
+                }
+            }
+        }
+    }
+
+    /**
+     * Value of one bucket, or NaN if it is empty or outside the tier's retention
+     */
+    synchronized float get(HistoryTier tier, HistoryMetric metric, long bucket) {
+        long head = heads[tier.ordinal()];
+        if (head < 0 || bucket > head || bucket <= head - tier.getCapacity()) {
+            return Float.NaN;
+        }
+        return samples[index(tier, metric, bucket)];
+    }
+
+    /**
+     * Oldest bucket the tier still holds, or -1 if it has never been written
+     */
+    synchronized long oldestBucket(HistoryTier tier) {
+        long head = heads[tier.ordinal()];
+        return head < 0 ? -1 : Math.max(0, head - tier.getCapacity() + 1);
+    }
+
+    /**
+     * Move the tier's head forward to the bucket if needed; false if the bucket is too old
+     */
+    private boolean advance(HistoryTier tier, long bucket) {
+        int t = tier.ordinal();
+        long head = heads[t];
+        if (head < 0) {
+            heads[t] = bucket;
+            return true;
+        }
+        if (bucket > head) {
+            long steps = Math.min(bucket - head, tier.getCapacity());
+            for (long b = bucket - steps + 1; b <= bucket; b++) {
+                for (HistoryMetric metric : HistoryMetric.values()) {
+                    samples[index(tier, metric, b)] = Float.NaN;
+                }
+            }
+            heads[t] = bucket;
+            return true;
+        }
+        return bucket > head - tier.getCapacity();
+    }
+
+    private static int index(HistoryTier tier, HistoryMetric metric, long bucket) {
+        return TIER_OFFSETS[tier.ordinal()] + metric.ordinal() * tier.getCapacity() +
+            (int) Math.floorMod(bucket, (long) tier.getCapacity());
+    }
+}
@@ -0,0 +1,383 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-term metrics history kept as Gorilla-compressed blocks.
+ *
+ * Each container has an in-memory head block per block period (one hour) that samples are
+ * appended to. Metrics are fetched independently, so the heads of the previous and the
+ * current period can both be open. Once a period is over, plus a grace period for late
+ * CloudWatch datapoints, its head is sealed into an immutable {@link MetricsBlock} and written to the
+ * {@link MetricsBlockStore}. Values are rounded to {@code 2^-precisionBits} before encoding so
+ * the XOR stream stays short; a 1-minute series then costs a few bytes per point.
+ *
+ * Only the node that owns a container in the cluster ring records its history, so each
+ * period is written once. Reads decode just the blocks overlapping the requested range,
+ * plus the head block when this node holds it, and average them into the requested step.
+ * On other nodes the current, unsealed period lives in the owner's head block; buckets the
+ * blocks leave empty are filled from this node's {@link MetricsHistoryStore} where it has
+ * seen the container, and otherwise appear once the owner seals the period (up to an hour
+ * plus the grace period later).
+ */
+@Slf4j
+@Component
+public class DurableMetricsHistory {
+
+    public static final long BLOCK_MILLIS = 3_600_000L;
+
+    private final MetricsBlockStore blockStore;
+    private final ClusterCoordinator clusterCoordinator;
+    private final MetricsHistoryStore historyStore;
+    // Open head blocks per container by block start; guarded by this
+    private final Map<String, NavigableMap<Long, HeadBlock>> heads = new HashMap<>();
+    private final Map<String, byte[]> blockCache;
+    private final ExecutorService uploader;
+    private final ExecutorService readers;
+    private final Counter sealedCounter;
+    private final Counter failedCounter;
+    private final Counter lateCounter;
+    private final long graceMillis;
+    private final double quantum;
+
+    public DurableMetricsHistory(MetricsBlockStore blockStore,
+                                 ClusterCoordinator clusterCoordinator,
+                                 MetricsHistoryStore historyStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.metrics.durable.seal-grace-ms:600000}") long graceMillis,
+                                 @Value("${app.metrics.durable.precision-bits:6}") int precisionBits,
+                                 @Value("${app.metrics.durable.cache-blocks:4096}") int cacheBlocks,
+                                 @Value("${app.metrics.durable.read-threads:8}") int readThreads) {
+        this.blockStore = blockStore;
+        this.clusterCoordinator = clusterCoordinator;
+        this.historyStore = historyStore;
+        this.graceMillis = graceMillis;
+        this.quantum = Math.scalb(1.0, -precisionBits);
+        this.blockCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > cacheBlocks;
+            }
+        };
+        this.uploader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-block-upload");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(readThreads, r -> {
+            Thread t = new Thread(r, "metrics-block-read-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.sealedCounter = Counter.builder("metrics.durable.blocks.sealed").register(meterRegistry);
+        this.failedCounter = Counter.builder("metrics.durable.blocks.failed")
+            .description("Sealed blocks that could not be written to the block store")
+            .register(meterRegistry);
+        this.lateCounter = Counter.builder("metrics.durable.samples.late")
+            .description("Samples dropped because their block was already sealed")
+            .register(meterRegistry);
+        Gauge.builder("metrics.durable.heads", this, DurableMetricsHistory::headCount).register(meterRegistry);
+    }
+
+    /**
+     * Append a sample to the head block of its period. Samples at or before the last recorded
+     * timestamp of the metric (e.g. overlapping CloudWatch lookbacks) are ignored, as are
+     * samples for periods that ended more than the grace period ago.
+     */
+    public void record(String containerId, HistoryMetric metric, long timestampMillis, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || !clusterCoordinator.owns(containerId)) {
+            return;
+        }
+        long blockStart = Math.floorDiv(timestampMillis, BLOCK_MILLIS) * BLOCK_MILLIS;
+        if (blockStart <= sealCutoff()) {
+            lateCounter.increment();
+            return;
+        }
+
+        HeadBlock head;
+        synchronized (this) {
+            head = heads.computeIfAbsent(containerId, k -> new TreeMap<>())
+                .computeIfAbsent(blockStart, start -> new HeadBlock(containerId, start));
+        }
+        if (!head.append(metric, timestampMillis / 1000, Math.round(value / quantum) * quantum)) {
+            lateCounter.increment();
+        }
+    }
+
+    public void record(String containerId, HistoryMetric metric, MetricSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            record(containerId, metric, series.timestampAt(i), series.valueAt(i));
+        }
+    }
+
+    /**
+     * Average value in each of {@code count} consecutive buckets of {@code stepMillis} starting
+     * at {@code fromMillis}; NaN where there is no data
+     */
+    public double[] resample(String containerId, HistoryMetric metric, long fromMillis, long stepMillis, int count) {
+        return resample(containerId, List.of(metric), fromMillis, stepMillis, count).get(metric);
+    }
+
+    /**
+     * {@link #resample(String, HistoryMetric, long, long, int)} for several metrics, reading
+     * each block once
+     */
+    public Map<HistoryMetric, double[]> resample(String containerId, Collection<HistoryMetric> metrics,
+                                                 long fromMillis, long stepMillis, int count) {
+        Map<HistoryMetric, double[]> sums = new EnumMap<>(HistoryMetric.class);
+        Map<HistoryMetric, int[]> samples = new EnumMap<>(HistoryMetric.class);
+        for (HistoryMetric metric : metrics) {
+            sums.put(metric, new double[Math.max(0, count)]);
+            samples.put(metric, new int[Math.max(0, count)]);
+        }
+        if (count <= 0 || stepMillis <= 0) {
+            return sums;
+        }
+        long toMillis = fromMillis + stepMillis * count;
+
+        // Sealed blocks overlapping the range, fetched in parallel and decoded one at a time
+        long firstBlock = Math.floorDiv(fromMillis, BLOCK_MILLIS) * BLOCK_MILLIS;
+        List<CompletableFuture<byte[]>> fetches = new ArrayList<>();
+        for (String key : blockStore.list(containerId, firstBlock, toMillis - 1)) {
+            fetches.add(CompletableFuture.supplyAsync(() -> fetch(key), readers));
+        }
+        for (CompletableFuture<byte[]> fetch : fetches) {
+            byte[] data = fetch.join();
+            if (data != null) {
+                MetricsBlock block = MetricsBlock.parse(containerId, data, metrics.size() == 1 ? metrics.iterator().next() : null);
+                for (HistoryMetric metric : metrics) {
+                    accumulate(block.decoder(metric), fromMillis, stepMillis, sums.get(metric), samples.get(metric));
+                }
+            }
+        }
+
+        List<HeadBlock> openHeads = new ArrayList<>();
+        synchronized (this) {
+            NavigableMap<Long, HeadBlock> containerHeads = heads.get(containerId);
+            if (containerHeads != null) {
+                openHeads.addAll(containerHeads.subMap(firstBlock, true, toMillis, false).values());
+            }
+        }
+        if (!openHeads.isEmpty()) {
+            for (HeadBlock head : openHeads) {
+                MetricsBlock snapshot = head.snapshot();
+                for (HistoryMetric metric : metrics) {
+                    accumulate(snapshot.decoder(metric), fromMillis, stepMillis, sums.get(metric), samples.get(metric));
+                }
+            }
+        } else if (historyStore.contains(containerId)) {
+            // Not holding the head blocks (another node owns the container): use what this
+            // node's in-memory tiers have for buckets no sealed block covers yet
+            for (HistoryMetric metric : metrics) {
+                double[] recent = historyStore.resample(containerId, metric, fromMillis, stepMillis, count);
+                double[] metricSums = sums.get(metric);
+                int[] metricSamples = samples.get(metric);
+                for (int i = 0; i < count; i++) {
+                    if (metricSamples[i] == 0 && !Double.isNaN(recent[i])) {
+                        metricSums[i] = recent[i];
+                        metricSamples[i] = 1;
+                    }
+                }
+            }
+        }
+
+        for (HistoryMetric metric : metrics) {
+            double[] metricSums = sums.get(metric);
+            int[] metricSamples = samples.get(metric);
+            for (int i = 0; i < count; i++) {
+                metricSums[i] = metricSamples[i] > 0 ? metricSums[i] / metricSamples[i] : Double.NaN;
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Non-empty buckets of {@code stepMillis} between the two times, oldest first
+     */
+    public MetricSeries query(String containerId, HistoryMetric metric, long fromMillis, long toMillis, long stepMillis) {
+        int count = (int) Math.max(0, (toMillis - fromMillis + stepMillis - 1) / stepMillis);
+        double[] buckets = resample(containerId, metric, fromMillis, stepMillis, count);
+        long[] timestamps = new long[count];
+        double[] values = new double[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(buckets[i])) {
+                timestamps[size] = fromMillis + i * stepMillis;
+                values[size] = buckets[i];
+                size++;
+            }
+        }
+        return new MetricSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+    }
+
+    /**
+     * Seal head blocks whose period ended more than the grace period ago
+     */
+    @Scheduled(fixedDelayString = "${app.metrics.durable.seal-interval-ms:60000}")
+    public void sealExpired() {
+        long cutoff = sealCutoff();
+        List<HeadBlock> expired = new ArrayList<>();
+        synchronized (this) {
+            Iterator<NavigableMap<Long, HeadBlock>> it = heads.values().iterator();
+            while (it.hasNext()) {
+                NavigableMap<Long, HeadBlock> containerHeads = it.next();
+                Map<Long, HeadBlock> ended = containerHeads.headMap(cutoff, true);
+                expired.addAll(ended.values());
+                ended.clear();
+                if (containerHeads.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+        expired.forEach(this::seal);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<HeadBlock> remaining = new ArrayList<>();
+        synchronized (this) {
+            heads.values().forEach(containerHeads -> remaining.addAll(containerHeads.values()));
+            heads.clear();
+        }
+        remaining.forEach(this::seal);
+        uploader.shutdown();
+        readers.shutdown();
+        try {
+            uploader.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Periods starting at or before this time are over, grace period included
+     */
+    private long sealCutoff() {
+        return System.currentTimeMillis() - graceMillis - BLOCK_MILLIS;
+    }
+
+    private synchronized int headCount() {
+        int count = 0;
+        for (NavigableMap<Long, HeadBlock> containerHeads : heads.values()) {
+            count += containerHeads.size();
+        }
+        return count;
+    }
+
+    private void seal(HeadBlock head) {
+        MetricsBlock block = head.seal();
+        if (block == null || uploader.isShutdown()) {
+            return;
+        }
+        uploader.execute(() -> {
+            try {
+                blockStore.put(block);
+                sealedCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Failed to store metrics block for container {} at {}", head.containerId, head.blockStart, e);
+            }
+        });
+    }
+
+    private byte[] fetch(String key) {
+        synchronized (blockCache) {
+            byte[] cached = blockCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] data = blockStore.get(key);
+        if (data != null) {
+            synchronized (blockCache) {
+                blockCache.put(key, data);
+            }
+        }
+        return data;
+    }
+
+    private static void accumulate(GorillaDecoder decoder, long fromMillis, long stepMillis, double[] sums, int[] samples) {
+        if (decoder == null) {
+            return;
+        }
+        while (decoder.next()) {
+            long offset = decoder.getTimestamp() * 1000 - fromMillis;
+            if (offset < 0) {
+                continue;
+            }
+            long bucket = offset / stepMillis;
+            if (bucket >= sums.length) {
+                break;
+            }
+            sums[(int) bucket] += decoder.getValue();
+            samples[(int) bucket]++;
+        }
+    }
+
+    private static final class HeadBlock {
+        private final String containerId;
+        private final long blockStart;
+        private final Map<HistoryMetric, GorillaEncoder> encoders = new EnumMap<>(HistoryMetric.class);
+        private boolean sealed;
+
+        private HeadBlock(String containerId, long blockStart) {
+            this.containerId = containerId;
+            this.blockStart = blockStart;
+        }
+
+        /**
+         * False if the block was sealed before the sample arrived
+         */
+        private synchronized boolean append(HistoryMetric metric, long timestampSeconds, double value) {
+            if (sealed) {
+                return false;
+            }
+            GorillaEncoder encoder = encoders.computeIfAbsent(metric, m -> new GorillaEncoder(blockStart / 1000));
+            if (timestampSeconds > encoder.getLastTimestamp()) {
+                encoder.append(timestampSeconds, value);
+            }
+            return true;
+        }
+
+        /**
+         * Stop accepting samples and return the final block, or null if it is empty
+         */
+        private synchronized MetricsBlock seal() {
+            sealed = true;
+            return encoders.isEmpty() ? null : snapshot();
+        }
+
+        private synchronized MetricsBlock snapshot() {
+            Map<HistoryMetric, byte[]> series = new EnumMap<>(HistoryMetric.class);
+            encoders.forEach((metric, encoder) -> series.put(metric, encoder.toByteArray()));
+            return new MetricsBlock(containerId, blockStart, series);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Iterates over a block written by {@link GorillaEncoder}:
+ * <pre>
+ * while (decoder.next()) { use(decoder.getTimestamp(), decoder.getValue()); }
+ * </pre>
+ */
+public class GorillaDecoder {
+
+    private final long blockStart;
+    private final int count;
+    private final BitInput in;
+
+    private int read;
+    private long timestamp;
+    private long delta;
+    private long valueBits;
+    private int leadingZeros;
+    private int trailingZeros;
+
+    public GorillaDecoder(long blockStartSeconds, byte[] data) {
+        this(blockStartSeconds, data, 0, data.length);
+    }
+
+    public GorillaDecoder(long blockStartSeconds, byte[] data, int offset, int length) {
+        this.blockStart = blockStartSeconds;
+        this.count = ByteBuffer.wrap(data, offset, length).getInt();
+        this.in = new BitInput(data, offset + Integer.BYTES, length - Integer.BYTES);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Advance to the next point; false once the block is exhausted
+     */
+    public boolean next() {
+        if (read >= count) {
+            return false;
+        }
+        if (read == 0) {
+            timestamp = blockStart + in.readBits(32);
+            valueBits = in.readBits(64);
+        } else {
+            readTimestamp();
+            readValue();
+        }
+        read++;
+        return true;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getValue() {
+        return Double.longBitsToDouble(valueBits);
+    }
+
+    private void readTimestamp() {
+        long deltaOfDelta;
+        if (!in.readBit()) {
+            deltaOfDelta = 0;
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readBits(7) - 63;
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readBits(9) - 255;
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readBits(12) - 2047;
+        } else {
+            deltaOfDelta = in.readBits(64);
+        }
+        delta += deltaOfDelta;
+        timestamp += delta;
+    }
+
+    private void readValue() {
+        if (!in.readBit()) {
+            return;
+        }
+        if (in.readBit()) {
+            leadingZeros = (int) in.readBits(5);
+            int significantBits = (int) in.readBits(6) + 1;
+            trailingZeros = 64 - leadingZeros - significantBits;
+        }
+        int significantBits = 64 - leadingZeros - trailingZeros;
+        valueBits ^= in.readBits(significantBits) << trailingZeros;
+    }
+}
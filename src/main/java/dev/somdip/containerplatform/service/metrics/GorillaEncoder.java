@@ -0,0 +1,132 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses one time series block in the format described in Facebook's Gorilla paper:
+ * timestamps as delta-of-deltas with variable-length prefixes, values as the XOR with the
+ * previous value storing only the meaningful bits. A regular 1-minute series costs one bit
+ * per timestamp, and a value equal to the previous one costs one bit.
+ *
+ * Timestamps are epoch seconds and must be strictly increasing and not before the block
+ * start. The encoded form starts with the point count, so a block can be snapshotted with
+ * {@link #toByteArray()} at any time and read back with {@link GorillaDecoder}.
+ */
+public class GorillaEncoder {
+
+    private final long blockStart;
+    private final BitOutput out = new BitOutput();
+
+    private int count;
+    private long previousTimestamp;
+    private long previousDelta;
+    private long previousValueBits;
+    private int previousLeadingZeros = -1;
+    private int previousTrailingZeros;
+
+    public GorillaEncoder(long blockStartSeconds) {
+        this.blockStart = blockStartSeconds;
+    }
+
+    public void append(long timestampSeconds, double value) {
+        if (count == 0) {
+            if (timestampSeconds < blockStart) {
+                throw new IllegalArgumentException("Timestamp " + timestampSeconds + " is before the block start " + blockStart);
+            }
+            out.writeBits(timestampSeconds - blockStart, 32);
+            long bits = Double.doubleToRawLongBits(value);
+            out.writeBits(bits, 64);
+            previousTimestamp = timestampSeconds;
+            previousValueBits = bits;
+            count++;
+            return;
+        }
+        if (timestampSeconds <= previousTimestamp) {
+            throw new IllegalArgumentException("Timestamp " + timestampSeconds + " is not after " + previousTimestamp);
+        }
+
+        writeTimestamp(timestampSeconds);
+        writeValue(Double.doubleToRawLongBits(value));
+        count++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getBlockStart() {
+        return blockStart;
+    }
+
+    /**
+     * Last appended timestamp, or {@link Long#MIN_VALUE} if the block is empty
+     */
+    public long getLastTimestamp() {
+        return count == 0 ? Long.MIN_VALUE : previousTimestamp;
+    }
+
+    /**
+     * Encoded block: the point count followed by the bit stream
+     */
+    public byte[] toByteArray() {
+        byte[] bits = out.toByteArray();
+        return ByteBuffer.allocate(Integer.BYTES + bits.length)
+            .putInt(count)
+            .put(bits)
+            .array();
+    }
+
+    private void writeTimestamp(long timestamp) {
+        long delta = timestamp - previousTimestamp;
+        long deltaOfDelta = delta - previousDelta;
+
+        if (deltaOfDelta == 0) {
+            out.writeBit(false);
+        } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+            out.writeBits(0b10, 2);
+            out.writeBits(deltaOfDelta + 63, 7);
+        } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+            out.writeBits(0b110, 3);
+            out.writeBits(deltaOfDelta + 255, 9);
+        } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(deltaOfDelta + 2047, 12);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(deltaOfDelta, 64);
+        }
+
+        previousDelta = delta;
+        previousTimestamp = timestamp;
+    }
+
+    private void writeValue(long bits) {
+        long xor = bits ^ previousValueBits;
+        previousValueBits = bits;
+
+        if (xor == 0) {
+            out.writeBit(false);
+            return;
+        }
+        out.writeBit(true);
+
+        int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailingZeros = Long.numberOfTrailingZeros(xor);
+
+        if (previousLeadingZeros >= 0 && leadingZeros >= previousLeadingZeros &&
+            trailingZeros >= previousTrailingZeros) {
+            // Meaningful bits fit in the previous window
+            out.writeBit(false);
+            out.writeBits(xor >>> previousTrailingZeros, 64 - previousLeadingZeros - previousTrailingZeros);
+            return;
+        }
+
+        int significantBits = 64 - leadingZeros - trailingZeros;
+        out.writeBit(true);
+        out.writeBits(leadingZeros, 5);
+        out.writeBits(significantBits - 1, 6);
+        out.writeBits(xor >>> trailingZeros, significantBits);
+        previousLeadingZeros = leadingZeros;
+        previousTrailingZeros = trailingZeros;
+    }
+}
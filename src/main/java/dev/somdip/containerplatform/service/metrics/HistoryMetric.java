@@ -0,0 +1,17 @@
+package dev.somdip.containerplatform.service.metrics;
+
+/**
+ * Series kept per container by the {@link MetricsHistoryStore}. Durable blocks store the
+ * ordinal, so new metrics are only ever appended.
+ */
+public enum HistoryMetric {
+    CPU_PERCENT,
+    MEMORY_PERCENT,
+    NETWORK_RX_BYTES_PER_SECOND,
+    NETWORK_TX_BYTES_PER_SECOND,
+    REQUESTS_PER_MINUTE,
+    RESPONSE_TIME_P50_MILLIS,
+    RESPONSE_TIME_P90_MILLIS,
+    RESPONSE_TIME_P99_MILLIS,
+    HTTP_5XX_PER_MINUTE
+}
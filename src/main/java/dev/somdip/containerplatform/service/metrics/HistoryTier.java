@@ -0,0 +1,34 @@
+package dev.somdip.containerplatform.service.metrics;
+
+/**
+ * Resolutions kept by the {@link MetricsHistoryStore}. Capacities are fixed so every
+ * container costs the same amount of memory.
+ */
+public enum HistoryTier {
+    MINUTE(60_000L, 120),           // 2 hours
+    FIVE_MINUTES(300_000L, 288),    // 24 hours
+    HOUR(3_600_000L, 192);          // 8 days
+
+    private final long resolutionMillis;
+    private final int capacity;
+
+    HistoryTier(long resolutionMillis, int capacity) {
+        this.resolutionMillis = resolutionMillis;
+        this.capacity = capacity;
+    }
+
+    public long getResolutionMillis() { return resolutionMillis; }
+    public int getCapacity() { return capacity; }
+
+    public long getRetentionMillis() {
+        return resolutionMillis * capacity;
+    }
+
+    static int totalSlots() {
+        int slots = 0;
+        for (HistoryTier tier : values()) {
+            slots += tier.capacity;
+        }
+        return slots;
+    }
+}
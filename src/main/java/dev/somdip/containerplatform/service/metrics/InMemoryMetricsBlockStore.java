@@ -0,0 +1,35 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Block store for local development and tests; blocks are lost on restart
+ */
+@Component
+@ConditionalOnProperty(name = "app.metrics.durable.store", havingValue = "memory")
+public class InMemoryMetricsBlockStore implements MetricsBlockStore {
+
+    private final ConcurrentSkipListMap<String, byte[]> blocks = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void put(MetricsBlock block) {
+        blocks.put(S3MetricsBlockStore.key("", block), block.toBytes());
+    }
+
+    @Override
+    public List<String> list(String containerId, long fromMillis, long toMillis) {
+        String from = S3MetricsBlockStore.blockPrefix("", containerId, fromMillis);
+        String to = S3MetricsBlockStore.blockPrefix("", containerId, toMillis) + Character.MAX_VALUE;
+        return new ArrayList<>(blocks.subMap(from, true, to, true).keySet());
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return blocks.get(key);
+    }
+}
@@ -0,0 +1,91 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A single CloudWatch metric read: one metric, one statistic, over a trailing window
+ */
+public class MetricQuery {
+
+    private final String namespace;
+    private final String metricName;
+    private final Map<String, String> dimensions;
+    private final String stat;
+    private final int periodSeconds;
+    private final int lookbackSeconds;
+
+    public MetricQuery(String namespace, String metricName, Map<String, String> dimensions,
+                       String stat, int periodSeconds, int lookbackSeconds) {
+        this.namespace = namespace;
+        this.metricName = metricName;
+        this.dimensions = Collections.unmodifiableMap(new LinkedHashMap<>(dimensions));
+        this.stat = stat;
+        this.periodSeconds = periodSeconds;
+        this.lookbackSeconds = lookbackSeconds;
+    }
+
+    /**
+     * Average of an AWS/ECS service metric at 1-minute resolution over the last 5 minutes
+     */
+    public static MetricQuery ecsService(String metricName, String clusterName, String serviceName) {
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        dimensions.put("ServiceName", serviceName);
+        dimensions.put("ClusterName", clusterName);
+        return new MetricQuery("AWS/ECS", metricName, dimensions, "Average", 60, 300);
+    }
+
+    /**
+     * Average of a Container Insights service metric at 1-minute resolution over the last 5 minutes
+     */
+    public static MetricQuery containerInsightsService(String metricName, String clusterName, String serviceName) {
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        dimensions.put("ServiceName", serviceName);
+        dimensions.put("ClusterName", clusterName);
+        return new MetricQuery("ECS/ContainerInsights", metricName, dimensions, "Average", 60, 300);
+    }
+
+    /**
+     * An AWS/ApplicationELB target group metric at 1-minute resolution over the last 5 minutes.
+     * The dimensions are the resource parts of the ARNs ({@code app/..} and {@code targetgroup/..}).
+     */
+    public static MetricQuery applicationElbTargetGroup(String metricName, String stat,
+                                                        String loadBalancerArn, String targetGroupArn) {
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        dimensions.put("TargetGroup", targetGroupArn.substring(targetGroupArn.indexOf("targetgroup/")));
+        dimensions.put("LoadBalancer", loadBalancerArn.substring(loadBalancerArn.indexOf("loadbalancer/") + "loadbalancer/".length()));
+        return new MetricQuery("AWS/ApplicationELB", metricName, dimensions, stat, 60, 300);
+    }
+
+    public String getNamespace() { return namespace; }
+    public String getMetricName() { return metricName; }
+    public Map<String, String> getDimensions() { return dimensions; }
+    public String getStat() { return stat; }
+    public int getPeriodSeconds() { return periodSeconds; }
+    public int getLookbackSeconds() { return lookbackSeconds; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MetricQuery)) return false;
+        MetricQuery that = (MetricQuery) o;
+        return periodSeconds == that.periodSeconds &&
+            lookbackSeconds == that.lookbackSeconds &&
+            namespace.equals(that.namespace) &&
+            metricName.equals(that.metricName) &&
+            dimensions.equals(that.dimensions) &&
+            stat.equals(that.stat);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(namespace, metricName, dimensions, stat, periodSeconds, lookbackSeconds);
+    }
+
+    @Override
+    public String toString() {
+        return namespace + "/" + metricName + dimensions + " " + stat + "/" + periodSeconds + "s";
+    }
+}
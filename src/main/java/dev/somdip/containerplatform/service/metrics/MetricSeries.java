@@ -0,0 +1,69 @@
+package dev.somdip.containerplatform.service.metrics;
+
+/**
+ * Datapoints returned for one {@link MetricQuery}, oldest first
+ */
+public class MetricSeries {
+
+    private static final MetricSeries EMPTY = new MetricSeries(new long[0], new double[0]);
+
+    private final long[] timestamps;
+    private final double[] values;
+
+    public MetricSeries(long[] timestamps, double[] values) {
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    public static MetricSeries empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    public double valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Most recent value, or the fallback if there are no datapoints
+     */
+    public double latest(double fallback) {
+        return isEmpty() ? fallback : values[values.length - 1];
+    }
+
+    /**
+     * The same datapoints with every value multiplied by the factor
+     */
+    public MetricSeries scaled(double factor) {
+        double[] scaled = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = values[i] * factor;
+        }
+        return new MetricSeries(timestamps, scaled);
+    }
+
+    /**
+     * Mean of all datapoints, or the fallback if there are none
+     */
+    public double average(double fallback) {
+        if (isEmpty()) {
+            return fallback;
+        }
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+}
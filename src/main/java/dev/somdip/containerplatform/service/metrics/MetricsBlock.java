@@ -0,0 +1,85 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A sealed block: every metric of one container for one block period, each as a
+ * Gorilla-encoded series. Serialized as a version byte, the block start, and one
+ * (metric, length, series) entry per metric so readers can skip the series they don't need.
+ */
+public class MetricsBlock {
+
+    private static final byte VERSION = 1;
+
+    private final String containerId;
+    private final long blockStartMillis;
+    private final Map<HistoryMetric, byte[]> series;
+
+    public MetricsBlock(String containerId, long blockStartMillis, Map<HistoryMetric, byte[]> series) {
+        this.containerId = containerId;
+        this.blockStartMillis = blockStartMillis;
+        this.series = series;
+    }
+
+    public String getContainerId() { return containerId; }
+    public long getBlockStartMillis() { return blockStartMillis; }
+
+    /**
+     * Decoder for one metric, or null if the block has no points for it
+     */
+    public GorillaDecoder decoder(HistoryMetric metric) {
+        byte[] encoded = series.get(metric);
+        return encoded != null ? new GorillaDecoder(blockStartMillis / 1000, encoded) : null;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(blockStartMillis);
+            out.writeByte(series.size());
+            for (Map.Entry<HistoryMetric, byte[]> entry : series.entrySet()) {
+                out.writeByte(entry.getKey().ordinal());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Parse a serialized block, keeping only the series of the wanted metric (all if null)
+     */
+    public static MetricsBlock parse(String containerId, byte[] data, HistoryMetric wanted) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported metrics block version " + version);
+        }
+        long blockStartMillis = buffer.getLong();
+        int entries = buffer.get() & 0xFF;
+        HistoryMetric[] metrics = HistoryMetric.values();
+
+        Map<HistoryMetric, byte[]> series = new EnumMap<>(HistoryMetric.class);
+        for (int i = 0; i < entries; i++) {
+            int ordinal = buffer.get() & 0xFF;
+            int length = buffer.getInt();
+            if (ordinal < metrics.length && (wanted == null || metrics[ordinal] == wanted)) {
+                byte[] encoded = new byte[length];
+                buffer.get(encoded);
+                series.put(metrics[ordinal], encoded);
+            } else {
+                buffer.position(buffer.position() + length);
+            }
+        }
+        return new MetricsBlock(containerId, blockStartMillis, series);
+    }
+}
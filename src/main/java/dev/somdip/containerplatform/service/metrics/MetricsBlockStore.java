@@ -0,0 +1,22 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import java.util.List;
+
+/**
+ * Durable storage for sealed {@link MetricsBlock}s. Blocks are immutable once written;
+ * a container may have more than one block for the same period (e.g. after a restart).
+ */
+public interface MetricsBlockStore {
+
+    void put(MetricsBlock block);
+
+    /**
+     * Keys of the container's blocks whose period starts in [fromMillis, toMillis], oldest first
+     */
+    List<String> list(String containerId, long fromMillis, long toMillis);
+
+    /**
+     * Raw block bytes, or null if the block no longer exists
+     */
+    byte[] get(String key);
+}
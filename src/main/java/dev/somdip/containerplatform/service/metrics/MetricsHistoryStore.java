@@ -0,0 +1,201 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory resource usage history per container.
+ *
+ * Samples are written at 1-minute resolution by the metrics refresh path and a background
+ * job downsamples them into 5-minute and 1-hour tiers (see {@link HistoryTier} for
+ * retention). Each container's history is a fixed block of float ring buffers of about
+ * {@value #APPROX_KB_PER_CONTAINER} KB (9 metrics x 600 slots), so the default cap of 10,000
+ * containers takes about 220 MB of heap and 50,000 would take over 1 GB; size
+ * {@code app.metrics.history.max-containers} to the heap. Floats are plenty for percentages
+ * and byte rates and halve the footprint of doubles.
+ *
+ * History is per node and is lost on restart.
+ */
+@Slf4j
+@Component
+public class MetricsHistoryStore {
+
+    static final int APPROX_KB_PER_CONTAINER = 22;
+
+    private final Map<String, ContainerMetricsHistory> histories = new ConcurrentHashMap<>();
+    private final Counter rejectedCounter;
+    private final int maxContainers;
+
+    public MetricsHistoryStore(MeterRegistry meterRegistry,
+                               @Value("${app.metrics.history.max-containers:10000}") int maxContainers) {
+        this.maxContainers = maxContainers;
+        this.rejectedCounter = Counter.builder("metrics.history.rejected")
+            .description("Samples dropped because the history store was full")
+            .register(meterRegistry);
+        Gauge.builder("metrics.history.containers", histories, Map::size)
+            .register(meterRegistry);
+        Gauge.builder("metrics.history.bytes", histories, h -> (double) h.size() * ContainerMetricsHistory.SAMPLE_BYTES)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record a single sample
+     */
+    public void record(String containerId, HistoryMetric metric, long timestampMillis, double value) {
+        ContainerMetricsHistory history = historyFor(containerId);
+        if (history != null) {
+            history.record(metric, timestampMillis, value);
+        }
+    }
+
+    /**
+     * Record every datapoint of a CloudWatch series; re-recording the same minute overwrites it
+     */
+    public void record(String containerId, HistoryMetric metric, MetricSeries series) {
+        if (series.isEmpty()) {
+            return;
+        }
+        ContainerMetricsHistory history = historyFor(containerId);
+        if (history != null) {
+            for (int i = 0; i < series.size(); i++) {
+                history.record(metric, series.timestampAt(i), series.valueAt(i));
+            }
+        }
+    }
+
+    public boolean contains(String containerId) {
+        return histories.containsKey(containerId);
+    }
+
+    public void remove(String containerId) {
+        histories.remove(containerId);
+    }
+
+    /**
+     * Average value in each of {@code count} consecutive buckets of {@code stepMillis} starting
+     * at {@code fromMillis}; NaN where there is no data. Reads the coarsest tier that is still
+     * finer than the step and holds the start of the range, or failing that the tier that
+     * reaches furthest back.
+     */
+    public double[] resample(String containerId, HistoryMetric metric, long fromMillis, long stepMillis, int count) {
+        double[] result = new double[count];
+        Arrays.fill(result, Double.NaN);
+        ContainerMetricsHistory history = histories.get(containerId);
+        if (history == null || count <= 0 || stepMillis <= 0) {
+            return result;
+        }
+
+        HistoryTier tier = selectTier(history, fromMillis, stepMillis);
+        if (tier == null) {
+            return result;
+        }
+
+        long resolution = tier.getResolutionMillis();
+        for (int i = 0; i < count; i++) {
+            long start = fromMillis + i * stepMillis;
+            long end = start + stepMillis;
+            double sum = 0;
+            int samples = 0;
+            for (long bucket = Math.floorDiv(start, resolution); bucket * resolution < end; bucket++) {
+                float value = history.get(tier, metric, bucket);
+                if (!Float.isNaN(value)) {
+                    sum += value;
+                    samples++;
+                }
+            }
+            if (samples > 0) {
+                result[i] = sum / samples;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every non-empty bucket of the given tier between the two times, oldest first
+     */
+    public MetricSeries read(String containerId, HistoryMetric metric, HistoryTier tier, long fromMillis, long toMillis) {
+        ContainerMetricsHistory history = histories.get(containerId);
+        if (history == null || toMillis < fromMillis) {
+            return MetricSeries.empty();
+        }
+
+        long resolution = tier.getResolutionMillis();
+        long first = Math.floorDiv(fromMillis, resolution);
+        long last = Math.floorDiv(toMillis, resolution);
+        long[] timestamps = new long[(int) Math.min(last - first + 1, tier.getCapacity())];
+        double[] values = new double[timestamps.length];
+        int size = 0;
+        for (long bucket = Math.max(first, last - tier.getCapacity() + 1); bucket <= last; bucket++) {
+            float value = history.get(tier, metric, bucket);
+            if (!Float.isNaN(value)) {
+                timestamps[size] = bucket * resolution;
+                values[size] = value;
+                size++;
+            }
+        }
+        return new MetricSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+    }
+
+    /**
+     * Roll the 1-minute samples up into the coarser tiers and forget containers that have
+     * not reported for longer than the longest retention
+     */
+    @Scheduled(fixedDelayString = "${app.metrics.history.downsample-interval-ms:60000}")
+    public void downsample() {
+        long now = System.currentTimeMillis();
+        long expiry = now - HistoryTier.HOUR.getRetentionMillis();
+        int buckets = HistoryTier.MINUTE.getCapacity();
+
+        histories.entrySet().removeIf(entry -> entry.getValue().getLastWriteMillis() < expiry);
+        for (ContainerMetricsHistory history : histories.values()) {
+            try {
+                history.downsample(now, buckets);
+            } catch (Exception e) {
+                log.error("Failed to downsample metrics history", e);
+            }
+        }
+    }
+
+    private HistoryTier selectTier(ContainerMetricsHistory history, long fromMillis, long stepMillis) {
+        HistoryTier best = null;
+        HistoryTier furthest = null;
+        long furthestStart = Long.MAX_VALUE;
+        for (HistoryTier tier : HistoryTier.values()) {
+            long oldest = history.oldestBucket(tier);
+            if (oldest < 0) {
+                continue;
+            }
+            long start = oldest * tier.getResolutionMillis();
+            if (start < furthestStart) {
+                furthestStart = start;
+                furthest = tier;
+            }
+            if (start <= fromMillis && tier.getResolutionMillis() <= stepMillis) {
+                best = tier;
+            }
+        }
+        return best != null ? best : furthest;
+    }
+
+    private ContainerMetricsHistory historyFor(String containerId) {
+        ContainerMetricsHistory history = histories.get(containerId);
+        if (history != null) {
+            return history;
+        }
+        if (histories.size() >= maxContainers) {
+            rejectedCounter.increment();
+            return null;
+        }
+        return histories.computeIfAbsent(containerId, k -> new ContainerMetricsHistory());
+    }
+}
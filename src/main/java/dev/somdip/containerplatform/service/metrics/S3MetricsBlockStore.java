@@ -0,0 +1,165 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.BucketLifecycleConfiguration;
+import software.amazon.awssdk.services.s3.model.CreateBucketConfiguration;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.ExpirationStatus;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.LifecycleExpiration;
+import software.amazon.awssdk.services.s3.model.LifecycleRule;
+import software.amazon.awssdk.services.s3.model.LifecycleRuleFilter;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutBucketLifecycleConfigurationRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores each sealed block as one S3 object:
+ * {@code <prefix><containerId>/<zero-padded block start millis>-<random>.gor}.
+ * The padded start makes keys sort by time, so a range query is a single
+ * ListObjectsV2 scan starting after the first wanted block.
+ *
+ * Blocks go to a dedicated bucket ({@code aws.s3.bucket.metrics}). When it does not exist
+ * yet it is created with a lifecycle rule that expires blocks after
+ * {@code app.metrics.durable.retention-days}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.metrics.durable.store", havingValue = "s3", matchIfMissing = true)
+public class S3MetricsBlockStore implements MetricsBlockStore {
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String prefix;
+
+    @Value("${aws.region}")
+    private String region;
+
+    @Value("${aws.s3.initialize:true}")
+    private boolean initializeBucket;
+
+    @Value("${app.metrics.durable.retention-days:400}")
+    private int retentionDays;
+
+    public S3MetricsBlockStore(S3Client s3Client,
+                               @Value("${aws.s3.bucket.metrics}") String bucket,
+                               @Value("${app.metrics.durable.prefix:metrics-history/}") String prefix) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    @PostConstruct
+    public void createBucketIfNotExists() {
+        if (!initializeBucket) {
+            return;
+        }
+        try {
+            s3Client.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+            return;
+        } catch (NoSuchBucketException e) {
+            log.info("Creating metrics bucket {}", bucket);
+        } catch (Exception e) {
+            log.warn("Could not check metrics bucket {}: {}", bucket, e.getMessage());
+            return;
+        }
+
+        try {
+            CreateBucketRequest.Builder request = CreateBucketRequest.builder().bucket(bucket);
+            if (!"us-east-1".equals(region)) {
+                request.createBucketConfiguration(CreateBucketConfiguration.builder()
+                    .locationConstraint(region)
+                    .build());
+            }
+            s3Client.createBucket(request.build());
+            s3Client.putBucketLifecycleConfiguration(PutBucketLifecycleConfigurationRequest.builder()
+                .bucket(bucket)
+                .lifecycleConfiguration(BucketLifecycleConfiguration.builder()
+                    .rules(LifecycleRule.builder()
+                        .id("expire-metrics-blocks")
+                        .filter(LifecycleRuleFilter.builder().prefix(prefix).build())
+                        .expiration(LifecycleExpiration.builder().days(retentionDays).build())
+                        .status(ExpirationStatus.ENABLED)
+                        .build())
+                    .build())
+                .build());
+        } catch (Exception e) {
+            log.error("Failed to create metrics bucket {}", bucket, e);
+        }
+    }
+
+    static String blockPrefix(String prefix, String containerId, long blockStartMillis) {
+        return prefix + containerId + "/" + String.format("%013d", blockStartMillis);
+    }
+
+    static String key(String prefix, MetricsBlock block) {
+        return blockPrefix(prefix, block.getContainerId(), block.getBlockStartMillis()) + "-" +
+            UUID.randomUUID().toString().substring(0, 8) + ".gor";
+    }
+
+    @Override
+    public void put(MetricsBlock block) {
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key(prefix, block))
+                .contentType("application/octet-stream")
+                .build(),
+            RequestBody.fromBytes(block.toBytes()));
+    }
+
+    @Override
+    public List<String> list(String containerId, long fromMillis, long toMillis) {
+        String containerPrefix = prefix + containerId + "/";
+        // Keys of blocks starting at fromMillis sort right after the bare padded start
+        String startAfter = blockPrefix(prefix, containerId, fromMillis);
+        String last = blockPrefix(prefix, containerId, toMillis);
+
+        List<String> keys = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            ListObjectsV2Response response = s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(containerPrefix)
+                .startAfter(continuationToken == null ? startAfter : null)
+                .continuationToken(continuationToken)
+                .build());
+            for (S3Object object : response.contents()) {
+                if (object.key().compareTo(last + Character.MAX_VALUE) > 0) {
+                    return keys;
+                }
+                keys.add(object.key());
+            }
+            continuationToken = Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+        } while (continuationToken != null);
+        return keys;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .build())
+                .asByteArray();
+        } catch (NoSuchKeyException e) {
+            log.debug("Metrics block {} no longer exists", key);
+            return null;
+        }
+    }
+}
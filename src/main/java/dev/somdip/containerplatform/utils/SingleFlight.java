@@ -0,0 +1,190 @@
+package dev.somdip.containerplatform.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Coalesces identical reads: while a load for a key is in flight, further requests for the
+ * same key share its result instead of starting another call, and a successful result keeps
+ * being served for {@code freshnessMillis} after it completed. Failures are never kept, so
+ * the next request after a failed load retries.
+ *
+ * Every request is counted in {@code singleflight.requests} with an {@code outcome} tag of
+ * {@code loaded} (started a call), {@code joined} (shared an in-flight call) or {@code fresh}
+ * (served a completed result); {@code singleflight.dedupe.ratio} is the share of requests
+ * that did not start a call.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long freshnessMillis;
+    private final Counter loadedCounter;
+    private final Counter joinedCounter;
+    private final Counter freshCounter;
+    private volatile long lastSweepMillis;
+
+    public SingleFlight(String name, long freshnessMillis, MeterRegistry meterRegistry) {
+        this.freshnessMillis = freshnessMillis;
+        this.loadedCounter = counter(meterRegistry, name, "loaded");
+        this.joinedCounter = counter(meterRegistry, name, "joined");
+        this.freshCounter = counter(meterRegistry, name, "fresh");
+        Gauge.builder("singleflight.entries", flights, Map::size)
+            .tag("name", name)
+            .register(meterRegistry);
+        Gauge.builder("singleflight.dedupe.ratio", this, SingleFlight::dedupeRatio)
+            .tag("name", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Result for the key, sharing an in-flight or fresh result when there is one and calling
+     * {@code loader} otherwise
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        long now = System.currentTimeMillis();
+        Flight<V> candidate = new Flight<>();
+        Flight<V> flight = claim(key, candidate, now);
+        if (flight != candidate) {
+            return flight.future.copy();
+        }
+
+        CompletableFuture<V> load;
+        try {
+            load = loader.apply(key);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            if (error != null) {
+                fail(key, flight, error);
+            } else {
+                complete(flight, value);
+            }
+        });
+        return flight.future.copy();
+    }
+
+    /**
+     * Results for several keys at once. Keys without an in-flight or fresh result are loaded
+     * together with one call to {@code loader}; keys the loader leaves out of its result, or
+     * whose load failed, are absent from the returned map. Blocks until every key is settled.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        long now = System.currentTimeMillis();
+        Map<K, Flight<V>> requested = new LinkedHashMap<>();
+        Map<K, Flight<V>> claimed = new LinkedHashMap<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            Flight<V> candidate = new Flight<>();
+            Flight<V> flight = claim(key, candidate, now);
+            requested.put(key, flight);
+            if (flight == candidate) {
+                claimed.put(key, flight);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            Map<K, V> loaded;
+            RuntimeException failure = null;
+            try {
+                loaded = loader.apply(claimed.keySet());
+            } catch (RuntimeException e) {
+                loaded = Map.of();
+                failure = e;
+            }
+            // Settle every claimed key before waiting on anyone else's, so concurrent batches cannot deadlock
+            for (Map.Entry<K, Flight<V>> entry : claimed.entrySet()) {
+                if (loaded.containsKey(entry.getKey())) {
+                    complete(entry.getValue(), loaded.get(entry.getKey()));
+                } else {
+                    fail(entry.getKey(), entry.getValue(), failure != null ? failure
+                        : new IllegalStateException("No result for " + entry.getKey()));
+                }
+            }
+        }
+
+        Map<K, V> results = new HashMap<>();
+        requested.forEach((key, flight) -> {
+            try {
+                results.put(key, flight.future.join());
+            } catch (CompletionException e) {
+                // Left out of the result; the caller treats the key as unknown
+            }
+        });
+        return results;
+    }
+
+    /**
+     * The flight to use for the key: an in-flight or fresh one if present, otherwise the candidate
+     */
+    private Flight<V> claim(K key, Flight<V> candidate, long now) {
+        sweep(now);
+        Flight<V> flight = flights.compute(key, (k, current) -> current != null && current.isUsable(now, freshnessMillis)
+            ? current : candidate);
+        if (flight == candidate) {
+            loadedCounter.increment();
+        } else if (flight.future.isDone()) {
+            freshCounter.increment();
+        } else {
+            joinedCounter.increment();
+        }
+        return flight;
+    }
+
+    private void complete(Flight<V> flight, V value) {
+        flight.completedAt = System.currentTimeMillis();
+        flight.future.complete(value);
+    }
+
+    private void fail(K key, Flight<V> flight, Throwable error) {
+        flights.remove(key, flight);
+        flight.future.completeExceptionally(error);
+    }
+
+    /**
+     * Drop expired results, at most once per freshness window
+     */
+    private void sweep(long now) {
+        long interval = Math.max(freshnessMillis, 1000);
+        if (now - lastSweepMillis < interval) {
+            return;
+        }
+        lastSweepMillis = now;
+        flights.values().removeIf(flight -> flight.future.isDone() && !flight.isUsable(now, freshnessMillis));
+    }
+
+    private double dedupeRatio() {
+        double loaded = loadedCounter.count();
+        double total = loaded + joinedCounter.count() + freshCounter.count();
+        return total == 0 ? 0 : (total - loaded) / total;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("singleflight.requests")
+            .tag("name", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private boolean isUsable(long now, long freshnessMillis) {
+            if (!future.isDone()) {
+                return true;
+            }
+            return !future.isCompletedExceptionally() && completedAt > 0 && now - completedAt <= freshnessMillis;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package dev.somdip.containerplatform.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import dev.somdip.containerplatform.config.AwsCallGovernor;
 import dev.somdip.containerplatform.controller.HealthController;
 import dev.somdip.containerplatform.service.ContainerService;
 import dev.somdip.containerplatform.service.LogStreamingService;
+import dev.somdip.containerplatform.service.logs.LogFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,15 +16,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -31,13 +34,20 @@ public class LogStreamHandler extends TextWebSocketHandler {
 	
     
 
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+    private static final int FILTER_BACKFILL_LINES = 200;
+
+    private final LogTailHub logTailHub;
     private final LogStreamingService logStreamingService;
     private final ContainerService containerService;
     private final ObjectMapper objectMapper;
 
-    // Store active sessions and their log streaming tasks
-    private final Map<String, ScheduledFuture<?>> activeSessions = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    // Store active sessions and their log subscriptions
+    private final Map<String, LogTailHub.Subscription> activeSessions = new ConcurrentHashMap<>();
+    // Compiled filters of sessions that set one; lines are filtered here before sending
+    private final Map<String, LogFilter> sessionFilters = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> decoratedSessions = new ConcurrentHashMap<>();
     
 
     @Override
@@ -50,7 +60,7 @@ public class LogStreamHandler extends TextWebSocketHandler {
             "status", "connected",
             "message", "Log streaming connection established"
         );
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
     }
 
 
@@ -58,9 +68,10 @@ public class LogStreamHandler extends TextWebSocketHandler {
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         try {
             // Parse the incoming message
-            Map<String, String> request = objectMapper.readValue(message.getPayload(), Map.class);
-            String action = request.get("action");
-            String containerId = request.get("containerId");
+            // "filter" may be a string or an object, so values are not all strings
+            Map<String, Object> request = objectMapper.readValue(message.getPayload(), Map.class);
+            String action = (String) request.get("action");
+            String containerId = (String) request.get("containerId");
             
             // Get authenticated user
             Principal principal = session.getPrincipal();
@@ -100,49 +111,43 @@ public class LogStreamHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         log.info("WebSocket connection closed: {} - {}", session.getId(), status);
         stopLogStreaming(session);
+        sessionFilters.remove(session.getId());
+        decoratedSessions.remove(session.getId());
     }
     
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("WebSocket transport error for session: {}", session.getId(), exception);
         stopLogStreaming(session);
+        sessionFilters.remove(session.getId());
+        decoratedSessions.remove(session.getId());
     }
     
+    /**
+     * Follow the container's logs for this session through the shared tailer. The first
+     * message is a snapshot of the recent lines; after that only new lines are sent, as
+     * {@code "mode": "append"} messages. With a filter set, only matching lines are sent and
+     * appends with no match are skipped.
+     */
     private void startLogStreaming(WebSocketSession session, String containerId) {
         // Stop any existing streaming for this session
         stopLogStreaming(session);
         
-        // Start new log streaming task
-        ScheduledFuture<?> streamingTask = scheduler.scheduleAtFixedRate(() -> {
-            try {
-                // Fetch logs from CloudWatch or container logs
-                String logs = logStreamingService.getLatestLogs(containerId, 100);
-                
-                if (logs != null && !logs.isEmpty()) {
-                    Map<String, Object> logMessage = Map.of(
-                        "type", "logs",
-                        "containerId", containerId,
-                        "content", logs,
-                        "timestamp", System.currentTimeMillis()
-                    );
-                    
-                    synchronized (session) {
-                        if (session.isOpen()) {
-                            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(logMessage)));
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.error("Error streaming logs for container: {}", containerId, e);
-                try {
-                    sendError(session, "Error streaming logs: " + e.getMessage());
-                } catch (Exception ex) {
-                    log.error("Error sending error message", ex);
+        LogTailHub.Subscription subscription = logTailHub.subscribe(containerId, new LogTailHub.Listener() {
+            @Override
+            public void onLines(String containerId, List<String> lines, boolean snapshot) throws Exception {
+                List<String> matching = applyFilter(session, lines);
+                if (snapshot || !matching.isEmpty()) {
+                    sendLogs(session, containerId, matching, snapshot);
                 }
             }
-        }, 0, 2, TimeUnit.SECONDS); // Stream logs every 2 seconds
-        
-        activeSessions.put(session.getId(), streamingTask);
+
+            @Override
+            public void onError(String containerId, String message) throws Exception {
+                sendError(session, message);
+            }
+        });
+        activeSessions.put(session.getId(), subscription);
         
         try {
             Map<String, Object> response = Map.of(
@@ -150,42 +155,100 @@ public class LogStreamHandler extends TextWebSocketHandler {
                 "containerId", containerId,
                 "message", "Log streaming started"
             );
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+            sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
         } catch (Exception e) {
             log.error("Error sending stream started message", e);
         }
     }
     
     private void stopLogStreaming(WebSocketSession session) {
-        ScheduledFuture<?> task = activeSessions.remove(session.getId());
-        if (task != null) {
-            task.cancel(false);
+        LogTailHub.Subscription subscription = activeSessions.remove(session.getId());
+        if (subscription != null) {
+            subscription.close();
             try {
                 Map<String, Object> response = Map.of(
                     "type", "stream_stopped",
                     "message", "Log streaming stopped"
                 );
                 if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+                    sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
                 }
             } catch (Exception e) {
                 log.error("Error sending stream stopped message", e);
             }
         }
     }
+
+    private void sendLogs(WebSocketSession session, String containerId, List<String> lines, boolean snapshot) throws Exception {
+        Map<String, Object> logMessage = Map.of(
+            "type", "logs",
+            "mode", snapshot ? "snapshot" : "append",
+            "containerId", containerId,
+            "lines", lines,
+            "content", String.join("\n", lines),
+            "timestamp", System.currentTimeMillis()
+        );
+        if (session.isOpen()) {
+            sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(logMessage)));
+        }
+    }
     
-    private void applyLogFilter(WebSocketSession session, String containerId, String filter) {
-        // Implement log filtering logic
+    /**
+     * Set (or, with an empty filter, clear) the session's filter and send a fresh snapshot
+     * of the stream it applies to. Filters with a level, a case-sensitive phrase or a time
+     * window are backfilled from the log cache, or from CloudWatch with the pushable parts as
+     * a {@code filterPattern}, so the snapshot is not limited to matches within the shared
+     * recent lines buffer. The viewer asked for it, so the backfill runs in the interactive
+     * lane, and its snapshot goes through the hub to stay in order with the appends.
+     */
+    private void applyLogFilter(WebSocketSession session, String containerId, Object spec) throws Exception {
+        LogFilter filter;
         try {
-            Map<String, Object> response = Map.of(
-                "type", "filter_applied",
-                "filter", filter,
-                "message", "Log filter applied"
-            );
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
-        } catch (Exception e) {
-            log.error("Error applying log filter", e);
+            filter = LogFilter.compile(spec);
+        } catch (IllegalArgumentException e) {
+            sendError(session, "Invalid filter: " + e.getMessage());
+            return;
         }
+        if (filter != null) {
+            sessionFilters.put(session.getId(), filter);
+        } else {
+            sessionFilters.remove(session.getId());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "filter_applied");
+        response.put("filter", spec);
+        response.put("message", filter != null ? "Log filter applied" : "Log filter cleared");
+        sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+
+        LogTailHub.Subscription subscription = activeSessions.get(session.getId());
+        if (subscription == null || !subscription.getContainerId().equals(containerId)) {
+            return;
+        }
+        if (filter != null && (filter.toFilterPattern() != null || filter.getSince() != null || filter.getUntil() != null)) {
+            try {
+                List<String> lines = AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE, () -> {
+                    try {
+                        return logStreamingService.searchRecentLogs(containerId, filter, FILTER_BACKFILL_LINES);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                subscription.replay(lines);
+                return;
+            } catch (Exception e) {
+                log.warn("Could not backfill filtered logs for container {}: {}", containerId, e.getMessage());
+            }
+        }
+        subscription.replay();
+    }
+
+    private List<String> applyFilter(WebSocketSession session, List<String> lines) {
+        LogFilter filter = sessionFilters.get(session.getId());
+        if (filter == null) {
+            return lines;
+        }
+        return lines.stream().filter(filter::matches).toList();
     }
     
     private void sendError(WebSocketSession session, String errorMessage) throws Exception {
@@ -194,7 +257,18 @@ public class LogStreamHandler extends TextWebSocketHandler {
             "message", errorMessage,
             "timestamp", System.currentTimeMillis()
         );
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(error)));
+        if (session.isOpen()) {
+            sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(error)));
+        }
+    }
+
+    /**
+     * Thread-safe wrapper used for every send, since tail threads and the request thread can
+     * write to the same session; a slow client is dropped instead of stalling the tailer
+     */
+    private WebSocketSession sessionFor(WebSocketSession session) {
+        return decoratedSessions.computeIfAbsent(session.getId(),
+            id -> new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,339 @@
+package dev.somdip.containerplatform.websocket;
+
+import dev.somdip.containerplatform.service.logs.LogSource;
+import dev.somdip.containerplatform.service.logs.RecentLogCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares log tailing between websocket viewers.
+ *
+ * Each container with at least one viewer has a single tail open on the {@link LogSource}, and
+ * keeps the most recent lines in a bounded buffer. New lines are handed to every viewer; a viewer that joins a
+ * running tailer first gets the buffer as a snapshot. The tailer stops, and its buffer is
+ * dropped, when the last viewer leaves.
+ *
+ * Deliveries are queued per viewer under the tailer lock and handed to the listener after the
+ * lock is released, one at a time and in order, so a slow viewer holds up neither the other
+ * viewers of the container nor subscribes and unsubscribes. While a tailer runs its lines are also kept in the
+ * {@link RecentLogCache}, so page loads and searches can skip CloudWatch.
+ */
+@Slf4j
+@Component
+public class LogTailHub {
+
+    private final LogSource logSource;
+    private final RecentLogCache recentLogCache;
+    private final Map<String, Tailer> tailers = new ConcurrentHashMap<>();
+    private final Counter deliveryCounter;
+    private final int bufferLines;
+
+    public LogTailHub(LogSource logSource,
+                      RecentLogCache recentLogCache,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.logs.tail.buffer-lines:200}") int bufferLines) {
+        this.logSource = logSource;
+        this.recentLogCache = recentLogCache;
+        this.bufferLines = bufferLines;
+        this.deliveryCounter = Counter.builder("websocket.logs.deliveries").register(meterRegistry);
+        Gauge.builder("websocket.logs.tailers", tailers, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Receives a container's log lines
+     */
+    public interface Listener {
+        /**
+         * @param snapshot true for the first delivery (the recent lines buffer), false for
+         *                 lines written after the previous delivery
+         */
+        void onLines(String containerId, List<String> lines, boolean snapshot) throws Exception;
+
+        default void onError(String containerId, String message) throws Exception {
+        }
+    }
+
+    /**
+     * Handle returned by {@link #subscribe}; closing it stops delivery
+     */
+    public interface Subscription extends AutoCloseable {
+        String getContainerId();
+
+        /**
+         * Deliver the recent lines buffer again, as a snapshot, e.g. after the viewer changed
+         * how it presents lines. Does nothing until the tailer has read its first lines.
+         */
+        void replay();
+
+        /**
+         * Deliver the given lines as a snapshot, in order with the appends around it, e.g.
+         * lines read from elsewhere for a new filter. Buffered lines that follow the last of
+         * them, which the viewer may already have received as appends, are added after them.
+         */
+        void replay(List<String> lines);
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Follow a container's logs. Starts a tailer if the container has none; otherwise the
+     * snapshot of its recent lines is delivered right away.
+     */
+    public Subscription subscribe(String containerId, Listener listener) {
+        Subscriber subscriber = new Subscriber(listener);
+        Tailer tailer;
+        synchronized (this) {
+            tailer = tailers.computeIfAbsent(containerId, Tailer::new);
+            tailer.join(subscriber);
+            log.debug("Viewer joined logs of container {} ({} viewers)", containerId, tailer.subscribers.size());
+        }
+        tailer.drain(subscriber);
+        return new Subscription() {
+            @Override
+            public String getContainerId() {
+                return containerId;
+            }
+
+            @Override
+            public void replay() {
+                tailer.replay(subscriber);
+                tailer.drain(subscriber);
+            }
+
+            @Override
+            public void replay(List<String> lines) {
+                tailer.replay(subscriber, lines);
+                tailer.drain(subscriber);
+            }
+
+            @Override
+            public void close() {
+                unsubscribe(tailer, subscriber);
+            }
+        };
+    }
+
+    private synchronized void unsubscribe(Tailer tailer, Subscriber subscriber) {
+        if (!tailer.leave(subscriber)) {
+            return;
+        }
+        if (tailer.isIdle()) {
+            tailer.close();
+            tailers.remove(tailer.containerId, tailer);
+            log.debug("Stopped log tail for container {}", tailer.containerId);
+        }
+    }
+
+    private final class Tailer implements LogSource.Sink {
+        private final String containerId;
+        private final Deque<String> recentLines = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private LogSource.Tail tail;
+        private boolean received;
+
+        private Tailer(String containerId) {
+            this.containerId = containerId;
+        }
+
+        /**
+         * Add the viewer and queue its snapshot if the tailer already has lines; the caller drains it
+         */
+        private void join(Subscriber subscriber) {
+            boolean start;
+            synchronized (this) {
+                subscribers.add(subscriber);
+                start = tail == null;
+                if (!start && received) {
+                    // Late joiner: catch up from the buffer; new lines follow as they arrive
+                    offer(subscriber, new ArrayList<>(recentLines), true);
+                }
+            }
+            if (start) {
+                recentLogCache.open(containerId, bufferLines);
+                // Outside the lock: a source may deliver the initial lines before open() returns
+                LogSource.Tail opened = logSource.open(containerId, bufferLines, this);
+                synchronized (this) {
+                    tail = opened;
+                }
+            }
+        }
+
+        private synchronized void replay(Subscriber subscriber) {
+            if (received && subscribers.contains(subscriber)) {
+                offer(subscriber, new ArrayList<>(recentLines), true);
+            }
+        }
+
+        private synchronized void replay(Subscriber subscriber, List<String> lines) {
+            if (!subscribers.contains(subscriber)) {
+                return;
+            }
+            List<String> snapshot = new ArrayList<>(lines);
+            if (!lines.isEmpty()) {
+                List<String> recent = new ArrayList<>(recentLines);
+                int last = recent.lastIndexOf(lines.get(lines.size() - 1));
+                if (last >= 0) {
+                    snapshot.addAll(recent.subList(last + 1, recent.size()));
+                }
+            }
+            offer(subscriber, snapshot, true);
+        }
+
+        private synchronized boolean leave(Subscriber subscriber) {
+            subscriber.close();
+            return subscribers.remove(subscriber);
+        }
+
+        private synchronized boolean isIdle() {
+            return subscribers.isEmpty();
+        }
+
+        private void close() {
+            LogSource.Tail opened;
+            synchronized (this) {
+                opened = tail;
+            }
+            if (opened != null) {
+                opened.close();
+            }
+            recentLogCache.close(containerId);
+        }
+
+        /**
+         * Buffer new lines and queue them for every viewer. Queueing happens under the tailer
+         * lock so a viewer never sees lines out of order, or twice across its snapshot and the
+         * next append; the queues are drained after the lock is released.
+         */
+        @Override
+        public void onLines(List<String> lines) {
+            List<String> appended = List.copyOf(lines);
+            List<Subscriber> receivers;
+            synchronized (this) {
+                recentLogCache.append(containerId, appended);
+                for (String line : appended) {
+                    if (recentLines.size() >= bufferLines) {
+                        recentLines.removeFirst();
+                    }
+                    recentLines.addLast(line);
+                }
+                received = true;
+                receivers = new ArrayList<>(subscribers.size());
+                for (Subscriber subscriber : subscribers) {
+                    if (!subscriber.snapshotSent) {
+                        offer(subscriber, new ArrayList<>(recentLines), true);
+                    } else if (!appended.isEmpty()) {
+                        offer(subscriber, appended, false);
+                    } else {
+                        continue;
+                    }
+                    receivers.add(subscriber);
+                }
+            }
+            receivers.forEach(this::drain);
+        }
+
+        @Override
+        public void onError(String message) {
+            List<Subscriber> receivers;
+            synchronized (this) {
+                receivers = new ArrayList<>(subscribers);
+            }
+            for (Subscriber subscriber : receivers) {
+                try {
+                    subscriber.listener.onError(containerId, message);
+                } catch (Exception e) {
+                    log.debug("Could not report log error to viewer of container {}: {}", containerId, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Queue a delivery; caller holds the tailer lock
+         */
+        private void offer(Subscriber subscriber, List<String> lines, boolean snapshot) {
+            subscriber.snapshotSent = true;
+            subscriber.enqueue(new Delivery(lines, snapshot));
+        }
+
+        /**
+         * Hand the viewer its queued deliveries, unless another thread already is
+         */
+        private void drain(Subscriber subscriber) {
+            if (!subscriber.claim()) {
+                return;
+            }
+            Delivery delivery;
+            while ((delivery = subscriber.next()) != null) {
+                try {
+                    subscriber.listener.onLines(containerId, delivery.lines(), delivery.snapshot());
+                    deliveryCounter.increment();
+                } catch (Exception e) {
+                    log.warn("Log viewer of container {} failed: {}", containerId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private record Delivery(List<String> lines, boolean snapshot) {
+    }
+
+    private static final class Subscriber {
+        private final Listener listener;
+        // Guarded by the tailer lock
+        private boolean snapshotSent;
+        // Guarded by this subscriber
+        private final Deque<Delivery> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(Listener listener) {
+            this.listener = listener;
+        }
+
+        private synchronized void enqueue(Delivery delivery) {
+            if (!closed) {
+                pending.addLast(delivery);
+            }
+        }
+
+        /**
+         * Claim the queue for the calling thread; false if another thread is draining it and
+         * will pick up whatever was queued before this call
+         */
+        private synchronized boolean claim() {
+            if (draining) {
+                return false;
+            }
+            draining = true;
+            return true;
+        }
+
+        /**
+         * The next delivery for the draining thread; releases the claim once the queue is empty
+         */
+        private synchronized Delivery next() {
+            Delivery delivery = closed ? null : pending.pollFirst();
+            if (delivery == null) {
+                draining = false;
+            }
+            return delivery;
+        }
+
+        private synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package dev.somdip.containerplatform.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-session encoder for the metrics push protocol.
+ *
+ * The first update of each topic (and every update after {@link #resync()}) is a full
+ * snapshot; later updates carry only the fields that changed, keyed by their dotted path
+ * (e.g. {@code <containerId>.cpuUsage}), plus the paths that disappeared. Updates in which
+ * nothing changed are not sent at all. Every message carries a per-session sequence number
+ * so clients can detect a gap and ask for a resync. Numbers are compared and sent as
+ * fixed-point values with two decimals, and {@code timestamp} fields never count as a change.
+ *
+ * JSON format:
+ * <pre>
+ * {"type":"metrics_update","mode":"full","topic":..,"seq":n,"data":{..}}
+ * {"type":"metrics_update","mode":"delta","topic":..,"seq":n,"changed":{path:value},"removed":[path]}
+ * </pre>
+ *
+ * Binary format (native websocket only): paths and topics are replaced by varint ids, announced
+ * in a {@code metrics_fields} text message before first use. A frame is
+ * {@code [version=1][mode: 0 full, 1 delta][seq varint][topic id varint][entry count varint]}
+ * followed by entries of {@code [field id varint][type]} and a value: type 0 is a zigzag varint
+ * of the value times 100, 1 a varint length and UTF-8 string, 2 a removed field, 3 a boolean
+ * byte and 4 a null.
+ */
+class MetricsDeltaEncoder {
+
+    private static final byte VERSION = 1;
+    private static final int SCALE = 2;
+
+    private static final int TYPE_NUMBER = 0;
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_REMOVED = 2;
+    private static final int TYPE_BOOLEAN = 3;
+    private static final int TYPE_NULL = 4;
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+    private final Map<String, Map<String, JsonNode>> lastSent = new HashMap<>();
+    private final Map<String, Integer> fieldIds = new HashMap<>();
+    private long sequence;
+    private boolean resyncRequested;
+
+    MetricsDeltaEncoder(ObjectMapper objectMapper, boolean binary) {
+        this.objectMapper = objectMapper;
+        this.binary = binary;
+    }
+
+    /**
+     * Send full snapshots (and, for binary frames, fresh field ids) for every topic on their next update
+     */
+    synchronized void resync() {
+        resyncRequested = true;
+        lastSent.clear();
+        fieldIds.clear();
+    }
+
+    /**
+     * Messages to send for a topic update, in order; empty if nothing changed
+     */
+    synchronized List<WebSocketMessage<?>> encode(String subscriptionType, String topic, Map<String, Object> data) throws Exception {
+        Map<String, JsonNode> current = new LinkedHashMap<>();
+        flatten("", objectMapper.valueToTree(data), current);
+
+        Map<String, JsonNode> previous = lastSent.get(topic);
+        boolean full = previous == null || resyncRequested;
+        resyncRequested = false;
+
+        Map<String, JsonNode> changed = new LinkedHashMap<>();
+        List<String> removed = new ArrayList<>();
+        if (!full) {
+            current.forEach((path, value) -> {
+                if (!isTimestamp(path) && !Objects.equals(previous.get(path), value)) {
+                    changed.put(path, value);
+                }
+            });
+            for (String path : previous.keySet()) {
+                if (!current.containsKey(path)) {
+                    removed.add(path);
+                }
+            }
+            if (changed.isEmpty() && removed.isEmpty()) {
+                return List.of();
+            }
+        }
+        lastSent.put(topic, current);
+        long seq = ++sequence;
+
+        if (binary) {
+            return encodeBinary(topic, seq, full, full ? current : changed, removed);
+        }
+
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("type", "metrics_update");
+        message.put("mode", full ? "full" : "delta");
+        message.put("subscriptionType", subscriptionType);
+        message.put("topic", topic);
+        message.put("seq", seq);
+        if (full) {
+            message.set("data", roundNumbers(objectMapper.valueToTree(data)));
+        } else {
+            ObjectNode changedNode = message.putObject("changed");
+            changed.forEach(changedNode::set);
+            ArrayNode removedNode = message.putArray("removed");
+            removed.forEach(removedNode::add);
+        }
+        message.put("timestamp", System.currentTimeMillis());
+        return List.of(new TextMessage(objectMapper.writeValueAsString(message)));
+    }
+
+    private List<WebSocketMessage<?>> encodeBinary(String topic, long seq, boolean full,
+                                                   Map<String, JsonNode> entries, List<String> removed) throws Exception {
+        Map<Integer, String> newFields = new LinkedHashMap<>();
+        int topicId = fieldId("topic:" + topic, newFields);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(VERSION);
+        out.write(full ? 0 : 1);
+        writeVarint(out, seq);
+        writeVarint(out, topicId);
+        writeVarint(out, entries.size() + removed.size());
+        for (Map.Entry<String, JsonNode> entry : entries.entrySet()) {
+            writeVarint(out, fieldId(entry.getKey(), newFields));
+            writeValue(out, entry.getValue());
+        }
+        for (String path : removed) {
+            writeVarint(out, fieldId(path, newFields));
+            out.write(TYPE_REMOVED);
+        }
+
+        List<WebSocketMessage<?>> messages = new ArrayList<>(2);
+        if (!newFields.isEmpty()) {
+            ObjectNode fields = objectMapper.createObjectNode();
+            fields.put("type", "metrics_fields");
+            ObjectNode mapping = fields.putObject("fields");
+            newFields.forEach((id, path) -> mapping.put(String.valueOf(id), path));
+            messages.add(new TextMessage(objectMapper.writeValueAsString(fields)));
+        }
+        messages.add(new BinaryMessage(out.toByteArray()));
+        return messages;
+    }
+
+    private int fieldId(String path, Map<Integer, String> newFields) {
+        Integer id = fieldIds.get(path);
+        if (id == null) {
+            id = fieldIds.size();
+            fieldIds.put(path, id);
+            newFields.put(id, path);
+        }
+        return id;
+    }
+
+    private void flatten(String prefix, JsonNode node, Map<String, JsonNode> into) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                flatten(prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey(), field.getValue(), into);
+            }
+        } else if (node.isNumber()) {
+            into.put(prefix, objectMapper.getNodeFactory().numberNode(round(node)));
+        } else if (node.isArray()) {
+            // Arrays are compared and sent as one value, as their JSON text
+            into.put(prefix, objectMapper.getNodeFactory().textNode(node.toString()));
+        } else {
+            into.put(prefix, node);
+        }
+    }
+
+    private JsonNode roundNumbers(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            object.fields().forEachRemaining(field -> object.set(field.getKey(), roundNumbers(field.getValue())));
+        } else if (node.isNumber()) {
+            return objectMapper.getNodeFactory().numberNode(round(node));
+        }
+        return node;
+    }
+
+    private static BigDecimal round(JsonNode number) {
+        return number.decimalValue().setScale(SCALE, RoundingMode.HALF_UP).stripTrailingZeros();
+    }
+
+    private static boolean isTimestamp(String path) {
+        return path.equals("timestamp") || path.endsWith(".timestamp");
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, JsonNode value) {
+        if (value == null || value.isNull()) {
+            out.write(TYPE_NULL);
+        } else if (value.isNumber()) {
+            out.write(TYPE_NUMBER);
+            long fixed = value.decimalValue().movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValue();
+            writeVarint(out, (fixed << 1) ^ (fixed >> 63));
+        } else if (value.isBoolean()) {
+            out.write(TYPE_BOOLEAN);
+            out.write(value.booleanValue() ? 1 : 0);
+        } else {
+            out.write(TYPE_STRING);
+            byte[] text = value.asText().getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, text.length);
+            out.write(text, 0, text.length);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,210 @@
+package dev.somdip.containerplatform.websocket;
+
+import dev.somdip.containerplatform.config.AwsCallGovernor;
+import dev.somdip.containerplatform.service.MetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares metrics polling between websocket subscribers.
+ *
+ * Subscribers register for a topic: one container ({@code container:<id>}), a user's
+ * dashboard summary ({@code dashboard:<user>}) or all of a user's containers
+ * ({@code all:<user>}). Each topic is fetched once per tick at the fastest interval any of its
+ * subscribers asked for, and the result is handed to every subscriber that is due. The
+ * topic's task is cancelled when its last subscriber leaves.
+ *
+ * Every topic is watched by a connected user, so fetches run in the interactive
+ * {@link AwsCallGovernor} lane; the websocket threads that subscribe carry no request context
+ * to take it from.
+ */
+@Slf4j
+@Component
+public class MetricsFanoutHub {
+
+    public static final String CONTAINER = "container";
+    public static final String DASHBOARD = "dashboard";
+    public static final String ALL = "all";
+
+    private final MetricsService metricsService;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final Counter fetchCounter;
+    private final Counter deliveryCounter;
+    private final int minIntervalSeconds;
+
+    public MetricsFanoutHub(MetricsService metricsService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.websocket.metrics.threads:4}") int threads,
+                            @Value("${app.websocket.metrics.min-interval-seconds:2}") int minIntervalSeconds) {
+        this.metricsService = metricsService;
+        this.minIntervalSeconds = minIntervalSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "metrics-fanout-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.fetchCounter = Counter.builder("websocket.metrics.fetches").register(meterRegistry);
+        this.deliveryCounter = Counter.builder("websocket.metrics.deliveries").register(meterRegistry);
+        Gauge.builder("websocket.metrics.topics", topics, Map::size).register(meterRegistry);
+    }
+
+    public static String topic(String type, String key) {
+        return type + ":" + key;
+    }
+
+    /**
+     * Receives the data of each tick of a topic
+     */
+    public interface Listener {
+        void onMetrics(String topic, Map<String, Object> data);
+    }
+
+    /**
+     * Handle returned by {@link #subscribe}; closing it stops delivery
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Subscribe to a topic, delivering roughly every {@code intervalSeconds}. A new topic is
+     * fetched right away; joining an existing one delivers its latest data immediately.
+     */
+    public synchronized Subscription subscribe(String topic, int intervalSeconds, Listener listener) {
+        Topic state = topics.computeIfAbsent(topic, Topic::new);
+        Subscriber subscriber = new Subscriber(listener, Math.max(minIntervalSeconds, intervalSeconds) * 1000L);
+        state.subscribers.add(subscriber);
+        state.reschedule();
+        Map<String, Object> latest = state.latest;
+        if (latest != null) {
+            scheduler.execute(() -> state.deliver(subscriber, latest, System.currentTimeMillis()));
+        }
+        log.debug("Subscribed to metrics topic {} ({} subscribers)", topic, state.subscribers.size());
+        return () -> unsubscribe(state, subscriber);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized void unsubscribe(Topic state, Subscriber subscriber) {
+        if (!state.subscribers.remove(subscriber)) {
+            return;
+        }
+        if (state.subscribers.isEmpty()) {
+            state.cancel();
+            topics.remove(state.name, state);
+            log.debug("Stopped metrics topic {}", state.name);
+        } else {
+            state.reschedule();
+        }
+    }
+
+    private Map<String, Object> fetch(String topic) {
+        int separator = topic.indexOf(':');
+        String type = topic.substring(0, separator);
+        String key = topic.substring(separator + 1);
+        return switch (type) {
+            case CONTAINER -> metricsService.getContainerMetrics(List.of(key));
+            case DASHBOARD -> metricsService.getDashboardMetrics(key);
+            case ALL -> metricsService.getAllUserMetrics(key);
+            default -> throw new IllegalArgumentException("Unknown metrics topic " + topic);
+        };
+    }
+
+    private final class Topic {
+        private final String name;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private ScheduledFuture<?> task;
+        private long intervalMillis;
+        private volatile Map<String, Object> latest;
+
+        private Topic(String name) {
+            this.name = name;
+        }
+
+        /**
+         * (Re)start the tick at the fastest interval among the subscribers; caller holds the hub lock
+         */
+        private void reschedule() {
+            long fastest = subscribers.stream().mapToLong(s -> s.intervalMillis).min().orElse(0);
+            if (task != null && fastest == intervalMillis) {
+                return;
+            }
+            long initialDelay = task == null ? 0 : fastest;
+            cancel();
+            intervalMillis = fastest;
+            task = scheduler.scheduleAtFixedRate(this::tick, initialDelay, fastest, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            if (task != null) {
+                task.cancel(false);
+                task = null;
+            }
+        }
+
+        private void tick() {
+            Map<String, Object> data;
+            try {
+                fetchCounter.increment();
+                data = AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE, () -> fetch(name));
+            } catch (Exception e) {
+                log.error("Error fetching metrics for topic {}", name, e);
+                return;
+            }
+            if (data == null) {
+                return;
+            }
+            latest = data;
+
+            long now = System.currentTimeMillis();
+            for (Subscriber subscriber : subscribers) {
+                // Allow some jitter so subscribers at the topic's own interval never skip a tick
+                if (now - subscriber.lastDelivered >= subscriber.intervalMillis - intervalMillis / 2) {
+                    deliver(subscriber, data, now);
+                }
+            }
+        }
+
+        private void deliver(Subscriber subscriber, Map<String, Object> data, long now) {
+            subscriber.lastDelivered = now;
+            try {
+                subscriber.listener.onMetrics(name, data);
+                deliveryCounter.increment();
+            } catch (Exception e) {
+                log.warn("Metrics subscriber for topic {} failed: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Subscriber {
+        private final Listener listener;
+        private final long intervalMillis;
+        private volatile long lastDelivered;
+
+        private Subscriber(Listener listener, long intervalMillis) {
+            this.listener = listener;
+            this.intervalMillis = intervalMillis;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.somdip.containerplatform.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.somdip.containerplatform.config.AwsCallGovernor;
 import dev.somdip.containerplatform.dto.ContainerMetrics;
 import dev.somdip.containerplatform.service.ContainerService;
 import dev.somdip.containerplatform.service.MetricsService;
@@ -9,17 +10,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -27,13 +28,18 @@ import java.util.concurrent.TimeUnit;
 public class MetricsHandler extends TextWebSocketHandler {
     
 
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 512 * 1024;
+
     private final MetricsService metricsService;
     private final ContainerService containerService;
+    private final MetricsFanoutHub fanoutHub;
     private final ObjectMapper objectMapper;
     
-    // Store active sessions and their metrics streaming tasks
-    private final Map<String, ScheduledFuture<?>> activeSessions = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    // Store active sessions and their hub subscriptions
+    private final Map<String, List<MetricsFanoutHub.Subscription>> activeSessions = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> decoratedSessions = new ConcurrentHashMap<>();
+    private final Map<String, MetricsDeltaEncoder> encoders = new ConcurrentHashMap<>();
     
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
@@ -45,7 +51,7 @@ public class MetricsHandler extends TextWebSocketHandler {
             "status", "connected",
             "message", "Metrics streaming connection established"
         );
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+        sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
     }
     
     @Override
@@ -69,6 +75,13 @@ public class MetricsHandler extends TextWebSocketHandler {
                 case "unsubscribe":
                     unsubscribeFromMetrics(session);
                     break;
+                case "resync":
+                    // Client saw a gap in the sequence numbers; resend full snapshots
+                    MetricsDeltaEncoder encoder = encoders.get(session.getId());
+                    if (encoder != null) {
+                        encoder.resync();
+                    }
+                    break;
                 case "get_snapshot":
                     sendMetricsSnapshot(session, request, principal.getName());
                     break;
@@ -86,12 +99,14 @@ public class MetricsHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         log.info("Metrics WebSocket connection closed: {} - {}", session.getId(), status);
         unsubscribeFromMetrics(session);
+        decoratedSessions.remove(session.getId());
     }
     
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("Metrics WebSocket transport error for session: {}", session.getId(), exception);
         unsubscribeFromMetrics(session);
+        decoratedSessions.remove(session.getId());
     }
     
     private void subscribeToMetrics(WebSocketSession session, Map<String, Object> request, String username) {
@@ -101,6 +116,8 @@ public class MetricsHandler extends TextWebSocketHandler {
         String subscriptionType = (String) request.get("type");
         List<String> containerIds = (List<String>) request.get("containerIds");
         int interval = request.containsKey("interval") ? (int) request.get("interval") : 5; // Default 5 seconds
+        // Binary frames need a native websocket; SockJS transports only carry text
+        boolean binary = "binary".equals(request.get("format")) && !(session instanceof SockJsSession);
         
         // Validate container ownership
         if (containerIds != null && !containerIds.isEmpty()) {
@@ -116,78 +133,77 @@ public class MetricsHandler extends TextWebSocketHandler {
             }
         }
         
-        // Start metrics streaming task
-        ScheduledFuture<?> streamingTask = scheduler.scheduleAtFixedRate(() -> {
+        // Resolve the shared hub topics this subscription listens to
+        List<String> topics = new ArrayList<>();
+        if (MetricsFanoutHub.CONTAINER.equals(subscriptionType)) {
+            if (containerIds != null) {
+                containerIds.forEach(id -> topics.add(MetricsFanoutHub.topic(MetricsFanoutHub.CONTAINER, id)));
+            }
+        } else if (MetricsFanoutHub.DASHBOARD.equals(subscriptionType) || MetricsFanoutHub.ALL.equals(subscriptionType)) {
+            topics.add(MetricsFanoutHub.topic(subscriptionType, username));
+        } else {
             try {
-                Map<String, Object> metrics = null;
-                
-                switch (subscriptionType) {
-                    case "container":
-                        // Stream metrics for specific containers
-                        if (containerIds != null && !containerIds.isEmpty()) {
-                            metrics = metricsService.getContainerMetrics(containerIds);
-                        }
-                        break;
-                    case "dashboard":
-                        // Stream overall dashboard metrics
-                        metrics = metricsService.getDashboardMetrics(username);
-                        break;
-                    case "all":
-                        // Stream all user container metrics
-                        metrics = metricsService.getAllUserMetrics(username);
-                        break;
-                }
-                
-                if (metrics != null) {
-                    Map<String, Object> metricsMessage = Map.of(
-                        "type", "metrics_update",
-                        "subscriptionType", subscriptionType,
-                        "data", metrics,
-                        "timestamp", System.currentTimeMillis()
-                    );
-                    
-                    synchronized (session) {
-                        if (session.isOpen()) {
-                            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(metricsMessage)));
-                        }
-                    }
-                }
+                sendError(session, "Unknown subscription type: " + subscriptionType);
             } catch (Exception e) {
-                log.error("Error streaming metrics", e);
-                try {
-                    sendError(session, "Error streaming metrics: " + e.getMessage());
-                } catch (Exception ex) {
-                    log.error("Error sending error message", ex);
-                }
+                log.error("Error sending error message", e);
             }
-        }, 0, interval, TimeUnit.SECONDS);
-        
-        activeSessions.put(session.getId(), streamingTask);
+            return;
+        }
         
+        // Announce the subscription before the hub can push the first snapshot
+        WebSocketSession target = sessionFor(session);
         try {
             Map<String, Object> response = Map.of(
                 "type", "subscription_started",
                 "subscriptionType", subscriptionType,
                 "interval", interval,
+                "format", binary ? "binary" : "json",
                 "message", "Metrics subscription started"
             );
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+            target.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
         } catch (Exception e) {
             log.error("Error sending subscription started message", e);
         }
+        
+        // Container topics each carry one container's entry; the client merges them by id.
+        // After the first snapshot of a topic only changed fields are sent (see MetricsDeltaEncoder).
+        MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, binary);
+        encoders.put(session.getId(), encoder);
+        List<MetricsFanoutHub.Subscription> subscriptions = new ArrayList<>(topics.size());
+        for (String topic : topics) {
+            subscriptions.add(fanoutHub.subscribe(topic, interval, (t, metrics) -> {
+                try {
+                    // Topics are pushed from several hub threads; encode and send under the
+                    // encoder's lock so frames leave in sequence order and field announcements
+                    // precede the binary frames that use them. The decorated session only
+                    // buffers, so a slow client does not hold the lock.
+                    synchronized (encoder) {
+                        for (WebSocketMessage<?> message : encoder.encode(subscriptionType, t, metrics)) {
+                            if (target.isOpen()) {
+                                target.sendMessage(message);
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    log.error("Error streaming metrics to session {}", session.getId(), e);
+                }
+            }));
+        }
+        activeSessions.put(session.getId(), subscriptions);
     }
     
     private void unsubscribeFromMetrics(WebSocketSession session) {
-        ScheduledFuture<?> task = activeSessions.remove(session.getId());
-        if (task != null) {
-            task.cancel(false);
+        List<MetricsFanoutHub.Subscription> subscriptions = activeSessions.remove(session.getId());
+        encoders.remove(session.getId());
+        if (subscriptions != null) {
+            subscriptions.forEach(MetricsFanoutHub.Subscription::close);
             try {
                 Map<String, Object> response = Map.of(
                     "type", "subscription_stopped",
                     "message", "Metrics subscription stopped"
                 );
                 if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+                    sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
                 }
             } catch (Exception e) {
                 log.error("Error sending subscription stopped message", e);
@@ -195,6 +211,15 @@ public class MetricsHandler extends TextWebSocketHandler {
         }
     }
     
+    /**
+     * Thread-safe wrapper used for every send, since hub threads and the request thread can
+     * write to the same session; a slow client is dropped instead of stalling the hub
+     */
+    private WebSocketSession sessionFor(WebSocketSession session) {
+        return decoratedSessions.computeIfAbsent(session.getId(),
+            id -> new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES));
+    }
+    
     private void sendMetricsSnapshot(WebSocketSession session, Map<String, Object> request, String username) {
         try {
             List<String> containerIds = (List<String>) request.get("containerIds");
@@ -209,10 +234,11 @@ public class MetricsHandler extends TextWebSocketHandler {
                 }
             }
             
-            // Get current metrics snapshot
-            Map<String, Object> metrics = metricsService.getContainerMetrics(
-                containerIds != null ? containerIds : List.of()
-            );
+            // Get current metrics snapshot; websocket messages have no HTTP request context,
+            // so the user's request is put in the interactive lane explicitly
+            List<String> requested = containerIds != null ? containerIds : List.of();
+            Map<String, Object> metrics = AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE,
+                () -> metricsService.getContainerMetrics(requested));
             
             Map<String, Object> response = Map.of(
                 "type", "metrics_snapshot",
@@ -220,7 +246,7 @@ public class MetricsHandler extends TextWebSocketHandler {
                 "timestamp", System.currentTimeMillis()
             );
             
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+            sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
             
         } catch (Exception e) {
             log.error("Error sending metrics snapshot", e);
@@ -238,7 +264,7 @@ public class MetricsHandler extends TextWebSocketHandler {
             "message", errorMessage,
             "timestamp", System.currentTimeMillis()
         );
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(error)));
+        sessionFor(session).sendMessage(new TextMessage(objectMapper.writeValueAsString(error)));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package dev.somdip.containerplatform.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AwsCallGovernorTest {
+
+	private final MockEnvironment environment = new MockEnvironment()
+		.withProperty("app.aws.governor.interactive-reserve", "0.5")
+		.withProperty("app.aws.governor.interactive-max-wait-ms", "0")
+		.withProperty("app.aws.governor.background-max-wait-ms", "0");
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void bucketAllowsItsBurstThenRefillsAtTheRate() throws Exception {
+		environment.withProperty("app.aws.governor.interactive-reserve", "0")
+			.withProperty("app.aws.governor.ecs.rate", "10")
+			.withProperty("app.aws.governor.ecs.burst", "2");
+		AwsCallGovernor governor = governor();
+
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.BACKGROUND, () -> {
+			call(governor, "ECS");
+			call(governor, "ECS");
+			assertThrows(SdkClientException.class, () -> call(governor, "ECS"));
+		});
+		assertEquals(1, meterRegistry.counter("aws.governor.rejected", "service", "ecs").count());
+
+		Thread.sleep(150);
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.BACKGROUND, () -> call(governor, "ECS"));
+	}
+
+	@Test
+	void servicesWithoutARateAreNotGoverned() {
+		AwsCallGovernor governor = governor();
+
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.BACKGROUND, () -> {
+			for (int i = 0; i < 100; i++) {
+				call(governor, "ECS");
+			}
+		});
+		assertNull(meterRegistry.find("aws.governor.rate").gauge());
+	}
+
+	@Test
+	void backgroundCallsLeaveTheInteractiveReserve() {
+		environment.withProperty("app.aws.governor.ecs.rate", "0.01")
+			.withProperty("app.aws.governor.ecs.burst", "4");
+		AwsCallGovernor governor = governor();
+
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.BACKGROUND, () -> {
+			call(governor, "ECS");
+			call(governor, "ECS");
+			assertThrows(SdkClientException.class, () -> call(governor, "ECS"));
+		});
+
+		long start = System.nanoTime();
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE, () -> {
+			call(governor, "ECS");
+			call(governor, "ECS");
+		});
+		assertTrue(System.nanoTime() - start < 500_000_000L);
+		assertEquals(2, meterRegistry.timer("aws.governor.wait", "service", "ecs", "lane", "interactive").count());
+	}
+
+	@Test
+	void interactiveCallsGoAheadOnceTheirWaitRunsOut() {
+		environment.withProperty("app.aws.governor.ecs.rate", "0.01")
+			.withProperty("app.aws.governor.ecs.burst", "1");
+		AwsCallGovernor governor = governor();
+
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE, () -> {
+			call(governor, "ECS");
+			call(governor, "ECS");
+		});
+		assertEquals(0, meterRegistry.counter("aws.governor.rejected", "service", "ecs").count());
+	}
+
+	@Test
+	void throttlingHalvesTheRateOncePerSecondAndSuccessesRestoreIt() throws Exception {
+		environment.withProperty("app.aws.governor.increase-per-second", "0.2")
+			.withProperty("app.aws.governor.ecs.rate", "10")
+			.withProperty("app.aws.governor.ecs.burst", "100");
+		AwsCallGovernor governor = governor();
+
+		// A throttle empties the bucket, so the callbacks reuse the one call that was let through
+		ExecutionAttributes attributes = call(governor, "ECS");
+		governor.onExecutionFailure(throttled(), attributes);
+		assertEquals(5, rate("ecs"), 1e-9);
+
+		// The same burst of throttles only counts once
+		governor.onExecutionFailure(throttled(), attributes);
+		assertEquals(5, rate("ecs"), 1e-9);
+		assertEquals(2, meterRegistry.counter("aws.governor.throttles", "service", "ecs").count());
+
+		// Successes within a second of the decrease do not add anything yet
+		governor.afterExecution(null, attributes);
+		assertEquals(5, rate("ecs"), 1e-9);
+
+		Thread.sleep(1100);
+		governor.afterExecution(null, attributes);
+		double recovered = rate("ecs");
+		assertTrue(recovered >= 7 && recovered <= 10, "rate " + recovered);
+
+		Thread.sleep(1100);
+		governor.onExecutionFailure(throttled(), attributes);
+		assertEquals(recovered / 2, rate("ecs"), 1e-9);
+	}
+
+	@Test
+	void rateNeverDropsBelowATenthOfTheConfiguredRate() throws Exception {
+		environment.withProperty("app.aws.governor.decrease-factor", "0.01")
+			.withProperty("app.aws.governor.ecs.rate", "10")
+			.withProperty("app.aws.governor.ecs.burst", "100");
+		AwsCallGovernor governor = governor();
+
+		governor.onExecutionFailure(throttled(), call(governor, "ECS"));
+		assertEquals(1, rate("ecs"), 1e-9);
+	}
+
+	@Test
+	void dedicatedBudgetPacesItsCallsInsteadOfRejectingThem() {
+		environment.withProperty("app.aws.governor.cloudwatchlogs.rate", "1000")
+			.withProperty("app.aws.governor.cloudwatchlogs.export.rate", "20")
+			.withProperty("app.aws.governor.cloudwatchlogs.export.burst", "1");
+		AwsCallGovernor governor = governor();
+
+		long start = System.nanoTime();
+		AwsCallGovernor.withBudget("export", AwsCallGovernor.Lane.BACKGROUND, () -> {
+			for (int i = 0; i < 5; i++) {
+				call(governor, "CloudWatch Logs");
+			}
+			return null;
+		});
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		// One token up front, then 20 a second: four waits of about 50ms
+		assertTrue(elapsedMillis >= 150, "took " + elapsedMillis + "ms");
+		assertEquals(0, meterRegistry.counter("aws.governor.rejected", "service", "cloudwatchlogs.export").count());
+		assertEquals(5, meterRegistry.timer("aws.governor.wait", "service", "cloudwatchlogs.export", "lane", "background").count());
+		assertNull(meterRegistry.find("aws.governor.wait").tag("service", "cloudwatchlogs").timer());
+	}
+
+	@Test
+	void unconfiguredBudgetFallsBackToTheSharedBucket() {
+		environment.withProperty("app.aws.governor.cloudwatchlogs.rate", "1000");
+		AwsCallGovernor governor = governor();
+
+		AwsCallGovernor.withBudget("export", AwsCallGovernor.Lane.BACKGROUND, () -> call(governor, "CloudWatch Logs"));
+
+		assertEquals(1, meterRegistry.timer("aws.governor.wait", "service", "cloudwatchlogs", "lane", "background").count());
+	}
+
+	@Test
+	void laneIsRestoredAfterwards() {
+		assertEquals(AwsCallGovernor.Lane.BACKGROUND, AwsCallGovernor.currentLane());
+		AwsCallGovernor.withLane(AwsCallGovernor.Lane.INTERACTIVE, () -> {
+			assertEquals(AwsCallGovernor.Lane.INTERACTIVE, AwsCallGovernor.currentLane());
+			AwsCallGovernor.withLane(AwsCallGovernor.Lane.BACKGROUND,
+				() -> assertEquals(AwsCallGovernor.Lane.BACKGROUND, AwsCallGovernor.currentLane()));
+			assertEquals(AwsCallGovernor.Lane.INTERACTIVE, AwsCallGovernor.currentLane());
+		});
+		assertEquals(AwsCallGovernor.Lane.BACKGROUND, AwsCallGovernor.currentLane());
+	}
+
+	private AwsCallGovernor governor() {
+		return new AwsCallGovernor(environment, meterRegistry);
+	}
+
+	private static ExecutionAttributes call(AwsCallGovernor governor, String serviceId) {
+		ExecutionAttributes attributes = new ExecutionAttributes();
+		attributes.putAttribute(SdkExecutionAttribute.SERVICE_NAME, serviceId);
+		governor.beforeExecution(null, attributes);
+		return attributes;
+	}
+
+	private static Context.FailedExecution throttled() {
+		Context.FailedExecution context = mock(Context.FailedExecution.class);
+		when(context.exception()).thenReturn(SdkServiceException.builder().statusCode(429).build());
+		return context;
+	}
+
+	private double rate(String service) {
+		return meterRegistry.get("aws.governor.rate").tag("service", service).gauge().value();
+	}
+}
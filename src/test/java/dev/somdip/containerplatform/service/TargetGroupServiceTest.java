@@ -0,0 +1,186 @@
+package dev.somdip.containerplatform.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ecs.EcsClient;
+import software.amazon.awssdk.services.elasticloadbalancingv2.ElasticLoadBalancingV2Client;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.Action;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.ActionTypeEnum;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.CreateRuleRequest;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.CreateRuleResponse;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.DeleteRuleRequest;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.DescribeRulesRequest;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.DescribeRulesResponse;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.ForwardActionConfig;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.ModifyRuleRequest;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.PriorityInUseException;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.Rule;
+import software.amazon.awssdk.services.elasticloadbalancingv2.model.TargetGroupTuple;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TargetGroupServiceTest {
+
+	private static final String LISTENER = "arn:listener";
+	private static final String SHARED = "arn:tg/shared";
+	private static final String CONTAINER = "arn:tg/container";
+	private static final String OTHER = "arn:tg/other";
+
+	private final ElasticLoadBalancingV2Client elbClient = mock(ElasticLoadBalancingV2Client.class);
+	private final TargetGroupService service = new TargetGroupService(elbClient, mock(EcsClient.class), mock(Ec2Client.class));
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "listenerArn", LISTENER);
+		ReflectionTestUtils.setField(service, "rulePriorityStart", 1);
+		ReflectionTestUtils.setField(service, "sharedUsersTargetGroupArn", SHARED);
+		ReflectionTestUtils.setField(service, "defaultTargetGroupArn", "arn:tg/platform");
+		when(elbClient.createRule(any(CreateRuleRequest.class)))
+			.thenReturn(CreateRuleResponse.builder().rules(rule("arn:rule/new", "9", OTHER)).build());
+	}
+
+	@Test
+	void newRuleTakesTheLowestFreePriorityAndKeepsTrafficOnTheSharedGroup() {
+		rules(rule("arn:rule/1", "1", OTHER), rule("arn:rule/2", "2", OTHER), rule("arn:rule/4", "4", OTHER), defaultRule());
+
+		service.createHostRule(CONTAINER, SHARED, List.of("app.containers.example.com"));
+
+		CreateRuleRequest request = captureCreateRules().get(0);
+		assertEquals(3, request.priority());
+		assertEquals(List.of("app.containers.example.com"), request.conditions().get(0).hostHeaderConfig().values());
+		Map<String, Integer> weights = request.actions().get(0).forwardConfig().targetGroups().stream()
+			.collect(Collectors.toMap(TargetGroupTuple::targetGroupArn, TargetGroupTuple::weight));
+		assertEquals(Map.of(SHARED, 1, CONTAINER, 0), weights);
+	}
+
+	@Test
+	void retriesWithTheNextFreePriorityWhenAnotherNodeTookIt() {
+		when(elbClient.describeRules(any(DescribeRulesRequest.class)))
+			.thenReturn(DescribeRulesResponse.builder().rules(rule("arn:rule/1", "1", OTHER)).build())
+			.thenReturn(DescribeRulesResponse.builder().rules(rule("arn:rule/1", "1", OTHER), rule("arn:rule/2", "2", OTHER)).build());
+		when(elbClient.createRule(any(CreateRuleRequest.class)))
+			.thenThrow(PriorityInUseException.builder().message("taken").build())
+			.thenReturn(CreateRuleResponse.builder().rules(rule("arn:rule/new", "3", CONTAINER)).build());
+
+		service.createHostRule(CONTAINER, SHARED, List.of("app.containers.example.com"));
+
+		assertEquals(List.of(2, 3), captureCreateRules().stream().map(CreateRuleRequest::priority).toList());
+	}
+
+	@Test
+	void givesUpAfterRepeatedPriorityConflicts() {
+		rules(rule("arn:rule/1", "1", OTHER));
+		when(elbClient.createRule(any(CreateRuleRequest.class)))
+			.thenThrow(PriorityInUseException.builder().message("taken").build());
+
+		assertThrows(RuntimeException.class,
+			() -> service.createHostRule(CONTAINER, SHARED, List.of("app.containers.example.com")));
+		verify(elbClient, times(5)).createRule(any(CreateRuleRequest.class));
+	}
+
+	@Test
+	void existingWeightedRuleIsNotDuplicated() {
+		rules(weightedRule("arn:rule/1", "1"));
+
+		service.createHostRule(CONTAINER, SHARED, List.of("app.containers.example.com"));
+
+		verify(elbClient, never()).createRule(any(CreateRuleRequest.class));
+	}
+
+	@Test
+	void deletesDirectAndWeightedRulesForTheTargetGroup() {
+		when(elbClient.describeRules(any(DescribeRulesRequest.class)))
+			.thenReturn(DescribeRulesResponse.builder()
+				.rules(rule("arn:rule/direct", "1", CONTAINER), rule("arn:rule/unrelated", "2", OTHER))
+				.nextMarker("page-2")
+				.build())
+			.thenReturn(DescribeRulesResponse.builder()
+				.rules(weightedRule("arn:rule/weighted", "3"), defaultRule())
+				.build());
+
+		service.deleteHostRules(CONTAINER);
+
+		ArgumentCaptor<DeleteRuleRequest> deleted = ArgumentCaptor.forClass(DeleteRuleRequest.class);
+		verify(elbClient, times(2)).deleteRule(deleted.capture());
+		assertEquals(List.of("arn:rule/direct", "arn:rule/weighted"),
+			deleted.getAllValues().stream().map(DeleteRuleRequest::ruleArn).toList());
+	}
+
+	@Test
+	void activatingMovesWeightedRulesOnlyToTheTargetGroup() {
+		rules(weightedRule("arn:rule/weighted", "1"), rule("arn:rule/direct", "2", CONTAINER));
+
+		service.activateHostRule(CONTAINER);
+
+		ArgumentCaptor<ModifyRuleRequest> modified = ArgumentCaptor.forClass(ModifyRuleRequest.class);
+		verify(elbClient).modifyRule(modified.capture());
+		assertEquals("arn:rule/weighted", modified.getValue().ruleArn());
+		assertEquals(CONTAINER, modified.getValue().actions().get(0).targetGroupArn());
+	}
+
+	@Test
+	void activatingWithoutARuleFails() {
+		rules(rule("arn:rule/1", "1", OTHER));
+		assertThrows(RuntimeException.class, () -> service.activateHostRule(CONTAINER));
+	}
+
+	private void rules(Rule... rules) {
+		when(elbClient.describeRules(any(DescribeRulesRequest.class)))
+			.thenReturn(DescribeRulesResponse.builder().rules(rules).build());
+	}
+
+	private List<CreateRuleRequest> captureCreateRules() {
+		ArgumentCaptor<CreateRuleRequest> captor = ArgumentCaptor.forClass(CreateRuleRequest.class);
+		verify(elbClient, atLeastOnce()).createRule(captor.capture());
+		return captor.getAllValues();
+	}
+
+	private static Rule rule(String ruleArn, String priority, String targetGroupArn) {
+		return Rule.builder()
+			.ruleArn(ruleArn)
+			.priority(priority)
+			.isDefault(false)
+			.actions(Action.builder().type(ActionTypeEnum.FORWARD).targetGroupArn(targetGroupArn).build())
+			.build();
+	}
+
+	private static Rule weightedRule(String ruleArn, String priority) {
+		return Rule.builder()
+			.ruleArn(ruleArn)
+			.priority(priority)
+			.isDefault(false)
+			.actions(Action.builder()
+				.type(ActionTypeEnum.FORWARD)
+				.forwardConfig(ForwardActionConfig.builder()
+					.targetGroups(
+						TargetGroupTuple.builder().targetGroupArn(SHARED).weight(1).build(),
+						TargetGroupTuple.builder().targetGroupArn(CONTAINER).weight(0).build())
+					.build())
+				.build())
+			.build();
+	}
+
+	private static Rule defaultRule() {
+		return Rule.builder()
+			.ruleArn("arn:rule/default")
+			.priority("default")
+			.isDefault(true)
+			.actions(Action.builder().type(ActionTypeEnum.FORWARD).targetGroupArn(CONTAINER).build())
+			.build();
+	}
+}
@@ -0,0 +1,170 @@
+package dev.somdip.containerplatform.service.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterCoordinatorTest {
+
+	private static final long LEASE_TTL_MILLIS = 30_000;
+
+	private final MutableClock clock = new MutableClock();
+	private final InMemoryLeaseStore leaseStore = new InMemoryLeaseStore(clock);
+
+	@Test
+	void singleNodeLeadsAndOwnsEverything() {
+		ClusterCoordinator node = coordinator();
+		node.heartbeat();
+
+		assertTrue(node.isLeader());
+		assertEquals(Set.of(node.getNodeId()), node.getLiveNodes());
+		assertTrue(node.owns("container-1"));
+		assertTrue(node.owns("container-2"));
+	}
+
+	@Test
+	void onlyOneNodeLeads() {
+		ClusterCoordinator first = coordinator();
+		ClusterCoordinator second = coordinator();
+		first.heartbeat();
+		second.heartbeat();
+		first.heartbeat();
+
+		assertTrue(first.isLeader());
+		assertFalse(second.isLeader());
+		assertEquals(Set.of(first.getNodeId(), second.getNodeId()), first.getLiveNodes());
+		assertEquals(first.getLiveNodes(), second.getLiveNodes());
+	}
+
+	@Test
+	void leadershipPassesOnGracefulShutdown() {
+		ClusterCoordinator first = coordinator();
+		ClusterCoordinator second = coordinator();
+		first.heartbeat();
+		second.heartbeat();
+
+		first.shutdown();
+		assertFalse(first.isLeader());
+		second.heartbeat();
+
+		assertTrue(second.isLeader());
+		assertEquals(Set.of(second.getNodeId()), second.getLiveNodes());
+	}
+
+	@Test
+	void leadershipPassesWhenTheLeaderStopsHeartbeating() {
+		ClusterCoordinator first = coordinator();
+		ClusterCoordinator second = coordinator();
+		first.heartbeat();
+		second.heartbeat();
+		assertFalse(second.isLeader());
+
+		// The leader's lease and membership expire without renewals
+		clock.advance(LEASE_TTL_MILLIS + 1);
+		second.heartbeat();
+		assertTrue(second.isLeader());
+		assertEquals(Set.of(second.getNodeId()), second.getLiveNodes());
+
+		// The old leader comes back and finds the lease taken
+		first.heartbeat();
+		assertFalse(first.isLeader());
+	}
+
+	@Test
+	void keysAreSplitAcrossNodes() {
+		ClusterCoordinator first = coordinator();
+		ClusterCoordinator second = coordinator();
+		first.heartbeat();
+		second.heartbeat();
+		first.heartbeat();
+
+		int ownedByFirst = 0;
+		for (int i = 0; i < 1000; i++) {
+			String key = "container-" + i;
+			assertNotEquals(first.owns(key), second.owns(key));
+			if (first.owns(key)) {
+				ownedByFirst++;
+			}
+		}
+		assertTrue(ownedByFirst > 300 && ownedByFirst < 700, "uneven split: " + ownedByFirst);
+	}
+
+	@Test
+	void listenersHearAboutChangesWithoutHoldingUpTheHeartbeat() throws Exception {
+		ClusterCoordinator first = coordinator();
+		ClusterCoordinator second = coordinator();
+		CountDownLatch notified = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger changes = new AtomicInteger();
+		first.onMembershipChange(() -> {
+			changes.incrementAndGet();
+			notified.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		first.heartbeat();
+		second.heartbeat();
+
+		// The listener blocks, yet heartbeats keep going and see the new member
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+			first.heartbeat();
+			first.heartbeat();
+		});
+		assertEquals(Set.of(first.getNodeId(), second.getNodeId()), first.getLiveNodes());
+		assertTrue(notified.await(2, TimeUnit.SECONDS));
+		release.countDown();
+
+		// No further change, no further notification
+		first.heartbeat();
+		assertEquals(1, changes.get());
+	}
+
+	private ClusterCoordinator coordinator() {
+		return new ClusterCoordinator(leaseStore, LEASE_TTL_MILLIS, 10_000, 64);
+	}
+
+	private static final class MutableClock extends Clock {
+		private long millis = 1_700_000_000_000L;
+
+		void advance(long deltaMillis) {
+			millis += deltaMillis;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
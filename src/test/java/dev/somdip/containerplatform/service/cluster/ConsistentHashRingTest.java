@@ -0,0 +1,60 @@
+package dev.somdip.containerplatform.service.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+	private static final int KEYS = 10_000;
+
+	@Test
+	void emptyRingOwnsNothing() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of(), 64);
+		assertTrue(ring.isEmpty());
+		assertNull(ring.nodeFor("container-1"));
+	}
+
+	@Test
+	void placementDoesNotDependOnNodeOrder() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+		ConsistentHashRing reordered = new ConsistentHashRing(List.of("c", "a", "b"), 64);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(ring.nodeFor("container-" + i), reordered.nodeFor("container-" + i));
+		}
+		assertEquals(Set.of("a", "b", "c"), ring.getNodes());
+	}
+
+	@Test
+	void spreadsKeysEvenly() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c", "d"), 64);
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(ring.nodeFor("container-" + i), 1, Integer::sum);
+		}
+		for (int count : counts.values()) {
+			// A quarter each, within a wide margin
+			assertTrue(count > KEYS / 8 && count < KEYS / 2, "uneven spread: " + counts);
+		}
+	}
+
+	@Test
+	void removingANodeOnlyMovesItsKeys() {
+		ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c", "d"), 64);
+		ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+		for (int i = 0; i < KEYS; i++) {
+			String key = "container-" + i;
+			String owner = before.nodeFor(key);
+			if (!owner.equals("d")) {
+				assertEquals(owner, after.nodeFor(key));
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package dev.somdip.containerplatform.service.ecs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.ecs.model.Deployment;
+import software.amazon.awssdk.services.ecs.model.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EcsStateModelTest {
+
+	private static final String CLUSTER = "platform-cluster";
+	private static final String CLUSTER_ARN = "arn:aws:ecs:eu-west-1:123456789012:cluster/" + CLUSTER;
+	private static final String SERVICE = "svc-c1";
+	private static final long RECONCILE_SECONDS = 60;
+
+	private final InMemoryEcsEventSource eventSource = new InMemoryEcsEventSource();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final EcsStateModel model = new EcsStateModel(eventSource, meterRegistry, RECONCILE_SECONDS);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(model, "clusterName", CLUSTER);
+	}
+
+	@Test
+	void stateIsOnlyTrustedWhileEventsFlow() {
+		Instant now = Instant.now();
+		assertFalse(model.isTrusted(now));
+
+		model.start();
+		assertTrue(model.isEventStreamHealthy());
+		assertTrue(model.isTrusted(now));
+		assertFalse(model.isTrusted(null));
+		assertEquals(1.0, meterRegistry.get("ecs.events.healthy").gauge().value());
+
+		// Losing the event stream sends callers back to polling
+		model.stop();
+		assertFalse(model.isTrusted(now));
+		assertEquals(0.0, meterRegistry.get("ecs.events.healthy").gauge().value());
+	}
+
+	@Test
+	void staleReadsAreNotTrusted() {
+		model.start();
+		assertFalse(model.isTrusted(Instant.now().minusSeconds(RECONCILE_SECONDS + 1)));
+		assertTrue(model.isTrusted(Instant.now().minusSeconds(RECONCILE_SECONDS - 10)));
+	}
+
+	@Test
+	void describeResultsSeedTheServiceState() {
+		model.applyService(Service.builder()
+			.serviceName(SERVICE)
+			.serviceArn("arn:aws:ecs:eu-west-1:123456789012:service/" + CLUSTER + "/" + SERVICE)
+			.status("ACTIVE")
+			.desiredCount(2).runningCount(2).pendingCount(0)
+			.deployments(List.of(Deployment.builder().status("PRIMARY").rolloutState("COMPLETED").build()))
+			.build());
+
+		EcsServiceState state = model.getService("arn:aws:ecs:eu-west-1:123456789012:service/" + CLUSTER + "/" + SERVICE);
+		assertTrue(state.isActive());
+		assertTrue(state.isSteady());
+		assertEquals("COMPLETED", state.getDeploymentState());
+		assertEquals(1.0, meterRegistry.get("ecs.state.services").gauge().value());
+
+		model.start();
+		assertTrue(model.isTrusted(state.getRefreshedAt()));
+	}
+
+	@Test
+	void taskEventsTrackTheTaskSet() {
+		model.start();
+		Instant t0 = Instant.parse("2024-05-01T10:00:00Z");
+		eventSource.publish(taskEvent("task-1", "RUNNING", t0));
+		eventSource.publish(taskEvent("task-2", "PENDING", t0));
+
+		EcsServiceState state = model.getService(SERVICE);
+		assertEquals(List.of("task-1"), state.getRunningTasks().stream().map(EcsTaskState::getTaskArn).toList());
+		assertEquals(2, state.getTasks().size());
+
+		eventSource.publish(taskEvent("task-1", "STOPPED", t0.plusSeconds(10)));
+		assertNull(model.getTask("task-1"));
+		assertEquals(1, state.getTasks().size());
+	}
+
+	@Test
+	void olderTaskEventsDoNotOverwriteNewerState() {
+		model.start();
+		Instant t0 = Instant.parse("2024-05-01T10:00:00Z");
+		eventSource.publish(taskEvent("task-1", "RUNNING", t0.plusSeconds(10)));
+		eventSource.publish(taskEvent("task-1", "PENDING", t0));
+
+		assertEquals("RUNNING", model.getTask("task-1").getLastStatus());
+	}
+
+	@Test
+	void serviceEventsUpdateStateAndWakeWaiters() throws Exception {
+		model.start();
+		CompletableFuture<EcsServiceState> next = model.nextServiceEvent(SERVICE);
+
+		eventSource.publish(serviceEvent("SERVICE_DEPLOYMENT_IN_PROGRESS", CLUSTER_ARN));
+		assertTrue(next.isDone());
+		assertSame(model.getService(SERVICE), next.get());
+		assertFalse(next.get().isSteady());
+		assertEquals("IN_PROGRESS", next.get().getDeploymentState());
+
+		eventSource.publish(serviceEvent("SERVICE_STEADY_STATE", CLUSTER_ARN));
+		assertTrue(model.getService(SERVICE).isSteady());
+	}
+
+	@Test
+	void awaitFallsThroughWhenNoEventArrives() {
+		model.start();
+		assertTimeoutPreemptively(Duration.ofSeconds(2),
+			() -> model.awaitServiceEvent(SERVICE, Duration.ofMillis(50)));
+	}
+
+	@Test
+	void eventsFromOtherClustersAreIgnored() {
+		model.start();
+		eventSource.publish(serviceEvent("SERVICE_STEADY_STATE", "arn:aws:ecs:eu-west-1:123456789012:cluster/other"));
+		assertNull(model.getService(SERVICE));
+	}
+
+	private static EcsStateEvent taskEvent(String taskArn, String lastStatus, Instant time) {
+		return EcsStateEvent.builder()
+			.type(EcsStateEvent.Type.TASK)
+			.clusterArn(CLUSTER_ARN)
+			.serviceName(SERVICE)
+			.taskArn(taskArn)
+			.lastStatus(lastStatus)
+			.desiredStatus("RUNNING")
+			.time(time)
+			.build();
+	}
+
+	private static EcsStateEvent serviceEvent(String eventName, String clusterArn) {
+		return EcsStateEvent.builder()
+			.type(EcsStateEvent.Type.SERVICE_ACTION)
+			.clusterArn(clusterArn)
+			.serviceName(SERVICE)
+			.eventName(eventName)
+			.time(Instant.now())
+			.build();
+	}
+}
@@ -0,0 +1,97 @@
+package dev.somdip.containerplatform.service.health;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+	// Eight 10ms buckets: one revolution is 80ms
+	private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8, Runnable::run);
+
+	@AfterEach
+	void tearDown() {
+		wheel.stop();
+	}
+
+	@Test
+	void rejectsWheelSizesThatAreNotPowersOfTwo() {
+		assertThrows(IllegalArgumentException.class,
+			() -> new HashedTimingWheel("bad", 10, TimeUnit.MILLISECONDS, 6, Runnable::run));
+	}
+
+	@Test
+	void firesNoEarlierThanTheDelay() throws Exception {
+		CountDownLatch fired = new CountDownLatch(1);
+		long start = System.nanoTime();
+		HashedTimingWheel.Timeout timeout = wheel.newTimeout(fired::countDown, 50, TimeUnit.MILLISECONDS);
+		assertEquals(1, wheel.pendingTimeouts());
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertTrue(timeout.isExpired());
+		assertEquals(0, wheel.pendingTimeouts());
+	}
+
+	@Test
+	void delaysLongerThanOneRevolutionWaitForTheirRound() throws Exception {
+		CountDownLatch fired = new CountDownLatch(1);
+		long start = System.nanoTime();
+		wheel.newTimeout(fired::countDown, 250, TimeUnit.MILLISECONDS);
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+	}
+
+	@Test
+	void firesInDeadlineOrder() throws Exception {
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(3);
+		wheel.newTimeout(() -> { order.add("late"); done.countDown(); }, 150, TimeUnit.MILLISECONDS);
+		wheel.newTimeout(() -> { order.add("early"); done.countDown(); }, 20, TimeUnit.MILLISECONDS);
+		wheel.newTimeout(() -> { order.add("middle"); done.countDown(); }, 90, TimeUnit.MILLISECONDS);
+
+		assertTrue(done.await(2, TimeUnit.SECONDS));
+		assertEquals(List.of("early", "middle", "late"), order);
+	}
+
+	@Test
+	void cancelledTimeoutsNeverFire() throws Exception {
+		CountDownLatch cancelledFired = new CountDownLatch(1);
+		CountDownLatch later = new CountDownLatch(1);
+		HashedTimingWheel.Timeout timeout = wheel.newTimeout(cancelledFired::countDown, 30, TimeUnit.MILLISECONDS);
+		wheel.newTimeout(later::countDown, 100, TimeUnit.MILLISECONDS);
+
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+		assertTrue(timeout.isCancelled());
+		assertEquals(1, wheel.pendingTimeouts());
+
+		assertTrue(later.await(2, TimeUnit.SECONDS));
+		assertEquals(1, cancelledFired.getCount());
+		assertFalse(timeout.isExpired());
+	}
+
+	@Test
+	void expiredTimeoutsCannotBeCancelled() throws Exception {
+		CountDownLatch fired = new CountDownLatch(1);
+		HashedTimingWheel.Timeout timeout = wheel.newTimeout(fired::countDown, 0, TimeUnit.MILLISECONDS);
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		assertFalse(timeout.cancel());
+	}
+
+	@Test
+	void stoppedWheelRejectsNewTimeouts() {
+		wheel.stop();
+		assertThrows(IllegalStateException.class, () -> wheel.newTimeout(() -> { }, 10, TimeUnit.MILLISECONDS));
+	}
+}
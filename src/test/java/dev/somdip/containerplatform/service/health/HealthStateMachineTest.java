@@ -0,0 +1,77 @@
+package dev.somdip.containerplatform.service.health;
+
+import dev.somdip.containerplatform.model.Container.HealthState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.somdip.containerplatform.model.Container.HealthState.DEGRADED;
+import static dev.somdip.containerplatform.model.Container.HealthState.HEALTHY;
+import static dev.somdip.containerplatform.model.Container.HealthState.STARTING;
+import static dev.somdip.containerplatform.model.Container.HealthState.UNHEALTHY;
+import static dev.somdip.containerplatform.model.Container.HealthState.UNKNOWN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HealthStateMachineTest {
+
+	private static final int HEALTHY_THRESHOLD = 2;
+	private static final int UNHEALTHY_THRESHOLD = 3;
+
+	@Test
+	void startingContainerBecomesHealthyAfterEnoughPasses() {
+		assertEquals(List.of(STARTING, HEALTHY), probe(UNKNOWN, true, true));
+		assertEquals(STARTING, HealthStateMachine.next(null, 1, 0, HEALTHY_THRESHOLD, UNHEALTHY_THRESHOLD));
+	}
+
+	@Test
+	void startingContainerBecomesUnhealthyAfterEnoughFailures() {
+		assertEquals(List.of(STARTING, STARTING, UNHEALTHY), probe(UNKNOWN, false, false, false));
+	}
+
+	@Test
+	void singleFailureOnlyDegrades() {
+		assertEquals(List.of(DEGRADED, DEGRADED, HEALTHY), probe(HEALTHY, false, true, true));
+	}
+
+	@Test
+	void sustainedFailuresMakeAHealthyContainerUnhealthy() {
+		assertEquals(List.of(DEGRADED, DEGRADED, UNHEALTHY), probe(HEALTHY, false, false, false));
+	}
+
+	@Test
+	void unhealthyContainerNeedsEnoughPassesToRecover() {
+		assertEquals(List.of(UNHEALTHY, UNHEALTHY, UNHEALTHY, HEALTHY), probe(UNHEALTHY, true, false, true, true));
+		assertEquals(List.of(UNHEALTHY, HEALTHY), probe(UNHEALTHY, true, true));
+	}
+
+	@Test
+	void flappingEndpointNeverReachesUnhealthy() {
+		List<HealthState> states = probe(HEALTHY, false, true, false, true, false, true, false, true);
+		assertEquals(List.of(DEGRADED), states.stream().distinct().toList());
+	}
+
+	@Test
+	void thresholdsBelowOneActLikeOne() {
+		assertEquals(HEALTHY, HealthStateMachine.next(STARTING, 1, 0, 0, 0));
+		assertEquals(UNHEALTHY, HealthStateMachine.next(STARTING, 0, 1, 0, 0));
+	}
+
+	/**
+	 * Feed a sequence of probe results through the state machine, keeping the consecutive
+	 * counts the way the scheduler does, and return the state after each probe
+	 */
+	private static List<HealthState> probe(HealthState initial, boolean... results) {
+		List<HealthState> states = new ArrayList<>();
+		HealthState state = initial;
+		int successes = 0;
+		int failures = 0;
+		for (boolean passed : results) {
+			successes = passed ? successes + 1 : 0;
+			failures = passed ? 0 : failures + 1;
+			state = HealthStateMachine.next(state, successes, failures, HEALTHY_THRESHOLD, UNHEALTHY_THRESHOLD);
+			states.add(state);
+		}
+		return states;
+	}
+}
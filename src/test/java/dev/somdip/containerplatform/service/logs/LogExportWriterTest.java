@@ -0,0 +1,140 @@
+package dev.somdip.containerplatform.service.logs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudwatchlogs.model.FilteredLogEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogExportWriterTest {
+
+	private static final long T0 = 1714557600000L; // 2024-05-01T10:00:00Z
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@Test
+	void textLinesMatchTheLogViewer() throws IOException {
+		try (LogExportWriter writer = writer(LogExportWriter.Format.TEXT, false, null)) {
+			writer.writePage(List.of(event(0, "INFO Started"), event(1500, "ERROR Connection refused")));
+			assertEquals(2, writer.getWritten());
+		}
+
+		assertEquals("[2024-05-01T10:00:00Z] INFO Started\n"
+			+ "[2024-05-01T10:00:01.500Z] ERROR Connection refused\n", text(out.toByteArray()));
+	}
+
+	@Test
+	void ndjsonWritesOneObjectPerLine() throws IOException {
+		try (LogExportWriter writer = writer(LogExportWriter.Format.NDJSON, false, null)) {
+			writer.writePage(List.of(event(0, "INFO \"quoted\"")));
+			writer.writePage(List.of(event(1000, "WARN second page")));
+		}
+
+		String[] lines = text(out.toByteArray()).split("\n", -1);
+		assertEquals(3, lines.length);
+		assertEquals("", lines[2]);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertEquals("2024-05-01T10:00:00Z", first.get("timestamp").asText());
+		assertEquals("app/web/task-1", first.get("stream").asText());
+		assertEquals("INFO \"quoted\"", first.get("message").asText());
+		assertEquals("WARN second page", objectMapper.readTree(lines[1]).get("message").asText());
+	}
+
+	@Test
+	void filteredLinesAreSkipped() throws IOException {
+		try (LogExportWriter writer = writer(LogExportWriter.Format.TEXT, false, LogFilter.compile("error"))) {
+			writer.writePage(List.of(event(0, "INFO Started"), event(1000, "ERROR Connection refused"), event(2000, "INFO Ready")));
+			assertEquals(1, writer.getWritten());
+		}
+
+		assertEquals("[2024-05-01T10:00:01Z] ERROR Connection refused\n", text(out.toByteArray()));
+	}
+
+	@Test
+	void filterSeesTheTimestampedLine() throws IOException {
+		LogFilter since = LogFilter.compile(Map.of("since", "2024-05-01T10:00:01Z"));
+		try (LogExportWriter writer = writer(LogExportWriter.Format.NDJSON, false, since)) {
+			writer.writePage(List.of(event(0, "INFO early"), event(2000, "INFO late")));
+			assertEquals(1, writer.getWritten());
+		}
+
+		assertEquals("INFO late", objectMapper.readTree(text(out.toByteArray()).trim()).get("message").asText());
+	}
+
+	@Test
+	void pagesAreFlushedThroughGzipAndCloseWritesTheTrailer() throws IOException {
+		LogExportWriter writer = writer(LogExportWriter.Format.TEXT, true, null);
+		writer.writePage(List.of(event(0, "INFO Started")));
+
+		// Each page is sync-flushed, so it can be inflated before the export ends
+		byte[] flushed = out.toByteArray();
+		assertTrue(flushed.length > 0);
+		assertThrows(EOFException.class, () -> gunzip(flushed));
+
+		writer.writePage(List.of(event(1000, "INFO Ready")));
+		writer.close();
+
+		byte[] complete = out.toByteArray();
+		assertEquals("[2024-05-01T10:00:00Z] INFO Started\n[2024-05-01T10:00:01Z] INFO Ready\n", gunzip(complete));
+		assertTrue(Arrays.equals(Arrays.copyOf(complete, flushed.length), flushed));
+	}
+
+	@Test
+	void closeLeavesTheUnderlyingStreamOpen() throws IOException {
+		boolean[] closed = new boolean[1];
+		ByteArrayOutputStream target = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		new LogExportWriter(target, LogExportWriter.Format.NDJSON, true, null, objectMapper).close();
+
+		assertFalse(closed[0]);
+		assertEquals("", gunzip(target.toByteArray()));
+	}
+
+	@Test
+	void formatParsing() {
+		assertEquals(LogExportWriter.Format.NDJSON, LogExportWriter.Format.parse("JSON"));
+		assertEquals(LogExportWriter.Format.TEXT, LogExportWriter.Format.parse("txt"));
+		assertThrows(IllegalArgumentException.class, () -> LogExportWriter.Format.parse("csv"));
+	}
+
+	private LogExportWriter writer(LogExportWriter.Format format, boolean compress, LogFilter filter) throws IOException {
+		return new LogExportWriter(out, format, compress, filter, objectMapper);
+	}
+
+	private static FilteredLogEvent event(long offsetMillis, String message) {
+		return FilteredLogEvent.builder()
+			.timestamp(T0 + offsetMillis)
+			.logStreamName("app/web/task-1")
+			.message(message)
+			.build();
+	}
+
+	private static String text(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static String gunzip(byte[] bytes) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return text(in.readAllBytes());
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package dev.somdip.containerplatform.service.logs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogFilterTest {
+
+	private static final String INFO_LINE = "[2024-05-01T10:00:00Z] INFO Started server on port 8080";
+	private static final String ERROR_LINE = "[2024-05-01T10:05:00Z] ERROR Connection refused";
+
+	@Test
+	void emptySpecsMeanNoFilter() {
+		assertNull(LogFilter.compile(null));
+		assertNull(LogFilter.compile("  "));
+		assertNull(LogFilter.compile(Map.of("text", "")));
+	}
+
+	@Test
+	void plainStringIsCaseInsensitiveSubstring() {
+		LogFilter filter = LogFilter.compile("started");
+		assertTrue(filter.matches(INFO_LINE));
+		assertFalse(filter.matches(ERROR_LINE));
+		assertNull(filter.toFilterPattern());
+	}
+
+	@Test
+	void caseSensitiveTextIsPushedDown() {
+		LogFilter filter = LogFilter.compile(spec("text", "Started", "caseSensitive", true));
+		assertTrue(filter.matches(INFO_LINE));
+		assertFalse(filter.matches(INFO_LINE.replace("Started", "started")));
+		assertEquals("\"Started\"", filter.toFilterPattern());
+	}
+
+	@Test
+	void levelKeepsLinesAtOrAboveIt() {
+		LogFilter filter = LogFilter.compile(spec("level", "warning"));
+		assertFalse(filter.matches(INFO_LINE));
+		assertTrue(filter.matches(ERROR_LINE));
+		assertEquals("?WARN ?ERROR ?FATAL", filter.toFilterPattern());
+		assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(spec("level", "loud")));
+	}
+
+	@Test
+	void timeWindowIsHalfOpen() {
+		LogFilter filter = LogFilter.compile(spec("since", "2024-05-01T10:00:00Z",
+			"until", Instant.parse("2024-05-01T10:05:00Z").toEpochMilli()));
+		assertTrue(filter.matches(INFO_LINE));
+		assertFalse(filter.matches(ERROR_LINE));
+		assertFalse(filter.matches("no timestamp"));
+		assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(spec("since", "yesterday")));
+	}
+
+	@Test
+	void regexIsSearchedAnywhereInTheLine() {
+		LogFilter filter = LogFilter.compile(spec("regex", "port \\d+$"));
+		assertTrue(filter.matches(INFO_LINE));
+		assertFalse(filter.matches(ERROR_LINE));
+		assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(spec("regex", "(unclosed")));
+	}
+
+	@Test
+	void rejectsOverlongRegex() {
+		String regex = "a".repeat(LogFilter.MAX_REGEX_LENGTH + 1);
+		assertThrows(IllegalArgumentException.class, () -> LogFilter.compile(spec("regex", regex)));
+		assertTrue(LogFilter.compile(spec("regex", regex.substring(1))).matches(regex));
+	}
+
+	@Test
+	void catastrophicBacktrackingCountsAsNoMatch() {
+		LogFilter filter = LogFilter.compile(spec("regex", "^(a+)+$"));
+		String line = "a".repeat(40) + "!";
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> assertFalse(filter.matches(line)));
+		assertTrue(filter.matches("aaaa"));
+	}
+
+	@Test
+	void levelOfTakesTheMostSevereMention() {
+		assertEquals("ERROR", LogFilter.levelOf("INFO retrying after FATAL"));
+		assertEquals("WARN", LogFilter.levelOf("WARN disk"));
+		assertNull(LogFilter.levelOf("nothing here"));
+	}
+
+	private static Map<String, Object> spec(Object... keysAndValues) {
+		Map<String, Object> spec = new HashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			spec.put((String) keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return spec;
+	}
+}
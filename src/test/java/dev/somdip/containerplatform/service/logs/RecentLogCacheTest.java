@@ -0,0 +1,157 @@
+package dev.somdip.containerplatform.service.logs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentLogCacheTest {
+
+	private static final int RING_BYTES = 256;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void shortFirstBatchMeansTheWholeStreamIsCached() {
+		RecentLogCache cache = cache(4);
+		cache.open("c1", 10);
+		cache.append("c1", List.of("a", "b", "c"));
+
+		assertEquals(Optional.of(List.of("a", "b", "c")), cache.latest("c1", 100));
+		assertEquals(Optional.of(List.of("b", "c")), cache.latest("c1", 2));
+	}
+
+	@Test
+	void fullFirstBatchOnlyServesWhatItHolds() {
+		RecentLogCache cache = cache(4);
+		cache.open("c1", 2);
+		assertEquals(Optional.empty(), cache.latest("c1", 1));
+
+		cache.append("c1", List.of("a", "b"));
+		cache.append("c1", List.of("c"));
+
+		assertEquals(Optional.of(List.of("a", "b", "c")), cache.latest("c1", 3));
+		// Older lines may exist in CloudWatch
+		assertEquals(Optional.empty(), cache.latest("c1", 4));
+	}
+
+	@Test
+	void wrapsAroundKeepingTheNewestLines() {
+		RecentLogCache cache = cache(1);
+		cache.open("c1", 10);
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			lines.add("line-" + i);
+		}
+		cache.append("c1", lines.subList(0, 5));
+		cache.append("c1", lines.subList(5, 100));
+
+		assertEquals(Optional.of(lines.subList(95, 100)), cache.latest("c1", 5));
+		// Overwritten lines make the ring incomplete again
+		assertEquals(Optional.empty(), cache.latest("c1", 50));
+		List<String> everything = cache.search("c1", null, 100).orElseThrow();
+		assertTrue(everything.size() < 100);
+		assertEquals(lines.subList(100 - everything.size(), 100), everything);
+	}
+
+	@Test
+	void oversizedLinesAreTruncatedOnACharacterBoundary() {
+		RecentLogCache cache = cache(1);
+		cache.open("c1", 10);
+		cache.append("c1", List.of("x" + "é".repeat(RING_BYTES)));
+
+		String cached = cache.latest("c1", 1).orElseThrow().get(0);
+		assertTrue(cached.startsWith("xé"));
+		assertFalse(cached.contains("\uFFFD"));
+	}
+
+	@Test
+	void evictsTheLeastRecentlyReadContainer() {
+		RecentLogCache cache = cache(2);
+		cache.open("c1", 10);
+		cache.append("c1", List.of("one"));
+		cache.open("c2", 10);
+		cache.append("c2", List.of("two"));
+		cache.latest("c1", 1);
+
+		cache.open("c3", 10);
+		cache.append("c3", List.of("three"));
+
+		assertEquals(Optional.empty(), cache.latest("c2", 1));
+		assertEquals(Optional.of(List.of("one")), cache.latest("c1", 1));
+		assertEquals(Optional.of(List.of("three")), cache.latest("c3", 1));
+		assertEquals(2.0, meterRegistry.get("logs.cache.containers").gauge().value());
+		assertEquals(2.0 * RING_BYTES, meterRegistry.get("logs.cache.bytes").gauge().value());
+
+		// Lines for an evicted container are dropped
+		cache.append("c2", List.of("lost"));
+		assertEquals(Optional.empty(), cache.search("c2", null, 10));
+	}
+
+	@Test
+	void closedRingsFreeTheirBufferForReuse() {
+		RecentLogCache cache = cache(2);
+		cache.open("c1", 10);
+		cache.open("c2", 10);
+		cache.append("c2", List.of("two"));
+		cache.close("c1");
+
+		cache.open("c3", 10);
+		cache.append("c3", List.of("three"));
+
+		assertEquals(Optional.of(List.of("two")), cache.latest("c2", 1));
+		assertEquals(Optional.of(List.of("three")), cache.latest("c3", 1));
+		assertEquals(2.0 * RING_BYTES, meterRegistry.get("logs.cache.bytes").gauge().value());
+	}
+
+	@Test
+	void searchAppliesTheFilterWithinTheCachedWindow() {
+		RecentLogCache cache = cache(1);
+		cache.open("c1", 10);
+		cache.append("c1", List.of(
+			"[2024-05-01T10:00:00Z] INFO started",
+			"[2024-05-01T10:01:00Z] ERROR first failure",
+			"[2024-05-01T10:02:00Z] WARN slow",
+			"[2024-05-01T10:03:00Z] ERROR second failure"));
+
+		assertEquals(List.of("[2024-05-01T10:01:00Z] ERROR first failure", "[2024-05-01T10:03:00Z] ERROR second failure"),
+			cache.search("c1", LogFilter.compile(Map.of("level", "error")), 10).orElseThrow());
+		assertEquals(List.of("[2024-05-01T10:03:00Z] ERROR second failure"),
+			cache.search("c1", LogFilter.compile(Map.of("level", "error")), 1).orElseThrow());
+		assertEquals(List.of("[2024-05-01T10:01:00Z] ERROR first failure", "[2024-05-01T10:02:00Z] WARN slow"),
+			cache.search("c1", LogFilter.compile(Map.of("since", "2024-05-01T10:01:00Z", "until", "2024-05-01T10:03:00Z")), 10)
+				.orElseThrow());
+	}
+
+	@Test
+	void countsHitsAndMisses() {
+		RecentLogCache cache = cache(1);
+		cache.open("c1", 10);
+		cache.append("c1", List.of("a"));
+		cache.latest("c1", 1);
+		cache.latest("c2", 1);
+		cache.search("c2", null, 1);
+
+		assertEquals(1.0, meterRegistry.get("logs.cache.requests").tag("result", "hit").counter().count());
+		assertEquals(2.0, meterRegistry.get("logs.cache.requests").tag("result", "miss").counter().count());
+	}
+
+	@Test
+	void ringsTooSmallForARecordDisableTheCache() {
+		RecentLogCache cache = new RecentLogCache(meterRegistry, 1 << 20, 8);
+		cache.open("c1", 10);
+		cache.append("c1", List.of("a"));
+		assertEquals(Optional.empty(), cache.latest("c1", 1));
+	}
+
+	private RecentLogCache cache(int rings) {
+		return new RecentLogCache(meterRegistry, (long) rings * RING_BYTES, RING_BYTES);
+	}
+}
@@ -0,0 +1,104 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import dev.somdip.containerplatform.service.cluster.ClusterCoordinator;
+import dev.somdip.containerplatform.service.cluster.InMemoryLeaseStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DurableMetricsHistoryTest {
+
+	private static final long MINUTE = 60_000L;
+	private static final long GRACE_MILLIS = 2 * DurableMetricsHistory.BLOCK_MILLIS;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger listings = new AtomicInteger();
+	private final InMemoryMetricsBlockStore blockStore = new InMemoryMetricsBlockStore() {
+		@Override
+		public List<String> list(String containerId, long fromMillis, long toMillis) {
+			listings.incrementAndGet();
+			return super.list(containerId, fromMillis, toMillis);
+		}
+	};
+	private final ClusterCoordinator clusterCoordinator = new ClusterCoordinator(new InMemoryLeaseStore(), 30_000, 10_000, 16);
+	private final long hourStart = Math.floorDiv(System.currentTimeMillis(), DurableMetricsHistory.BLOCK_MILLIS)
+		* DurableMetricsHistory.BLOCK_MILLIS;
+	private final long from = hourStart - 3 * MINUTE;
+
+	private DurableMetricsHistory history;
+
+	@BeforeEach
+	void setUp() {
+		clusterCoordinator.heartbeat();
+		history = history();
+	}
+
+	@Test
+	void metricsRecordedOneAfterAnotherAcrossAnHourBoundaryAreAllKept() {
+		// Each metric is fetched on its own, so the previous hour sees samples after the current one has started
+		recordMinutes(HistoryMetric.CPU_PERCENT, 1.0, 2.0, 3.0, 4.0, 5.0);
+		recordMinutes(HistoryMetric.MEMORY_PERCENT, 7.0, 8.0, 9.0, 10.0, 11.0);
+
+		assertEquals(0.0, meterRegistry.get("metrics.durable.samples.late").counter().count());
+		assertEquals(2.0, meterRegistry.get("metrics.durable.heads").gauge().value());
+		assertArrayEquals(new double[] {7.0, 8.0, 9.0, 10.0, 11.0},
+			history.resample("c1", HistoryMetric.MEMORY_PERCENT, from, MINUTE, 5));
+		assertArrayEquals(new double[] {1.0, 2.0, 3.0, 4.0, 5.0},
+			history.resample("c1", HistoryMetric.CPU_PERCENT, from, MINUTE, 5));
+	}
+
+	@Test
+	void headsStayOpenUntilTheGracePeriodEnds() {
+		recordMinutes(HistoryMetric.CPU_PERCENT, 1.0, 2.0, 3.0, 4.0, 5.0);
+
+		history.sealExpired();
+
+		assertEquals(2.0, meterRegistry.get("metrics.durable.heads").gauge().value());
+		assertEquals(List.of(), blockStore.list("c1", from, hourStart + DurableMetricsHistory.BLOCK_MILLIS));
+	}
+
+	@Test
+	void samplesForPeriodsPastTheGracePeriodAreDropped() {
+		history.record("c1", HistoryMetric.CPU_PERCENT, hourStart - GRACE_MILLIS - DurableMetricsHistory.BLOCK_MILLIS, 1.0);
+
+		assertEquals(1.0, meterRegistry.get("metrics.durable.samples.late").counter().count());
+		assertEquals(0.0, meterRegistry.get("metrics.durable.heads").gauge().value());
+	}
+
+	@Test
+	void sealedBlocksAreReadBackWithEveryMetricFromOneListing() {
+		recordMinutes(HistoryMetric.CPU_PERCENT, 1.0, 2.0, 3.0, 4.0, 5.0);
+		recordMinutes(HistoryMetric.MEMORY_PERCENT, 7.0, 8.0, 9.0, 10.0, 11.0);
+		history.shutdown();
+
+		DurableMetricsHistory reader = history();
+		listings.set(0);
+		Map<HistoryMetric, double[]> values = reader.resample("c1",
+			List.of(HistoryMetric.CPU_PERCENT, HistoryMetric.MEMORY_PERCENT, HistoryMetric.REQUESTS_PER_MINUTE),
+			from, MINUTE, 5);
+
+		assertEquals(1, listings.get());
+		assertArrayEquals(new double[] {1.0, 2.0, 3.0, 4.0, 5.0}, values.get(HistoryMetric.CPU_PERCENT));
+		assertArrayEquals(new double[] {7.0, 8.0, 9.0, 10.0, 11.0}, values.get(HistoryMetric.MEMORY_PERCENT));
+		assertEquals(5, Arrays.stream(values.get(HistoryMetric.REQUESTS_PER_MINUTE)).filter(Double::isNaN).count());
+	}
+
+	private void recordMinutes(HistoryMetric metric, double... values) {
+		for (int i = 0; i < values.length; i++) {
+			history.record("c1", metric, from + i * MINUTE, values[i]);
+		}
+	}
+
+	private DurableMetricsHistory history() {
+		return new DurableMetricsHistory(blockStore, clusterCoordinator, new MetricsHistoryStore(meterRegistry, 100),
+			meterRegistry, GRACE_MILLIS, 6, 16, 2);
+	}
+}
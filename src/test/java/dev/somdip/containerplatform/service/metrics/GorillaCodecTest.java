@@ -0,0 +1,99 @@
+package dev.somdip.containerplatform.service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GorillaCodecTest {
+
+	private static final long BLOCK_START = 1_700_000_000L;
+
+	@Test
+	void roundTripsIrregularSeries() {
+		Random random = new Random(42);
+		long[] timestamps = new long[500];
+		double[] values = new double[500];
+		long timestamp = BLOCK_START;
+		for (int i = 0; i < timestamps.length; i++) {
+			// Mix of regular steps, jitter, and the occasional large gap
+			timestamp += switch (i % 7) {
+				case 0 -> 60;
+				case 1 -> 59 + random.nextInt(3);
+				case 2 -> 1;
+				case 3 -> 3000 + random.nextInt(100_000);
+				default -> 60;
+			};
+			timestamps[i] = timestamp;
+			values[i] = switch (i % 5) {
+				case 0 -> values[Math.max(0, i - 1)];
+				case 1 -> random.nextDouble() * 100;
+				case 2 -> -random.nextGaussian() * 1e9;
+				case 3 -> i % 2 == 0 ? Double.NaN : 0.0;
+				default -> Double.MIN_VALUE;
+			};
+		}
+
+		GorillaEncoder encoder = new GorillaEncoder(BLOCK_START);
+		for (int i = 0; i < timestamps.length; i++) {
+			encoder.append(timestamps[i], values[i]);
+		}
+
+		GorillaDecoder decoder = new GorillaDecoder(BLOCK_START, encoder.toByteArray());
+		assertEquals(timestamps.length, decoder.getCount());
+		for (int i = 0; i < timestamps.length; i++) {
+			assertTrue(decoder.next());
+			assertEquals(timestamps[i], decoder.getTimestamp());
+			assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decoder.getValue()));
+		}
+		assertFalse(decoder.next());
+	}
+
+	@Test
+	void compressesRegularQuantizedSeriesToAFewBytesPerPoint() {
+		GorillaEncoder encoder = new GorillaEncoder(BLOCK_START);
+		Random random = new Random(7);
+		double value = 35;
+		for (int i = 0; i < 60; i++) {
+			value = Math.max(0, Math.min(100, value + random.nextGaussian()));
+			encoder.append(BLOCK_START + i * 60L, Math.round(value * 64) / 64.0);
+		}
+
+		byte[] encoded = encoder.toByteArray();
+		assertTrue(encoded.length < 60 * 3, "encoded size " + encoded.length);
+
+		GorillaDecoder decoder = new GorillaDecoder(BLOCK_START, encoded);
+		int count = 0;
+		while (decoder.next()) {
+			assertEquals(BLOCK_START + count * 60L, decoder.getTimestamp());
+			count++;
+		}
+		assertEquals(60, count);
+	}
+
+	@Test
+	void snapshotOfPartialBlockIsReadable() {
+		GorillaEncoder encoder = new GorillaEncoder(BLOCK_START);
+		encoder.append(BLOCK_START + 5, 1.5);
+		byte[] snapshot = encoder.toByteArray();
+		encoder.append(BLOCK_START + 65, 2.5);
+
+		GorillaDecoder decoder = new GorillaDecoder(BLOCK_START, snapshot);
+		assertTrue(decoder.next());
+		assertEquals(BLOCK_START + 5, decoder.getTimestamp());
+		assertEquals(1.5, decoder.getValue());
+		assertFalse(decoder.next());
+	}
+
+	@Test
+	void rejectsOutOfOrderTimestamps() {
+		GorillaEncoder encoder = new GorillaEncoder(BLOCK_START);
+		encoder.append(BLOCK_START + 60, 1.0);
+		assertThrows(IllegalArgumentException.class, () -> encoder.append(BLOCK_START + 60, 2.0));
+		assertThrows(IllegalArgumentException.class, () -> new GorillaEncoder(BLOCK_START).append(BLOCK_START - 1, 1.0));
+	}
+}
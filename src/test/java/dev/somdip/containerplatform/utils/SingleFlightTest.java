@@ -0,0 +1,122 @@
+package dev.somdip.containerplatform.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 60_000, meterRegistry);
+
+	@Test
+	void concurrentRequestsShareOneCall() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		CompletableFuture<String> pending = new CompletableFuture<>();
+
+		CompletableFuture<String> first = singleFlight.get("k", k -> { calls.incrementAndGet(); return pending; });
+		CompletableFuture<String> second = singleFlight.get("k", k -> { calls.incrementAndGet(); return pending; });
+		assertFalse(second.isDone());
+
+		// Each caller gets its own copy, so one giving up does not cancel the shared call
+		first.cancel(true);
+		pending.complete("v");
+
+		assertEquals("v", second.get());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void completedResultsAreServedWhileFresh() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals("v1", singleFlight.get("k", k -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).get());
+		assertEquals("v1", singleFlight.get("k", k -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).get());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void staleResultsAreLoadedAgain() throws Exception {
+		SingleFlight<String, String> shortLived = new SingleFlight<>("short", 20, meterRegistry);
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals("v1", shortLived.get("k", k -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).get());
+		Thread.sleep(50);
+		assertEquals("v2", shortLived.get("k", k -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).get());
+	}
+
+	@Test
+	void failuresAreNotKept() throws Exception {
+		CompletableFuture<String> failed = singleFlight.get("k",
+			k -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+		ExecutionException error = assertThrows(ExecutionException.class, failed::get);
+		assertTrue(error.getCause() instanceof IllegalStateException);
+
+		// A loader that throws instead of returning a failed future is treated the same way
+		assertThrows(ExecutionException.class, () -> singleFlight.get("k", k -> { throw new IllegalStateException(); }).get());
+
+		assertEquals("v", singleFlight.get("k", k -> CompletableFuture.completedFuture("v")).get());
+	}
+
+	@Test
+	void batchLoadsOnlyTheKeysWithoutAResult() throws Exception {
+		singleFlight.get("a", k -> CompletableFuture.completedFuture("A")).get();
+		List<Collection<String>> batches = new ArrayList<>();
+
+		Map<String, String> results = singleFlight.getAll(List.of("a", "b", "c", "b"), keys -> {
+			batches.add(List.copyOf(keys));
+			return Map.of("b", "B");
+		});
+
+		assertEquals(List.of(List.of("b", "c")), batches);
+		assertEquals(Map.of("a", "A", "b", "B"), results);
+
+		// The key the loader left out is not remembered as missing
+		results = singleFlight.getAll(List.of("b", "c"), keys -> {
+			batches.add(List.copyOf(keys));
+			Map<String, String> loaded = new HashMap<>();
+			keys.forEach(k -> loaded.put(k, k.toUpperCase()));
+			return loaded;
+		});
+		assertEquals(List.of("c"), batches.get(1));
+		assertEquals(Map.of("b", "B", "c", "C"), results);
+	}
+
+	@Test
+	void batchLoaderFailureLeavesKeysOut() {
+		Map<String, String> results = singleFlight.getAll(List.of("a"), keys -> { throw new IllegalStateException(); });
+		assertTrue(results.isEmpty());
+		assertEquals(Map.of("a", "A"), singleFlight.getAll(List.of("a"), keys -> Map.of("a", "A")));
+	}
+
+	@Test
+	void countsEachOutcome() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		singleFlight.get("k", k -> pending);
+		singleFlight.get("k", k -> pending);
+		pending.complete("v");
+		singleFlight.get("k", k -> pending);
+		singleFlight.get("k", k -> pending);
+
+		assertEquals(1.0, count("loaded"));
+		assertEquals(1.0, count("joined"));
+		assertEquals(2.0, count("fresh"));
+		assertEquals(0.75, meterRegistry.get("singleflight.dedupe.ratio").tag("name", "test").gauge().value());
+		assertEquals(1.0, meterRegistry.get("singleflight.entries").tag("name", "test").gauge().value());
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.get("singleflight.requests").tag("name", "test").tag("outcome", outcome).counter().count();
+	}
+}
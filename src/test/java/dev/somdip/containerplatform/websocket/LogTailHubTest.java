@@ -0,0 +1,142 @@
+package dev.somdip.containerplatform.websocket;
+
+import dev.somdip.containerplatform.service.logs.InMemoryLogSource;
+import dev.somdip.containerplatform.service.logs.RecentLogCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogTailHubTest {
+
+	private static final String CONTAINER = "c1";
+
+	private final InMemoryLogSource source = new InMemoryLogSource();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LogTailHub hub = new LogTailHub(source, new RecentLogCache(meterRegistry, 1 << 20, 64 * 1024),
+		meterRegistry, 3);
+
+	@Test
+	void multicastsNewLinesToEveryViewer() {
+		Recorder first = new Recorder();
+		Recorder second = new Recorder();
+		hub.subscribe(CONTAINER, first);
+		hub.subscribe(CONTAINER, second);
+
+		source.append(CONTAINER, "a", "b");
+
+		for (Recorder viewer : List.of(first, second)) {
+			assertEquals(List.of("snapshot:[]", "append:[a, b]"), viewer.deliveries);
+		}
+		assertEquals(1.0, meterRegistry.get("websocket.logs.tailers").gauge().value());
+	}
+
+	@Test
+	void lateJoinerGetsTheBufferedLinesAsSnapshot() {
+		source.append(CONTAINER, "old");
+		Recorder first = new Recorder();
+		hub.subscribe(CONTAINER, first);
+		source.append(CONTAINER, "a", "b", "c");
+
+		Recorder late = new Recorder();
+		hub.subscribe(CONTAINER, late);
+		source.append(CONTAINER, "d");
+
+		assertEquals(List.of("snapshot:[old]", "append:[a, b, c]", "append:[d]"), first.deliveries);
+		// The buffer keeps the last three lines
+		assertEquals(List.of("snapshot:[a, b, c]", "append:[d]"), late.deliveries);
+	}
+
+	@Test
+	void replayResendsTheBufferAsSnapshot() {
+		Recorder viewer = new Recorder();
+		LogTailHub.Subscription subscription = hub.subscribe(CONTAINER, viewer);
+		source.append(CONTAINER, "a");
+
+		subscription.replay();
+
+		assertEquals(List.of("snapshot:[]", "append:[a]", "snapshot:[a]"), viewer.deliveries);
+	}
+
+	@Test
+	void replayedLinesKeepTheAppendsThatFollowThem() {
+		Recorder viewer = new Recorder();
+		LogTailHub.Subscription subscription = hub.subscribe(CONTAINER, viewer);
+		source.append(CONTAINER, "a", "b", "c");
+
+		// Read elsewhere up to "b"; "c" arrived meanwhile and must not be lost
+		subscription.replay(List.of("older", "b"));
+		subscription.replay(List.of("unrelated"));
+
+		assertEquals(List.of("snapshot:[]", "append:[a, b, c]", "snapshot:[older, b, c]", "snapshot:[unrelated]"),
+			viewer.deliveries);
+	}
+
+	@Test
+	void stopsTheTailWhenTheLastViewerLeaves() {
+		Recorder first = new Recorder();
+		Recorder second = new Recorder();
+		LogTailHub.Subscription firstSubscription = hub.subscribe(CONTAINER, first);
+		LogTailHub.Subscription secondSubscription = hub.subscribe(CONTAINER, second);
+
+		firstSubscription.close();
+		source.append(CONTAINER, "a");
+		assertEquals(List.of("snapshot:[]"), first.deliveries);
+		assertEquals(List.of("snapshot:[]", "append:[a]"), second.deliveries);
+
+		secondSubscription.close();
+		assertEquals(0.0, meterRegistry.get("websocket.logs.tailers").gauge().value());
+		source.append(CONTAINER, "b");
+		assertEquals(List.of("snapshot:[]", "append:[a]"), second.deliveries);
+
+		// A new viewer starts a fresh tail from the source
+		Recorder next = new Recorder();
+		hub.subscribe(CONTAINER, next);
+		assertEquals(List.of("snapshot:[a, b]"), next.deliveries);
+	}
+
+	@Test
+	void slowViewerDoesNotBlockSubscribes() throws Exception {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Recorder slow = new Recorder() {
+			@Override
+			public void onLines(String containerId, List<String> lines, boolean snapshot) throws Exception {
+				super.onLines(containerId, lines, snapshot);
+				if (!snapshot) {
+					blocked.countDown();
+					release.await(5, TimeUnit.SECONDS);
+				}
+			}
+		};
+		hub.subscribe(CONTAINER, slow);
+		Thread appender = new Thread(() -> source.append(CONTAINER, "a"));
+		appender.start();
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+		// The appending thread is stuck in the slow viewer's delivery, outside every hub lock
+		Recorder late = new Recorder();
+		LogTailHub.Subscription subscription = hub.subscribe(CONTAINER, late);
+		assertEquals(List.of("snapshot:[a]"), late.deliveries);
+		subscription.close();
+
+		release.countDown();
+		appender.join(5000);
+		assertEquals(List.of("snapshot:[]", "append:[a]"), slow.deliveries);
+	}
+
+	private static class Recorder implements LogTailHub.Listener {
+		final List<String> deliveries = new ArrayList<>();
+
+		@Override
+		public synchronized void onLines(String containerId, List<String> lines, boolean snapshot) throws Exception {
+			deliveries.add((snapshot ? "snapshot:" : "append:") + lines);
+		}
+	}
+}
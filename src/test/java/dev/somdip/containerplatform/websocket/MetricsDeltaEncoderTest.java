@@ -0,0 +1,117 @@
+package dev.somdip.containerplatform.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsDeltaEncoderTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void sendsFullSnapshotThenOnlyChangedFields() throws Exception {
+		MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, false);
+
+		JsonNode full = single(encoder.encode("container", "t", metrics(10.004, 512, 1L)));
+		assertEquals("full", full.get("mode").asText());
+		assertEquals(1, full.get("seq").asLong());
+		assertEquals(10.0, full.get("data").get("c1").get("cpuUsage").asDouble());
+
+		JsonNode delta = single(encoder.encode("container", "t", metrics(12.5, 512, 2L)));
+		assertEquals("delta", delta.get("mode").asText());
+		assertEquals(2, delta.get("seq").asLong());
+		assertEquals(1, delta.get("changed").size());
+		assertEquals(12.5, delta.get("changed").get("c1.cpuUsage").asDouble());
+		assertEquals(0, delta.get("removed").size());
+	}
+
+	@Test
+	void skipsUpdatesWhereOnlyTimestampsOrRoundingChanged() throws Exception {
+		MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, false);
+		encoder.encode("container", "t", metrics(10.0, 512, 1L));
+
+		assertTrue(encoder.encode("container", "t", metrics(10.001, 512, 99L)).isEmpty());
+	}
+
+	@Test
+	void reportsRemovedFields() throws Exception {
+		MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, false);
+		encoder.encode("container", "t", metrics(10.0, 512, 1L));
+
+		Map<String, Object> shrunk = new LinkedHashMap<>();
+		shrunk.put("c1", Map.of("cpuUsage", 10.0, "timestamp", 2L));
+		JsonNode delta = single(encoder.encode("container", "t", shrunk));
+		assertEquals(0, delta.get("changed").size());
+		assertEquals("c1.memoryUsage", delta.get("removed").get(0).asText());
+	}
+
+	@Test
+	void resyncSendsFullSnapshotWithNextSequence() throws Exception {
+		MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, false);
+		encoder.encode("container", "t", metrics(10.0, 512, 1L));
+		encoder.resync();
+
+		JsonNode full = single(encoder.encode("container", "t", metrics(10.0, 512, 2L)));
+		assertEquals("full", full.get("mode").asText());
+		assertEquals(2, full.get("seq").asLong());
+	}
+
+	@Test
+	void binaryFramesAnnounceNewFieldsFirst() throws Exception {
+		MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, true);
+
+		List<WebSocketMessage<?>> first = encoder.encode("container", "t", metrics(10.0, 512, 1L));
+		assertEquals(2, first.size());
+		JsonNode fields = objectMapper.readTree(((TextMessage) first.get(0)).getPayload());
+		assertEquals("metrics_fields", fields.get("type").asText());
+		assertTrue(fields.get("fields").size() >= 3);
+		byte[] frame = ((BinaryMessage) first.get(1)).getPayload().array();
+		assertEquals(1, frame[0]);
+		assertEquals(0, frame[1]);
+		assertEquals(1, frame[2]);
+
+		// Known fields are not announced again
+		List<WebSocketMessage<?>> second = encoder.encode("container", "t", metrics(11.0, 512, 2L));
+		assertEquals(1, second.size());
+		byte[] delta = assertInstanceOf(BinaryMessage.class, second.get(0)).getPayload().array();
+		assertEquals(1, delta[1]);
+		assertEquals(2, delta[2]);
+	}
+
+	@Test
+	void topicsKeepSeparateBaselines() throws Exception {
+		MetricsDeltaEncoder encoder = new MetricsDeltaEncoder(objectMapper, false);
+		encoder.encode("container", "a", metrics(10.0, 512, 1L));
+
+		JsonNode other = single(encoder.encode("container", "b", metrics(10.0, 512, 1L)));
+		assertEquals("full", other.get("mode").asText());
+		assertFalse(other.has("changed"));
+	}
+
+	private JsonNode single(List<WebSocketMessage<?>> messages) throws Exception {
+		assertEquals(1, messages.size());
+		return objectMapper.readTree(((TextMessage) messages.get(0)).getPayload());
+	}
+
+	private static Map<String, Object> metrics(double cpu, long memory, long timestamp) {
+		Map<String, Object> entry = new LinkedHashMap<>();
+		entry.put("cpuUsage", cpu);
+		entry.put("memoryUsage", memory);
+		entry.put("timestamp", timestamp);
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("c1", entry);
+		return metrics;
+	}
+}